@@ -38,6 +38,7 @@ public final class DppConversionConstants {
     public static final String DYNAMIC_PARAM_TTML_TO_STL = "ttml-to-stl";
     public static final String DYNAMIC_PARAM_METADATA_XML = "metadataXml";
     public static final String DYNAMIC_PARAM_SAME_FPS = "sameFps";
+    public static final String DYNAMIC_PARAM_VIDEO_CHUNKS = "videoChunks";
 
     // 1.3 dynamic parameters default values:
     public static final String DYNAMIC_PARAM_VALUE_OUTPUT_MXF = "output";
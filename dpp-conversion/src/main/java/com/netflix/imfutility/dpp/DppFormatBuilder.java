@@ -20,6 +20,7 @@ package com.netflix.imfutility.dpp;
 
 import com.netflix.imfutility.AbstractFormatBuilder;
 import com.netflix.imfutility.ConversionException;
+import com.netflix.imfutility.CoreConstants;
 import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
 import com.netflix.imfutility.conversion.templateParameter.ContextInfoBuilder;
 import com.netflix.imfutility.conversion.templateParameter.context.DynamicTemplateParameterContext;
@@ -58,6 +59,7 @@ import static com.netflix.imfutility.dpp.DppConversionConstants.DYNAMIC_PARAM_SA
 import static com.netflix.imfutility.dpp.DppConversionConstants.DYNAMIC_PARAM_TTML_TO_STL;
 import static com.netflix.imfutility.dpp.DppConversionConstants.DYNAMIC_PARAM_UK_DPP_FILE;
 import static com.netflix.imfutility.dpp.DppConversionConstants.DYNAMIC_PARAM_VALUE_OUTPUT_MXF;
+import static com.netflix.imfutility.dpp.DppConversionConstants.DYNAMIC_PARAM_VIDEO_CHUNKS;
 
 /**
  * DPP format builder (see {@link AbstractFormatBuilder}). It's used for conversion to DPP format ('convert' DPP mode).
@@ -204,8 +206,22 @@ public class DppFormatBuilder extends AbstractFormatBuilder {
         BigFraction destFrameRate = ConversionHelper.parseEditRate(contextProvider.getDestContext().getParameterValue(
                 DestContextParameters.FRAME_RATE));
 
+        boolean sameFps = seqFrameRate.equals(destFrameRate);
         DynamicTemplateParameterContext dynamicContext = contextProvider.getDynamicContext();
-        dynamicContext.addParameter(DYNAMIC_PARAM_SAME_FPS, Boolean.toString(seqFrameRate.equals(destFrameRate)));
+        dynamicContext.addParameter(DYNAMIC_PARAM_SAME_FPS, Boolean.toString(sameFps));
+
+        // frame rate conversion can not be split into parts, as each part would be converted with its own drift
+        dynamicContext.addParameter(DYNAMIC_PARAM_VIDEO_CHUNKS, String.valueOf(sameFps ? getVideoChunks() : 1));
+    }
+
+    private int getVideoChunks() {
+        if (configProvider == null) {
+            return CoreConstants.DEFAULT_VIDEO_CHUNKS;
+        }
+        if (configProvider.getConfig().getVideoChunks() == null) {
+            return CoreConstants.DEFAULT_VIDEO_CHUNKS;
+        }
+        return configProvider.getConfig().getVideoChunks();
     }
 
     private SequenceUUID getVideoSequenceUUID() {
@@ -0,0 +1,204 @@
+/**
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.dpp.conversion;
+
+import com.netflix.imfutility.ImfUtilityTest;
+import com.netflix.imfutility.config.ConfigXmlProvider;
+import com.netflix.imfutility.conversion.ConversionEngine;
+import com.netflix.imfutility.conversion.ConversionXmlProvider;
+import com.netflix.imfutility.conversion.executor.ConversionJournal;
+import com.netflix.imfutility.conversion.executor.ExternalProcess;
+import com.netflix.imfutility.conversion.executor.strategy.AbstractExecuteStrategy;
+import com.netflix.imfutility.conversion.templateParameter.context.DynamicTemplateParameterContext;
+import com.netflix.imfutility.conversion.templateParameter.context.ResourceKey;
+import com.netflix.imfutility.conversion.templateParameter.context.ResourceTimeline;
+import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
+import com.netflix.imfutility.conversion.templateParameter.context.parameters.DynamicContextParameters;
+import com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters;
+import com.netflix.imfutility.conversion.templateParameter.context.parameters.SequenceContextParameters;
+import com.netflix.imfutility.dpp.DppConversionConstants;
+import com.netflix.imfutility.dpp.DppFormat;
+import com.netflix.imfutility.generated.conversion.SequenceType;
+import com.netflix.imfutility.util.TemplateParameterContextCreator;
+import com.netflix.imfutility.util.conversion.executor.FakeProcessStarter;
+import com.netflix.imfutility.util.conversion.executor.TestExecuteStrategyFactory;
+import com.netflix.imfutility.util.conversion.executor.TestExecutorLogger;
+import com.netflix.imfutility.resources.ResourceHelper;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.math3.fraction.BigFraction;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.List;
+
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.addResourceContextParameter;
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.addSequenceContextParameter;
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getResourceUuid;
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getSegmentUuid;
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getSequenceUuid;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that a DPP conversion resumed after it's completed doesn't execute any operation.
+ * The fake tools create all files they reference (see {@link OutputCreatingProcessStarter}).
+ */
+public class DppConversionResumeTest extends ImfUtilityTest {
+
+    private static final String CONFIG_XML = "xml/test-dpp-config.xml";
+    private static final int SEGMENT_COUNT = 2;
+
+    @Test
+    public void testResumedConversionExecutesNothing() throws Exception {
+        File workingDir = TemplateParameterContextCreator.getWorkingDir();
+        for (int segm = 0; segm < SEGMENT_COUNT; segm++) {
+            FileUtils.writeStringToFile(getEssence(segm, SequenceType.VIDEO), "video", StandardCharsets.UTF_8);
+            FileUtils.writeStringToFile(getEssence(segm, SequenceType.AUDIO), "audio", StandardCharsets.UTF_8);
+        }
+
+        TestExecutorLogger firstRun = convert(ConversionJournal.open(workingDir, false));
+        assertTrue(getStartedProcessCount(firstRun) > 0);
+        assertTrue(new File(workingDir, "output.mxf").isFile());
+
+        TestExecutorLogger resumedRun = convert(ConversionJournal.open(workingDir, true));
+        assertEquals(0, getStartedProcessCount(resumedRun));
+    }
+
+    private static int getStartedProcessCount(TestExecutorLogger executorLogger) {
+        // operations skipped by if/unless conditions are logged too
+        int count = 0;
+        while (executorLogger.hasNext()) {
+            if (executorLogger.getNext().startsWith("START:")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static TestExecutorLogger convert(ConversionJournal journal) throws Exception {
+        TemplateParameterContextProvider contextProvider = createContextProvider();
+        contextProvider.setConversionJournal(journal);
+        AbstractExecuteStrategy.resetCount();
+
+        TestExecutorLogger executorLogger = new TestExecutorLogger();
+        new ConversionEngine() {
+            @Override
+            public TestExecuteStrategyFactory getExecuteStrategyFactory() {
+                return new TestExecuteStrategyFactory(executorLogger) {
+                    @Override
+                    protected FakeProcessStarter getProcessStarter() {
+                        return new OutputCreatingProcessStarter(executorLogger);
+                    }
+                };
+            }
+        }.convert(contextProvider.getConversionProvider().getFormatConfigurationType("main"), contextProvider);
+        return executorLogger;
+    }
+
+    private static TemplateParameterContextProvider createContextProvider() throws Exception {
+        ConfigXmlProvider configProvider = new ConfigXmlProvider(ResourceHelper.getResourceInputStream(CONFIG_XML), CONFIG_XML);
+        ConversionXmlProvider conversionProvider = new ConversionXmlProvider(
+                ResourceHelper.getResourceInputStream(DppConversionConstants.CONVERSION_XML),
+                DppConversionConstants.CONVERSION_XML, new DppFormat());
+        TemplateParameterContextProvider contextProvider = new TemplateParameterContextProvider(
+                configProvider, conversionProvider, TemplateParameterContextCreator.getWorkingDir());
+        contextProvider.getDestContext().setDestContextMap(conversionProvider.getFormat().getDefaultDestContext());
+
+        TemplateParameterContextCreator.fillCPLContext(contextProvider, SEGMENT_COUNT, 1, 1, 1,
+                EnumSet.of(SequenceType.VIDEO, SequenceType.AUDIO));
+        addSequenceContextParameter(contextProvider, 0, SequenceType.VIDEO, SequenceContextParameters.FRAME_RATE, "25");
+        addSequenceContextParameter(contextProvider, 0, SequenceType.AUDIO, SequenceContextParameters.CHANNELS_NUM, "2");
+        for (int segm = 0; segm < SEGMENT_COUNT; segm++) {
+            for (SequenceType seqType : EnumSet.of(SequenceType.VIDEO, SequenceType.AUDIO)) {
+                addResourceContextParameter(contextProvider, segm, 0, seqType, 0, ResourceContextParameters.ESSENCE,
+                        getEssence(segm, seqType).getAbsolutePath());
+                contextProvider.getResourceContext().setResourceTimeline(
+                        ResourceKey.create(getSegmentUuid(segm), getSequenceUuid(0, seqType), seqType),
+                        getResourceUuid(segm, 0, seqType, 0, 0), new ResourceTimeline(new BigFraction(25), 0, 50));
+            }
+            addResourceContextParameter(contextProvider, segm, 0, SequenceType.AUDIO, 0,
+                    ResourceContextParameters.BITS_PER_SAMPLE, "24");
+            addResourceContextParameter(contextProvider, segm, 0, SequenceType.AUDIO, 0,
+                    ResourceContextParameters.SAMPLE_RATE, "48000");
+            addResourceContextParameter(contextProvider, segm, 0, SequenceType.AUDIO, 0,
+                    ResourceContextParameters.CHANNELS_NUM, "2");
+        }
+
+        DynamicTemplateParameterContext dynamicContext = contextProvider.getDynamicContext();
+        dynamicContext.addParameter(DynamicContextParameters.HAS_AUDIO, "true");
+        dynamicContext.addParameter(DynamicContextParameters.HAS_AUDIO_AND_VIDEO, "true");
+        dynamicContext.addParameter(DynamicContextParameters.HAS_AUDIO_ONLY, "false");
+        dynamicContext.addParameter(DynamicContextParameters.HAS_VIDEO_ONLY, "false");
+        dynamicContext.addParameter(DynamicContextParameters.SINGLE_AUDIO, "true");
+        dynamicContext.addParameter(DppConversionConstants.DYNAMIC_PARAM_SAME_FPS, "true");
+        dynamicContext.addParameter(DppConversionConstants.DYNAMIC_PARAM_VIDEO_CHUNKS,
+                String.valueOf(configProvider.getConfig().getVideoChunks()));
+        dynamicContext.addParameter(DppConversionConstants.DYNAMIC_PARAM_PAN, "stereo|c0=c0|c1=c1");
+        dynamicContext.addParameter(DppConversionConstants.DYNAMIC_PARAM_EBU_AUDIO_TRACKS, "2");
+        dynamicContext.addParameter(DppConversionConstants.DYNAMIC_PARAM_OUTPUT_MXF, "output");
+        dynamicContext.addParameter(DppConversionConstants.DYNAMIC_PARAM_UK_DPP_FILE, "ukdpp.txt");
+        dynamicContext.addParameter(DppConversionConstants.DYNAMIC_PARAM_AS11_CORE_FILE, "as11core.txt");
+        dynamicContext.addParameter(DppConversionConstants.DYNAMIC_PARAM_AS11_SEGM_FILE, "as11segm.txt");
+        return contextProvider;
+    }
+
+    private static File getEssence(int segm, SequenceType seqType) {
+        return new File(TemplateParameterContextCreator.getWorkingDir(), String.format("essence-%s-%d.mxf", seqType.value(), segm));
+    }
+
+    /**
+     * Starts fake processes which create all missing files they reference, as real tools would create their outputs.
+     * <ul>
+     * <li>an argument is a file if it has an extension and no options separators ('=', ':');</li>
+     * <li>an argument after '-p' is a prefix of mxf2raw output files.</li>
+     * </ul>
+     */
+    private static final class OutputCreatingProcessStarter extends FakeProcessStarter {
+
+        private OutputCreatingProcessStarter(TestExecutorLogger executorLogger) {
+            super(executorLogger);
+        }
+
+        @Override
+        public Process startProcess(ExternalProcess.ExternalProcessInfo processInfo, List<String> execAndParams)
+                throws IOException {
+            for (int i = 1; i < execAndParams.size(); i++) {
+                String arg = execAndParams.get(i);
+                if ("-p".equals(execAndParams.get(i - 1))) {
+                    createOutput(processInfo.getWorkingDir(), arg + "_a0.raw");
+                } else if (arg.contains(".") && !arg.contains("=") && !arg.contains(":")) {
+                    createOutput(processInfo.getWorkingDir(), arg);
+                }
+            }
+            return super.startProcess(processInfo, execAndParams);
+        }
+
+        private static void createOutput(File workingDir, String path) throws IOException {
+            File file = new File(path).isAbsolute() ? new File(path) : new File(workingDir, path);
+            if (!file.exists()) {
+                FileUtils.writeStringToFile(file, path, StandardCharsets.UTF_8);
+            }
+        }
+
+    }
+
+}
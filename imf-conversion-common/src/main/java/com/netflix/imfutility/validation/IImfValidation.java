@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.validation;
+
+import com.netflix.imfutility.generated.validation.ErrorType;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * IMF validation performed within the current process.
+ * <ul>
+ * <li>An implementation is found via {@link java.util.ServiceLoader}, so that the IMF utility doesn't depend on
+ * a particular validation library at compile time.</li>
+ * <li>The result is the same as the one printed by the external validation tool to the errors XML.</li>
+ * </ul>
+ */
+public interface IImfValidation {
+
+    /**
+     * Validates the given IMP and CPL.
+     *
+     * @param impFolder    a full path to the IMP folder
+     * @param cpl          a full path to the CPL
+     * @param essenceFiles full paths to essences to be validated (all MXF files within the IMP if null or empty)
+     * @return all found errors
+     * @throws IOException if the IMP can not be read
+     */
+    List<ErrorType> validate(String impFolder, String cpl, List<String> essenceFiles) throws IOException;
+
+}
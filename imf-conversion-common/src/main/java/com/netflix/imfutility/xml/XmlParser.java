@@ -20,6 +20,7 @@ package com.netflix.imfutility.xml;
 
 import com.netflix.imfutility.resources.ResourceHelper;
 import com.netflix.imfutility.resources.ResourceResolver;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
@@ -45,7 +46,13 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 /**
@@ -53,10 +60,16 @@ import java.util.stream.Collectors;
  * <ul>
  * <li>Maps XML to a Java model</li>
  * <li>Performs XSD validation and throws {@link XmlParsingException} if the xml is not a valid XML according to XSD.</li>
+ * <li>JAXB contexts (per package) and compiled schemas (per set of XSDs) are created only once per process
+ * and shared by all threads. Unmarshallers are pooled per package.</li>
  * </ul>
  */
 public final class XmlParser {
 
+    private static final ConcurrentMap<String, JAXBContext> JAXB_CONTEXTS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<List<String>, Schema> SCHEMAS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Queue<Unmarshaller>> UNMARSHALLERS = new ConcurrentHashMap<>();
+
     /**
      * Gets the namespace of the root element.
      *
@@ -87,7 +100,27 @@ public final class XmlParser {
      * @throws XmlParsingException, FileNotFoundException if input is not a valid XML or it doesn't pass XSD validation
      */
     public static <T> T parse(File xml, String[] xsds, String pkg, Class<T> resultClass) throws XmlParsingException, FileNotFoundException {
-        return parse(new FileInputStream(xml), xml.getAbsolutePath(), xsds, pkg, resultClass);
+        return parse(new FileInputStream(xml), xml.getAbsolutePath(), xsds, pkg, resultClass, UnaryOperator.identity());
+    }
+
+    /**
+     * Parses the given XML to a Java model (JAXB unmarshalling).
+     * Performs XSD validation of the whole XML.
+     * The content is passed to JAXB unmarshaller via the given content filter, so that a part of the XML can be handled
+     * by the filter instead of being mapped to the Java model.
+     *
+     * @param xml           a full path to the input XML
+     * @param xsds          a full path to all XSDs corresponding to the given XML
+     * @param pkg           a package containing the corresponding Java model classes.
+     * @param resultClass   a corresponding Java model class.
+     * @param contentFilter creates a content handler passing the content to the given JAXB unmarshaller handler.
+     * @param <T>           a corresponding Java model class.
+     * @return a corresponding Java model instance.
+     * @throws XmlParsingException, FileNotFoundException if input is not a valid XML or it doesn't pass XSD validation
+     */
+    public static <T> T parse(File xml, String[] xsds, String pkg, Class<T> resultClass,
+                              UnaryOperator<ContentHandler> contentFilter) throws XmlParsingException, FileNotFoundException {
+        return parse(new FileInputStream(xml), xml.getAbsolutePath(), xsds, pkg, resultClass, contentFilter);
     }
 
     /**
@@ -104,20 +137,26 @@ public final class XmlParser {
      * @throws XmlParsingException if input is not a valid XML or it doesn't pass XSD validation
      */
     public static <T> T parse(InputStream xml, String xmlPath, String[] xsds, String pkg, Class<T> resultClass) throws XmlParsingException {
+        return parse(xml, xmlPath, xsds, pkg, resultClass, UnaryOperator.identity());
+    }
+
+    private static <T> T parse(InputStream xml, String xmlPath, String[] xsds, String pkg, Class<T> resultClass,
+                               UnaryOperator<ContentHandler> contentFilter) throws XmlParsingException {
         try {
-            // 1. create JAXB unmarshaller
-            JAXBContext jaxbContext = JAXBContext.newInstance(pkg);
-            Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+            // 1. get a JAXB unmarshaller (unmarshallers are not thread-safe, so each one is used by a single parsing at a time)
+            Unmarshaller unmarshaller = acquireUnmarshaller(pkg);
             UnmarshallerHandler unmarshallerHandler = unmarshaller.getUnmarshallerHandler();
 
             // 2. create a an error and content handler (which is also a bridge between a sax parser and unmarshaller)
-            XmlParsingHandler contentErrorHandler = new XmlParsingHandlerWrapper(unmarshallerHandler, xmlPath);
+            XmlParsingHandler contentErrorHandler = new XmlParsingHandlerWrapper(contentFilter.apply(unmarshallerHandler), xmlPath);
 
             // 3. do parse
             doParse(xml, xsds, contentErrorHandler);
 
             // 4. get unmarshall result
             Object result = JAXBIntrospector.getValue(unmarshallerHandler.getResult());
+            // return to the pool only after a successful parsing, so that a broken unmarshaller state is never reused
+            releaseUnmarshaller(pkg, unmarshaller);
             if (!resultClass.isInstance(result)) {
                 throw new RuntimeException(String.format("A root element in '%s' must be an instance of %s type.",
                         xmlPath, resultClass.getSimpleName()));
@@ -166,7 +205,57 @@ public final class XmlParser {
         }
     }
 
+    /**
+     * Gets a JAXB context for the given package. The context is created only once and cached.
+     *
+     * @param pkg a package containing Java model classes.
+     * @return a JAXB context
+     * @throws JAXBException if the context can not be created
+     */
+    public static JAXBContext getJaxbContext(String pkg) throws JAXBException {
+        JAXBContext jaxbContext = JAXB_CONTEXTS.get(pkg);
+        if (jaxbContext == null) {
+            // may be created twice by concurrent threads, but only one instance is cached
+            JAXBContext newContext = JAXBContext.newInstance(pkg);
+            jaxbContext = JAXB_CONTEXTS.putIfAbsent(pkg, newContext);
+            if (jaxbContext == null) {
+                jaxbContext = newContext;
+            }
+        }
+        return jaxbContext;
+    }
+
+    /**
+     * Gets a compiled schema for the given XSDs. The schema is compiled only once for each set of XSDs and cached
+     * (compiled schemas are immutable and thread-safe).
+     *
+     * @param xsds a full path to all XSDs
+     * @return a compiled schema
+     * @throws SAXException if the schema can not be compiled
+     */
     public static Schema getSchema(String[] xsds) throws SAXException {
+        List<String> key = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(xsds)));
+        Schema schema = SCHEMAS.get(key);
+        if (schema == null) {
+            Schema newSchema = createSchema(xsds);
+            schema = SCHEMAS.putIfAbsent(key, newSchema);
+            if (schema == null) {
+                schema = newSchema;
+            }
+        }
+        return schema;
+    }
+
+    private static Unmarshaller acquireUnmarshaller(String pkg) throws JAXBException {
+        Unmarshaller unmarshaller = UNMARSHALLERS.computeIfAbsent(pkg, p -> new ConcurrentLinkedQueue<>()).poll();
+        return unmarshaller != null ? unmarshaller : getJaxbContext(pkg).createUnmarshaller();
+    }
+
+    private static void releaseUnmarshaller(String pkg, Unmarshaller unmarshaller) {
+        UNMARSHALLERS.get(pkg).offer(unmarshaller);
+    }
+
+    private static Schema createSchema(String[] xsds) throws SAXException {
         List<StreamSource> xsdSchemas = new ArrayList<>();
         for (String xsd : xsds) {
             InputStream xsdSchema = ResourceHelper.getResourceInputStream(xsd);
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.xml;
+
+import com.netflix.imfutility.CommonConstants;
+import com.netflix.imfutility.generated.validation.Errors;
+import com.netflix.imfutility.generated.validation.LevelType;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that XML parsing reuses JAXB contexts and compiled schemas.
+ */
+public class XmlParserTest {
+
+    private static final String ERRORS_XML = "<errors xmlns=\"http://validation.imfutility.netflix.com\">"
+            + "<error level=\"warning\">warning</error>"
+            + "</errors>";
+
+    private static final String INVALID_ERRORS_XML = "<errors xmlns=\"http://validation.imfutility.netflix.com\">"
+            + "<error level=\"unknown\">warning</error>"
+            + "</errors>";
+
+    @Test
+    public void testJaxbContextCached() throws Exception {
+        assertSame(XmlParser.getJaxbContext(CommonConstants.ERRORS_PACKAGE),
+                XmlParser.getJaxbContext(CommonConstants.ERRORS_PACKAGE));
+    }
+
+    @Test
+    public void testSchemaCached() throws Exception {
+        assertSame(XmlParser.getSchema(new String[]{CommonConstants.ERRORS_XML_SCHEME}),
+                XmlParser.getSchema(new String[]{CommonConstants.ERRORS_XML_SCHEME}));
+    }
+
+    @Test
+    public void testParseSeveralTimes() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Errors errors = parse(ERRORS_XML);
+            assertEquals(1, errors.getError().size());
+            assertEquals(LevelType.WARNING, errors.getError().get(0).getLevel());
+        }
+    }
+
+    @Test
+    public void testParseAfterInvalidXml() throws Exception {
+        try {
+            parse(INVALID_ERRORS_XML);
+            fail();
+        } catch (XmlParsingException e) {
+            // expected
+        }
+        assertEquals(1, parse(ERRORS_XML).getError().size());
+    }
+
+    @Test
+    public void testParseConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Errors>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(executor.submit(() -> parse(ERRORS_XML)));
+            }
+            for (Future<Errors> future : futures) {
+                assertEquals(1, future.get().getError().size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Errors parse(String xml) throws XmlParsingException {
+        return XmlParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), "errors.xml",
+                new String[]{CommonConstants.ERRORS_XML_SCHEME}, CommonConstants.ERRORS_PACKAGE, Errors.class);
+    }
+
+}
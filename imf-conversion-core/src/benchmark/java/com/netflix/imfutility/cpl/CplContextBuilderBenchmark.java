@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.cpl;
+
+import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
+import com.netflix.imfutility.conversion.templateParameter.context.CompositionTimeline;
+import com.netflix.imfutility.conversion.templateParameter.context.ResourceKey;
+import com.netflix.imfutility.conversion.templateParameter.context.ResourceTemplateParameterContext;
+import com.netflix.imfutility.conversion.templateParameter.context.ResourceTimeline;
+import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
+import com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters;
+import com.netflix.imfutility.cpl.essencedescriptor.EssenceDescriptors;
+import com.netflix.imfutility.cpl.uuid.ResourceUUID;
+import com.netflix.imfutility.cpl.uuid.SegmentUUID;
+import com.netflix.imfutility.cpl.uuid.SequenceUUID;
+import com.netflix.imfutility.generated.conversion.SequenceType;
+import com.netflix.imfutility.util.ImfLogger;
+import com.netflix.imfutility.util.TemplateParameterContextCreator;
+import org.apache.commons.math3.fraction.BigFraction;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.List;
+
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getSegmentUuid;
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getSequenceUuid;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures the per-resource cost of CPL post-processing (timeline, frame edit units, essence descriptors,
+ * default languages and offsets) for a CPL with 5000 resources.
+ * <p>
+ * It's not a unit test: it's run by the benchmark task only ('gradle :imf-conversion-core:benchmark')
+ * and just logs the timings.
+ * </p>
+ */
+public class CplContextBuilderBenchmark {
+
+    private static final Logger LOGGER = new ImfLogger(LoggerFactory.getLogger(CplContextBuilderBenchmark.class));
+
+    private static final int SEGMENTS = 10;
+    private static final int RESOURCES_PER_SEQUENCE = 250;
+    private static final int TOTAL_RESOURCES = SEGMENTS * RESOURCES_PER_SEQUENCE * 2;
+    private static final int WARM_UP_RUNS = 3;
+    private static final int RUNS = 5;
+
+    @Test
+    public void testPostProcessing5000Resources() throws Exception {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            buildContext(TemplateParameterContextCreator.createDefaultContextProvider());
+        }
+
+        long total = 0;
+        TemplateParameterContextProvider contextProvider = null;
+        for (int i = 0; i < RUNS; i++) {
+            contextProvider = TemplateParameterContextCreator.createDefaultContextProvider();
+            total += buildContext(contextProvider);
+        }
+        long nanosPerResource = total / RUNS / TOTAL_RESOURCES;
+        LOGGER.info("CPL post-processing of {} resources: {} ns per resource", TOTAL_RESOURCES, nanosPerResource);
+
+        CompositionTimeline compositionTimeline = contextProvider.getCompositionTimeline();
+        assertEquals(TOTAL_RESOURCES, compositionTimeline.getResources().size());
+        assertEquals(2, compositionTimeline.getSequences().size());
+
+        // the last video resource: offset is the sum of durations of all previous resources (2 seconds each)
+        List<CompositionTimeline.Resource> video = compositionTimeline.getSequences().get(0).getResources();
+        ContextInfo lastVideo = video.get(video.size() - 1).getContextInfo();
+        ResourceTemplateParameterContext resourceContext = contextProvider.getResourceContext();
+        assertEquals(String.valueOf((video.size() - 1) * 2000L),
+                resourceContext.getParameterValue(ResourceContextParameters.OFFSET_MS, lastVideo));
+
+        // audio resources from the same essence as video: start and duration in video frames
+        ContextInfo firstAudio = compositionTimeline.getSequences().get(1).getResources().get(0).getContextInfo();
+        assertEquals("50", resourceContext.getParameterValue(ResourceContextParameters.DURATION_FRAME_EDIT_UNIT, firstAudio));
+        assertEquals("96000", resourceContext.getParameterValue(ResourceContextParameters.DURATION_EDIT_UNIT, firstAudio));
+    }
+
+    private static long buildContext(TemplateParameterContextProvider contextProvider) {
+        SyntheticCplContextBuilderStrategy strategy = new SyntheticCplContextBuilderStrategy(contextProvider);
+        long start = System.nanoTime();
+        strategy.build();
+        strategy.buildPostDest();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Fills the contexts as if a CPL with a video and an audio sequence was parsed.
+     * Each resource is 2 seconds long, audio resources come from the same essences as video ones.
+     */
+    private static class SyntheticCplContextBuilderStrategy extends AbstractCplContextBuilderStrategy {
+
+        SyntheticCplContextBuilderStrategy(TemplateParameterContextProvider contextProvider) {
+            super(contextProvider, null);
+        }
+
+        @Override
+        public void parse(File cplFile) {
+            // the contexts are filled directly in buildFromCpl
+        }
+
+        @Override
+        protected void buildFromCpl() {
+            SequenceUUID videoSeq = getSequenceUuid(0, SequenceType.VIDEO);
+            SequenceUUID audioSeq = getSequenceUuid(0, SequenceType.AUDIO);
+            contextProvider.getSequenceContext().initSequence(SequenceType.VIDEO, videoSeq);
+            contextProvider.getSequenceContext().initSequence(SequenceType.AUDIO, audioSeq);
+
+            for (int segm = 0; segm < SEGMENTS; segm++) {
+                SegmentUUID segmUuid = getSegmentUuid(segm);
+                contextProvider.getSegmentContext().initSegment(segmUuid);
+                for (int res = 0; res < RESOURCES_PER_SEQUENCE; res++) {
+                    String essence = String.format("essence-%d-%d.mxf", segm, res);
+                    addResource(ResourceKey.create(segmUuid, videoSeq, SequenceType.VIDEO),
+                            ResourceUUID.create(String.format("video-%d-%d", segm, res), 0),
+                            essence, new ResourceTimeline(new BigFraction(25), 0, 50));
+                    addResource(ResourceKey.create(segmUuid, audioSeq, SequenceType.AUDIO),
+                            ResourceUUID.create(String.format("audio-%d-%d", segm, res), 0),
+                            essence, new ResourceTimeline(new BigFraction(48000), 0, 96000));
+                }
+            }
+        }
+
+        private void addResource(ResourceKey resourceKey, ResourceUUID resourceUuid, String essence, ResourceTimeline timeline) {
+            ResourceTemplateParameterContext resourceContext = contextProvider.getResourceContext();
+            resourceContext.initResource(resourceKey, resourceUuid);
+            resourceContext.addResourceParameter(resourceKey, resourceUuid, ResourceContextParameters.ESSENCE, essence);
+            resourceContext.addResourceParameter(resourceKey, resourceUuid, ResourceContextParameters.ESSENCE_DESC_ID, essence);
+            resourceContext.setResourceTimeline(resourceKey, resourceUuid, timeline);
+        }
+
+        @Override
+        protected EssenceDescriptors getEssenceDescriptors() {
+            return new EssenceDescriptors();
+        }
+
+        @Override
+        protected String getCompositionTimecodeStart() {
+            return null;
+        }
+
+        @Override
+        protected BigFraction getCompositionTimecodeRate() {
+            return null;
+        }
+
+        @Override
+        protected String getDefaultCplLanguage() {
+            return "en";
+        }
+
+    }
+
+}
@@ -25,6 +25,8 @@ import com.netflix.imfutility.conversion.ConversionEngine;
 import com.netflix.imfutility.conversion.ConversionNotAllowedException;
 import com.netflix.imfutility.conversion.ConversionXmlProvider;
 import com.netflix.imfutility.conversion.SilentConversionChecker;
+import com.netflix.imfutility.conversion.executor.ConversionJournal;
+import com.netflix.imfutility.conversion.executor.OperationCache;
 import com.netflix.imfutility.conversion.templateParameter.context.CustomParameterValue;
 import com.netflix.imfutility.conversion.templateParameter.context.DestTemplateParameterContext;
 import com.netflix.imfutility.conversion.templateParameter.context.DynamicTemplateParameterContext;
@@ -33,6 +35,7 @@ import com.netflix.imfutility.conversion.templateParameter.context.TemplateParam
 import com.netflix.imfutility.conversion.templateParameter.context.parameters.DynamicContextParameters;
 import com.netflix.imfutility.cpl.CplContextBuilder;
 import com.netflix.imfutility.exception.ConversionHelperException;
+import com.netflix.imfutility.generated.config.OperationCacheType;
 import com.netflix.imfutility.generated.conversion.FormatConfigurationType;
 import com.netflix.imfutility.generated.conversion.SequenceType;
 import com.netflix.imfutility.inputparameters.ImfUtilityInputParameters;
@@ -41,6 +44,7 @@ import com.netflix.imfutility.mediainfo.MediaInfoContextBuilder;
 import com.netflix.imfutility.mediainfo.MediaInfoException;
 import com.netflix.imfutility.util.ImfLogger;
 import com.netflix.imfutility.validate.ImfValidator;
+import com.netflix.imfutility.validation.IImfValidation;
 import com.netflix.imfutility.xml.XmlParsingException;
 import com.netflix.imfutility.xsd.conversion.DestContextTypeMap;
 import com.netflix.imfutility.xsd.conversion.DestContextsTypeMap;
@@ -298,7 +302,9 @@ public abstract class AbstractFormatBuilder {
 
     private void cleanWorkingDir() throws IOException {
         logger.debug("Cleaning working directory...");
-        if (isCleanWorkingDir()) {
+        if (inputParameters.isResume()) {
+            logger.info("Cleaning working directory is SKIPPED to resume the previous conversion\n");
+        } else if (isCleanWorkingDir()) {
             FileUtils.cleanDirectory(inputParameters.getWorkingDirFile());
             logger.info("Cleaned working directory: OK\n");
         } else {
@@ -357,7 +363,12 @@ public abstract class AbstractFormatBuilder {
         if (isValidateImpAndCpl()) {
             contextProvider.getDynamicContext().addParameter(
                     DynamicContextParameters.REFERENCED_ESSENCES, assetMap.getReferencedAssets());
-            boolean noFatalErrors = new ImfValidator(contextProvider, new ConversionEngine().getExecuteStrategyFactory()).validate();
+            // a custom validation tool can only be executed as an external process
+            IImfValidation inProcessValidation = inputParameters.hasCustomImfValidationTool()
+                    ? null
+                    : ImfValidator.loadInProcessValidation();
+            boolean noFatalErrors = new ImfValidator(contextProvider, new ConversionEngine().getExecuteStrategyFactory(),
+                    inProcessValidation, assetMap.getReferencedAssetPaths()).validate();
             if (noFatalErrors) {
                 logger.info("Validated input IMP and CPL: OK\n");
             } else {
@@ -469,12 +480,24 @@ public abstract class AbstractFormatBuilder {
 
     private void doConvert() throws IOException, XmlParsingException {
         logger.info("Starting conversion...\n");
+        contextProvider.setConversionJournal(
+                ConversionJournal.open(inputParameters.getWorkingDirFile(), inputParameters.isResume()));
+        contextProvider.setOperationCache(createOperationCache());
         preConvert();
         new ConversionEngine().convert(formatConfigurationType, contextProvider);
         postConvert();
         logger.info("Converted: OK\n");
     }
 
+    private OperationCache createOperationCache() {
+        OperationCacheType cacheConfig = configProvider.getConfig().getOperationCache();
+        if (cacheConfig == null || cacheConfig.getValue() == null || cacheConfig.getValue().trim().isEmpty()) {
+            return null;
+        }
+        logger.info("Using operation cache: {}", cacheConfig.getValue().trim());
+        return new OperationCache(new File(cacheConfig.getValue().trim()), cacheConfig.getMaxEntries());
+    }
+
     protected abstract void preConvert() throws IOException, XmlParsingException;
 
     protected abstract void postConvert() throws IOException, XmlParsingException;
@@ -499,7 +522,9 @@ public abstract class AbstractFormatBuilder {
 
     private void deleteTmpFilesOnFail() {
         logger.debug("Deleting tmp files created during conversion...");
-        if (isDeleteTmpFilesOnFail()) {
+        if (inputParameters.isResume()) {
+            logger.info("Deleting tmp files is SKIPPED, so that the conversion can be resumed\n");
+        } else if (isDeleteTmpFilesOnFail()) {
             if (doDeleteTmpFiles()) {
                 logger.info("Deleted tmp files created during conversion: OK\n");
             } else {
@@ -18,6 +18,8 @@
  */
 package com.netflix.imfutility;
 
+import com.netflix.imfutility.generated.config.MediaInfoProviderType;
+
 /**
  * All constants to be used in the application.
  */
@@ -79,6 +81,11 @@ public final class CoreConstants {
 
     public static final String DEFAULT_OUTPUT_VALIDATION_FILE = "errors.xml";
     public static final String MEDIA_INFO_SUFFIX = "mediaInfo";
+    public static final int DEFAULT_PIPE_BUFFER_SIZE = 1024 * 1024;
+    public static final long DEFAULT_MAX_REPEATED_CYCLE_SIZE = 1024L * 1024 * 1024;
+    public static final int DEFAULT_VIDEO_CHUNKS = 8;
+    public static final int DEFAULT_MEDIA_INFO_PARALLEL = 4;
+    public static final MediaInfoProviderType DEFAULT_MEDIA_INFO_PROVIDER = MediaInfoProviderType.COMMAND;
 
 
 /* 6. config.xml */
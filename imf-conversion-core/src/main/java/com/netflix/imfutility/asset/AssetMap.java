@@ -20,8 +20,10 @@ package com.netflix.imfutility.asset;
 
 import com.netflix.imfutility.cpl.uuid.UUID;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -80,4 +82,13 @@ public class AssetMap {
                 .collect(Collectors.joining(" "));
     }
 
+    /**
+     * Full paths to all assets referenced from CPL.
+     *
+     * @return a list of full paths to all assets referenced from CPL.
+     */
+    public List<String> getReferencedAssetPaths() {
+        return new ArrayList<>(referencedAssets);
+    }
+
 }
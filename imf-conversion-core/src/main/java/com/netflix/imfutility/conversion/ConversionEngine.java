@@ -26,7 +26,11 @@ import com.netflix.imfutility.conversion.executor.ConversionExecutorOnce;
 import com.netflix.imfutility.conversion.executor.ConversionExecutorPipe;
 import com.netflix.imfutility.conversion.executor.ConversionExecutorSegment;
 import com.netflix.imfutility.conversion.executor.ConversionExecutorSequence;
+import com.netflix.imfutility.conversion.executor.IConversionExecutor;
 import com.netflix.imfutility.conversion.executor.strategy.ExecuteStrategyFactory;
+import com.netflix.imfutility.conversion.scheduler.OperationGraphBuilder;
+import com.netflix.imfutility.conversion.scheduler.OperationNode;
+import com.netflix.imfutility.conversion.scheduler.ParallelConversionScheduler;
 import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
 import com.netflix.imfutility.generated.conversion.DynamicParameterConcatType;
 import com.netflix.imfutility.generated.conversion.ExecEachSegmentSequenceType;
@@ -38,40 +42,61 @@ import com.netflix.imfutility.generated.conversion.IfType;
 import com.netflix.imfutility.generated.conversion.PipeType;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Performs conversion to a destination format as specified in conversion.xml
  * <ul>
  * <li>The context must be already prepared and provided to the engine</li>
  * <li>Each conversion operation from conversion.xml is executed using an appropriate executor depending on the operation type.</li>
+ * <li>If the format configuration allows parallel execution, independent operations are executed concurrently
+ * (see {@link ParallelConversionScheduler}).</li>
  * </ul>
  */
 public class ConversionEngine {
 
     public void convert(FormatConfigurationType formatConfigurationType, TemplateParameterContextProvider contextProvider)
             throws IOException {
-        for (Object operation : formatConfigurationType.getExecOnceOrExecEachSegmentOrExecEachSequence()) {
-            if (operation instanceof ExecOnceType) {
-                new ConversionExecutorOnce(contextProvider, getExecuteStrategyFactory(), (ExecOnceType) operation).execute();
-            } else if (operation instanceof ExecEachSegmentSequenceType) {
-                new ConversionExecutorSegment(contextProvider, getExecuteStrategyFactory(),
-                        (ExecEachSegmentSequenceType) operation).execute();
-            } else if (operation instanceof ExecEachSequenceSegmentType) {
-                new ConversionExecutorSequence(contextProvider, getExecuteStrategyFactory(),
-                        (ExecEachSequenceSegmentType) operation).execute();
-            } else if (operation instanceof PipeType) {
-                new ConversionExecutorPipe(contextProvider, getExecuteStrategyFactory(), (PipeType) operation).execute();
-            } else if (operation instanceof DynamicParameterConcatType) {
-                new ConversionExecutorDynamicParameter(contextProvider, getExecuteStrategyFactory(),
-                        (DynamicParameterConcatType) operation).execute();
-            } else if (operation instanceof ForType) {
-                new ConversionExecutorFor(contextProvider, getExecuteStrategyFactory(), (ForType) operation).execute();
-            } else if (operation instanceof IfType) {
-                new ConversionExecutorIf(contextProvider, getExecuteStrategyFactory(), (IfType) operation).execute();
-            } else {
-                throw new ConversionException(String.format("Unknown Conversion Operation type: %s", operation.toString()));
-            }
+        List<Object> operations = formatConfigurationType.getExecOnceOrExecEachSegmentOrExecEachSequence();
+        if (formatConfigurationType.getParallel() > 1) {
+            List<OperationNode> nodes = new OperationGraphBuilder().build(operations);
+            new ParallelConversionScheduler(formatConfigurationType.getParallel(), contextProvider.getRunningProcesses())
+                    .execute(nodes, operation -> createExecutor(operation, contextProvider));
+            return;
         }
+
+        for (Object operation : operations) {
+            createExecutor(operation, contextProvider).execute();
+        }
+    }
+
+    /**
+     * Creates an executor for the given conversion operation depending on the operation type.
+     *
+     * @param operation       a conversion operation from conversion.xml
+     * @param contextProvider a context provider
+     * @return an executor for the conversion operation
+     */
+    protected IConversionExecutor createExecutor(Object operation, TemplateParameterContextProvider contextProvider) {
+        if (operation instanceof ExecOnceType) {
+            return new ConversionExecutorOnce(contextProvider, getExecuteStrategyFactory(), (ExecOnceType) operation);
+        } else if (operation instanceof ExecEachSegmentSequenceType) {
+            return new ConversionExecutorSegment(contextProvider, getExecuteStrategyFactory(),
+                    (ExecEachSegmentSequenceType) operation);
+        } else if (operation instanceof ExecEachSequenceSegmentType) {
+            return new ConversionExecutorSequence(contextProvider, getExecuteStrategyFactory(),
+                    (ExecEachSequenceSegmentType) operation);
+        } else if (operation instanceof PipeType) {
+            return new ConversionExecutorPipe(contextProvider, getExecuteStrategyFactory(), (PipeType) operation);
+        } else if (operation instanceof DynamicParameterConcatType) {
+            return new ConversionExecutorDynamicParameter(contextProvider, getExecuteStrategyFactory(),
+                    (DynamicParameterConcatType) operation);
+        } else if (operation instanceof ForType) {
+            return new ConversionExecutorFor(contextProvider, getExecuteStrategyFactory(), (ForType) operation);
+        } else if (operation instanceof IfType) {
+            return new ConversionExecutorIf(contextProvider, getExecuteStrategyFactory(), (IfType) operation);
+        }
+        throw new ConversionException(String.format("Unknown Conversion Operation type: %s", operation.toString()));
     }
 
     /**
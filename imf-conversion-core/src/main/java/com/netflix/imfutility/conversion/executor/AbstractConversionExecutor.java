@@ -23,6 +23,13 @@ import com.netflix.imfutility.conversion.templateParameter.TemplateParameterReso
 import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
 import com.netflix.imfutility.util.SkipOperationResolver;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 /**
  * Base conversion executor. A specific conversion executor is created for each conversion operation type.
  */
@@ -39,4 +46,78 @@ public abstract class AbstractConversionExecutor implements IConversionExecutor
         this.skipOperationResolver = new SkipOperationResolver(new TemplateParameterResolver(contextProvider));
     }
 
+    /**
+     * Executes the given operations either one by one or concurrently.
+     * <ul>
+     * <li>If 'parallel' is greater than 1, at most 'parallel' operations are executed at the same time.</li>
+     * <li>If an operation fails, the operations not started yet are cancelled, and the first failure
+     * (in the order of the operations) is re-thrown.</li>
+     * </ul>
+     *
+     * @param operations operations to be executed
+     * @param parallel   the maximum number of operations executed concurrently
+     * @param execution  executes a single operation
+     * @param <T>        operation type
+     * @throws IOException if an operation failed with an IOException
+     */
+    protected <T> void executeAll(List<T> operations, int parallel, OperationExecution<T> execution) throws IOException {
+        if (parallel <= 1 || operations.size() <= 1) {
+            for (T operation : operations) {
+                execution.execute(operation);
+            }
+            return;
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(parallel, operations.size()));
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (T operation : operations) {
+                futures.add(executorService.submit(() -> {
+                    execution.execute(operation);
+                    return null;
+                }));
+            }
+
+            Throwable failure = null;
+            for (Future<Void> future : futures) {
+                if (failure != null) {
+                    future.cancel(false);
+                    continue;
+                }
+                try {
+                    future.get();
+                } catch (java.util.concurrent.ExecutionException e) {
+                    failure = e.getCause();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ExecutionException("Conversion has been interrupted", e);
+                }
+            }
+
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new ExecutionException(failure.getMessage(), failure);
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Executes a single operation (see {@link #executeAll(List, int, OperationExecution)}).
+     *
+     * @param <T> operation type
+     */
+    @FunctionalInterface
+    protected interface OperationExecution<T> {
+
+        void execute(T operation) throws IOException;
+
+    }
+
 }
@@ -46,7 +46,8 @@ public class ConversionExecutorOnce extends AbstractConversionExecutor {
         OperationInfo operationInfo = new OperationInfo(operation.getValue(), operation.getName(), ContextInfo.EMPTY,
                 skipOperationResolver
                         .setContextInfo(ContextInfo.EMPTY)
-                        .isSkip(operation));
+                        .isSkip(operation),
+                null, operation.getInputs(), operation.getOutputs());
         executeStrategyFactory.createExecuteOnceStrategy(contextProvider).execute(operationInfo);
     }
 
@@ -73,7 +73,8 @@ public class ConversionExecutorPipe extends AbstractConversionExecutor {
         return new OperationInfo(execOnce.getValue(), execOnce.getName(), ContextInfo.EMPTY,
                 skipOperationResolver
                         .setContextInfo(ContextInfo.EMPTY)
-                        .isSkip(execOnce));
+                        .isSkip(execOnce),
+                null, execOnce.getInputs(), execOnce.getOutputs());
     }
 
     private List<OperationInfo> getSubPipeOperations(SubPipeType subPipe) {
@@ -81,7 +82,8 @@ public class ConversionExecutorPipe extends AbstractConversionExecutor {
                 .map(execOnce -> new OperationInfo(execOnce.getValue(), execOnce.getName(), ContextInfo.EMPTY,
                         skipOperationResolver
                                 .setContextInfo(ContextInfo.EMPTY)
-                                .isSkip(execOnce)))
+                                .isSkip(execOnce),
+                        null, execOnce.getInputs(), execOnce.getOutputs()))
                 .collect(Collectors.toList());
     }
 
@@ -90,16 +90,16 @@ public class ConversionExecutorSegment extends AbstractConversionExecutor {
     }
 
     private void execSequence(ExecEachSequenceType execSequence) throws IOException {
+        // all operations (and dynamic parameters) are prepared in order before execution
         if (execSequence.getExecOnce() != null) {
-            for (OperationInfo segmentOperation : getExecSequenceOnceOperations(execSequence)) {
-                executeStrategyFactory.createExecuteOnceStrategy(contextProvider).execute(segmentOperation);
-            }
+            executeAll(getExecSequenceOnceOperations(execSequence), execSequence.getParallel(),
+                    segmentOperation -> executeStrategyFactory.createExecuteOnceStrategy(contextProvider).execute(segmentOperation));
         } else if (execSequence.getPipe() != null) {
-            for (List<OperationInfo> pipeOperations : getExecSequencePipeOperations(execSequence)) {
+            executeAll(getExecSequencePipeOperations(execSequence), execSequence.getParallel(), pipeOperations -> {
                 PipeOperationInfo pipeInfo = new PipeOperationInfo();
                 pipeInfo.addTailOperations(pipeOperations);
                 executeStrategyFactory.createExecutePipeStrategy(contextProvider).execute(pipeInfo);
-            }
+            });
         }
     }
 
@@ -151,7 +151,8 @@ public class ConversionExecutorSegment extends AbstractConversionExecutor {
         return new OperationInfo(execOnce.getValue(), execOnce.getName(), contextInfo,
                 skipOperationResolver
                         .setContextInfo(contextInfo)
-                        .isSkip(execOnce, execEachSegm));
+                        .isSkip(execOnce, execEachSegm),
+                null, execOnce.getInputs(), execOnce.getOutputs());
     }
 
 
@@ -163,7 +164,8 @@ public class ConversionExecutorSegment extends AbstractConversionExecutor {
                 .map(execOnce -> new OperationInfo(execOnce.getValue(), execOnce.getName(), contextInfo,
                         skipOperationResolver
                                 .setContextInfo(contextInfo)
-                                .isSkip(execOnce, execEachSegm)))
+                                .isSkip(execOnce, execEachSegm),
+                        null, execOnce.getInputs(), execOnce.getOutputs()))
                 .collect(Collectors.toList());
     }
 
@@ -192,7 +194,8 @@ public class ConversionExecutorSegment extends AbstractConversionExecutor {
                             execSequence.getName(), contextInfo,
                             skipOperationResolver
                                     .setContextInfo(contextInfo)
-                                    .isSkip(execSequence.getExecOnce(), execSequence, execEachSegm));
+                                    .isSkip(execSequence.getExecOnce(), execSequence, execEachSegm),
+                            null, execSequence.getExecOnce().getInputs(), execSequence.getExecOnce().getOutputs());
                     result.add(operationInfo);
                 }
 
@@ -237,7 +240,8 @@ public class ConversionExecutorSegment extends AbstractConversionExecutor {
                         OperationInfo operationInfo = new OperationInfo(execOnceType.getValue(), execOnceType.getName(), contextInfo,
                                 skipOperationResolver
                                         .setContextInfo(contextInfo)
-                                        .isSkip(execOnceType, execSequence, execEachSegm));
+                                        .isSkip(execOnceType, execSequence, execEachSegm),
+                                null, execOnceType.getInputs(), execOnceType.getOutputs());
                         pipeOperations.add(operationInfo);
                     }
                     result.add(pipeOperations);
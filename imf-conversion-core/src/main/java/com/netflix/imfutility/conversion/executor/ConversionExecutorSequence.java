@@ -24,22 +24,32 @@ import com.netflix.imfutility.conversion.executor.strategy.OperationInfo;
 import com.netflix.imfutility.conversion.executor.strategy.PipeOperationInfo;
 import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
 import com.netflix.imfutility.conversion.templateParameter.ContextInfoBuilder;
+import com.netflix.imfutility.conversion.templateParameter.TemplateParameterResolver;
 import com.netflix.imfutility.conversion.templateParameter.context.ResourceKey;
 import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
 import com.netflix.imfutility.cpl.uuid.ResourceUUID;
 import com.netflix.imfutility.cpl.uuid.SegmentUUID;
 import com.netflix.imfutility.cpl.uuid.SequenceUUID;
 import com.netflix.imfutility.generated.conversion.DynamicParameterConcatType;
+import com.netflix.imfutility.generated.conversion.ExecEachSegmentFusedType;
 import com.netflix.imfutility.generated.conversion.ExecEachSegmentType;
 import com.netflix.imfutility.generated.conversion.ExecEachSequenceSegmentType;
 import com.netflix.imfutility.generated.conversion.ExecOnceType;
 import com.netflix.imfutility.generated.conversion.PipeSequenceType;
 import com.netflix.imfutility.generated.conversion.SequenceType;
 import com.netflix.imfutility.generated.conversion.SubPipeType;
+import org.apache.commons.io.FileUtils;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -49,6 +59,14 @@ import java.util.stream.Collectors;
  * either once or in a pipe using an appropriate execute strategy for each segment.
  * A sub-conversion operation may be executed either once, in a pipeline, or for each segment.
  * <p>
+ * A pipeline's cycle may contain a fused operation executed once for all segments of the sequence: a plan listing
+ * all resources (for example, an edit list for a single decoder) is written to a file referenced by the operation.
+ * </p>
+ * <p>
+ * A pipeline may be split into chunks executed concurrently, each converting a part of the sequence
+ * (see {@link SequenceChunk}); the chunk outputs are concatenated in the chunk order.
+ * </p>
+ * <p>
  * See {@link com.netflix.imfutility.conversion.executor.strategy.ExecuteOnceStrategy} and
  * {@link com.netflix.imfutility.conversion.executor.strategy.ExecutePipeStrategy}.
  * </p>
@@ -57,6 +75,7 @@ public class ConversionExecutorSequence extends AbstractConversionExecutor {
 
     private final ExecEachSequenceSegmentType execEachSeq;
     private final SequenceType seqType;
+    private final TemplateParameterResolver parameterResolver;
 
     private SequenceUUID currentSeqUuid;
 
@@ -66,6 +85,7 @@ public class ConversionExecutorSequence extends AbstractConversionExecutor {
         this.execEachSeq = execEachSeq;
 
         this.seqType = execEachSeq.getType();
+        this.parameterResolver = new TemplateParameterResolver(contextProvider);
     }
 
     @Override
@@ -94,16 +114,17 @@ public class ConversionExecutorSequence extends AbstractConversionExecutor {
     }
 
     private void execSegment(ExecEachSegmentType execSegment) throws IOException {
+        // all operations (and dynamic parameters) are prepared in order before execution
+        boolean eachRepeat = execSegment.isEachRepeat();
         if (execSegment.getExecOnce() != null) {
-            for (OperationInfo segmentOperation : getExecSegmentOnceOperations(execSegment)) {
-                executeStrategyFactory.createExecuteOnceStrategy(contextProvider).execute(segmentOperation);
-            }
+            executeAll(getExecSegmentOnceOperations(execSegment, eachRepeat), execSegment.getParallel(),
+                    segmentOperation -> executeStrategyFactory.createExecuteOnceStrategy(contextProvider).execute(segmentOperation));
         } else if (execSegment.getPipe() != null) {
-            for (List<OperationInfo> pipeOperations : getExecSegmentPipeOperations(execSegment)) {
+            executeAll(getExecSegmentPipeOperations(execSegment, eachRepeat), execSegment.getParallel(), pipeOperations -> {
                 PipeOperationInfo pipeInfo = new PipeOperationInfo();
                 pipeInfo.addTailOperations(pipeOperations);
                 executeStrategyFactory.createExecutePipeStrategy(contextProvider).execute(pipeInfo);
-            }
+            });
         }
     }
 
@@ -122,19 +143,213 @@ public class ConversionExecutorSequence extends AbstractConversionExecutor {
                     pipeInfo.addCycleOperation(getSubPipeOperations((SubPipeType) cycleOperation));
                 } else if (cycleOperation instanceof ExecEachSegmentType) {
                     execEachSegmentInPipe((ExecEachSegmentType) cycleOperation, pipeInfo);
+                } else if (cycleOperation instanceof ExecEachSegmentFusedType) {
+                    execEachSegmentFusedInPipe((ExecEachSegmentFusedType) cycleOperation, pipeInfo);
                 }
             }
         }
 
         // 2. execute in a pipe
-        executeStrategyFactory.createExecutePipeStrategy(contextProvider).execute(pipeInfo);
+        if (pipe.getChunks() == null) {
+            executeStrategyFactory.createExecutePipeStrategy(contextProvider).execute(pipeInfo);
+        } else {
+            execPipeChunks(pipe, pipeInfo);
+        }
+    }
+
+    private void execPipeChunks(PipeSequenceType pipe, PipeOperationInfo pipeInfo) throws IOException {
+        ContextInfo contextInfo = new ContextInfoBuilder()
+                .setSequenceUuid(currentSeqUuid)
+                .setSequenceType(seqType)
+                .build();
+        String chunksStr = parameterResolver.resolveTemplateParameter(pipe.getChunks(), contextInfo).trim();
+        int chunkCount;
+        try {
+            chunkCount = Integer.parseInt(chunksStr);
+        } catch (NumberFormatException e) {
+            throw new ConversionException(String.format("'chunks' (%s) should be an integer.", chunksStr), e);
+        }
+        String output = pipe.getChunkOutput() != null
+                ? parameterResolver.resolveTemplateParameter(pipe.getChunkOutput(), contextInfo).trim()
+                : "";
+
+        // 1. the same operations for each chunk (with chunk parameters replaced)
+        List<SequenceChunk> chunks = SequenceChunk.split(contextProvider, currentSeqUuid, seqType, chunkCount);
+        List<PipeOperationInfo> chunkPipes = new ArrayList<>();
+        List<File> chunkOutputs = new ArrayList<>();
+        for (SequenceChunk chunk : chunks) {
+            String chunkOutput = chunks.size() > 1 ? output + ".chunk" + chunk.getNum() : output;
+            chunkOutputs.add(getWorkingDirFile(chunkOutput));
+            chunkPipes.add(getChunkPipeOperations(pipeInfo, getChunkParameters(chunk, chunkOutput)));
+        }
+
+        // 2. execute chunks concurrently and concatenate the output in the chunk order
+        if (chunks.size() == 1 || output.isEmpty()) {
+            executeChunks(chunkPipes, pipe.getParallel());
+            return;
+        }
+        // the concatenated output is journaled as a whole, as the chunk outputs are deleted once concatenated.
+        // the chunk outputs are kept if conversion fails, so that the finished chunks are not executed on resume.
+        File outputFile = getWorkingDirFile(output);
+        executeStrategyFactory.createExecutePipeStrategy(contextProvider).executeChunks(chunkPipes, outputFile, () -> {
+            executeChunks(chunkPipes, pipe.getParallel());
+            concatChunks(chunkOutputs, outputFile);
+            chunkOutputs.forEach(FileUtils::deleteQuietly);
+        });
+    }
+
+    private void executeChunks(List<PipeOperationInfo> chunkPipes, int parallel) throws IOException {
+        executeAll(chunkPipes, parallel,
+                chunkPipe -> executeStrategyFactory.createExecutePipeStrategy(contextProvider).execute(chunkPipe));
+    }
+
+    private static Map<String, String> getChunkParameters(SequenceChunk chunk, String chunkOutput) {
+        Map<String, String> result = new HashMap<>();
+        result.put("chunkNum", String.valueOf(chunk.getNum()));
+        result.put("chunkStartFrame", String.valueOf(chunk.getStartEditUnit()));
+        result.put("chunkFrames", String.valueOf(chunk.getDurationEditUnit()));
+        result.put("chunkStartMS", String.valueOf(chunk.getStartTimeMs()));
+        result.put("chunkOutput", chunkOutput);
+        return result;
+    }
+
+    private static PipeOperationInfo getChunkPipeOperations(PipeOperationInfo pipeInfo, Map<String, String> chunkParameters) {
+        PipeOperationInfo result = new PipeOperationInfo();
+        for (List<OperationInfo> cycleOperations : pipeInfo.getCycleOperations()) {
+            result.addCycleOperation(cycleOperations.stream()
+                    .map(operation -> getChunkOperation(operation, chunkParameters))
+                    .collect(Collectors.toList()));
+        }
+        for (OperationInfo tailOperation : pipeInfo.getTailOperations()) {
+            result.addTailOperation(getChunkOperation(tailOperation, chunkParameters));
+        }
+        return result;
+    }
+
+    private static OperationInfo getChunkOperation(OperationInfo operation, Map<String, String> chunkParameters) {
+        return new OperationInfo(replaceChunkParameters(operation.getOperation(), chunkParameters),
+                operation.getOperationName(), operation.getContextInfo(), operation.isSkip(), operation.getOutput(),
+                replaceChunkParameters(operation.getInputs(), chunkParameters),
+                replaceChunkParameters(operation.getOutputs(), chunkParameters));
+    }
+
+    private static String replaceChunkParameters(String text, Map<String, String> chunkParameters) {
+        if (text == null) {
+            return null;
+        }
+        String result = text;
+        for (Map.Entry<String, String> e : chunkParameters.entrySet()) {
+            result = result.replace("%{" + e.getKey() + "}", e.getValue());
+        }
+        return result;
+    }
+
+    private File getWorkingDirFile(String path) {
+        File file = new File(path);
+        return file.isAbsolute() ? file : new File(contextProvider.getWorkingDir(), path);
+    }
+
+    private static void concatChunks(List<File> chunkOutputs, File output) throws IOException {
+        try (FileChannel out = FileChannel.open(output.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (File chunkOutput : chunkOutputs) {
+                if (!chunkOutput.isFile()) {
+                    throw new ConversionException(String.format("Chunk output '%s' doesn't exist", chunkOutput));
+                }
+                try (FileChannel in = FileChannel.open(chunkOutput.toPath(), StandardOpenOption.READ)) {
+                    long size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        }
     }
 
     private void execEachSegmentInPipe(ExecEachSegmentType execSegment, PipeOperationInfo pipeInfo) {
         if (execSegment.getExecOnce() != null) {
-            getExecSegmentOnceOperations(execSegment).forEach(pipeInfo::addCycleOperation);
+            // each repeat must be streamed to the pipe
+            getExecSegmentOnceOperations(execSegment, true).forEach(pipeInfo::addCycleOperation);
         } else if (execSegment.getPipe() != null) {
-            getExecSegmentPipeOperations(execSegment).forEach(pipeInfo::addCycleOperation);
+            getExecSegmentPipeOperations(execSegment, true).forEach(pipeInfo::addCycleOperation);
+        }
+    }
+
+    private void execEachSegmentFusedInPipe(ExecEachSegmentFusedType execFused, PipeOperationInfo pipeInfo) throws IOException {
+        ContextInfo contextInfo = new ContextInfoBuilder()
+                .setSequenceUuid(currentSeqUuid)
+                .setSequenceType(seqType)
+                .build();
+        boolean skip = skipOperationResolver
+                .setContextInfo(contextInfo)
+                .isSkip(execFused.getExecOnce(), execFused, execEachSeq);
+
+        // the plan is needed only if the operation is executed
+        if (!skip) {
+            String plan = getPlan(execFused, contextInfo);
+            String planName = parameterResolver.resolveTemplateParameter(execFused.getPlan(), contextInfo);
+            File planFile = new File(contextProvider.getWorkingDir(), planName + ".txt");
+            // an unchanged plan is not re-written, so that the operation can be resumed (see ConversionJournal)
+            if (!planFile.isFile() || !plan.equals(FileUtils.readFileToString(planFile, StandardCharsets.UTF_8))) {
+                FileUtils.writeStringToFile(planFile, plan, StandardCharsets.UTF_8);
+            }
+            contextProvider.getDynamicContext().addParameter(execFused.getPlan(), planFile.getAbsolutePath(), true, contextInfo);
+        }
+
+        pipeInfo.addCycleOperation(new OperationInfo(execFused.getExecOnce().getValue(), execFused.getName(), contextInfo, skip,
+                null, getFusedInputs(execFused), execFused.getExecOnce().getOutputs()));
+    }
+
+    private String getFusedInputs(ExecEachSegmentFusedType execFused) {
+        List<String> inputs = new ArrayList<>();
+        if (execFused.getExecOnce().getInputs() != null) {
+            inputs.add(execFused.getExecOnce().getInputs());
+        }
+        if (execFused.getEntryInputs() != null) {
+            for (ContextInfo contextInfo : getResourceContextInfos()) {
+                inputs.add(parameterResolver.resolveTemplateParameter(execFused.getEntryInputs(), contextInfo));
+            }
+        }
+        return inputs.isEmpty() ? null : String.join(" ", inputs);
+    }
+
+    private String getPlan(ExecEachSegmentFusedType execFused, ContextInfo seqContextInfo) {
+        StringBuilder plan = new StringBuilder();
+        if (execFused.getPlanHeader() != null) {
+            appendPlanLines(plan, parameterResolver.resolveTemplateParameter(execFused.getPlanHeader(), seqContextInfo));
+        }
+
+        // an entry for each resource within sequence (repeats included)
+        for (ContextInfo contextInfo : getResourceContextInfos()) {
+            appendPlanLines(plan, parameterResolver.resolveTemplateParameter(execFused.getPlanEntry(), contextInfo));
+        }
+        return plan.toString();
+    }
+
+    private List<ContextInfo> getResourceContextInfos() {
+        List<ContextInfo> result = new ArrayList<>();
+        for (SegmentUUID segmUuid : contextProvider.getSegmentContext().getUuids()) {
+            ResourceKey resKey = ResourceKey.create(segmUuid, currentSeqUuid, seqType);
+            for (ResourceUUID resourceUuid : contextProvider.getResourceContext().getUuids(resKey)) {
+                result.add(new ContextInfoBuilder()
+                        .setSequenceUuid(currentSeqUuid)
+                        .setSequenceType(seqType)
+                        .setSegmentUuid(segmUuid)
+                        .setResourceUuid(resourceUuid)
+                        .build());
+            }
+        }
+        return result;
+    }
+
+    private static void appendPlanLines(StringBuilder plan, String text) {
+        // indentation of conversion.xml is not a part of the plan
+        for (String line : text.split("\\r?\\n")) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty()) {
+                plan.append(trimmed).append('\n');
+            }
         }
     }
 
@@ -157,7 +372,8 @@ public class ConversionExecutorSequence extends AbstractConversionExecutor {
         return new OperationInfo(execOnce.getValue(), execOnce.getName(), contextInfo,
                 skipOperationResolver
                         .setContextInfo(contextInfo)
-                        .isSkip(execOnce, execEachSeq));
+                        .isSkip(execOnce, execEachSeq),
+                null, execOnce.getInputs(), execOnce.getOutputs());
     }
 
     private List<OperationInfo> getSubPipeOperations(SubPipeType subPipe) {
@@ -170,19 +386,27 @@ public class ConversionExecutorSequence extends AbstractConversionExecutor {
                 .map(execOnce -> new OperationInfo(execOnce.getValue(), execOnce.getName(), contextInfo,
                         skipOperationResolver
                                 .setContextInfo(contextInfo)
-                                .isSkip(execOnce, execEachSeq)))
+                                .isSkip(execOnce, execEachSeq),
+                        null, execOnce.getInputs(), execOnce.getOutputs()))
                 .collect(Collectors.toList()));
         return result;
     }
 
-    private List<OperationInfo> getExecSegmentOnceOperations(ExecEachSegmentType execSegment) {
+    private Collection<ResourceUUID> getResourceUuids(ResourceKey resKey, boolean eachRepeat) {
+        // a repeated resource is stored as a single entry (its first repeat)
+        return eachRepeat
+                ? contextProvider.getResourceContext().getUuids(resKey)
+                : contextProvider.getResourceContext().getEntryUuids(resKey);
+    }
+
+    private List<OperationInfo> getExecSegmentOnceOperations(ExecEachSegmentType execSegment, boolean eachRepeat) {
         List<OperationInfo> result = new ArrayList<>();
 
         // process operations for each segment within sequence
         for (SegmentUUID segmUuid : contextProvider.getSegmentContext().getUuids()) {
             // process operations for each resource within segment and sequence
             ResourceKey resKey = ResourceKey.create(segmUuid, currentSeqUuid, seqType);
-            for (ResourceUUID resourceUuid : contextProvider.getResourceContext().getUuids(resKey)) {
+            for (ResourceUUID resourceUuid : getResourceUuids(resKey, eachRepeat)) {
                 // context info
                 ContextInfo contextInfo = new ContextInfoBuilder()
                         .setSequenceUuid(currentSeqUuid)
@@ -197,7 +421,8 @@ public class ConversionExecutorSequence extends AbstractConversionExecutor {
                             execSegment.getName(), contextInfo,
                             skipOperationResolver
                                     .setContextInfo(contextInfo)
-                                    .isSkip(execSegment.getExecOnce(), execSegment, execEachSeq));
+                                    .isSkip(execSegment.getExecOnce(), execSegment, execEachSeq),
+                            null, execSegment.getExecOnce().getInputs(), execSegment.getExecOnce().getOutputs());
                     result.add(operationInfo);
                 }
 
@@ -216,14 +441,14 @@ public class ConversionExecutorSequence extends AbstractConversionExecutor {
         return result;
     }
 
-    private List<List<OperationInfo>> getExecSegmentPipeOperations(ExecEachSegmentType execSegment) {
+    private List<List<OperationInfo>> getExecSegmentPipeOperations(ExecEachSegmentType execSegment, boolean eachRepeat) {
         List<List<OperationInfo>> result = new ArrayList<>();
 
         // process operations for each segment within sequence
         for (SegmentUUID segmUuid : contextProvider.getSegmentContext().getUuids()) {
             // process operations for each resource within segment and sequence
             ResourceKey resKey = ResourceKey.create(segmUuid, currentSeqUuid, seqType);
-            for (ResourceUUID resourceUuid : contextProvider.getResourceContext().getUuids(resKey)) {
+            for (ResourceUUID resourceUuid : getResourceUuids(resKey, eachRepeat)) {
                 // context info
                 ContextInfo contextInfo = new ContextInfoBuilder()
                         .setSequenceUuid(currentSeqUuid)
@@ -239,7 +464,8 @@ public class ConversionExecutorSequence extends AbstractConversionExecutor {
                         OperationInfo operationInfo = new OperationInfo(execOnceType.getValue(), execOnceType.getName(), contextInfo,
                                 skipOperationResolver
                                         .setContextInfo(contextInfo)
-                                        .isSkip(execOnceType, execSegment, execEachSeq));
+                                        .isSkip(execOnceType, execSegment, execEachSeq),
+                                null, execOnceType.getInputs(), execOnceType.getOutputs());
                         pipeOperations.add(operationInfo);
                     }
                     result.add(pipeOperations);
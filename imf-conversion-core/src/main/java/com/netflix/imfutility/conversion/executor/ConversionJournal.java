@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.executor;
+
+import com.netflix.imfutility.ConversionException;
+import com.netflix.imfutility.util.ImfLogger;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A persistent journal of completed conversion operations stored in the working directory.
+ * <ul>
+ * <li>An operation is identified by its resolved command line (all command lines for a pipe).</li>
+ * <li>Each existing file referenced by the operation (see {@link OperationFiles}) is recorded with its size,
+ * modification time and hash.</li>
+ * <li>An operation is recorded only if it created or modified at least one of the referenced files, so operations
+ * without known outputs are always executed.</li>
+ * <li>In resume mode an operation is completed if it's recorded with the same command line and all recorded
+ * input and output files are not changed since then.</li>
+ * <li>Each operation is appended to the journal as a single line as soon as it's finished, so the journal survives
+ * a failure of any subsequent operation.</li>
+ * </ul>
+ */
+public final class ConversionJournal {
+
+    private static final Logger LOGGER = new ImfLogger(LoggerFactory.getLogger(ConversionJournal.class));
+
+    public static final String JOURNAL_FILE = "conversion-journal.txt";
+
+    private static final String FIELD_SEPARATOR = "\t";
+    private static final String FILE_FIELD_SEPARATOR = "|";
+    private static final int HASH_BLOCK_SIZE = 1024 * 1024;
+
+    private final File journalFile;
+    private final boolean resume;
+    private final Map<String, List<FileState>> completed = new HashMap<>();
+
+    private ConversionJournal(File workingDir, boolean resume) {
+        this.journalFile = new File(workingDir, JOURNAL_FILE);
+        this.resume = resume;
+    }
+
+    /**
+     * Opens a journal in the given working directory.
+     * In resume mode the existing journal is loaded and extended, otherwise a new empty journal is started.
+     *
+     * @param workingDir a working directory where conversion is performed
+     * @param resume     whether completed operations must be skipped
+     * @return the journal
+     * @throws IOException if the existing journal can not be read or removed
+     */
+    public static ConversionJournal open(File workingDir, boolean resume) throws IOException {
+        ConversionJournal journal = new ConversionJournal(workingDir, resume);
+        if (!journal.journalFile.isFile()) {
+            return journal;
+        }
+        if (resume) {
+            journal.load();
+        } else if (!journal.journalFile.delete()) {
+            throw new ConversionException(String.format(
+                    "Could not delete conversion journal '%s'", journal.journalFile.getAbsolutePath()));
+        }
+        return journal;
+    }
+
+    public File getJournalFile() {
+        return journalFile;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    /**
+     * Checks whether the operation is completed by a previous conversion and can be skipped.
+     *
+     * @param operation files referenced by the operation collected before it's started
+     * @return true if it's a resume mode and the operation is recorded with all its files unchanged.
+     */
+    public synchronized boolean isCompleted(OperationFiles operation) {
+        if (!resume) {
+            return false;
+        }
+        List<FileState> files = completed.get(operation.getCommandLine());
+        if (files == null) {
+            return false;
+        }
+        for (FileState recorded : files) {
+            File file = new File(recorded.path);
+            if (!file.isFile() || file.length() != recorded.size || file.lastModified() != recorded.lastModified) {
+                return false;
+            }
+            if (!recorded.hash.equals(hash(file))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records a successfully finished operation.
+     *
+     * @param operation files referenced by the operation collected before it's started
+     * @throws IOException if the journal can not be written
+     */
+    public void complete(OperationFiles operation) throws IOException {
+        if (operation.getOutputs().isEmpty()) {
+            return;
+        }
+        List<FileState> files = new ArrayList<>();
+        for (File file : operation.getFiles()) {
+            files.add(new FileState(file.getAbsolutePath(), file.length(), file.lastModified(), hash(file)));
+        }
+        String key = operation.getCommandLine();
+
+        synchronized (this) {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(journalFile, true), StandardCharsets.UTF_8)) {
+                writer.write(toLine(key, files));
+                writer.write(System.lineSeparator());
+            }
+            completed.put(key, files);
+        }
+    }
+
+    private void load() throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    parseLine(line);
+                } catch (IllegalArgumentException e) {
+                    // the last line may be incomplete if the previous conversion was killed while writing it
+                    LOGGER.warn("Skipped invalid conversion journal entry: {}", e.getMessage());
+                }
+            }
+        }
+        LOGGER.info("Loaded {} completed operation(s) from conversion journal '{}'", completed.size(),
+                journalFile.getAbsolutePath());
+    }
+
+    private void parseLine(String line) throws UnsupportedEncodingException {
+        String[] fields = line.split(FIELD_SEPARATOR);
+        List<FileState> files = new ArrayList<>();
+        for (int i = 1; i < fields.length; i++) {
+            String[] fileFields = StringUtils.split(fields[i], FILE_FIELD_SEPARATOR);
+            if (fileFields.length != 4) {
+                throw new IllegalArgumentException(line);
+            }
+            files.add(new FileState(decode(fileFields[0]), Long.parseLong(fileFields[1]), Long.parseLong(fileFields[2]),
+                    fileFields[3]));
+        }
+        completed.put(decode(fields[0]), files);
+    }
+
+    private static String toLine(String key, List<FileState> files) throws UnsupportedEncodingException {
+        StringBuilder line = new StringBuilder(encode(key));
+        for (FileState file : files) {
+            line.append(FIELD_SEPARATOR)
+                    .append(encode(file.path)).append(FILE_FIELD_SEPARATOR)
+                    .append(file.size).append(FILE_FIELD_SEPARATOR)
+                    .append(file.lastModified).append(FILE_FIELD_SEPARATOR)
+                    .append(file.hash);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Hashes the file size, the first and the last megabyte of the file. Hashing the whole file would take
+     * as much time as reading tens of gigabytes of essence for each operation.
+     */
+    private static String hash(File file) {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long length = input.length();
+            digest.update(Long.toString(length).getBytes(StandardCharsets.UTF_8));
+            byte[] buffer = new byte[(int) Math.min(HASH_BLOCK_SIZE, length)];
+            input.readFully(buffer);
+            digest.update(buffer);
+            if (length > HASH_BLOCK_SIZE) {
+                buffer = new byte[(int) Math.min(HASH_BLOCK_SIZE, length - HASH_BLOCK_SIZE)];
+                input.seek(length - buffer.length);
+                input.readFully(buffer);
+                digest.update(buffer);
+            }
+            return DatatypeConverter.printHexBinary(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new ConversionException(String.format("Could not hash file '%s'", file.getAbsolutePath()), e);
+        }
+    }
+
+    private static String encode(String value) throws UnsupportedEncodingException {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+    }
+
+    private static String decode(String value) throws UnsupportedEncodingException {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+    }
+
+    private static final class FileState {
+
+        private final String path;
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+
+        private FileState(String path, long size, long lastModified, String hash) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+    }
+
+}
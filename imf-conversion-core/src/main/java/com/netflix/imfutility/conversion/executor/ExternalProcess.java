@@ -124,10 +124,19 @@ public final class ExternalProcess {
         private final File workingDir;
         private final OutputRedirect outputRedirect;
         private final File outputRedirectFile;
+        private final File inputPipeFile;
+        private final File outputPipeFile;
 
         // CHECKSTYLE:OFF
         public ExternalProcessInfo(int processNum, String operationName, String operationType, String programName,
                                    List<String> resolvedParams, File workingDir, OutputRedirect outputRedirect, File outputRedirectFile) {
+            this(processNum, operationName, operationType, programName, resolvedParams, workingDir, outputRedirect, outputRedirectFile,
+                    null, null);
+        }
+
+        public ExternalProcessInfo(int processNum, String operationName, String operationType, String programName,
+                                   List<String> resolvedParams, File workingDir, OutputRedirect outputRedirect, File outputRedirectFile,
+                                   File inputPipeFile, File outputPipeFile) {
             this.processNum = processNum;
             this.operationName = operationName;
             this.operationType = operationType;
@@ -136,6 +145,8 @@ public final class ExternalProcess {
             this.workingDir = workingDir;
             this.outputRedirect = outputRedirect;
             this.outputRedirectFile = outputRedirectFile;
+            this.inputPipeFile = inputPipeFile;
+            this.outputPipeFile = outputPipeFile;
         }
         // CHECKSTYLE:ON
 
@@ -171,6 +182,24 @@ public final class ExternalProcess {
             return outputRedirectFile;
         }
 
+        /**
+         * Gets a named pipe the process reads stdin from.
+         *
+         * @return a named pipe file or null if stdin is not connected to a named pipe.
+         */
+        public File getInputPipeFile() {
+            return inputPipeFile;
+        }
+
+        /**
+         * Gets a named pipe the process writes stdout to (if output redirect is {@link OutputRedirect#PIPE}).
+         *
+         * @return a named pipe file or null if stdout is not connected to a named pipe.
+         */
+        public File getOutputPipeFile() {
+            return outputPipeFile;
+        }
+
         private String getProcessString(List<String> resolvedParams) {
             return resolvedParams.stream()
                     .collect(Collectors.joining(" "));
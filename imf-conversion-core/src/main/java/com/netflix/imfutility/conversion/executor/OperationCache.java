@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.executor;
+
+import com.netflix.imfutility.util.ImfLogger;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A persistent cache of output files of conversion operations stored in a directory between conversion runs.
+ * <ul>
+ * <li>An entry is identified by the resolved command line of the operation (with the working directory path replaced
+ * by a placeholder, so that entries are shared between working directories) and the content hashes of its input files
+ * (see {@link OperationFiles}) taken before the operation is started, so that files modified in place are identified
+ * by their original content.</li>
+ * <li>Only operations with all output files within the working directory are stored.</li>
+ * <li>Output files are hard-linked to the cache when stored and hard-linked back to the working directory on a hit
+ * (or copied if the cache and the working directory are on different file systems).</li>
+ * <li>A stored output file must have the same size and last modification time as at the time the entry was stored,
+ * so an entry is never used if its output has been modified in place via a hard link.</li>
+ * <li>If the number of entries exceeds the maximum, the least recently used entries are deleted.</li>
+ * <li>Any IO errors are not fatal: the entry is just considered as missing and the operation is executed.</li>
+ * </ul>
+ */
+public class OperationCache {
+
+    private static final String MANIFEST_FILE = "entry.properties";
+    private static final String OUTPUT_PREFIX = "output-";
+    private static final String WORKING_DIR_PLACEHOLDER = "%{workingDir}";
+    private static final String COMMAND_PROPERTY = "command";
+    private static final String INPUT_COUNT_PROPERTY = "input.count";
+    private static final String OUTPUT_COUNT_PROPERTY = "output.count";
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final Logger logger = new ImfLogger(LoggerFactory.getLogger(OperationCache.class));
+
+    private final File cacheDir;
+    private final int maxEntries;
+    private final Map<String, String> contentHashes = new ConcurrentHashMap<>();
+    private final Map<OperationFiles, Map<File, String>> inputHashes = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public OperationCache(File cacheDir, int maxEntries) {
+        this.cacheDir = cacheDir;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Restores output files of the operation from the cache.
+     *
+     * @param operation files referenced by the operation collected before it's started
+     * @return true if the operation is found in the cache and all its output files are restored.
+     */
+    public boolean restore(OperationFiles operation) {
+        // the inputs are hashed before the operation is started, as it may modify some of them
+        try {
+            inputHashes.put(operation, getInputHashes(operation));
+        } catch (IOException e) {
+            logger.warn("Can not hash inputs of '{}': {}", operation.getCommandLine(), e.getMessage());
+            return false;
+        }
+
+        String command = getCommand(operation);
+        File[] entries = new File(cacheDir, hash(command)).listFiles(File::isDirectory);
+        if (entries == null) {
+            return false;
+        }
+
+        for (File entryDir : entries) {
+            Properties manifest = readManifest(entryDir);
+            if (manifest == null || !command.equals(manifest.getProperty(COMMAND_PROPERTY))
+                    || !isInputsMatch(manifest, operation) || !isOutputsValid(manifest, entryDir)) {
+                continue;
+            }
+            try {
+                restoreOutputs(manifest, entryDir, operation.getWorkingDir());
+            } catch (IOException e) {
+                logger.warn("Can not restore operation cache entry '{}': {}", entryDir.getAbsolutePath(), e.getMessage());
+                return false;
+            }
+
+            // mark as recently used
+            if (!new File(entryDir, MANIFEST_FILE).setLastModified(System.currentTimeMillis())) {
+                logger.warn("Can not update operation cache entry '{}'", entryDir.getAbsolutePath());
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stores output files of the successfully finished operation.
+     * The operation must be looked up by {@link #restore(OperationFiles)} before it's started, so that its inputs are
+     * hashed before they may be modified.
+     *
+     * @param operation files referenced by the operation collected before it's started
+     */
+    public void store(OperationFiles operation) {
+        List<File> outputs = operation.getOutputs();
+        if (outputs.isEmpty() || outputs.stream().anyMatch(output -> getRelativePath(output, operation.getWorkingDir()) == null)) {
+            return;
+        }
+        Map<File, String> hashes = inputHashes.remove(operation);
+        if (hashes == null) {
+            // the original content of the inputs modified by the operation is unknown
+            return;
+        }
+        List<File> inputs = new ArrayList<>(hashes.keySet());
+
+        String command = getCommand(operation);
+        File groupDir = new File(cacheDir, hash(command));
+        File tmpDir = null;
+        try {
+            Properties manifest = new Properties();
+            manifest.setProperty(COMMAND_PROPERTY, command);
+            StringBuilder inputsKey = new StringBuilder();
+            manifest.setProperty(INPUT_COUNT_PROPERTY, String.valueOf(inputs.size()));
+            for (int i = 0; i < inputs.size(); i++) {
+                String path = normalize(inputs.get(i).getAbsolutePath(), operation.getWorkingDir());
+                String contentHash = hashes.get(inputs.get(i));
+                manifest.setProperty("input." + i + ".path", path);
+                manifest.setProperty("input." + i + ".hash", contentHash);
+                inputsKey.append(path).append('=').append(contentHash).append('\n');
+            }
+
+            File entryDir = new File(groupDir, hash(inputsKey.toString()));
+            if (entryDir.exists()) {
+                FileUtils.deleteDirectory(entryDir);
+            }
+            if (!groupDir.isDirectory() && !groupDir.mkdirs()) {
+                throw new IOException(String.format("Can not create directory '%s'", groupDir.getAbsolutePath()));
+            }
+
+            // fill a temporary directory first, so that a concurrent run never reads a partially stored entry
+            tmpDir = Files.createTempDirectory(groupDir.toPath(), "tmp-").toFile();
+            manifest.setProperty(OUTPUT_COUNT_PROPERTY, String.valueOf(outputs.size()));
+            for (int i = 0; i < outputs.size(); i++) {
+                File cached = new File(tmpDir, OUTPUT_PREFIX + i);
+                linkOrCopy(outputs.get(i), cached);
+                manifest.setProperty("output." + i + ".path", getRelativePath(outputs.get(i), operation.getWorkingDir()));
+                manifest.setProperty("output." + i + ".size", String.valueOf(cached.length()));
+                manifest.setProperty("output." + i + ".lastModified", String.valueOf(cached.lastModified()));
+            }
+            try (OutputStream out = new FileOutputStream(new File(tmpDir, MANIFEST_FILE))) {
+                manifest.store(out, null);
+            }
+            try {
+                Files.move(tmpDir.toPath(), entryDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpDir.toPath(), entryDir.toPath());
+            }
+        } catch (IOException e) {
+            logger.warn("Can not store operation cache entry for '{}': {}", command, e.getMessage());
+            return;
+        } finally {
+            if (tmpDir != null) {
+                FileUtils.deleteQuietly(tmpDir);
+            }
+        }
+
+        evict();
+    }
+
+    private boolean isInputsMatch(Properties manifest, OperationFiles operation) {
+        int count = getCount(manifest, INPUT_COUNT_PROPERTY);
+        if (count < 0) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            File input = denormalize(manifest.getProperty("input." + i + ".path", ""), operation.getWorkingDir());
+            if (!input.isFile()) {
+                return false;
+            }
+            try {
+                if (!getContentHash(input).equals(manifest.getProperty("input." + i + ".hash"))) {
+                    return false;
+                }
+            } catch (IOException e) {
+                logger.warn("Can not hash '{}': {}", input.getAbsolutePath(), e.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isOutputsValid(Properties manifest, File entryDir) {
+        int count = getCount(manifest, OUTPUT_COUNT_PROPERTY);
+        if (count <= 0) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            File cached = new File(entryDir, OUTPUT_PREFIX + i);
+            if (!cached.isFile() || manifest.getProperty("output." + i + ".path") == null
+                    || !String.valueOf(cached.length()).equals(manifest.getProperty("output." + i + ".size"))
+                    || !String.valueOf(cached.lastModified()).equals(manifest.getProperty("output." + i + ".lastModified"))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void restoreOutputs(Properties manifest, File entryDir, File workingDir) throws IOException {
+        int count = getCount(manifest, OUTPUT_COUNT_PROPERTY);
+        for (int i = 0; i < count; i++) {
+            File output = new File(workingDir, manifest.getProperty("output." + i + ".path"));
+            Files.deleteIfExists(output.toPath());
+            FileUtils.forceMkdir(output.getParentFile());
+            linkOrCopy(new File(entryDir, OUTPUT_PREFIX + i), output);
+            logger.info("Restored '{}' from the operation cache", output.getAbsolutePath());
+        }
+    }
+
+    private synchronized void evict() {
+        List<File> entries = new ArrayList<>();
+        File[] groups = cacheDir.listFiles(File::isDirectory);
+        if (groups == null) {
+            return;
+        }
+        for (File groupDir : groups) {
+            File[] groupEntries = groupDir.listFiles(file -> new File(file, MANIFEST_FILE).isFile());
+            if (groupEntries != null) {
+                entries.addAll(Arrays.asList(groupEntries));
+            }
+        }
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+
+        entries.sort(Comparator.comparingLong(entry -> new File(entry, MANIFEST_FILE).lastModified()));
+        for (int i = 0; i < entries.size() - maxEntries; i++) {
+            if (!FileUtils.deleteQuietly(entries.get(i))) {
+                logger.warn("Can not delete operation cache entry '{}'", entries.get(i).getAbsolutePath());
+            }
+            // the group directory is deleted only if it's empty
+            if (!entries.get(i).getParentFile().delete()) {
+                logger.debug("Operation cache group '{}' is not empty", entries.get(i).getParentFile().getAbsolutePath());
+            }
+        }
+    }
+
+    private static int getCount(Properties manifest, String name) {
+        try {
+            return Integer.parseInt(manifest.getProperty(name, "-1"));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private Properties readManifest(File entryDir) {
+        Properties manifest = new Properties();
+        try (InputStream in = new FileInputStream(new File(entryDir, MANIFEST_FILE))) {
+            manifest.load(in);
+        } catch (IOException e) {
+            logger.warn("Can not read operation cache entry '{}': {}", entryDir.getAbsolutePath(), e.getMessage());
+            return null;
+        }
+        return manifest;
+    }
+
+    private Map<File, String> getInputHashes(OperationFiles operation) throws IOException {
+        Map<File, String> result = new LinkedHashMap<>();
+        for (File input : operation.getInputs()) {
+            result.put(input, getContentHash(input));
+        }
+        return result;
+    }
+
+    private String getContentHash(File file) throws IOException {
+        // inputs such as essences are hashed at most once per run
+        String key = String.format("%s|%d|%d", file.getAbsolutePath(), file.length(), file.lastModified());
+        String contentHash = contentHashes.get(key);
+        if (contentHash == null) {
+            MessageDigest digest = getDigest();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = new FileInputStream(file)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            contentHash = toHex(digest.digest());
+            contentHashes.put(key, contentHash);
+        }
+        return contentHash;
+    }
+
+    private static void linkOrCopy(File source, File target) throws IOException {
+        try {
+            Files.createLink(target.toPath(), source.toPath());
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(source.toPath(), target.toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+
+    private static String getCommand(OperationFiles operation) {
+        return normalize(operation.getCommandLine(), operation.getWorkingDir());
+    }
+
+    private static String normalize(String value, File workingDir) {
+        return value.replace(workingDir.getAbsolutePath(), WORKING_DIR_PLACEHOLDER);
+    }
+
+    private static File denormalize(String value, File workingDir) {
+        return new File(value.replace(WORKING_DIR_PLACEHOLDER, workingDir.getAbsolutePath()));
+    }
+
+    private static String getRelativePath(File file, File workingDir) {
+        String workingDirPath = workingDir.getAbsolutePath() + File.separator;
+        String path = file.getAbsolutePath();
+        return path.startsWith(workingDirPath) ? path.substring(workingDirPath.length()) : null;
+    }
+
+    private static String hash(String value) {
+        return toHex(getDigest().digest(value.getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+    }
+
+    private static MessageDigest getDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder result = new StringBuilder();
+        for (byte b : bytes) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
+}
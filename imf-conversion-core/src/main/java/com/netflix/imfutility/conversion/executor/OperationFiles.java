@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.executor;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Files referenced by a conversion operation (a single process or a whole pipe).
+ * <ul>
+ * <li>A file is referenced if a command line argument is a path to it (relative paths are resolved against
+ * the working directory).</li>
+ * <li>Files read or written by the operation but not named on its command line (for example, files created by a tool
+ * from a name prefix, or essences listed in a plan file) must be declared as the operation's inputs or outputs
+ * in conversion.xml. The file the operation's output is redirected to is an output too.</li>
+ * <li>The size and the last modification time of each referenced file are remembered when the instance is created,
+ * so that output files (created or modified by the operation) can be distinguished from input files afterwards.
+ * Declared inputs and outputs are never mixed up.</li>
+ * </ul>
+ */
+public final class OperationFiles {
+
+    private static final String COMMAND_SEPARATOR = " | ";
+
+    private final List<List<String>> commands;
+    private final File workingDir;
+    private final Map<File, long[]> before = new LinkedHashMap<>();
+    private final Set<File> declaredInputs = new LinkedHashSet<>();
+    private final Set<File> declaredOutputs = new LinkedHashSet<>();
+
+    private OperationFiles(List<List<String>> commands, File workingDir) {
+        this.commands = commands;
+        this.workingDir = workingDir;
+    }
+
+    /**
+     * Collects the files referenced by the operation before it's started.
+     *
+     * @param commands   resolved command lines of the operation (more than one for a pipe)
+     * @param inputs     declared files read by the operation (may contain nulls)
+     * @param outputs    declared files written by the operation including redirected output (may contain nulls)
+     * @param workingDir a working directory where the operation is executed
+     * @return the referenced files
+     */
+    public static OperationFiles collect(List<List<String>> commands, Collection<File> inputs, Collection<File> outputs,
+                                         File workingDir) {
+        OperationFiles result = new OperationFiles(commands, workingDir);
+        for (List<String> command : commands) {
+            for (String arg : command) {
+                result.addFile(result.toFile(arg));
+            }
+        }
+        inputs.stream()
+                .filter(Objects::nonNull)
+                .map(File::getAbsoluteFile)
+                .forEach(file -> {
+                    result.declaredInputs.add(file);
+                    result.addFile(file);
+                });
+        outputs.stream()
+                .filter(Objects::nonNull)
+                .map(File::getAbsoluteFile)
+                .forEach(file -> {
+                    result.declaredOutputs.add(file);
+                    result.addFile(file);
+                });
+        return result;
+    }
+
+    public List<List<String>> getCommands() {
+        return commands;
+    }
+
+    public File getWorkingDir() {
+        return workingDir;
+    }
+
+    /**
+     * Gets all command lines of the operation as a single string.
+     *
+     * @return all command lines of the operation separated by ' | '.
+     */
+    public String getCommandLine() {
+        return commands.stream()
+                .map(command -> String.join(" ", command))
+                .collect(Collectors.joining(COMMAND_SEPARATOR));
+    }
+
+    /**
+     * Gets a file the given command line argument refers to.
+     *
+     * @param arg a command line argument
+     * @return an absolute file or null if the argument can't be a path to a file.
+     */
+    public File toFile(String arg) {
+        if (StringUtils.isBlank(arg)) {
+            return null;
+        }
+        File file = new File(arg);
+        if (!file.isAbsolute()) {
+            file = new File(workingDir, arg);
+        }
+        file = file.getAbsoluteFile();
+        if (file.isDirectory() || !file.isFile() && (file.getParentFile() == null || !file.getParentFile().isDirectory())) {
+            return null;
+        }
+        return file;
+    }
+
+    /**
+     * Gets the referenced files existing before the operation except for the declared outputs.
+     *
+     * @return the input files of the operation.
+     */
+    public List<File> getInputs() {
+        return before.entrySet().stream()
+                .filter(entry -> entry.getValue() != null && !declaredOutputs.contains(entry.getKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the existing declared outputs and the other referenced files (except for the declared inputs)
+     * created or modified since the instance is created.
+     *
+     * @return the output files of the operation.
+     */
+    public List<File> getOutputs() {
+        List<File> result = new ArrayList<>();
+        for (File file : getFiles()) {
+            if (declaredOutputs.contains(file)) {
+                result.add(file);
+                continue;
+            }
+            long[] state = before.get(file);
+            if (!declaredInputs.contains(file)
+                    && (state == null || state[0] != file.length() || state[1] != file.lastModified())) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets all currently existing referenced files.
+     *
+     * @return all currently existing referenced files.
+     */
+    public List<File> getFiles() {
+        return Collections.unmodifiableList(before.keySet().stream()
+                .filter(File::isFile)
+                .collect(Collectors.toList()));
+    }
+
+    private void addFile(File file) {
+        if (file != null && !before.containsKey(file)) {
+            before.put(file, file.isFile() ? new long[]{file.length(), file.lastModified()} : null);
+        }
+    }
+
+}
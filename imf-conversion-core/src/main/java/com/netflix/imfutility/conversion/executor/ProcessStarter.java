@@ -22,6 +22,7 @@ import com.netflix.imfutility.ConversionException;
 import com.netflix.imfutility.CoreConstants;
 import com.netflix.imfutility.util.ImfLogger;
 import com.netflix.imfutility.util.LogHelper;
+import org.apache.commons.lang3.SystemUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,6 +34,7 @@ import java.util.List;
  * An entity responsible for creation and start of a Process.
  * It creates a log file and redirects process's stderr to this file.
  * It also redirected process's stdout to the specified destination (either a file, a log file, IMF utility stdout, or no redirect).
+ * Stdout and stdin of processes participating in a pipeline may be redirected to named pipes.
  */
 public class ProcessStarter {
 
@@ -61,10 +63,27 @@ public class ProcessStarter {
         // 4. redirect stdout
         redirectStdout(pb, processInfo, logFile);
 
-        // 5. start process
+        // 5. redirect stdin
+        if (processInfo.getInputPipeFile() != null) {
+            logger.debug("{}{}Redirecting stdin from named pipe {}", LogHelper.TAB, LogHelper.TAB,
+                    processInfo.getInputPipeFile().getAbsolutePath());
+            pb.redirectInput(ProcessBuilder.Redirect.from(processInfo.getInputPipeFile()));
+        }
+
+        // 6. start process
         return pb.start();
     }
 
+    /**
+     * Whether processes can be connected via named pipes (FIFO) directly (see
+     * {@link com.netflix.imfutility.conversion.executor.strategy.NamedPipe}).
+     *
+     * @return true if named pipes are supported by OS.
+     */
+    public boolean isNamedPipeSupported() {
+        return !SystemUtils.IS_OS_WINDOWS;
+    }
+
     private void redirectStdout(ProcessBuilder pb, ExternalProcess.ExternalProcessInfo processInfo, File logFile) {
         switch (processInfo.getOutputRedirect()) {
             case ERR_LOG:
@@ -83,7 +102,13 @@ public class ProcessStarter {
                 pb.redirectOutput(ProcessBuilder.Redirect.to(processInfo.getOutputRedirectFile()));
                 break;
             case PIPE:
-                logger.debug("{}{}Stdout is not redirected, as it participates in a pipeline", LogHelper.TAB, LogHelper.TAB);
+                if (processInfo.getOutputPipeFile() != null) {
+                    logger.debug("{}{}Redirecting stdout to named pipe {}", LogHelper.TAB, LogHelper.TAB,
+                            processInfo.getOutputPipeFile().getAbsolutePath());
+                    pb.redirectOutput(ProcessBuilder.Redirect.to(processInfo.getOutputPipeFile()));
+                } else {
+                    logger.debug("{}{}Stdout is not redirected, as it participates in a pipeline", LogHelper.TAB, LogHelper.TAB);
+                }
                 break;
             case INHERIT:
             default:
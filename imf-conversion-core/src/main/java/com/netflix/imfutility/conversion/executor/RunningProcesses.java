@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.executor;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * External processes started by a conversion which may be still running.
+ * <ul>
+ * <li>Each started process is registered (see {@link com.netflix.imfutility.conversion.executor.strategy.AbstractExecuteStrategy}),
+ * finished processes are dropped when a new one is registered.</li>
+ * <li>If the conversion fails, all running processes are destroyed at once (see
+ * {@link com.netflix.imfutility.conversion.scheduler.ParallelConversionScheduler}), so that long-running operations
+ * executed concurrently with the failed one are not waited for.</li>
+ * </ul>
+ */
+public final class RunningProcesses {
+
+    private final Set<ExternalProcess> processes = ConcurrentHashMap.newKeySet();
+
+    public void add(ExternalProcess process) {
+        processes.removeIf(running -> !running.getProcess().isAlive());
+        processes.add(process);
+    }
+
+    /**
+     * Forcibly destroys all running processes.
+     */
+    public void destroyAll() {
+        for (ExternalProcess process : processes) {
+            if (process.getProcess().isAlive()) {
+                process.getProcess().destroyForcibly();
+            }
+        }
+        processes.clear();
+    }
+
+}
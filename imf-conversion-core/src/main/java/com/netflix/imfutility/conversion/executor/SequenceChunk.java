@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.executor;
+
+import com.netflix.imfutility.ConversionException;
+import com.netflix.imfutility.conversion.templateParameter.context.ResourceKey;
+import com.netflix.imfutility.conversion.templateParameter.context.ResourceTimeline;
+import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
+import com.netflix.imfutility.cpl.uuid.ResourceUUID;
+import com.netflix.imfutility.cpl.uuid.SegmentUUID;
+import com.netflix.imfutility.cpl.uuid.SequenceUUID;
+import com.netflix.imfutility.generated.conversion.SequenceType;
+import com.netflix.imfutility.util.ConversionHelper;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A part of a sequence (virtual track) that can be converted independently of the other parts.
+ * <ul>
+ * <li>A sequence is split into parts of (almost) the same number of edit units (frames for video).</li>
+ * <li>Part boundaries are always edit unit aligned and may be within a resource.</li>
+ * <li>The start time of a part is the time of its first edit unit in the sequence decoded as a single stream
+ * (for example, by a fused operation), where each resource is cut at its start and end times rounded down to milliseconds
+ * (%{resource.startTimeMS} and %{resource.endTimeMS}). The time is rounded down to milliseconds, so that seeking
+ * to it starts exactly at the first edit unit of the part.</li>
+ * </ul>
+ */
+public final class SequenceChunk {
+
+    private final int num;
+    private final long startEditUnit;
+    private final long durationEditUnit;
+    private final long startTimeMs;
+
+    SequenceChunk(int num, long startEditUnit, long durationEditUnit, long startTimeMs) {
+        this.num = num;
+        this.startEditUnit = startEditUnit;
+        this.durationEditUnit = durationEditUnit;
+        this.startTimeMs = startTimeMs;
+    }
+
+    /**
+     * Splits the given sequence into parts.
+     *
+     * @param contextProvider a context provider with the filled resource context
+     * @param seqUuid         the sequence UUID
+     * @param seqType         the sequence type
+     * @param count           the number of parts requested
+     * @return at most count parts (there are less parts if the sequence has less edit units). At least one part.
+     */
+    public static List<SequenceChunk> split(TemplateParameterContextProvider contextProvider,
+                                            SequenceUUID seqUuid, SequenceType seqType, int count) {
+        List<ResourceTimeline> timelines = getTimelines(contextProvider, seqUuid, seqType);
+        long total = timelines.stream().mapToLong(ResourceTimeline::getDurationEditUnit).sum();
+        int chunkCount = (int) Math.max(1, Math.min(count, total));
+
+        List<SequenceChunk> result = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            long start = total * i / chunkCount;
+            long end = total * (i + 1) / chunkCount;
+            long startTimeMs = getTimeMs(timelines, start);
+            result.add(new SequenceChunk(i, start, end - start, startTimeMs));
+        }
+        return result;
+    }
+
+    private static List<ResourceTimeline> getTimelines(TemplateParameterContextProvider contextProvider,
+                                                       SequenceUUID seqUuid, SequenceType seqType) {
+        List<ResourceTimeline> result = new ArrayList<>();
+        for (SegmentUUID segmUuid : contextProvider.getSegmentContext().getUuids()) {
+            ResourceKey resKey = ResourceKey.create(segmUuid, seqUuid, seqType);
+            for (ResourceUUID resourceUuid : contextProvider.getResourceContext().getUuids(resKey)) {
+                ResourceTimeline timeline = contextProvider.getResourceContext().getResourceTimeline(resKey, resourceUuid);
+                if (timeline == null) {
+                    throw new ConversionException(String.format(
+                            "Sequence '%s' can not be split: no timeline for resource '%s'", seqUuid, resourceUuid));
+                }
+                result.add(timeline);
+            }
+        }
+        return result;
+    }
+
+    private static long getTimeMs(List<ResourceTimeline> timelines, long editUnit) {
+        long offsetMs = 0;
+        long resourceStart = 0;
+        for (ResourceTimeline timeline : timelines) {
+            long startTimeMs = toMs(timeline.getStartTimeEditUnit(), timeline);
+            if (editUnit < resourceStart + timeline.getDurationEditUnit()) {
+                long editUnitTimeMs = toMs(timeline.getStartTimeEditUnit() + editUnit - resourceStart, timeline);
+                return offsetMs + editUnitTimeMs - startTimeMs;
+            }
+            // the duration of a resource in the stream is defined by its rounded start and end times
+            offsetMs += toMs(timeline.getEndTimeEditUnit(), timeline) - startTimeMs;
+            resourceStart += timeline.getDurationEditUnit();
+        }
+        return offsetMs;
+    }
+
+    private static long toMs(long editUnit, ResourceTimeline timeline) {
+        return ConversionHelper.editUnitToMilliSeconds(BigInteger.valueOf(editUnit), timeline.getEditRate());
+    }
+
+    /**
+     * Gets the number of the part (starting from 0).
+     *
+     * @return the number of the part.
+     */
+    public int getNum() {
+        return num;
+    }
+
+    /**
+     * Gets the first edit unit of the part within the sequence.
+     *
+     * @return the first edit unit of the part.
+     */
+    public long getStartEditUnit() {
+        return startEditUnit;
+    }
+
+    /**
+     * Gets the number of edit units in the part.
+     *
+     * @return the number of edit units in the part.
+     */
+    public long getDurationEditUnit() {
+        return durationEditUnit;
+    }
+
+    /**
+     * Gets the time of the first edit unit in the sequence decoded as a single stream rounded down to milliseconds.
+     *
+     * @return the start time of the part in milliseconds.
+     */
+    public long getStartTimeMs() {
+        return startTimeMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("chunk %d [%d, %d)", num, startEditUnit, startEditUnit + durationEditUnit);
+    }
+}
@@ -21,8 +21,10 @@ package com.netflix.imfutility.conversion.executor.strategy;
 import com.netflix.imfutility.conversion.executor.ConversionOperationParser;
 import com.netflix.imfutility.conversion.executor.ExecutionException;
 import com.netflix.imfutility.conversion.executor.ExternalProcess;
+import com.netflix.imfutility.conversion.executor.OperationFiles;
 import com.netflix.imfutility.conversion.executor.OutputRedirect;
 import com.netflix.imfutility.conversion.executor.ProcessStarter;
+import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
 import com.netflix.imfutility.conversion.templateParameter.TemplateParameterResolver;
 import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
 import com.netflix.imfutility.util.ImfLogger;
@@ -31,8 +33,11 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -42,7 +47,7 @@ public class AbstractExecuteStrategy {
 
     private final Logger logger = new ImfLogger(LoggerFactory.getLogger(AbstractExecuteStrategy.class));
 
-    private static int count = 1; // the current number of executed conversion operations.
+    private static final AtomicInteger COUNT = new AtomicInteger(1); // the current number of executed conversion operations.
 
     protected final ConversionOperationParser conversionOperationParser;
     protected final TemplateParameterResolver parameterResolver;
@@ -59,30 +64,137 @@ public class AbstractExecuteStrategy {
      * Resets the current number of executed conversion operations.
      */
     public static void resetCount() {
-        count = 1;
+        COUNT.set(1);
     }
 
     final ExternalProcess startProcess(OperationInfo operationInfo, OutputRedirect defaultOutputRedirect) throws IOException {
+        return startProcess(operationInfo, defaultOutputRedirect, null, null);
+    }
+
+    final ExternalProcess startProcess(OperationInfo operationInfo, OutputRedirect defaultOutputRedirect,
+                                       File inputPipeFile, File outputPipeFile) throws IOException {
         List<String> execAndParams = conversionOperationParser.parseOperation(operationInfo.getOperation(), operationInfo.getContextInfo());
         if (execAndParams.isEmpty()) {
             throw new ExecutionException(String.format("No parameters for process '%s'", operationInfo.getOperationName()));
         }
 
-        ExternalProcess.ExternalProcessInfo processInfo = createProcessInfo(operationInfo, execAndParams, defaultOutputRedirect);
+        ExternalProcess.ExternalProcessInfo processInfo = createProcessInfo(operationInfo, execAndParams, defaultOutputRedirect,
+                inputPipeFile, outputPipeFile);
         Process process = processStarter.startProcess(processInfo, execAndParams);
-        return new ExternalProcess(process, processInfo);
+        ExternalProcess externalProcess = new ExternalProcess(process, processInfo);
+        parameterResolver.getContextProvider().getRunningProcesses().add(externalProcess);
+        return externalProcess;
     }
 
     private ExternalProcess.ExternalProcessInfo createProcessInfo(OperationInfo operationInfo, List<String> execAndParams,
-                                                                  OutputRedirect defaultOutputRedirect) {
-        int processNum = count++;
+                                                                  OutputRedirect defaultOutputRedirect,
+                                                                  File inputPipeFile, File outputPipeFile) {
+        int processNum = COUNT.getAndIncrement();
         String operationType = getClass().getSimpleName();
         String programPath = execAndParams.get(0);
         String programName = new File(programPath.replaceAll("\"", "")).getName();
         OutputRedirect outputRedirect = operationInfo.getOutput() != null ? OutputRedirect.FILE : defaultOutputRedirect;
         return new ExternalProcess.ExternalProcessInfo(
                 processNum, operationInfo.getOperationName(), operationType, programName, execAndParams,
-                parameterResolver.getContextProvider().getWorkingDir(), outputRedirect, operationInfo.getOutput());
+                parameterResolver.getContextProvider().getWorkingDir(), outputRedirect, operationInfo.getOutput(),
+                inputPipeFile, outputPipeFile);
+    }
+
+    /**
+     * Collects files referenced by the given executable operations if they are journaled or cached
+     * (see {@link com.netflix.imfutility.conversion.executor.ConversionJournal}
+     * and {@link com.netflix.imfutility.conversion.executor.OperationCache}).
+     *
+     * @param operations all executable operations started together (more than one for a pipe)
+     * @return the referenced files or null if the operations are neither journaled nor cached.
+     */
+    protected final OperationFiles collectFiles(List<OperationInfo> operations) {
+        return collectFiles(operations, Collections.emptyList());
+    }
+
+    /**
+     * Collects files referenced by the given executable operations if they are journaled or cached.
+     * The inputs and outputs declared by the operations in conversion.xml are resolved against the working directory.
+     *
+     * @param operations  all executable operations started together
+     * @param outputFiles additional files written by the operations, but not referenced by their command lines
+     * @return the referenced files or null if the operations are neither journaled nor cached.
+     */
+    protected final OperationFiles collectFiles(List<OperationInfo> operations, Collection<File> outputFiles) {
+        TemplateParameterContextProvider contextProvider = parameterResolver.getContextProvider();
+        if (contextProvider.getConversionJournal() == null && contextProvider.getOperationCache() == null
+                || operations.isEmpty()) {
+            return null;
+        }
+        List<List<String>> commands = operations.stream()
+                .map(operation -> conversionOperationParser.parseOperation(operation.getOperation(), operation.getContextInfo()))
+                .collect(Collectors.toList());
+        List<File> inputs = new ArrayList<>();
+        List<File> outputs = new ArrayList<>();
+        for (OperationInfo operation : operations) {
+            inputs.addAll(getDeclaredFiles(operation.getInputs(), operation.getContextInfo()));
+            outputs.addAll(getDeclaredFiles(operation.getOutputs(), operation.getContextInfo()));
+            outputs.add(operation.getOutput());
+        }
+        outputs.addAll(outputFiles);
+        return OperationFiles.collect(commands, inputs, outputs, contextProvider.getWorkingDir());
+    }
+
+    private List<File> getDeclaredFiles(String files, ContextInfo contextInfo) {
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        File workingDir = parameterResolver.getContextProvider().getWorkingDir();
+        return conversionOperationParser.parseOperation(files, contextInfo).stream()
+                .map(path -> new File(path).isAbsolute() ? new File(path) : new File(workingDir, path))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Checks whether the operations are completed by a previous conversion or their outputs can be restored
+     * from the operation cache, so that the operations can be skipped.
+     *
+     * @param files      files referenced by the operations returned by {@link #collectFiles(List)} (may be null)
+     * @param operations the operations to be logged if they are skipped
+     * @return true if the operations must be skipped.
+     * @throws IOException if the journal can not be written
+     */
+    protected final boolean isCompleted(OperationFiles files, List<OperationInfo> operations) throws IOException {
+        if (files == null) {
+            return false;
+        }
+        TemplateParameterContextProvider contextProvider = parameterResolver.getContextProvider();
+        if (contextProvider.getConversionJournal() != null && contextProvider.getConversionJournal().isCompleted(files)) {
+            operations.forEach(operation -> logger.info("Skipped {}: completed by a previous conversion\n", operation.toString()));
+            return true;
+        }
+        if (contextProvider.getOperationCache() != null && contextProvider.getOperationCache().restore(files)) {
+            operations.forEach(operation -> logger.info("Skipped {}: restored from the operation cache\n", operation.toString()));
+            if (contextProvider.getConversionJournal() != null) {
+                contextProvider.getConversionJournal().complete(files);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records successfully finished operations in the journal and stores their outputs in the operation cache.
+     *
+     * @param files files referenced by the operations returned by {@link #collectFiles(List)} (may be null)
+     * @throws IOException if the journal can not be written
+     */
+    protected final void complete(OperationFiles files) throws IOException {
+        if (files == null) {
+            return;
+        }
+        TemplateParameterContextProvider contextProvider = parameterResolver.getContextProvider();
+        if (contextProvider.getConversionJournal() != null) {
+            contextProvider.getConversionJournal().complete(files);
+        }
+        if (contextProvider.getOperationCache() != null) {
+            contextProvider.getOperationCache().store(files);
+        }
     }
 
     protected List<OperationInfo> skipOperations(Collection<OperationInfo> operations) {
@@ -19,11 +19,14 @@
 package com.netflix.imfutility.conversion.executor.strategy;
 
 import com.netflix.imfutility.conversion.executor.ExternalProcess;
+import com.netflix.imfutility.conversion.executor.OperationFiles;
 import com.netflix.imfutility.conversion.executor.OutputRedirect;
 import com.netflix.imfutility.conversion.executor.ProcessStarter;
 import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Simply starts the conversion operation and waits until it's finished.
@@ -35,12 +38,36 @@ public class ExecuteOnceStrategy extends AbstractExecuteStrategy {
     }
 
     public void execute(OperationInfo operationInfo) throws IOException {
+        OperationFiles files = null;
+        if (operationInfo.isExecutable()) {
+            List<OperationInfo> operations = Collections.singletonList(operationInfo);
+            files = collectFiles(operations);
+            if (isCompleted(files, operations)) {
+                return;
+            }
+        }
+
+        ExternalProcess process = start(operationInfo);
+        if (process != null) {
+            process.finishWaitFor();
+            complete(files);
+        }
+    }
+
+    /**
+     * Starts the conversion operation without waiting for it. All template parameters of the operation are resolved
+     * by the time the method returns.
+     *
+     * @param operationInfo the operation to start
+     * @return the started process or null if the operation is skipped
+     * @throws IOException if the process can not be started
+     */
+    public ExternalProcess start(OperationInfo operationInfo) throws IOException {
         if (operationInfo.isSkip()) {
             skipOperation(operationInfo);
-            return;
+            return null;
         }
-        ExternalProcess process = startProcess(operationInfo, OutputRedirect.ERR_LOG);
-        process.finishWaitFor();
+        return startProcess(operationInfo, OutputRedirect.ERR_LOG);
     }
 
 }
@@ -18,22 +18,36 @@
  */
 package com.netflix.imfutility.conversion.executor.strategy;
 
+import com.netflix.imfutility.ConversionException;
+import com.netflix.imfutility.CoreConstants;
 import com.netflix.imfutility.conversion.executor.ExternalProcess;
+import com.netflix.imfutility.conversion.executor.OperationFiles;
 import com.netflix.imfutility.conversion.executor.OutputRedirect;
 import com.netflix.imfutility.conversion.executor.ProcessStarter;
 import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
+import com.netflix.imfutility.cpl.uuid.ResourceUUID;
 import com.netflix.imfutility.util.ImfLogger;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /**
  * Execute all operations in a pipeline.
@@ -58,20 +72,271 @@ import java.util.Set;
  * </li>
  * </ul>
  * </p>
+ * <p>
+ * The processes are connected via named pipes (FIFO) created in the working directory, so that the data goes directly
+ * from one process to another (see {@link NamedPipe}). If named pipes are not supported or can not be created,
+ * the data is copied between processes by IMF utility (see {@link Piper}).
+ * </p>
+ * <p>
+ * Subsequent cycles for repeats of the same resource running exactly the same commands (for example, a slate
+ * repeated many times) are executed only once: the output of the cycle is stored in a temporary file in the working
+ * directory and replicated to the first tail process as many times as the resource is repeated.
+ * If the output exceeds the maximum size (see config.xml), it's not stored, and the cycle is executed for each repeat.
+ * </p>
  */
 public class ExecutePipeStrategy extends AbstractExecuteStrategy {
 
     private static final Logger LOGGER = new ImfLogger(LoggerFactory.getLogger(ExecutePipeStrategy.class));
 
-    private final Set<ImmutablePair<ExternalProcess, ExternalProcess>> startedPipes = new HashSet<>();
+    private final Map<ImmutablePair<ExternalProcess, ExternalProcess>, Thread> startedPipes = new HashMap<>();
+    private final List<PipeStatistics> pipeStatistics = Collections.synchronizedList(new ArrayList<>());
+    private final int bufferSize;
+    private final long maxRepeatedCycleSize;
 
     public ExecutePipeStrategy(TemplateParameterContextProvider contextProvider, ProcessStarter processStarter) {
         super(contextProvider, processStarter);
+        this.bufferSize = getBufferSize(contextProvider);
+        this.maxRepeatedCycleSize = getMaxRepeatedCycleSize(contextProvider);
+    }
+
+    private static int getBufferSize(TemplateParameterContextProvider contextProvider) {
+        if (contextProvider.getConfigProvider() == null) {
+            return CoreConstants.DEFAULT_PIPE_BUFFER_SIZE;
+        }
+        if (contextProvider.getConfigProvider().getConfig().getPipeBufferSize() == null) {
+            return CoreConstants.DEFAULT_PIPE_BUFFER_SIZE;
+        }
+        return contextProvider.getConfigProvider().getConfig().getPipeBufferSize();
+    }
+
+    private static long getMaxRepeatedCycleSize(TemplateParameterContextProvider contextProvider) {
+        if (contextProvider.getConfigProvider() == null) {
+            return CoreConstants.DEFAULT_MAX_REPEATED_CYCLE_SIZE;
+        }
+        if (contextProvider.getConfigProvider().getConfig().getMaxRepeatedCycleSize() == null) {
+            return CoreConstants.DEFAULT_MAX_REPEATED_CYCLE_SIZE;
+        }
+        return contextProvider.getConfigProvider().getConfig().getMaxRepeatedCycleSize();
+    }
+
+    /**
+     * Gets statistics for all pipes where the data has been copied between processes by IMF utility.
+     *
+     * @return statistics for each pair of connected processes.
+     */
+    public List<PipeStatistics> getPipeStatistics() {
+        return pipeStatistics;
     }
 
     public void execute(PipeOperationInfo operations) throws IOException {
         PipeOperationInfo actualOperations = skipPipeOperations(operations);
 
+        List<OperationInfo> allOperations = getAllOperations(actualOperations);
+        OperationFiles files = collectFiles(allOperations);
+        if (isCompleted(files, allOperations)) {
+            return;
+        }
+
+        NamedPipes namedPipes = createNamedPipes(actualOperations);
+        if (namedPipes != null) {
+            executeWithNamedPipes(actualOperations, namedPipes);
+        } else {
+            executeWithPiper(actualOperations);
+        }
+        complete(files);
+    }
+
+    /**
+     * Executes pipes converting the parts of a sequence (see {@link com.netflix.imfutility.conversion.executor.SequenceChunk})
+     * as a single operation, which output is the concatenated output of all parts. The operation is journaled and cached
+     * with the concatenated output, as the outputs of the parts are deleted once concatenated.
+     *
+     * @param chunkPipes the pipes converting each part
+     * @param output     the file the outputs of the parts are concatenated to
+     * @param execution  executes the pipes and concatenates the outputs
+     * @throws IOException if the pipes can not be executed or the journal can not be written
+     */
+    public void executeChunks(List<PipeOperationInfo> chunkPipes, File output, ChunksExecution execution) throws IOException {
+        List<OperationInfo> allOperations = new ArrayList<>();
+        for (PipeOperationInfo chunkPipe : chunkPipes) {
+            allOperations.addAll(getAllOperations(skipPipeOperations(chunkPipe)));
+        }
+        OperationFiles files = collectFiles(allOperations, Collections.singletonList(output));
+        if (isCompleted(files, allOperations)) {
+            return;
+        }
+
+        execution.execute();
+        complete(files);
+    }
+
+    private static List<OperationInfo> getAllOperations(PipeOperationInfo operations) {
+        List<OperationInfo> result = new ArrayList<>();
+        operations.getCycleOperations().forEach(result::addAll);
+        result.addAll(operations.getTailOperations());
+        return result;
+    }
+
+    /**
+     * Executes the pipes converting the parts of a sequence and concatenates their outputs
+     * (see {@link #executeChunks(List, File, ChunksExecution)}).
+     */
+    @FunctionalInterface
+    public interface ChunksExecution {
+
+        void execute() throws IOException;
+
+    }
+
+    // ------------- named pipes
+
+    private NamedPipes createNamedPipes(PipeOperationInfo operations) {
+        if (!processStarter.isNamedPipeSupported()) {
+            return null;
+        }
+
+        int tailCount = operations.getTailOperations().size();
+        int maxHeadCount = operations.getCycleOperations().stream().mapToInt(List::size).max().orElse(0);
+        boolean hasCycle = maxHeadCount > 0 && tailCount > 0;
+        if (tailCount <= 1 && maxHeadCount <= 1 && !hasCycle) {
+            // nothing to connect
+            return null;
+        }
+
+        NamedPipes namedPipes = new NamedPipes();
+        File workingDir = parameterResolver.getContextProvider().getWorkingDir();
+        try {
+            for (int i = 0; i < tailCount - 1; i++) {
+                namedPipes.tailPipes.add(NamedPipe.create(workingDir));
+            }
+            for (int i = 0; i < maxHeadCount - 1; i++) {
+                namedPipes.headPipes.add(NamedPipe.create(workingDir));
+            }
+            if (hasCycle) {
+                namedPipes.cyclePipe = NamedPipe.create(workingDir);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Can not create named pipes, the data will be copied between processes: {}", e.getMessage());
+            namedPipes.close();
+            return null;
+        }
+        return namedPipes;
+    }
+
+    private void executeWithNamedPipes(PipeOperationInfo operations, NamedPipes namedPipes) throws IOException {
+        List<ExternalProcess> tailProcesses = new ArrayList<>();
+        try {
+            // 1. start all tailing operation
+            startTailProcesses(operations, tailProcesses, namedPipes);
+
+            // 2. start all cycle processes in a sequence subsequently in pipelines
+            if (operations.getCycleOperations().isEmpty()) {
+                if (!tailProcesses.isEmpty()) {
+                    tailProcesses.get(0).finishWaitFor();
+                }
+            } else {
+                for (RepeatedCycle cycle : groupRepeatedCycles(operations)) {
+                    if (cycle.count > 1) {
+                        processRepeatedCyclePipe(cycle, namedPipes);
+                    } else {
+                        processCyclePipe(cycle.operations, namedPipes, getFile(namedPipes.cyclePipe));
+                    }
+                }
+            }
+        } finally {
+            // 3. close all named pipes (so that the first tail process gets EOF) and all tail processes.
+            namedPipes.close();
+            finishClose(tailProcesses, false);
+        }
+    }
+
+    private void startTailProcesses(PipeOperationInfo operations, List<ExternalProcess> tailProcesses, NamedPipes namedPipes)
+            throws IOException {
+        List<OperationInfo> tailOperations = operations.getTailOperations();
+        try {
+            namedPipes.openForStart(namedPipes.tailPipes);
+            if (namedPipes.cyclePipe != null) {
+                namedPipes.cyclePipe.openForStart();
+            }
+
+            for (int i = 0; i < tailOperations.size(); i++) {
+                NamedPipe input = i == 0 ? namedPipes.cyclePipe : namedPipes.tailPipes.get(i - 1);
+                NamedPipe output = i < tailOperations.size() - 1 ? namedPipes.tailPipes.get(i) : null;
+                OutputRedirect outputRedirect = output != null ? OutputRedirect.PIPE : OutputRedirect.ERR_LOG;
+                tailProcesses.add(startProcess(tailOperations.get(i), outputRedirect, getFile(input), getFile(output)));
+            }
+
+            // the first tail process must not get EOF when a cycle process is finished
+            if (namedPipes.cyclePipe != null) {
+                namedPipes.cyclePipe.hold();
+            }
+        } finally {
+            namedPipes.startFinished(namedPipes.tailPipes);
+            if (namedPipes.cyclePipe != null) {
+                namedPipes.cyclePipe.startFinished();
+            }
+        }
+    }
+
+    private void processCyclePipe(List<OperationInfo> cyclePipeOperations, NamedPipes namedPipes, File cycleOutput)
+            throws IOException {
+        List<ExternalProcess> headProcesses = new ArrayList<>();
+        try {
+            startCycleProcesses(cyclePipeOperations, namedPipes, cycleOutput, headProcesses);
+
+            // wait for the first process in chain
+            headProcesses.get(0).finishWaitFor();
+        } finally {
+            finishClose(headProcesses, false);
+        }
+    }
+
+    private void startCycleProcesses(List<OperationInfo> cyclePipeOperations, NamedPipes namedPipes, File cycleOutput,
+                                     List<ExternalProcess> headProcesses) throws IOException {
+        List<NamedPipe> usedPipes = new ArrayList<>(namedPipes.headPipes.subList(0, cyclePipeOperations.size() - 1));
+        if (namedPipes.cyclePipe != null && namedPipes.cyclePipe.getFile().equals(cycleOutput)) {
+            usedPipes.add(namedPipes.cyclePipe);
+        }
+        try {
+            namedPipes.openForStart(usedPipes);
+            for (int i = 0; i < cyclePipeOperations.size(); i++) {
+                NamedPipe input = i > 0 ? namedPipes.headPipes.get(i - 1) : null;
+                File output = i < cyclePipeOperations.size() - 1 ? namedPipes.headPipes.get(i).getFile() : cycleOutput;
+                headProcesses.add(startProcess(cyclePipeOperations.get(i), OutputRedirect.PIPE, getFile(input), output));
+            }
+        } finally {
+            namedPipes.startFinished(usedPipes);
+        }
+    }
+
+    private void processRepeatedCyclePipe(RepeatedCycle cycle, NamedPipes namedPipes) throws IOException {
+        boolean replicated;
+        // the cycle pipe is held open, so the first tail process doesn't get EOF when the stream is closed
+        try (OutputStream output = new FileOutputStream(namedPipes.cyclePipe.getFile())) {
+            List<ExternalProcess> headProcesses = new ArrayList<>();
+            try {
+                // the output of the last cycle process is read by IMF utility to be stored and replicated
+                startCycleProcesses(cycle.operations, namedPipes, null, headProcesses);
+                replicated = replicate(cycle, getLast(headProcesses).getProcess().getInputStream(), output);
+                headProcesses.get(0).finishWaitFor();
+            } finally {
+                finishClose(headProcesses, false);
+            }
+        }
+        if (!replicated) {
+            for (int i = 1; i < cycle.count; i++) {
+                processCyclePipe(cycle.operations, namedPipes, getFile(namedPipes.cyclePipe));
+            }
+        }
+    }
+
+    private static File getFile(NamedPipe namedPipe) {
+        return namedPipe != null ? namedPipe.getFile() : null;
+    }
+
+    // ------------- copying by piper
+
+    private void executeWithPiper(PipeOperationInfo actualOperations) throws IOException {
         List<ExternalProcess> tailProcesses = new ArrayList<>();
 
         startedPipes.clear();
@@ -87,8 +352,12 @@ public class ExecutePipeStrategy extends AbstractExecuteStrategy {
             }
         } finally {
             // 3. close all tail processes.
-            tailProcesses.forEach(ExternalProcess::finishClose);
-            startedPipes.clear();
+            // make sure all data from a tail process is copied before the next one is closed.
+            try {
+                finishClose(tailProcesses, true);
+            } finally {
+                startedPipes.clear();
+            }
         }
     }
 
@@ -108,8 +377,12 @@ public class ExecutePipeStrategy extends AbstractExecuteStrategy {
     }
 
     private void processCycle(PipeOperationInfo operations, List<ExternalProcess> tailProcesses) throws IOException {
-        for (List<OperationInfo> cyclePipeOperations : operations.getCycleOperations()) {
-            processCyclePipe(cyclePipeOperations, tailProcesses);
+        for (RepeatedCycle cycle : groupRepeatedCycles(operations)) {
+            if (cycle.count > 1) {
+                processRepeatedCyclePipe(cycle, tailProcesses);
+            } else {
+                processCyclePipe(cycle.operations, tailProcesses);
+            }
         }
     }
 
@@ -122,7 +395,92 @@ public class ExecutePipeStrategy extends AbstractExecuteStrategy {
             }
             pipe(headProcesses, tailProcesses);
         } finally {
-            headProcesses.forEach(ExternalProcess::finishClose);
+            // make sure all data from the cycle is copied before the next cycle writes to the same tail process.
+            finishCycle(headProcesses);
+        }
+    }
+
+    private void processRepeatedCyclePipe(RepeatedCycle cycle, List<ExternalProcess> tailProcesses) throws IOException {
+        List<ExternalProcess> headProcesses = new ArrayList<>();
+        FutureTask<Boolean> replication = null;
+        try {
+            for (OperationInfo headOperation : cycle.operations) {
+                headProcesses.add(startProcess(headOperation, OutputRedirect.PIPE));
+            }
+            // the stream must not be closed, as the next cycles write to the same tail process.
+            startPipers(tailProcesses);
+            InputStream cycleOutput = getLast(headProcesses).getProcess().getInputStream();
+            OutputStream output = tailProcesses.get(0).getProcess().getOutputStream();
+
+            // the output of the last cycle process is replicated in another thread,
+            // as the cycle processes can be finished only when all the output is read.
+            replication = new FutureTask<>(() -> replicate(cycle, cycleOutput, output));
+            new Thread(replication, "Replicator-" + getLast(headProcesses).getProcessInfo().getProcessNum()).start();
+            pipe(headProcesses);
+        } finally {
+            finishCycle(headProcesses);
+        }
+        if (!getReplicationResult(replication)) {
+            for (int i = 1; i < cycle.count; i++) {
+                processCyclePipe(cycle.operations, tailProcesses);
+            }
+        }
+    }
+
+    private static boolean getReplicationResult(FutureTask<Boolean> replication) throws IOException {
+        try {
+            return replication.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConversionException("Interrupted while replicating the output of a repeated cycle", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new ConversionException("Can not replicate the output of a repeated cycle", e.getCause());
+        }
+    }
+
+    private void finishCycle(List<ExternalProcess> headProcesses) {
+        // a process can be closed only when all data from the previous one is copied to it.
+        finishClose(headProcesses, true);
+    }
+
+    /**
+     * Closes all the processes even if some of them fail, so that no process is left running.
+     * The first failure is re-thrown after all the processes are closed, the other ones are added to it as suppressed.
+     */
+    private void finishClose(List<ExternalProcess> processes, boolean joinPipers) {
+        RuntimeException failure = null;
+        for (ExternalProcess process : processes) {
+            try {
+                process.finishClose();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+            if (joinPipers) {
+                joinPipers(Collections.singletonList(process));
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void joinPipers(List<ExternalProcess> inputProcesses) {
+        for (Map.Entry<ImmutablePair<ExternalProcess, ExternalProcess>, Thread> pipe : startedPipes.entrySet()) {
+            if (inputProcesses.contains(pipe.getKey().getLeft())) {
+                try {
+                    pipe.getValue().join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
         }
     }
 
@@ -137,6 +495,14 @@ public class ExecutePipeStrategy extends AbstractExecuteStrategy {
             return;
         }
         // 1. start a new thread to copy input - output in a pipeline
+        startPipers(pipeline);
+
+        // 2. Wait for the first process in chain
+        ExternalProcess firstProcess = pipeline.get(0);
+        firstProcess.finishWaitFor();
+    }
+
+    private void startPipers(List<ExternalProcess> pipeline) {
         ExternalProcess p1;
         ExternalProcess p2;
         for (int i = 0; i < pipeline.size(); i++) {
@@ -146,17 +512,120 @@ public class ExecutePipeStrategy extends AbstractExecuteStrategy {
                 startPiper(p1, p2);
             }
         }
-
-        // 2. Wait for the first process in chain
-        ExternalProcess firstProcess = pipeline.get(0);
-        firstProcess.finishWaitFor();
     }
 
     private void startPiper(ExternalProcess p1, ExternalProcess p2) {
-        if (!startedPipes.contains(ImmutablePair.of(p1, p2))) {
-            new Thread(new Piper(p1, p2)).start();
-            startedPipes.add(ImmutablePair.of(p1, p2));
+        if (!startedPipes.containsKey(ImmutablePair.of(p1, p2))) {
+            PipeStatistics statistics = new PipeStatistics(p1.toString(), p2.toString());
+            pipeStatistics.add(statistics);
+            Thread piper = new Thread(new Piper(p1, p2, bufferSize, statistics), "Piper-" + p1.getProcessInfo().getProcessNum());
+            piper.start();
+            startedPipes.put(ImmutablePair.of(p1, p2), piper);
+        }
+    }
+
+    // ------------- repeated resources
+
+    /**
+     * Groups subsequent cycles which are executed for repeats of the same resource and run exactly the same commands.
+     * Cycles are grouped only if there is a tail process to replicate the output to.
+     */
+    private List<RepeatedCycle> groupRepeatedCycles(PipeOperationInfo operations) {
+        List<RepeatedCycle> cycles = new ArrayList<>();
+        boolean hasTail = !operations.getTailOperations().isEmpty();
+        RepeatedCycle current = null;
+        for (List<OperationInfo> cycleOperations : operations.getCycleOperations()) {
+            if (hasTail && current != null && isRepeat(current.operations, cycleOperations)) {
+                current.count++;
+            } else {
+                current = new RepeatedCycle(cycleOperations);
+                cycles.add(current);
+            }
+        }
+        return cycles;
+    }
+
+    private boolean isRepeat(List<OperationInfo> prevOperations, List<OperationInfo> nextOperations) {
+        if (prevOperations.size() != nextOperations.size()) {
+            return false;
+        }
+        for (int i = 0; i < prevOperations.size(); i++) {
+            OperationInfo prev = prevOperations.get(i);
+            OperationInfo next = nextOperations.get(i);
+            ResourceUUID prevResource = prev.getContextInfo().getResourceUuid();
+            ResourceUUID nextResource = next.getContextInfo().getResourceUuid();
+            if (prevResource == null || nextResource == null
+                    || !prevResource.getUuid().equals(nextResource.getUuid())
+                    || prevResource.getRepeat() == nextResource.getRepeat()) {
+                return false;
+            }
+            if (prev.getOutput() != null || next.getOutput() != null) {
+                return false;
+            }
+            String prevOperation = parameterResolver.resolveTemplateParameter(prev.getOperation(), prev.getContextInfo());
+            String nextOperation = parameterResolver.resolveTemplateParameter(next.getOperation(), next.getContextInfo());
+            if (!prevOperation.equals(nextOperation)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the output of the first repeat to the tail storing it in a temporary file, and replicates the stored output
+     * for the other repeats. If the output exceeds the maximum size, it's not stored anymore, but copied to the tail as is,
+     * and the cycle must be executed for the other repeats.
+     *
+     * @return true if the output has been replicated for all repeats, false if the cycle must be executed for the other repeats.
+     */
+    private boolean replicate(RepeatedCycle cycle, InputStream cycleOutput, OutputStream output) throws IOException {
+        LOGGER.info("The cycle {} is repeated {} times: it's executed once and the output is replicated",
+                cycle.operations, cycle.count);
+        File storedOutput = File.createTempFile("repeat-", ".tmp", parameterResolver.getContextProvider().getWorkingDir());
+        try {
+            boolean stored;
+            try (OutputStream storedOutputStream = new FileOutputStream(storedOutput)) {
+                stored = copy(cycleOutput, storedOutputStream, maxRepeatedCycleSize);
+            }
+            if (!stored) {
+                LOGGER.info("The output of the cycle {} exceeds {} bytes: the cycle is executed for each repeat",
+                        cycle.operations, maxRepeatedCycleSize);
+                Files.copy(storedOutput.toPath(), output);
+                IOUtils.copyLarge(cycleOutput, output, new byte[bufferSize]);
+                output.flush();
+                return false;
+            }
+            for (int i = 0; i < cycle.count; i++) {
+                Files.copy(storedOutput.toPath(), output);
+            }
+            output.flush();
+            return true;
+        } finally {
+            FileUtils.deleteQuietly(storedOutput);
+        }
+    }
+
+    /**
+     * Copies the input until the end of stream or until more than maxSize bytes are copied.
+     *
+     * @return true if the whole input has been copied.
+     */
+    private boolean copy(InputStream input, OutputStream output, long maxSize) throws IOException {
+        byte[] buffer = new byte[bufferSize];
+        long size = 0;
+        int n;
+        while ((n = input.read(buffer)) != -1) {
+            output.write(buffer, 0, n);
+            size += n;
+            if (size > maxSize) {
+                return false;
+            }
         }
+        return true;
+    }
+
+    private static ExternalProcess getLast(List<ExternalProcess> processes) {
+        return processes.get(processes.size() - 1);
     }
 
     protected PipeOperationInfo skipPipeOperations(PipeOperationInfo operations) {
@@ -171,30 +640,97 @@ public class ExecutePipeStrategy extends AbstractExecuteStrategy {
         return newOperations;
     }
 
+    /**
+     * Subsequent cycles for repeats of the same resource running the same commands.
+     */
+    private static final class RepeatedCycle {
+
+        private final List<OperationInfo> operations;
+        private int count = 1;
+
+        private RepeatedCycle(List<OperationInfo> operations) {
+            this.operations = operations;
+        }
+
+    }
+
+    /**
+     * Named pipes connecting the processes of a pipeline.
+     * <ul>
+     * <li>tailPipes: connect tail processes (tail1 -> tail2 -> tail3)</li>
+     * <li>headPipes: connect cycle processes within each cycle (cycle11 -> cycle12 -> cycle13).
+     * The same pipes are re-used for each cycle.</li>
+     * <li>cyclePipe: connects the last process of each cycle with the first tail process (cycle13 -> tail1).</li>
+     * </ul>
+     */
+    private static final class NamedPipes {
+
+        private final List<NamedPipe> tailPipes = new ArrayList<>();
+        private final List<NamedPipe> headPipes = new ArrayList<>();
+        private NamedPipe cyclePipe;
+
+        private void openForStart(List<NamedPipe> pipes) throws IOException {
+            for (NamedPipe pipe : pipes) {
+                pipe.openForStart();
+            }
+        }
+
+        private void startFinished(List<NamedPipe> pipes) {
+            pipes.forEach(NamedPipe::startFinished);
+        }
+
+        private void close() {
+            if (cyclePipe != null) {
+                cyclePipe.close();
+            }
+            tailPipes.forEach(NamedPipe::close);
+            headPipes.forEach(NamedPipe::close);
+        }
+
+    }
+
+    /**
+     * Copies stdout of one process to stdin of another one.
+     * <ul>
+     * <li>Large buffers are used to minimize the number of system calls. The buffers are re-used by subsequent pipes.</li>
+     * <li>Reads and writes are timed to collect {@link PipeStatistics}.</li>
+     * </ul>
+     */
     private static class Piper implements Runnable {
 
-        private static final int BUF_SIZE = 512;
+        private static final int MAX_POOLED_BUFFERS = 16;
+        private static final Queue<byte[]> BUFFER_POOL = new ConcurrentLinkedQueue<>();
 
         private final ExternalProcess inputProcess;
         private final ExternalProcess outputProcess;
+        private final int bufferSize;
+        private final PipeStatistics statistics;
 
-        Piper(ExternalProcess inputProcess, ExternalProcess outputProcess) {
+        Piper(ExternalProcess inputProcess, ExternalProcess outputProcess, int bufferSize, PipeStatistics statistics) {
             this.inputProcess = inputProcess;
             this.outputProcess = outputProcess;
+            this.bufferSize = bufferSize;
+            this.statistics = statistics;
         }
 
         public void run() {
-            // don't use buffered streams!
-            InputStream input = inputProcess.getProcess().getInputStream(); //new BufferedInputStream(input);
-            OutputStream output = outputProcess.getProcess().getOutputStream(); //new BufferedOutputStream(output);
+            // process streams pass reads and writes larger than their own buffers directly to the OS
+            InputStream input = inputProcess.getProcess().getInputStream();
+            OutputStream output = outputProcess.getProcess().getOutputStream();
+            byte[] b = acquireBuffer(bufferSize);
+            long start = System.nanoTime();
             try {
-                byte[] b = new byte[BUF_SIZE];
-                int read = 1;
-                while (read > -1) {
-                    read = input.read(b, 0, b.length);
-                    if (read > -1) {
-                        output.write(b, 0, read);
+                while (true) {
+                    long readStart = System.nanoTime();
+                    int read = input.read(b, 0, b.length);
+                    long writeStart = System.nanoTime();
+                    statistics.addRead(writeStart - readStart);
+                    if (read < 0) {
+                        break;
                     }
+                    output.write(b, 0, read);
+                    output.flush();
+                    statistics.addWrite(read, System.nanoTime() - writeStart);
                 }
             } catch (IOException e) {
                 try {
@@ -217,6 +753,26 @@ public class ExecutePipeStrategy extends AbstractExecuteStrategy {
                         String.format("Broken pipe. Input process: %s. Output Process: %s",
                                 inputProcess.toString(), outputProcess.toString()),
                         e);
+            } finally {
+                statistics.finish(System.nanoTime() - start);
+                releaseBuffer(b);
+                LOGGER.info("Pipe {}", statistics);
+            }
+        }
+
+        private static byte[] acquireBuffer(int size) {
+            byte[] buffer;
+            while ((buffer = BUFFER_POOL.poll()) != null) {
+                if (buffer.length == size) {
+                    return buffer;
+                }
+            }
+            return new byte[size];
+        }
+
+        private static void releaseBuffer(byte[] buffer) {
+            if (BUFFER_POOL.size() < MAX_POOLED_BUFFERS) {
+                BUFFER_POOL.offer(buffer);
             }
         }
 
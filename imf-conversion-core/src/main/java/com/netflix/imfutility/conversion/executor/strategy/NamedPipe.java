@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.executor.strategy;
+
+import com.netflix.imfutility.util.ImfLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A named pipe (FIFO) connecting stdout of one external process to stdin of another one.
+ * <ul>
+ * <li>The data goes directly from one process to another without being copied by IMF utility.</li>
+ * <li>Opening a FIFO for reading or writing blocks until the other end is opened. To start the connected processes
+ * one by one, the FIFO must be opened for both reading and writing while processes are started
+ * (see {@link #openForStart()} and {@link #startFinished()}).</li>
+ * <li>If several processes write to the FIFO one after another, the FIFO must be held open for writing
+ * (see {@link #hold()}), so that the reading process doesn't get EOF when one of the writing processes is finished.</li>
+ * </ul>
+ */
+public final class NamedPipe implements Closeable {
+
+    private static final Logger LOGGER = new ImfLogger(LoggerFactory.getLogger(NamedPipe.class));
+
+    private static final String MKFIFO = "mkfifo";
+    private static final String FIFO_PREFIX = "pipe-";
+    private static final String FIFO_SUFFIX = ".fifo";
+    private static final long MKFIFO_TIMEOUT_SECONDS = 10;
+    private static final int MAX_CREATE_ATTEMPTS = 10;
+
+    private final File file;
+    private RandomAccessFile startHandle;
+    private FileOutputStream holdHandle;
+
+    private NamedPipe(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Creates a new named pipe with a unique name in the given directory.
+     * Existing files are never replaced, so concurrent pipes and conversions in the same directory don't interfere.
+     *
+     * @param dir a directory where the FIFO is created
+     * @return a new named pipe
+     * @throws IOException if the FIFO can not be created
+     */
+    public static NamedPipe create(File dir) throws IOException {
+        for (int attempt = 0; attempt < MAX_CREATE_ATTEMPTS; attempt++) {
+            // reserve a unique name, mkfifo fails if another process takes it after the placeholder is deleted
+            File file = Files.createTempFile(dir.toPath(), FIFO_PREFIX, FIFO_SUFFIX).toFile();
+            Files.delete(file.toPath());
+            if (mkfifo(file)) {
+                LOGGER.debug("Created named pipe {}", file.getAbsolutePath());
+                return new NamedPipe(file);
+            }
+        }
+        throw new IOException(String.format("Can not create a named pipe in %s", dir.getAbsolutePath()));
+    }
+
+    private static boolean mkfifo(File file) throws IOException {
+        Process mkfifo = new ProcessBuilder(MKFIFO, file.getAbsolutePath())
+                .redirectErrorStream(true)
+                .start();
+        try {
+            mkfifo.getOutputStream().close();
+            if (!mkfifo.waitFor(MKFIFO_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                mkfifo.destroy();
+                throw new IOException(String.format("Timeout while creating a named pipe %s", file.getAbsolutePath()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(String.format("Interrupted while creating a named pipe %s", file.getAbsolutePath()), e);
+        }
+        if (mkfifo.exitValue() != 0) {
+            LOGGER.debug("Can not create a named pipe {} (exit code {})", file.getAbsolutePath(), mkfifo.exitValue());
+            return false;
+        }
+        return file.exists();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Opens the FIFO for both reading and writing, so that processes can be connected to the FIFO without blocking.
+     *
+     * @throws IOException if the FIFO can not be opened
+     */
+    public void openForStart() throws IOException {
+        if (startHandle == null) {
+            startHandle = new RandomAccessFile(file, "rw");
+        }
+    }
+
+    /**
+     * Closes the handle opened by {@link #openForStart()} when all processes are connected to the FIFO.
+     */
+    public void startFinished() {
+        startHandle = closeQuietly(startHandle);
+    }
+
+    /**
+     * Holds the FIFO open for writing, so that the reading process doesn't get EOF until {@link #release()} is called.
+     * Must be called when the reading process is already connected (or the FIFO is opened by {@link #openForStart()}).
+     *
+     * @throws IOException if the FIFO can not be opened
+     */
+    public void hold() throws IOException {
+        if (holdHandle == null) {
+            holdHandle = new FileOutputStream(file);
+        }
+    }
+
+    /**
+     * Releases the FIFO hold by {@link #hold()}.
+     */
+    public void release() {
+        holdHandle = closeQuietly(holdHandle);
+    }
+
+    /**
+     * Closes all handles and deletes the FIFO.
+     */
+    @Override
+    public void close() {
+        startFinished();
+        release();
+        if (file.exists() && !file.delete()) {
+            LOGGER.warn("Can not delete named pipe {}", file.getAbsolutePath());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return file.getName();
+    }
+
+    private static <T extends Closeable> T closeQuietly(T handle) {
+        if (handle != null) {
+            try {
+                handle.close();
+            } catch (IOException e) {
+                LOGGER.warn("Can not close named pipe", e);
+            }
+        }
+        return null;
+    }
+
+}
@@ -32,17 +32,37 @@ public final class OperationInfo {
     private final ContextInfo contextInfo;
     private final boolean skip;
     private final File output;
+    private final String inputs;
+    private final String outputs;
 
     public OperationInfo(String operation, String operationName, ContextInfo contextInfo, boolean skip) {
         this(operation, operationName, contextInfo, skip, null);
     }
 
     public OperationInfo(String operation, String operationName, ContextInfo contextInfo, boolean skip, File output) {
+        this(operation, operationName, contextInfo, skip, output, null, null);
+    }
+
+    /**
+     * Creates an operation info.
+     *
+     * @param operation     the operation (command line) to be resolved
+     * @param operationName the operation name
+     * @param contextInfo   the context the operation is resolved in
+     * @param skip          whether the operation must be skipped
+     * @param output        a file the operation's output is redirected to (may be null)
+     * @param inputs        declared input files not named on the command line to be resolved (may be null)
+     * @param outputs       declared output files not named on the command line to be resolved (may be null)
+     */
+    public OperationInfo(String operation, String operationName, ContextInfo contextInfo, boolean skip, File output,
+                         String inputs, String outputs) {
         this.operation = operation;
         this.operationName = operationName;
         this.contextInfo = contextInfo;
         this.skip = skip;
         this.output = output;
+        this.inputs = inputs;
+        this.outputs = outputs;
     }
 
     public String getOperation() {
@@ -69,6 +89,14 @@ public final class OperationInfo {
         return output;
     }
 
+    public String getInputs() {
+        return inputs;
+    }
+
+    public String getOutputs() {
+        return outputs;
+    }
+
     @Override
     public String toString() {
         return String.format(
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.executor.strategy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of copying data between two processes in a pipeline (see {@link ExecutePipeStrategy}).
+ * <ul>
+ * <li>Time blocked on read shows how long the next process waited for the previous one (the previous one is slower).</li>
+ * <li>Time blocked on write shows how long the previous process waited for the next one (the next one is slower).</li>
+ * </ul>
+ */
+public final class PipeStatistics {
+
+    private static final double NANOS_IN_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double BYTES_IN_MB = 1024 * 1024;
+
+    private final String inputProcess;
+    private final String outputProcess;
+
+    private volatile long bytes;
+    private volatile long readBlockedNanos;
+    private volatile long writeBlockedNanos;
+    private volatile long totalNanos;
+
+    public PipeStatistics(String inputProcess, String outputProcess) {
+        this.inputProcess = inputProcess;
+        this.outputProcess = outputProcess;
+    }
+
+    void addRead(long nanos) {
+        readBlockedNanos += nanos;
+    }
+
+    void addWrite(int count, long nanos) {
+        bytes += count;
+        writeBlockedNanos += nanos;
+    }
+
+    void finish(long nanos) {
+        totalNanos = nanos;
+    }
+
+    public String getInputProcess() {
+        return inputProcess;
+    }
+
+    public String getOutputProcess() {
+        return outputProcess;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getReadBlockedNanos() {
+        return readBlockedNanos;
+    }
+
+    public long getWriteBlockedNanos() {
+        return writeBlockedNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Gets the average throughput.
+     *
+     * @return bytes per second.
+     */
+    public double getBytesPerSecond() {
+        return totalNanos == 0 ? 0 : bytes * NANOS_IN_SECOND / totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s -> %s: %.1f MB in %.2f s (%.1f MB/s), blocked on read: %.2f s, blocked on write: %.2f s",
+                inputProcess, outputProcess,
+                bytes / BYTES_IN_MB, totalNanos / NANOS_IN_SECOND, getBytesPerSecond() / BYTES_IN_MB,
+                readBlockedNanos / NANOS_IN_SECOND, writeBlockedNanos / NANOS_IN_SECOND);
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.scheduler;
+
+import com.netflix.imfutility.generated.conversion.ConditionalComplexType;
+import com.netflix.imfutility.generated.conversion.ConditionalSimpleType;
+import com.netflix.imfutility.generated.conversion.CycleSegmentType;
+import com.netflix.imfutility.generated.conversion.CycleSequenceType;
+import com.netflix.imfutility.generated.conversion.CycleType;
+import com.netflix.imfutility.generated.conversion.DynamicParameterConcatType;
+import com.netflix.imfutility.generated.conversion.ExecEachSegmentFusedType;
+import com.netflix.imfutility.generated.conversion.ExecEachSegmentSequenceType;
+import com.netflix.imfutility.generated.conversion.ExecEachSegmentType;
+import com.netflix.imfutility.generated.conversion.ExecEachSequenceSegmentType;
+import com.netflix.imfutility.generated.conversion.ExecEachSequenceType;
+import com.netflix.imfutility.generated.conversion.ExecOnceType;
+import com.netflix.imfutility.generated.conversion.ForType;
+import com.netflix.imfutility.generated.conversion.IfType;
+import com.netflix.imfutility.generated.conversion.PipeSegmentType;
+import com.netflix.imfutility.generated.conversion.PipeSequenceType;
+import com.netflix.imfutility.generated.conversion.PipeType;
+import com.netflix.imfutility.generated.conversion.SubPipeType;
+import com.netflix.imfutility.util.ImfLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Builds a dependency graph for the conversion operations of a format configuration.
+ * <ul>
+ * <li>An operation depends on a previous one if one of them writes a dynamic parameter the other one reads or writes,
+ * or if both of them use the same tmp parameter (see {@link OperationParameters}).</li>
+ * <li>An operation of unknown type depends on all previous operations and all following operations depend on it.</li>
+ * <li>The operations independent of each other can be executed concurrently.</li>
+ * </ul>
+ */
+public final class OperationGraphBuilder {
+
+    private final Logger logger = new ImfLogger(LoggerFactory.getLogger(OperationGraphBuilder.class));
+
+    /**
+     * Builds a dependency graph for the given operations.
+     *
+     * @param operations conversion operations in the order they're defined in conversion.xml
+     * @return graph nodes in the same order as operations.
+     */
+    public List<OperationNode> build(List<Object> operations) {
+        List<OperationNode> nodes = new ArrayList<>(operations.size());
+        List<Boolean> barriers = new ArrayList<>(operations.size());
+        for (Object operation : operations) {
+            OperationParameters parameters = new OperationParameters();
+            boolean known = collectParameters(operation, parameters);
+            OperationNode node = new OperationNode(nodes.size(), operation, getName(operation), parameters);
+            for (OperationNode prev : nodes) {
+                if (!known || barriers.get(prev.getIndex()) || parameters.conflictsWith(prev.getParameters())) {
+                    node.addDependency(prev);
+                }
+            }
+            nodes.add(node);
+            barriers.add(!known);
+        }
+
+        for (OperationNode node : nodes) {
+            logger.debug("Operation {} depends on: {}", node, node.getDependencies().stream()
+                    .map(OperationNode::toString)
+                    .collect(Collectors.joining(", ", "[", "]")));
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Collects parameters of the given operation and all nested operations.
+     *
+     * @param operation  a conversion operation
+     * @param parameters a container for the parameters
+     * @return false if the operation type is unknown.
+     */
+    static boolean collectParameters(Object operation, OperationParameters parameters) {
+        if (operation == null) {
+            return true;
+        }
+        if (operation instanceof ConditionalSimpleType) {
+            ConditionalSimpleType simple = (ConditionalSimpleType) operation;
+            parameters.addRead(simple.getIf());
+            parameters.addRead(simple.getUnless());
+            if (operation instanceof DynamicParameterConcatType) {
+                parameters.addDynamicWritten(simple.getName(), simple.getValue());
+                parameters.addRead(((DynamicParameterConcatType) operation).getAdd());
+                return true;
+            }
+            parameters.addRead(simple.getValue());
+            return operation instanceof ExecOnceType;
+        }
+        if (operation instanceof ConditionalComplexType) {
+            ConditionalComplexType complex = (ConditionalComplexType) operation;
+            parameters.addRead(complex.getIf());
+            parameters.addRead(complex.getUnless());
+        }
+
+        if (operation instanceof ExecEachSegmentSequenceType) {
+            return collectParameters(((ExecEachSegmentSequenceType) operation).getPipeOrExecOnceOrExecEachSequence(), parameters);
+        } else if (operation instanceof ExecEachSequenceSegmentType) {
+            return collectParameters(((ExecEachSequenceSegmentType) operation).getPipeOrExecOnceOrExecEachSegment(), parameters);
+        } else if (operation instanceof ExecEachSegmentType) {
+            ExecEachSegmentType segment = (ExecEachSegmentType) operation;
+            return collectParameters(segment.getPipe(), parameters)
+                    & collectParameters(segment.getExecOnce(), parameters)
+                    & collectParameters(segment.getDynamicParameter(), parameters);
+        } else if (operation instanceof ExecEachSegmentFusedType) {
+            ExecEachSegmentFusedType fused = (ExecEachSegmentFusedType) operation;
+            parameters.addRead(fused.getPlanHeader());
+            parameters.addRead(fused.getPlanEntry());
+            parameters.addDynamicWritten(fused.getPlan(), null);
+            return collectParameters(fused.getExecOnce(), parameters);
+        } else if (operation instanceof ExecEachSequenceType) {
+            ExecEachSequenceType sequence = (ExecEachSequenceType) operation;
+            return collectParameters(sequence.getPipe(), parameters)
+                    & collectParameters(sequence.getExecOnce(), parameters)
+                    & collectParameters(sequence.getDynamicParameter(), parameters);
+        } else if (operation instanceof PipeType) {
+            PipeType pipe = (PipeType) operation;
+            return collectParameters(pipe.getCycle(), parameters)
+                    & collectParameters(pipe.getExecOnce(), parameters);
+        } else if (operation instanceof PipeSegmentType) {
+            PipeSegmentType pipe = (PipeSegmentType) operation;
+            return collectParameters(pipe.getCycle(), parameters)
+                    & collectParameters(pipe.getExecOnce(), parameters);
+        } else if (operation instanceof PipeSequenceType) {
+            PipeSequenceType pipe = (PipeSequenceType) operation;
+            parameters.addRead(pipe.getChunks());
+            parameters.addRead(pipe.getChunkOutput());
+            return collectParameters(pipe.getCycle(), parameters)
+                    & collectParameters(pipe.getExecOnce(), parameters);
+        } else if (operation instanceof SubPipeType) {
+            return collectParameters(((SubPipeType) operation).getExecOnce(), parameters);
+        } else if (operation instanceof CycleType) {
+            return collectParameters(((CycleType) operation).getPipeOrExecOnce(), parameters);
+        } else if (operation instanceof CycleSegmentType) {
+            return collectParameters(((CycleSegmentType) operation).getExecEachSequenceOrPipeOrExecOnce(), parameters);
+        } else if (operation instanceof CycleSequenceType) {
+            return collectParameters(((CycleSequenceType) operation).getExecEachSegmentOrPipeOrExecOnce(), parameters);
+        } else if (operation instanceof ForType) {
+            ForType forElem = (ForType) operation;
+            parameters.addRead(forElem.getFrom());
+            parameters.addRead(forElem.getTo());
+            parameters.addRead(forElem.getCount());
+            return collectParameters(forElem.getDynamicParameterOrExecOnceOrFor(), parameters);
+        } else if (operation instanceof IfType) {
+            IfType ifElem = (IfType) operation;
+            parameters.addRead(ifElem.getTest());
+            return collectParameters(ifElem.getExecOnceOrExecEachSegmentOrExecEachSequence(), parameters);
+        }
+
+        return false;
+    }
+
+    private static boolean collectParameters(List<?> operations, OperationParameters parameters) {
+        boolean known = true;
+        for (Object operation : operations) {
+            known &= collectParameters(operation, parameters);
+        }
+        return known;
+    }
+
+    private static String getName(Object operation) {
+        String name = null;
+        if (operation instanceof ConditionalSimpleType) {
+            name = ((ConditionalSimpleType) operation).getName();
+        } else if (operation instanceof ConditionalComplexType) {
+            name = ((ConditionalComplexType) operation).getName();
+        }
+        return name != null ? name : operation.getClass().getSimpleName();
+    }
+
+}
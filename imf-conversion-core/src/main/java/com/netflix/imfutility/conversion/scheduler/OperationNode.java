@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A node of the conversion operation dependency graph (see {@link OperationGraphBuilder}).
+ */
+public final class OperationNode {
+
+    private final int index;
+    private final Object operation;
+    private final String name;
+    private final OperationParameters parameters;
+    private final List<OperationNode> dependencies = new ArrayList<>();
+    private final List<OperationNode> dependents = new ArrayList<>();
+
+    OperationNode(int index, Object operation, String name, OperationParameters parameters) {
+        this.index = index;
+        this.operation = operation;
+        this.name = name;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Gets the position of the operation in conversion.xml format configuration.
+     *
+     * @return the position of the operation.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public Object getOperation() {
+        return operation;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public OperationParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Gets the operations that must be finished before this operation is started.
+     *
+     * @return the operations this one depends on.
+     */
+    public List<OperationNode> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Gets the operations that depend on this operation.
+     *
+     * @return the operations depending on this one.
+     */
+    public List<OperationNode> getDependents() {
+        return dependents;
+    }
+
+    void addDependency(OperationNode node) {
+        dependencies.add(node);
+        node.dependents.add(this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d: %s", index, name);
+    }
+
+}
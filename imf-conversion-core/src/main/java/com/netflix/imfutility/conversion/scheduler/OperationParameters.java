@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.scheduler;
+
+import com.netflix.imfutility.conversion.templateParameter.TemplateParameterContext;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tmp and dynamic template parameters used by a conversion operation.
+ * <ul>
+ * <li>A dynamic parameter is written if the operation defines it (see
+ * {@link com.netflix.imfutility.generated.conversion.DynamicParameterConcatType}), and read if the operation refers to it.</li>
+ * <li>A tmp parameter defines a tmp file that is either read or written, so all tmp parameters are treated as written.</li>
+ * <li>A parameter name containing sub-parameters (such as 'audio-segment-tmp-%{seq.num}') is stored as a prefix pattern
+ * ('audio-segment-tmp-*') as the actual name is known only at execution time.</li>
+ * </ul>
+ */
+public final class OperationParameters {
+
+    private static final String PARAM_START = "%{";
+    private static final String PARAM_END = "}";
+    private static final String ANY = "*";
+
+    private final Set<String> dynamicRead = new HashSet<>();
+    private final Set<String> dynamicWritten = new HashSet<>();
+    private final Set<String> tmp = new HashSet<>();
+
+    /**
+     * Adds all tmp and dynamic parameters referenced in the given conversion operation string as read parameters.
+     *
+     * @param operationStr a conversion operation string (or any other attribute value) from conversion.xml. May be null.
+     */
+    public void addRead(String operationStr) {
+        if (operationStr == null) {
+            return;
+        }
+        int start = operationStr.indexOf(PARAM_START);
+        while (start >= 0) {
+            int end = findParameterEnd(operationStr, start);
+            if (end < 0) {
+                return;
+            }
+            addReference(operationStr.substring(start + PARAM_START.length(), end));
+            start = operationStr.indexOf(PARAM_START, start + PARAM_START.length());
+        }
+    }
+
+    /**
+     * Adds a dynamic parameter defined by the operation. All parameters within the name and value are added as read parameters.
+     *
+     * @param name  a dynamic parameter name as defined in conversion.xml
+     * @param value a dynamic parameter value as defined in conversion.xml
+     */
+    public void addDynamicWritten(String name, String value) {
+        dynamicWritten.add(toPattern(name.trim()));
+        addRead(name);
+        addRead(value);
+    }
+
+    /**
+     * Adds all parameters of the given operation parameters.
+     *
+     * @param other operation parameters to be added.
+     */
+    public void addAll(OperationParameters other) {
+        dynamicRead.addAll(other.dynamicRead);
+        dynamicWritten.addAll(other.dynamicWritten);
+        tmp.addAll(other.tmp);
+    }
+
+    /**
+     * Checks whether the operations can't be executed concurrently, that is one operation writes a parameter
+     * the other one either reads or writes.
+     *
+     * @param other parameters of another operation
+     * @return true if the operations must be executed one after another.
+     */
+    public boolean conflictsWith(OperationParameters other) {
+        return intersects(tmp, other.tmp)
+                || intersects(dynamicWritten, other.dynamicWritten)
+                || intersects(dynamicWritten, other.dynamicRead)
+                || intersects(dynamicRead, other.dynamicWritten);
+    }
+
+    public Set<String> getDynamicRead() {
+        return dynamicRead;
+    }
+
+    public Set<String> getDynamicWritten() {
+        return dynamicWritten;
+    }
+
+    public Set<String> getTmp() {
+        return tmp;
+    }
+
+    private void addReference(String reference) {
+        int dot = reference.indexOf('.');
+        if (dot < 0) {
+            return;
+        }
+        TemplateParameterContext context = TemplateParameterContext.fromName(reference.substring(0, dot));
+        String name = toPattern(reference.substring(dot + 1));
+        if (context == TemplateParameterContext.DYNAMIC) {
+            dynamicRead.add(name);
+        } else if (context == TemplateParameterContext.TMP) {
+            tmp.add(name);
+        }
+    }
+
+    private static int findParameterEnd(String str, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < str.length()) {
+            if (str.startsWith(PARAM_START, i)) {
+                depth++;
+                i += PARAM_START.length();
+                continue;
+            }
+            if (str.startsWith(PARAM_END, i)) {
+                depth--;
+                if (depth == 0) {
+                    return i;
+                }
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static String toPattern(String name) {
+        int subParam = name.indexOf(PARAM_START);
+        return subParam < 0 ? name : name.substring(0, subParam) + ANY;
+    }
+
+    private static boolean intersects(Collection<String> patterns1, Collection<String> patterns2) {
+        for (String p1 : patterns1) {
+            for (String p2 : patterns2) {
+                if (matches(p1, p2)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String p1, String p2) {
+        boolean any1 = p1.endsWith(ANY);
+        boolean any2 = p2.endsWith(ANY);
+        String prefix1 = any1 ? p1.substring(0, p1.length() - ANY.length()) : p1;
+        String prefix2 = any2 ? p2.substring(0, p2.length() - ANY.length()) : p2;
+        if (!any1 && !any2) {
+            return prefix1.equals(prefix2);
+        }
+        if (any1 && any2) {
+            return prefix1.startsWith(prefix2) || prefix2.startsWith(prefix1);
+        }
+        return any1 ? prefix2.startsWith(prefix1) : prefix1.startsWith(prefix2);
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.scheduler;
+
+import com.netflix.imfutility.conversion.executor.ExecutionException;
+import com.netflix.imfutility.conversion.executor.IConversionExecutor;
+import com.netflix.imfutility.conversion.executor.RunningProcesses;
+import com.netflix.imfutility.util.ImfLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Executes conversion operations concurrently according to the dependency graph (see {@link OperationGraphBuilder}).
+ * <ul>
+ * <li>An operation is started as soon as all operations it depends on are finished.</li>
+ * <li>At most 'parallel' operations are executed at the same time.</li>
+ * <li>If several operations are ready, the one defined first in conversion.xml is started first.</li>
+ * <li>If an operation fails, no new operations are started, the running ones are cancelled and their external processes
+ * are destroyed (see {@link RunningProcesses}), and the failure is re-thrown at once.</li>
+ * </ul>
+ */
+public final class ParallelConversionScheduler {
+
+    private final Logger logger = new ImfLogger(LoggerFactory.getLogger(ParallelConversionScheduler.class));
+
+    private final int parallel;
+    private final RunningProcesses runningProcesses;
+
+    public ParallelConversionScheduler(int parallel, RunningProcesses runningProcesses) {
+        this.parallel = parallel;
+        this.runningProcesses = runningProcesses;
+    }
+
+    /**
+     * Executes the given operations.
+     *
+     * @param nodes           dependency graph nodes as returned by {@link OperationGraphBuilder#build(List)}
+     * @param executorFactory creates an executor for the given conversion operation
+     * @throws IOException if an operation failed with an IOException
+     */
+    public void execute(List<OperationNode> nodes, Function<Object, IConversionExecutor> executorFactory) throws IOException {
+        Map<OperationNode, Integer> remainingDependencies = new HashMap<>();
+        Queue<OperationNode> ready = new PriorityQueue<>(Comparator.comparingInt(OperationNode::getIndex));
+        for (OperationNode node : nodes) {
+            remainingDependencies.put(node, node.getDependencies().size());
+            if (node.getDependencies().isEmpty()) {
+                ready.add(node);
+            }
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(parallel);
+        CompletionService<OperationNode> completionService = new ExecutorCompletionService<>(executorService);
+        Set<Future<OperationNode>> running = new HashSet<>();
+        Throwable failure = null;
+        try {
+            while (failure == null && (!running.isEmpty() || !ready.isEmpty())) {
+                while (running.size() < parallel && !ready.isEmpty()) {
+                    OperationNode node = ready.poll();
+                    logger.debug("Starting operation {}", node);
+                    running.add(completionService.submit(() -> {
+                        executorFactory.apply(node.getOperation()).execute();
+                        return node;
+                    }));
+                }
+
+                Future<OperationNode> done = completionService.take();
+                running.remove(done);
+                try {
+                    OperationNode node = done.get();
+                    logger.debug("Finished operation {}", node);
+                    for (OperationNode dependent : node.getDependents()) {
+                        int remaining = remainingDependencies.get(dependent) - 1;
+                        remainingDependencies.put(dependent, remaining);
+                        if (remaining == 0) {
+                            ready.add(dependent);
+                        }
+                    }
+                } catch (java.util.concurrent.ExecutionException e) {
+                    failure = e.getCause();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = new ExecutionException("Conversion has been interrupted", e);
+        } finally {
+            // the operations running concurrently with the failed one may take hours, so they are not waited for
+            if (failure != null) {
+                running.forEach(future -> future.cancel(true));
+                runningProcesses.destroyAll();
+            }
+            executorService.shutdownNow();
+        }
+
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new ExecutionException(failure.getMessage(), failure);
+        }
+    }
+
+}
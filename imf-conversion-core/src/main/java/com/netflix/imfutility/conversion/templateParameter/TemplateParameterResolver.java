@@ -34,10 +34,13 @@ import java.util.regex.Pattern;
  * <li>The parameter is resolved by finding a value for the parameter "paramName" in the
  * {@link ITemplateParameterContext} associated with the "paramContext".</li>
  * <li>The parameter may contain sub-parameters, such as %{dynamic.%{segm.num}}</li>
+ * <li>Each template string is parsed only once into a {@link TemplateProgram} which is evaluated for each context.</li>
  * </ul>
  */
 public class TemplateParameterResolver {
 
+    private static final Pattern TEMPLATE_PARAM_PATTERN = Pattern.compile(TemplateParameter.TEMPLATE_PARAM);
+
     private final TemplateParameterContextProvider contextProvider;
 
     public TemplateParameterResolver(TemplateParameterContextProvider contextProvider) {
@@ -62,6 +65,18 @@ public class TemplateParameterResolver {
      * @return resolved parameter value as a string.
      */
     public String resolveTemplateParameter(String parameterStr, ContextInfo contextInfo) {
+        String resolvedParam = TemplateProgram.compile(parameterStr).evaluate(
+                templateParameter -> doResolveTemplateParameter(templateParameter, contextInfo));
+        if (!resolvedParam.contains("%{")) {
+            return resolvedParam;
+        }
+
+        // resolved values may contain parameters themselves, or there may be parameters in unusual forms
+        // (for example, with brackets in a name), so resolve them the regular way till there is nothing to resolve
+        return resolveTemplateParameterFully(resolvedParam, contextInfo);
+    }
+
+    private String resolveTemplateParameterFully(String parameterStr, ContextInfo contextInfo) {
         String unresolvedParam = parameterStr;
         String resolvedParam = null;
         // resolve all sub-parameters, such as %{dynamic.%{segm.num}}
@@ -82,7 +97,7 @@ public class TemplateParameterResolver {
 
         // resolve against all iterators
         for (Entry<String, Integer> e : iterators.entrySet()) {
-            parameterStr = parameterStr.replaceAll("%\\{" + e.getKey() + "\\}", e.getValue().toString());
+            parameterStr = parameterStr.replace("%{" + e.getKey() + "}", e.getValue().toString());
         }
 
         return parameterStr;
@@ -97,7 +112,7 @@ public class TemplateParameterResolver {
         String resolvedParam = parameterStr;
 
         // resolve each template parameter the param contains
-        Matcher m = Pattern.compile(TemplateParameter.TEMPLATE_PARAM).matcher(parameterStr);
+        Matcher m = TEMPLATE_PARAM_PATTERN.matcher(parameterStr);
         while (m.find()) {
             String templateParam = m.group();
             String resolvedTemplateParam = doResolveTemplateParameter(new TemplateParameter(templateParam), contextInfo);
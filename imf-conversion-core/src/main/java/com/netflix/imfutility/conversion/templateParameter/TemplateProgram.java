@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.templateParameter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A template string (for example, a conversion operation from conversion.xml) compiled into a reusable program.
+ * <ul>
+ * <li>The program consists of literal chunks and template parameter slots (%{paramContext.paramName}).</li>
+ * <li>Slots may contain sub-parameters, such as %{dynamic.%{segm.num}}: a sub-parameter is evaluated first,
+ * and the result is used as a parameter.</li>
+ * <li>A slot which doesn't have a form of %{paramContext.paramName} after evaluation is kept as is
+ * (the same as in {@link TemplateParameter#TEMPLATE_PARAM} regex).</li>
+ * <li>Programs are immutable and cached per template string, so each template is parsed only once.</li>
+ * </ul>
+ */
+final class TemplateProgram {
+
+    private static final String SLOT_START = "%{";
+    private static final char SLOT_END = '}';
+    private static final int MAX_CACHED_PROGRAMS = 10000;
+
+    private static final ConcurrentMap<String, TemplateProgram> PROGRAMS = new ConcurrentHashMap<>();
+
+    private final List<INode> nodes;
+
+    private TemplateProgram(List<INode> nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * Gets a compiled program for the given template (compiles it if it hasn't been compiled before).
+     *
+     * @param template a template string
+     * @return a compiled program
+     */
+    static TemplateProgram compile(String template) {
+        TemplateProgram program = PROGRAMS.get(template);
+        if (program == null) {
+            program = new TemplateProgram(new Parser(template).parse());
+            // templates come from a fixed conversion.xml, but don't let an unexpected input grow the cache infinitely
+            if (PROGRAMS.size() < MAX_CACHED_PROGRAMS) {
+                PROGRAMS.putIfAbsent(template, program);
+            }
+        }
+        return program;
+    }
+
+    /**
+     * Evaluates the program.
+     *
+     * @param parameterResolver resolves a single template parameter
+     * @return the evaluated string
+     */
+    String evaluate(Function<TemplateParameter, String> parameterResolver) {
+        if (nodes.size() == 1) {
+            return nodes.get(0).evaluate(parameterResolver);
+        }
+        return evaluate(nodes, parameterResolver);
+    }
+
+    private static String evaluate(List<INode> nodes, Function<TemplateParameter, String> parameterResolver) {
+        StringBuilder result = new StringBuilder();
+        for (INode node : nodes) {
+            result.append(node.evaluate(parameterResolver));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Checks that the given string has the form 'paramContext.paramName' (see {@link TemplateParameter#TEMPLATE_PARAM}).
+     */
+    private static boolean isParameter(String str) {
+        int dot = str.indexOf('.');
+        return dot > 0 && dot < str.length() - 1
+                && str.indexOf('.', dot + 1) < 0
+                && str.indexOf('%') < 0
+                && str.indexOf(SLOT_END) < 0;
+    }
+
+    private static TemplateParameter toTemplateParameter(String str) {
+        int dot = str.indexOf('.');
+        TemplateParameterContext context = TemplateParameterContext.fromName(str.substring(0, dot));
+        if (context == null) {
+            // throws an appropriate exception
+            return new TemplateParameter(SLOT_START + str + SLOT_END);
+        }
+        return new TemplateParameter(context, str.substring(dot + 1));
+    }
+
+    private interface INode {
+
+        String evaluate(Function<TemplateParameter, String> parameterResolver);
+
+    }
+
+    private static final class LiteralNode implements INode {
+
+        private final String text;
+
+        private LiteralNode(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public String evaluate(Function<TemplateParameter, String> parameterResolver) {
+            return text;
+        }
+    }
+
+    /**
+     * A slot without sub-parameters: the parameter is known at compile time.
+     */
+    private static final class ParameterNode implements INode {
+
+        private final TemplateParameter parameter;
+
+        private ParameterNode(TemplateParameter parameter) {
+            this.parameter = parameter;
+        }
+
+        @Override
+        public String evaluate(Function<TemplateParameter, String> parameterResolver) {
+            return parameterResolver.apply(parameter);
+        }
+    }
+
+    /**
+     * A slot with sub-parameters (or an unknown context): the parameter is known only after the sub-parameters
+     * are evaluated.
+     */
+    private static final class DynamicParameterNode implements INode {
+
+        private final List<INode> nodes;
+
+        private DynamicParameterNode(List<INode> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        public String evaluate(Function<TemplateParameter, String> parameterResolver) {
+            String parameter = TemplateProgram.evaluate(nodes, parameterResolver);
+            if (!isParameter(parameter)) {
+                return SLOT_START + parameter + SLOT_END;
+            }
+            return parameterResolver.apply(toTemplateParameter(parameter));
+        }
+    }
+
+    private static final class Parser {
+
+        private final String template;
+        private int pos;
+
+        private Parser(String template) {
+            this.template = template;
+        }
+
+        private List<INode> parse() {
+            List<INode> nodes = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            while (pos < template.length()) {
+                if (template.startsWith(SLOT_START, pos)) {
+                    int slotStart = pos;
+                    pos += SLOT_START.length();
+                    INode slot = parseSlot();
+                    if (slot != null) {
+                        addLiteral(nodes, literal);
+                        nodes.add(slot);
+                    } else {
+                        // not closed: a literal text
+                        pos = slotStart + SLOT_START.length();
+                        literal.append(SLOT_START);
+                    }
+                } else {
+                    literal.append(template.charAt(pos++));
+                }
+            }
+            addLiteral(nodes, literal);
+            return nodes.isEmpty()
+                    ? Collections.singletonList(new LiteralNode(""))
+                    : Collections.unmodifiableList(nodes);
+        }
+
+        /**
+         * Parses a slot content starting at the current position till the closing bracket.
+         *
+         * @return a slot node or null if the slot is not closed.
+         */
+        private INode parseSlot() {
+            List<INode> nodes = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            boolean simple = true;
+            while (pos < template.length()) {
+                if (template.startsWith(SLOT_START, pos)) {
+                    int slotStart = pos;
+                    pos += SLOT_START.length();
+                    INode slot = parseSlot();
+                    if (slot == null) {
+                        pos = slotStart;
+                        return null;
+                    }
+                    addLiteral(nodes, literal);
+                    nodes.add(slot);
+                    simple = false;
+                } else if (template.charAt(pos) == SLOT_END) {
+                    pos++;
+                    if (simple && isParameter(literal.toString())
+                            && TemplateParameterContext.fromName(literal.substring(0, literal.indexOf("."))) != null) {
+                        return new ParameterNode(toTemplateParameter(literal.toString()));
+                    }
+                    addLiteral(nodes, literal);
+                    return new DynamicParameterNode(nodes);
+                } else {
+                    literal.append(template.charAt(pos++));
+                }
+            }
+            return null;
+        }
+
+        private void addLiteral(List<INode> nodes, StringBuilder literal) {
+            if (literal.length() > 0) {
+                nodes.add(new LiteralNode(literal.toString()));
+                literal.setLength(0);
+            }
+        }
+    }
+
+}
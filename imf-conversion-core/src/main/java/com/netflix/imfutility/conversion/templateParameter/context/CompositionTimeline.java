@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.templateParameter.context;
+
+import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
+import com.netflix.imfutility.conversion.templateParameter.ContextInfoBuilder;
+import com.netflix.imfutility.cpl.uuid.ResourceUUID;
+import com.netflix.imfutility.cpl.uuid.SegmentUUID;
+import com.netflix.imfutility.cpl.uuid.SequenceUUID;
+import com.netflix.imfutility.generated.conversion.SequenceType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A materialized timeline of the composition: all resources of all sequences (virtual tracks) in the CPL order.
+ * <ul>
+ * <li>Sequences are ordered by sequence type and then as they were added to the sequence context.</li>
+ * <li>Resources of each sequence are ordered by segments and then as they were added to the resource context.</li>
+ * <li>A repeated resource is a single entry with a repeat count (as it's stored in the resource context,
+ * see {@link ResourceTemplateParameterContext#setRepeatCount}): all repeats share the parameters of the entry,
+ * so they are not processed one by one.</li>
+ * <li>A context info is created only once for each resource.</li>
+ * <li>It's built once all contexts are filled from CPL
+ * (see {@link TemplateParameterContextProvider#buildCompositionTimeline()}), so that subsequent processing phases
+ * don't walk the segment, sequence and resource contexts again.</li>
+ * </ul>
+ */
+public final class CompositionTimeline {
+
+    private final List<Sequence> sequences;
+    private final List<Resource> resources;
+
+    private CompositionTimeline(List<Sequence> sequences, List<Resource> resources) {
+        this.sequences = Collections.unmodifiableList(sequences);
+        this.resources = Collections.unmodifiableList(resources);
+    }
+
+    /**
+     * Creates a timeline from the current segment, sequence and resource contexts.
+     *
+     * @param contextProvider a context provider
+     * @return a new composition timeline
+     */
+    public static CompositionTimeline create(TemplateParameterContextProvider contextProvider) {
+        SequenceTemplateParameterContext sequenceContext = contextProvider.getSequenceContext();
+        ResourceTemplateParameterContext resourceContext = contextProvider.getResourceContext();
+        Collection<SegmentUUID> segments = contextProvider.getSegmentContext().getUuids();
+
+        List<Sequence> sequences = new ArrayList<>();
+        List<Resource> resources = new ArrayList<>();
+        for (SequenceType seqType : sequenceContext.getSequenceTypes()) {
+            for (SequenceUUID seqUuid : sequenceContext.getUuids(seqType)) {
+                List<Resource> sequenceResources = new ArrayList<>();
+                for (SegmentUUID segmUuid : segments) {
+                    ResourceKey resourceKey = ResourceKey.create(segmUuid, seqUuid, seqType);
+                    for (ResourceUUID resUuid : resourceContext.getEntryUuids(resourceKey)) {
+                        ContextInfo contextInfo = new ContextInfoBuilder()
+                                .setResourceUuid(resUuid)
+                                .setSegmentUuid(segmUuid)
+                                .setSequenceUuid(seqUuid)
+                                .setSequenceType(seqType).build();
+                        long repeatCount = resourceContext.getRepeatCount(resourceKey, resUuid);
+                        sequenceResources.add(new Resource(resourceKey, contextInfo, repeatCount));
+                    }
+                }
+                sequences.add(new Sequence(seqType, seqUuid, sequenceResources));
+                resources.addAll(sequenceResources);
+            }
+        }
+        return new CompositionTimeline(sequences, resources);
+    }
+
+    /**
+     * Gets all sequences (virtual tracks) in the CPL order.
+     *
+     * @return all sequences. Never null.
+     */
+    public List<Sequence> getSequences() {
+        return sequences;
+    }
+
+    /**
+     * Gets all resources of all sequences in the CPL order. A repeated resource is returned once.
+     *
+     * @return all resources. Never null.
+     */
+    public List<Resource> getResources() {
+        return resources;
+    }
+
+    /**
+     * A sequence (virtual track) with all its resources from all segments.
+     */
+    public static final class Sequence {
+
+        private final SequenceType sequenceType;
+        private final SequenceUUID sequenceUuid;
+        private final List<Resource> resources;
+
+        private Sequence(SequenceType sequenceType, SequenceUUID sequenceUuid, List<Resource> resources) {
+            this.sequenceType = sequenceType;
+            this.sequenceUuid = sequenceUuid;
+            this.resources = Collections.unmodifiableList(resources);
+        }
+
+        public SequenceType getSequenceType() {
+            return sequenceType;
+        }
+
+        public SequenceUUID getSequenceUuid() {
+            return sequenceUuid;
+        }
+
+        public List<Resource> getResources() {
+            return resources;
+        }
+
+    }
+
+    /**
+     * A resource within a segment of a sequence.
+     */
+    public static final class Resource {
+
+        private final ResourceKey resourceKey;
+        private final ContextInfo contextInfo;
+        private final long repeatCount;
+
+        private Resource(ResourceKey resourceKey, ContextInfo contextInfo, long repeatCount) {
+            this.resourceKey = resourceKey;
+            this.contextInfo = contextInfo;
+            this.repeatCount = repeatCount;
+        }
+
+        public ResourceKey getResourceKey() {
+            return resourceKey;
+        }
+
+        public ResourceUUID getResourceUuid() {
+            return contextInfo.getResourceUuid();
+        }
+
+        public SequenceType getSequenceType() {
+            return contextInfo.getSequenceType();
+        }
+
+        /**
+         * Gets the number of repeats of the resource.
+         *
+         * @return total number of repeats (1 if the resource is not repeated).
+         */
+        public long getRepeatCount() {
+            return repeatCount;
+        }
+
+        /**
+         * Gets a context info with segment, sequence and resource UUIDs of the resource (the first repeat).
+         *
+         * @return the context info of the resource.
+         */
+        public ContextInfo getContextInfo() {
+            return contextInfo;
+        }
+
+    }
+
+}
@@ -29,8 +29,8 @@ import com.netflix.imfutility.conversion.templateParameter.exception.TemplatePar
 import com.netflix.imfutility.generated.conversion.DynamicParameterConcatType;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -46,11 +46,12 @@ import java.util.stream.Collectors;
  * be appended to the previous value.</li>
  * <li>A dynamic parameter value may contain template parameters. All template parameters are resolved before adding a parameter.</li>
  * <li>A dynamic parameter name may contain template parameters. All template parameters are resolved before adding a parameter.</li>
+ * <li>Parameters may be added concurrently by conversion operations executed in parallel.</li>
  * </ul>
  */
 public class DynamicTemplateParameterContext extends AbstractTemplateParameterContext {
 
-    private final Map<String, CustomParameterValue> params = new HashMap<>();
+    private final Map<String, CustomParameterValue> params = new ConcurrentHashMap<>();
     private final TemplateParameterResolver parameterResolver;
 
 
@@ -18,6 +18,7 @@
  */
 package com.netflix.imfutility.conversion.templateParameter.context;
 
+import com.netflix.imfutility.ConversionException;
 import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
 import com.netflix.imfutility.conversion.templateParameter.TemplateParameter;
 import com.netflix.imfutility.conversion.templateParameter.TemplateParameterContext;
@@ -26,8 +27,11 @@ import com.netflix.imfutility.conversion.templateParameter.exception.TemplatePar
 import com.netflix.imfutility.conversion.templateParameter.exception.UnknownTemplateParameterNameException;
 import com.netflix.imfutility.cpl.uuid.ResourceUUID;
 
+import java.util.AbstractCollection;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -46,11 +50,117 @@ import java.util.Map;
  * <li>Resource number</li>
  * </ul>
  * </li>
+ * <li>Time parameters are stored as a typed {@link ResourceTimeline} for each resource
+ * and rendered to strings only when requested.</li>
+ * <li>A repeated resource (see {@link #setRepeatCount}) is stored as a single entry. Its repeats are returned by
+ * {@link #getUuids(ResourceKey)} and share all parameters of the entry except number, repeat and offset.</li>
  * </ul>
  */
 public class ResourceTemplateParameterContext extends AbstractTemplateParameterContext {
 
     private static class ResourceData extends ContextData<ResourceUUID, ResourceContextParameters> {
+
+        private final Map<ResourceUUID, ResourceTimeline> timelines = new HashMap<>();
+        private final Map<ResourceUUID, Long> repeatCounts = new HashMap<>();
+        private ResourceUUID lastUuid;
+        private long repeatedCount;
+
+        /**
+         * Gets the UUID of the entry storing parameters of the given resource.
+         * It's the UUID itself for resources initialized explicitly, and the UUID of the first repeat for the
+         * other repeats of a repeated resource.
+         *
+         * @return the UUID of the entry or null if the resource is not defined.
+         */
+        ResourceUUID getEntryUuid(ResourceUUID uuid) {
+            if (super.contains(uuid)) {
+                return uuid;
+            }
+            if (uuid.getRepeat() <= 0) {
+                return null;
+            }
+            ResourceUUID firstRepeat = ResourceUUID.create(uuid.getUuid(), 0);
+            Long repeatCount = repeatCounts.get(firstRepeat);
+            if (repeatCount == null || uuid.getRepeat() >= repeatCount) {
+                return null;
+            }
+            return firstRepeat;
+        }
+
+        void setRepeatCount(ResourceUUID uuid, long repeatCount) {
+            Long prevRepeatCount = repeatCounts.put(uuid, repeatCount);
+            repeatedCount += repeatCount - (prevRepeatCount == null ? 1 : prevRepeatCount);
+        }
+
+        long getRepeatCount(ResourceUUID uuid) {
+            return repeatCounts.getOrDefault(uuid, 1L);
+        }
+
+        Collection<ResourceUUID> getEntryUuids() {
+            return super.getUuids();
+        }
+
+        @Override
+        public Collection<ResourceUUID> getUuids() {
+            Collection<ResourceUUID> entries = super.getUuids();
+            if (repeatCounts.isEmpty()) {
+                return entries;
+            }
+            return new AbstractCollection<ResourceUUID>() {
+                @Override
+                public Iterator<ResourceUUID> iterator() {
+                    return new RepeatIterator(entries.iterator());
+                }
+
+                @Override
+                public int size() {
+                    return getCount();
+                }
+            };
+        }
+
+        @Override
+        int getCount() {
+            return Math.toIntExact(super.getCount() + repeatedCount);
+        }
+
+        @Override
+        boolean contains(ResourceUUID uuid) {
+            return getEntryUuid(uuid) != null;
+        }
+
+        /**
+         * Iterates over the entries expanding each repeated resource to all its repeats.
+         */
+        private final class RepeatIterator implements Iterator<ResourceUUID> {
+
+            private final Iterator<ResourceUUID> entries;
+            private ResourceUUID current;
+            private long repeat;
+            private long repeatCount;
+
+            private RepeatIterator(Iterator<ResourceUUID> entries) {
+                this.entries = entries;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return repeat + 1 < repeatCount || entries.hasNext();
+            }
+
+            @Override
+            public ResourceUUID next() {
+                if (repeat + 1 < repeatCount) {
+                    repeat++;
+                    return ResourceUUID.create(current.getUuid(), repeat);
+                }
+                current = entries.next();
+                repeat = 0;
+                repeatCount = getRepeatCount(current);
+                return current;
+            }
+        }
+
     }
 
     private final Map<ResourceKey, ResourceData> resources = new LinkedHashMap<>();
@@ -69,7 +179,37 @@ public class ResourceTemplateParameterContext extends AbstractTemplateParameterC
             doAddParameter(resourceKey, uuid, ResourceContextParameters.UUID, uuid.getUuid());
             doAddParameter(resourceKey, uuid, ResourceContextParameters.NUM, String.valueOf(resourceNum));
             doAddParameter(resourceKey, uuid, ResourceContextParameters.REPEAT, String.valueOf(uuid.getRepeat()));
+            resources.get(resourceKey).lastUuid = uuid;
+        }
+        return this;
+    }
+
+    /**
+     * Defines that the given resource is repeated the given number of times.
+     * The resource is stored as a single entry: the repeats are not initialized explicitly but returned by
+     * {@link #getUuids(ResourceKey)} and resolved to the parameters of the given resource.
+     * Resource number, repeat and offset in milliseconds are calculated for each repeat.
+     * <p>
+     * The method must be called for the first repeat (with zero repeat index) of the last initialized resource.
+     * </p>
+     *
+     * @param resourceKey a resource key defining the parameter.
+     * @param uuid        resource UUID of the first repeat.
+     * @param repeatCount total number of repeats (1 if the resource is not repeated).
+     * @return this resource template parameters context.
+     */
+    public ResourceTemplateParameterContext setRepeatCount(ResourceKey resourceKey, ResourceUUID uuid, long repeatCount) {
+        ResourceData resourceData = resources.get(resourceKey);
+        if (resourceData == null || !uuid.equals(resourceData.lastUuid) || uuid.getRepeat() != 0) {
+            throw new ConversionException(String.format(
+                    "Repeat count can be set only for the first repeat of the last initialized resource. Resource: '%s'",
+                    uuid.getUuid()));
+        }
+        if (repeatCount < 1) {
+            throw new ConversionException(String.format(
+                    "Invalid repeat count %d for resource '%s'", repeatCount, uuid.getUuid()));
         }
+        resourceData.setRepeatCount(uuid, repeatCount);
         return this;
     }
 
@@ -89,17 +229,52 @@ public class ResourceTemplateParameterContext extends AbstractTemplateParameterC
         return this;
     }
 
+    /**
+     * Sets typed timeline values (edit rate, start time, duration, etc.) of a resource.
+     * Explicitly added string parameters (see {@link #addResourceParameter}) have priority over the timeline values.
+     *
+     * @param resourceKey a resource key defining the parameter.
+     * @param uuid        resource UUID.
+     * @param timeline    the resource timeline.
+     * @return this resource template parameters context.
+     */
+    public ResourceTemplateParameterContext setResourceTimeline(ResourceKey resourceKey, ResourceUUID uuid,
+                                                                ResourceTimeline timeline) {
+        initResource(resourceKey, uuid);
+        ResourceData resourceData = resources.get(resourceKey);
+        resourceData.timelines.put(resourceData.getEntryUuid(uuid), timeline);
+        return this;
+    }
+
+    /**
+     * Gets typed timeline values of a resource. All repeats of a repeated resource share the same timeline.
+     *
+     * @param resourceKey a resource key defining the parameter.
+     * @param uuid        resource UUID.
+     * @return the resource timeline or null if it's not set.
+     */
+    public ResourceTimeline getResourceTimeline(ResourceKey resourceKey, ResourceUUID uuid) {
+        ResourceData resourceData = resources.get(resourceKey);
+        if (resourceData == null) {
+            return null;
+        }
+        ResourceUUID entryUuid = resourceData.getEntryUuid(uuid);
+        return entryUuid == null ? null : resourceData.timelines.get(entryUuid);
+    }
+
     private void doAddParameter(ResourceKey resourceKey, ResourceUUID uuid, ResourceContextParameters paramName, String paramValue) {
         ResourceData resourceData = resources.get(resourceKey);
         if (resourceData == null) {
             resourceData = new ResourceData();
             resources.put(resourceKey, resourceData);
         }
-        resourceData.addParameter(uuid, paramName, paramValue);
+        ResourceUUID entryUuid = resourceData.getEntryUuid(uuid);
+        resourceData.addParameter(entryUuid != null ? entryUuid : uuid, paramName, paramValue);
     }
 
     /**
      * Gets a total count of resources for the segment and sequence (virtual track) defined by the given key.
+     * All repeats of repeated resources are counted.
      *
      * @param resourceKey a resource key defining the parameter.
      * @return total count of resources for the segment and sequence (virtual track) defined by the given key.
@@ -142,6 +317,37 @@ public class ResourceTemplateParameterContext extends AbstractTemplateParameterC
                 contextInfo);
     }
 
+    /**
+     * Gets Resource UUIDs of the entries for the segment and sequence (virtual track) defined by the given key.
+     * Unlike {@link #getUuids(ResourceKey)}, a repeated resource is returned only once (as its first repeat),
+     * see {@link #getRepeatCount(ResourceKey, ResourceUUID)}.
+     *
+     * @param resourceKey a resource key defining the parameter.
+     * @return Resource UUIDs of all entries in the order as they were added.
+     */
+    public Collection<ResourceUUID> getEntryUuids(ResourceKey resourceKey) {
+        ResourceData resourceData = resources.get(resourceKey);
+        if (resourceData == null) {
+            return Collections.emptyList();
+        }
+        return resourceData.getEntryUuids();
+    }
+
+    /**
+     * Gets the number of repeats of the resource entry.
+     *
+     * @param resourceKey a resource key defining the parameter.
+     * @param uuid        resource UUID of the entry (see {@link #getEntryUuids(ResourceKey)}).
+     * @return total number of repeats (1 if the resource is not repeated).
+     */
+    public long getRepeatCount(ResourceKey resourceKey, ResourceUUID uuid) {
+        ResourceData resourceData = resources.get(resourceKey);
+        if (resourceData == null) {
+            return 1;
+        }
+        return resourceData.getRepeatCount(uuid);
+    }
+
     /**
      * Resolves the given parameter.
      * The returned value is never null.
@@ -210,15 +416,19 @@ public class ResourceTemplateParameterContext extends AbstractTemplateParameterC
                             contextInfo.getSequenceUuid(), contextInfo.getSequenceType().value(), contextInfo.getSegmentUuid()));
         }
 
-        ContextParameterData<ResourceContextParameters> parameterData = resourceData.getParameterData(contextInfo.getResourceUuid());
-        if (parameterData == null) {
+        ResourceUUID entryUuid = resourceData.getEntryUuid(contextInfo.getResourceUuid());
+        if (entryUuid == null) {
             throw new TemplateParameterNotFoundException(
                     templateParameter.toString(),
                     String.format("Resource Context for %s resource is not defined. Context for %d resources only are defined.",
                             contextInfo.getSequenceUuid(), resourceData.getCount()));
         }
 
-        String parameterValue = parameterData.getParameterValue(resourceParameter);
+        String parameterValue = getEntryParameterValue(resourceData, entryUuid, resourceParameter);
+        long repeat = contextInfo.getResourceUuid().getRepeat() - entryUuid.getRepeat();
+        if (parameterValue != null && repeat > 0) {
+            parameterValue = getRepeatParameterValue(resourceData, entryUuid, resourceParameter, parameterValue, repeat);
+        }
         if (parameterValue == null) {
             throw new TemplateParameterNotFoundException(
                     templateParameter.toString(),
@@ -229,5 +439,31 @@ public class ResourceTemplateParameterContext extends AbstractTemplateParameterC
         return parameterValue;
     }
 
+    private String getEntryParameterValue(ResourceData resourceData, ResourceUUID entryUuid,
+                                          ResourceContextParameters resourceParameter) {
+        String parameterValue = resourceData.getParameterData(entryUuid).getParameterValue(resourceParameter);
+        if (parameterValue == null) {
+            ResourceTimeline timeline = resourceData.timelines.get(entryUuid);
+            if (timeline != null) {
+                parameterValue = timeline.getParameterValue(resourceParameter);
+            }
+        }
+        return parameterValue;
+    }
+
+    private String getRepeatParameterValue(ResourceData resourceData, ResourceUUID entryUuid,
+                                           ResourceContextParameters resourceParameter, String entryValue, long repeat) {
+        switch (resourceParameter) {
+            case NUM:
+                return String.valueOf(Long.parseLong(entryValue) + repeat);
+            case REPEAT:
+                return String.valueOf(entryUuid.getRepeat() + repeat);
+            case OFFSET_MS:
+                String durationMs = getEntryParameterValue(resourceData, entryUuid, ResourceContextParameters.DURATION_MS);
+                return String.valueOf(Long.parseLong(entryValue) + repeat * Long.parseLong(durationMs));
+            default:
+                return entryValue;
+        }
+    }
 
 }
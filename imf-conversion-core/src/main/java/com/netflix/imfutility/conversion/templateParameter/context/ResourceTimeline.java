@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.templateParameter.context;
+
+import com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters;
+import com.netflix.imfutility.util.ConversionHelper;
+import org.apache.commons.math3.fraction.BigFraction;
+
+import java.math.BigInteger;
+
+/**
+ * Typed timeline values of a resource within a segment of a sequence (virtual track).
+ * <ul>
+ * <li>Holds edit rate, start time and duration as primitives, so that they are not re-parsed from strings
+ * each time they are needed when building CPL contexts.</li>
+ * <li>All other time parameters (end time, milliseconds, timecodes, frame edit units, offset) are derived from them.</li>
+ * <li>String values of the parameters are rendered lazily when requested by a template (and then cached).</li>
+ * </ul>
+ */
+public final class ResourceTimeline {
+
+    private final long editRateNumerator;
+    private final long editRateDenominator;
+    private final long startTimeEditUnit;
+    private final long durationEditUnit;
+
+    // in video frames if the essence contains both video and audio; equal to edit units otherwise
+    private long startTimeFrameEditUnit;
+    private long durationFrameEditUnit;
+
+    private long offsetMs;
+    private boolean offsetDefined;
+
+    private final String[] renderedValues = new String[ResourceContextParameters.values().length];
+
+    public ResourceTimeline(BigFraction editRate, long startTimeEditUnit, long durationEditUnit) {
+        this.editRateNumerator = editRate.getNumeratorAsLong();
+        this.editRateDenominator = editRate.getDenominatorAsLong();
+        this.startTimeEditUnit = startTimeEditUnit;
+        this.durationEditUnit = durationEditUnit;
+        this.startTimeFrameEditUnit = startTimeEditUnit;
+        this.durationFrameEditUnit = durationEditUnit;
+    }
+
+    public BigFraction getEditRate() {
+        return new BigFraction(editRateNumerator, editRateDenominator);
+    }
+
+    public long getStartTimeEditUnit() {
+        return startTimeEditUnit;
+    }
+
+    public long getDurationEditUnit() {
+        return durationEditUnit;
+    }
+
+    public long getEndTimeEditUnit() {
+        return startTimeEditUnit + durationEditUnit;
+    }
+
+    public long getDurationMs() {
+        return ConversionHelper.editUnitToMilliSeconds(BigInteger.valueOf(durationEditUnit), getEditRate());
+    }
+
+    /**
+     * Sets start time and duration in frame edit units (video frames if the resource's essence contains both
+     * video and audio).
+     *
+     * @param startTimeFrameEditUnit start time in frame edit units
+     * @param durationFrameEditUnit  duration in frame edit units
+     */
+    public void setFrameEditUnits(long startTimeFrameEditUnit, long durationFrameEditUnit) {
+        this.startTimeFrameEditUnit = startTimeFrameEditUnit;
+        this.durationFrameEditUnit = durationFrameEditUnit;
+        renderedValues[ResourceContextParameters.START_TIME_FRAME_EDIT_UNIT.ordinal()] = null;
+        renderedValues[ResourceContextParameters.DURATION_FRAME_EDIT_UNIT.ordinal()] = null;
+    }
+
+    /**
+     * Sets offset of the segment the resource belongs to (in milliseconds).
+     *
+     * @param offsetMs offset in milliseconds
+     */
+    public void setOffsetMs(long offsetMs) {
+        this.offsetMs = offsetMs;
+        this.offsetDefined = true;
+        renderedValues[ResourceContextParameters.OFFSET_MS.ordinal()] = null;
+    }
+
+    /**
+     * Gets a string value of the given parameter.
+     *
+     * @param parameter a resource parameter
+     * @return a string value or null if the parameter is not a timeline parameter or it's not defined yet.
+     */
+    public String getParameterValue(ResourceContextParameters parameter) {
+        String value = renderedValues[parameter.ordinal()];
+        if (value == null) {
+            value = render(parameter);
+            renderedValues[parameter.ordinal()] = value;
+        }
+        return value;
+    }
+
+    private String render(ResourceContextParameters parameter) {
+        switch (parameter) {
+            case EDIT_RATE:
+                return ConversionHelper.toEditRate(getEditRate());
+            case START_TIME_EDIT_UNIT:
+                return String.valueOf(startTimeEditUnit);
+            case DURATION_EDIT_UNIT:
+                return String.valueOf(durationEditUnit);
+            case END_TIME_EDIT_UNIT:
+                return String.valueOf(getEndTimeEditUnit());
+            case START_TIME_MS:
+                return String.valueOf(toMs(startTimeEditUnit));
+            case DURATION_MS:
+                return String.valueOf(toMs(durationEditUnit));
+            case END_TIME_MS:
+                return String.valueOf(toMs(getEndTimeEditUnit()));
+            case START_TIME_TIMECODE:
+                return toTimecode(startTimeEditUnit);
+            case DURATION_TIMECODE:
+                return toTimecode(durationEditUnit);
+            case END_TIME_TIMECODE:
+                return toTimecode(getEndTimeEditUnit());
+            case START_TIME_FRAME_EDIT_UNIT:
+                return String.valueOf(startTimeFrameEditUnit);
+            case DURATION_FRAME_EDIT_UNIT:
+                return String.valueOf(durationFrameEditUnit);
+            case OFFSET_MS:
+                return offsetDefined ? String.valueOf(offsetMs) : null;
+            default:
+                return null;
+        }
+    }
+
+    private long toMs(long editUnit) {
+        return ConversionHelper.editUnitToMilliSeconds(BigInteger.valueOf(editUnit), getEditRate());
+    }
+
+    private String toTimecode(long editUnit) {
+        return ConversionHelper.editUnitToTimecode(BigInteger.valueOf(editUnit), getEditRate());
+    }
+
+}
@@ -20,6 +20,9 @@ package com.netflix.imfutility.conversion.templateParameter.context;
 
 import com.netflix.imfutility.config.ConfigXmlProvider;
 import com.netflix.imfutility.conversion.ConversionXmlProvider;
+import com.netflix.imfutility.conversion.executor.ConversionJournal;
+import com.netflix.imfutility.conversion.executor.OperationCache;
+import com.netflix.imfutility.conversion.executor.RunningProcesses;
 import com.netflix.imfutility.conversion.templateParameter.TemplateParameterContext;
 
 import java.io.File;
@@ -36,6 +39,10 @@ public class TemplateParameterContextProvider {
     private final File workingDir;
 
     private final Map<TemplateParameterContext, ITemplateParameterContext> contexts = new HashMap<>();
+    private final RunningProcesses runningProcesses = new RunningProcesses();
+    private CompositionTimeline compositionTimeline;
+    private ConversionJournal conversionJournal;
+    private OperationCache operationCache;
 
     /**
      * Creates a new instance.
@@ -83,6 +90,76 @@ public class TemplateParameterContextProvider {
         return (DestTemplateParameterContext) contexts.get(TemplateParameterContext.DEST);
     }
 
+    /**
+     * Builds a timeline of all resources from the current segment, sequence and resource contexts.
+     * The timeline is kept and returned by {@link #getCompositionTimeline()}, so it must be called
+     * once all resources are initialized from CPL.
+     *
+     * @return the composition timeline.
+     */
+    public CompositionTimeline buildCompositionTimeline() {
+        compositionTimeline = CompositionTimeline.create(this);
+        return compositionTimeline;
+    }
+
+    /**
+     * Gets the timeline of all resources built by {@link #buildCompositionTimeline()}.
+     * If it's not built yet, a new timeline is created from the current contexts.
+     *
+     * @return the composition timeline.
+     */
+    public CompositionTimeline getCompositionTimeline() {
+        if (compositionTimeline == null) {
+            return CompositionTimeline.create(this);
+        }
+        return compositionTimeline;
+    }
+
+    /**
+     * Gets the journal where completed conversion operations are recorded.
+     *
+     * @return the conversion journal or null if the operations are not journaled.
+     */
+    public ConversionJournal getConversionJournal() {
+        return conversionJournal;
+    }
+
+    /**
+     * Sets the journal where completed conversion operations are recorded.
+     *
+     * @param conversionJournal the conversion journal or null if the operations must not be journaled.
+     */
+    public void setConversionJournal(ConversionJournal conversionJournal) {
+        this.conversionJournal = conversionJournal;
+    }
+
+    /**
+     * Gets external processes started by the conversion.
+     *
+     * @return the processes started by the conversion.
+     */
+    public RunningProcesses getRunningProcesses() {
+        return runningProcesses;
+    }
+
+    /**
+     * Gets the cache where output files of conversion operations are stored between runs.
+     *
+     * @return the operation cache or null if the outputs are not cached.
+     */
+    public OperationCache getOperationCache() {
+        return operationCache;
+    }
+
+    /**
+     * Sets the cache where output files of conversion operations are stored between runs.
+     *
+     * @param operationCache the operation cache or null if the outputs must not be cached.
+     */
+    public void setOperationCache(OperationCache operationCache) {
+        this.operationCache = operationCache;
+    }
+
     /**
      * Gets the working directory where the output file as well as all tmp files are created.
      *
@@ -21,18 +21,17 @@ package com.netflix.imfutility.cpl;
 import com.netflix.imfutility.asset.AssetMap;
 import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
 import com.netflix.imfutility.conversion.templateParameter.ContextInfoBuilder;
+import com.netflix.imfutility.conversion.templateParameter.context.CompositionTimeline;
 import com.netflix.imfutility.conversion.templateParameter.context.DestTemplateParameterContext;
-import com.netflix.imfutility.conversion.templateParameter.context.ResourceKey;
 import com.netflix.imfutility.conversion.templateParameter.context.ResourceTemplateParameterContext;
+import com.netflix.imfutility.conversion.templateParameter.context.ResourceTimeline;
 import com.netflix.imfutility.conversion.templateParameter.context.SequenceTemplateParameterContext;
 import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
 import com.netflix.imfutility.conversion.templateParameter.context.parameters.DestContextParameters;
 import com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters;
 import com.netflix.imfutility.conversion.templateParameter.context.parameters.SequenceContextParameters;
 import com.netflix.imfutility.cpl.essencedescriptor.EssenceDescriptorProcessor;
-import com.netflix.imfutility.cpl.uuid.ResourceUUID;
-import com.netflix.imfutility.cpl.uuid.SegmentUUID;
-import com.netflix.imfutility.cpl.uuid.SequenceUUID;
+import com.netflix.imfutility.cpl.essencedescriptor.EssenceDescriptors;
 import com.netflix.imfutility.generated.conversion.SequenceType;
 import com.netflix.imfutility.util.ConversionHelper;
 import org.apache.commons.lang3.StringUtils;
@@ -40,7 +39,6 @@ import org.apache.commons.math3.fraction.BigFraction;
 
 import java.math.BigInteger;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -75,19 +73,20 @@ public abstract class AbstractCplContextBuilderStrategy implements ICplContextBu
         // (such as EditUnit-based parameters and Repeat)
         buildFromCpl();
 
-        // 2. calculate other Resource parameters
-        calculateMsAndTcParameters();
+        // 2. materialize the composition timeline once: all subsequent phases go through it
+        CompositionTimeline compositionTimeline = contextProvider.buildCompositionTimeline();
 
-        // 3. re-check DURATION_FRAME_EDIT_UNIT and START_TIME_FRAME_EDIT_UNIT for
+        // 3. a single pass over all resources:
+        // calculate other Resource parameters, process essence descriptors and collect video essences
+        Map<String, BigFraction> videoEssences = processResources(compositionTimeline);
+
+        // 4. re-check DURATION_FRAME_EDIT_UNIT and START_TIME_FRAME_EDIT_UNIT for
         // audio sequences which has essences containing both audio and video
         // (the values must be calculated in video frames in this case)
-        buildTimeAndDurationInFrames();
-
-        // 4. process essence descriptors
-        new EssenceDescriptorProcessor(getEssenceDescriptors(), contextProvider).build();
+        buildTimeAndDurationInFrames(compositionTimeline, videoEssences);
 
         // 5. define default languages for all sequences from CPL, if it's not defined in essence descriptors
-        buildDefaultSequenceLanguages();
+        buildDefaultSequenceLanguages(compositionTimeline);
 
     }
 
@@ -103,15 +102,14 @@ public abstract class AbstractCplContextBuilderStrategy implements ICplContextBu
     protected abstract void buildFromCpl();
 
     /**
-     * Gets all generic EssenceDescriptors for each resource. May be empty but never null.
-     * The key corresponds to
-     * {@link com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters#TRACK_FILE_ID}.
-     * The value is a list of essence descriptors.
-     *
+     * Gets all generic EssenceDescriptors. May be empty but never null.
+     * The essence descriptors are identified by
+     * {@link com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters#ESSENCE_DESC_ID}.
+     * Sub-descriptors are mapped to Java model only when requested.
      *
-     * @return all generic EssenceDescriptors for each resource. Never null.
+     * @return all generic EssenceDescriptors. Never null.
      */
-    protected abstract Map<String, List<Object>> getEssenceDescriptors();
+    protected abstract EssenceDescriptors getEssenceDescriptors();
 
     /**
      * Gets a composition start timecode as defined in CPL.
@@ -126,67 +124,57 @@ public abstract class AbstractCplContextBuilderStrategy implements ICplContextBu
     protected abstract BigFraction getCompositionTimecodeRate();
 
     /**
+     * A single pass over all resources in the CPL order.
      * <ul>
-     * <li>Calculate other Resource parameters (such as millisecond-based parameters and timecode-based parameters)
-     * using edit-unit-based parameters filled by a concrete strategy.</li>
+     * <li>Makes sure each resource has a typed timeline (edit rate, start time and duration in edit units).</li>
+     * <li>Other Resource parameters (such as millisecond-based parameters and timecode-based parameters)
+     * are derived from the timeline and rendered only when requested.</li>
+     * <li>Start time and duration in frame edit units are initially equal to the ones in edit units
+     * (will be re-calculated later).</li>
+     * <li>Processes essence descriptors of each resource.</li>
+     * <li>Collects edit rates of all video essences.</li>
      * </ul>
+     *
+     * @return edit rates of all video essences.
      */
-    private void calculateMsAndTcParameters() {
+    private Map<String, BigFraction> processResources(CompositionTimeline compositionTimeline) {
         ResourceTemplateParameterContext resourceContext = contextProvider.getResourceContext();
-        for (SequenceType seqType : contextProvider.getSequenceContext().getSequenceTypes()) {
-            for (SequenceUUID seqUuid : contextProvider.getSequenceContext().getUuids(seqType)) {
-                for (SegmentUUID segmUuid : contextProvider.getSegmentContext().getUuids()) {
-                    ResourceKey resourceKey = ResourceKey.create(segmUuid, seqUuid, seqType);
-                    for (ResourceUUID resUuid : resourceContext.getUuids(resourceKey)) {
-                        ContextInfo contextInfo = new ContextInfoBuilder()
-                                .setResourceUuid(resUuid)
-                                .setSegmentUuid(segmUuid)
-                                .setSequenceUuid(seqUuid)
-                                .setSequenceType(seqType).build();
-
-                        // 1. already filled from CPL: startTime/endTime/duration in EU and edit rate
-                        BigFraction editRate = ConversionHelper.parseEditRate(contextProvider.getResourceContext()
-                                .getParameterValue(ResourceContextParameters.EDIT_RATE, contextInfo));
-                        BigInteger durationEU = new BigInteger(contextProvider.getResourceContext()
-                                .getParameterValue(ResourceContextParameters.DURATION_EDIT_UNIT, contextInfo));
-                        BigInteger startTimeEU = new BigInteger(contextProvider.getResourceContext()
-                                .getParameterValue(ResourceContextParameters.START_TIME_EDIT_UNIT, contextInfo));
-                        BigInteger endTimeEU = new BigInteger(contextProvider.getResourceContext()
-                                .getParameterValue(ResourceContextParameters.END_TIME_EDIT_UNIT, contextInfo));
-
-                        // 2. startTime, endTime and duration in MS
-                        long durationMs = ConversionHelper.editUnitToMilliSeconds(durationEU, editRate);
-                        long startTimeMs = ConversionHelper.editUnitToMilliSeconds(startTimeEU, editRate);
-                        long endTimeMs = ConversionHelper.editUnitToMilliSeconds(endTimeEU, editRate);
-                        resourceContext.addResourceParameter(resourceKey, resUuid,
-                                ResourceContextParameters.DURATION_MS, String.valueOf(durationMs));
-                        resourceContext.addResourceParameter(resourceKey, resUuid,
-                                ResourceContextParameters.START_TIME_MS, String.valueOf(startTimeMs));
-                        resourceContext.addResourceParameter(resourceKey, resUuid,
-                                ResourceContextParameters.END_TIME_MS, String.valueOf(endTimeMs));
-
-                        // 3. startTime, endTime and Duration in TC
-                        String durationTimecode = ConversionHelper.editUnitToTimecode(durationEU, editRate);
-                        String startTimeTimeCode = ConversionHelper.editUnitToTimecode(startTimeEU, editRate);
-                        String endTimeTimeCode = ConversionHelper.editUnitToTimecode(endTimeEU, editRate);
-                        resourceContext.addResourceParameter(resourceKey, resUuid,
-                                ResourceContextParameters.DURATION_TIMECODE, String.valueOf(durationTimecode));
-                        resourceContext.addResourceParameter(resourceKey, resUuid,
-                                ResourceContextParameters.START_TIME_TIMECODE, String.valueOf(startTimeTimeCode));
-                        resourceContext.addResourceParameter(resourceKey, resUuid,
-                                ResourceContextParameters.END_TIME_TIMECODE, String.valueOf(endTimeTimeCode));
-
-                        // 4. startTime and duration in frameEditUnits (will be re-calculated later)
-                        // assume essence has only one seq type (either video or audio),
-                        // so start time in frames is equal to start time in edit units.
-                        contextProvider.getResourceContext().addResourceParameter(resourceKey, resUuid,
-                                ResourceContextParameters.DURATION_FRAME_EDIT_UNIT, durationEU.toString());
-                        contextProvider.getResourceContext().addResourceParameter(resourceKey, resUuid,
-                                ResourceContextParameters.START_TIME_FRAME_EDIT_UNIT, startTimeEU.toString());
-                    }
-                }
+        EssenceDescriptorProcessor essenceDescriptorProcessor =
+                new EssenceDescriptorProcessor(getEssenceDescriptors(), contextProvider);
+
+        Map<String, BigFraction> videoEssences = new HashMap<>();
+        for (CompositionTimeline.Resource resource : compositionTimeline.getResources()) {
+            ResourceTimeline timeline = getResourceTimeline(resource);
+            essenceDescriptorProcessor.process(resource.getContextInfo());
+            if (resource.getSequenceType() == SequenceType.VIDEO) {
+                String essence = resourceContext.getParameterValue(ResourceContextParameters.ESSENCE, resource.getContextInfo());
+                videoEssences.put(essence, timeline.getEditRate());
             }
         }
+        return videoEssences;
+    }
+
+    /**
+     * Gets a typed timeline of the resource. If a concrete strategy filled edit-unit-based parameters as strings,
+     * they are parsed once and the timeline is stored in the context.
+     */
+    private ResourceTimeline getResourceTimeline(CompositionTimeline.Resource resource) {
+        ResourceTemplateParameterContext resourceContext = contextProvider.getResourceContext();
+        ResourceTimeline timeline = resourceContext.getResourceTimeline(resource.getResourceKey(), resource.getResourceUuid());
+        if (timeline != null) {
+            return timeline;
+        }
+
+        ContextInfo contextInfo = resource.getContextInfo();
+        BigFraction editRate = ConversionHelper.parseEditRate(
+                resourceContext.getParameterValue(ResourceContextParameters.EDIT_RATE, contextInfo));
+        long startTimeEU = Long.parseLong(
+                resourceContext.getParameterValue(ResourceContextParameters.START_TIME_EDIT_UNIT, contextInfo));
+        long durationEU = Long.parseLong(
+                resourceContext.getParameterValue(ResourceContextParameters.DURATION_EDIT_UNIT, contextInfo));
+        timeline = new ResourceTimeline(editRate, startTimeEU, durationEU);
+        resourceContext.setResourceTimeline(resource.getResourceKey(), resource.getResourceUuid(), timeline);
+        return timeline;
     }
 
     /**
@@ -197,28 +185,16 @@ public abstract class AbstractCplContextBuilderStrategy implements ICplContextBu
      * </ul>
      */
     private void calculateOffsetMs() {
-        ResourceTemplateParameterContext resourceContext = contextProvider.getResourceContext();
         long destStartTimeMs = getDestStartTime();
 
-        for (SequenceType seqType : contextProvider.getSequenceContext().getSequenceTypes()) {
-            for (SequenceUUID seqUuid : contextProvider.getSequenceContext().getUuids(seqType)) {
-                long offsetMs = destStartTimeMs;
-                for (SegmentUUID segmUuid : contextProvider.getSegmentContext().getUuids()) {
-                    ResourceKey resourceKey = ResourceKey.create(segmUuid, seqUuid, seqType);
-                    for (ResourceUUID resUuid : resourceContext.getUuids(resourceKey)) {
-                        ContextInfo contextInfo = new ContextInfoBuilder()
-                                .setResourceUuid(resUuid)
-                                .setSegmentUuid(segmUuid)
-                                .setSequenceUuid(seqUuid)
-                                .setSequenceType(seqType).build();
-
-                        resourceContext.addResourceParameter(resourceKey, resUuid,
-                                ResourceContextParameters.OFFSET_MS, String.valueOf(offsetMs));
-                        long durationMs = new BigInteger(contextProvider.getResourceContext()
-                                .getParameterValue(ResourceContextParameters.DURATION_MS, contextInfo)).longValue();
-                        offsetMs += durationMs;
-                    }
-                }
+        for (CompositionTimeline.Sequence sequence : contextProvider.getCompositionTimeline().getSequences()) {
+            long offsetMs = destStartTimeMs;
+            for (CompositionTimeline.Resource resource : sequence.getResources()) {
+                ResourceTimeline timeline = getResourceTimeline(resource);
+                // repeats of a repeated resource share the timeline: the offset of each repeat
+                // is derived from the offset of the first one
+                timeline.setOffsetMs(offsetMs);
+                offsetMs += timeline.getDurationMs() * resource.getRepeatCount();
             }
         }
     }
@@ -252,80 +228,46 @@ public abstract class AbstractCplContextBuilderStrategy implements ICplContextBu
      * Re-check DURATION_FRAME_EDIT_UNIT and START_TIME_FRAME_EDIT_UNIT for audio sequences which has essences containing
      * both audio and video the values must be calculated in video frames in this case).
      */
-    private void buildTimeAndDurationInFrames() {
+    private void buildTimeAndDurationInFrames(CompositionTimeline compositionTimeline, Map<String, BigFraction> videoEssences) {
         ResourceTemplateParameterContext resourceContext = contextProvider.getResourceContext();
 
-        // get all video essences to re-check DURATION_FRAME_EDIT_UNIT and START_TIME_FRAME_EDIT_UNIT for
-        // audio sequences which has essences containing both audio and video (the values must be calculated in video frames in this case)
-        Map<String, BigFraction> videoEssences = new HashMap<>();
-        SequenceType seqType = SequenceType.VIDEO;
-        for (SequenceUUID seqUuid : contextProvider.getSequenceContext().getUuids(SequenceType.VIDEO)) {
-            for (SegmentUUID segmUuid : contextProvider.getSegmentContext().getUuids()) {
-                ResourceKey resourceKey = ResourceKey.create(segmUuid, seqUuid, seqType);
-                for (ResourceUUID resUuid : resourceContext.getUuids(resourceKey)) {
-                    ContextInfo contextInfo = new ContextInfoBuilder()
-                            .setResourceUuid(resUuid)
-                            .setSegmentUuid(segmUuid)
-                            .setSequenceUuid(seqUuid)
-                            .setSequenceType(seqType).build();
-                    String essence = resourceContext.getParameterValue(ResourceContextParameters.ESSENCE, contextInfo);
-                    String editRate = resourceContext.getParameterValue(ResourceContextParameters.EDIT_RATE, contextInfo);
-                    BigFraction editRateFraction = ConversionHelper.parseEditRate(editRate);
-                    videoEssences.put(essence, editRateFraction);
-                }
+        // process only audio
+        for (CompositionTimeline.Resource resource : compositionTimeline.getResources()) {
+            if (resource.getSequenceType() != SequenceType.AUDIO) {
+                continue;
             }
-        }
 
-        // process only audio
-        seqType = SequenceType.AUDIO;
-        for (SequenceUUID seqUuid : contextProvider.getSequenceContext().getUuids(seqType)) {
-            for (SegmentUUID segmUuid : contextProvider.getSegmentContext().getUuids()) {
-                ResourceKey resourceKey = ResourceKey.create(segmUuid, seqUuid, seqType);
-                for (ResourceUUID resUuid : resourceContext.getUuids(resourceKey)) {
-                    ContextInfo contextInfo = new ContextInfoBuilder()
-                            .setResourceUuid(resUuid)
-                            .setSegmentUuid(segmUuid)
-                            .setSequenceUuid(seqUuid)
-                            .setSequenceType(seqType).build();
-
-                    String essence = resourceContext.getParameterValue(ResourceContextParameters.ESSENCE, contextInfo);
-                    BigFraction videoEditRate = videoEssences.get(essence); // frame rate
-                    // the essence containing the audio has also a video
-                    if (videoEditRate != null) {
-                        // start time and duration in audio edit units (samples)
-                        BigInteger startTimeEU = new BigInteger(
-                                resourceContext.getParameterValue(ResourceContextParameters.START_TIME_EDIT_UNIT, contextInfo));
-                        BigInteger durationEU = new BigInteger(
-                                resourceContext.getParameterValue(ResourceContextParameters.DURATION_EDIT_UNIT, contextInfo));
-                        // audio edit rate (sample rate)
-                        BigFraction editRate = ConversionHelper.parseEditRate(
-                                resourceContext.getParameterValue(ResourceContextParameters.EDIT_RATE, contextInfo));
-
-                        // convert start time and duration from samples to video frames
-                        String startTimeInFrames = String.valueOf(ConversionHelper.toNewEditRate(startTimeEU, editRate, videoEditRate));
-                        String durationInFrames = String.valueOf(ConversionHelper.toNewEditRate(durationEU, editRate, videoEditRate));
-
-                        // save in context
-                        resourceContext.addResourceParameter(resourceKey, resUuid, ResourceContextParameters.START_TIME_FRAME_EDIT_UNIT,
-                                startTimeInFrames);
-                        resourceContext.addResourceParameter(resourceKey, resUuid, ResourceContextParameters.DURATION_FRAME_EDIT_UNIT,
-                                durationInFrames);
-                    }
-                }
+            String essence = resourceContext.getParameterValue(ResourceContextParameters.ESSENCE, resource.getContextInfo());
+            BigFraction videoEditRate = videoEssences.get(essence); // frame rate
+            // the essence containing the audio has also a video
+            if (videoEditRate != null) {
+                // start time and duration in audio edit units (samples) and audio edit rate (sample rate)
+                ResourceTimeline timeline = getResourceTimeline(resource);
+                BigFraction editRate = timeline.getEditRate();
+
+                // convert start time and duration from samples to video frames
+                timeline.setFrameEditUnits(
+                        ConversionHelper.toNewEditRate(
+                                BigInteger.valueOf(timeline.getStartTimeEditUnit()), editRate, videoEditRate),
+                        ConversionHelper.toNewEditRate(
+                                BigInteger.valueOf(timeline.getDurationEditUnit()), editRate, videoEditRate));
             }
         }
     }
 
-    private void buildDefaultSequenceLanguages() {
+    private void buildDefaultSequenceLanguages(CompositionTimeline compositionTimeline) {
         SequenceTemplateParameterContext sequenceContext = contextProvider.getSequenceContext();
-        for (SequenceType seqType : sequenceContext.getSequenceTypes()) {
-            for (SequenceUUID seqUuid : sequenceContext.getUuids(seqType)) {
-                String language = getDefaultCplLanguage();
-
-                ContextInfo contextInfo = new ContextInfoBuilder().setSequenceType(seqType).setSequenceUuid(seqUuid).build();
-                if (language != null && !sequenceContext.hasSequenceParameter(SequenceContextParameters.LANGUAGE, contextInfo)) {
-                    sequenceContext.addSequenceParameter(seqType, seqUuid, SequenceContextParameters.LANGUAGE, language);
-                }
+        String language = getDefaultCplLanguage();
+        if (language == null) {
+            return;
+        }
+        for (CompositionTimeline.Sequence sequence : compositionTimeline.getSequences()) {
+            ContextInfo contextInfo = new ContextInfoBuilder()
+                    .setSequenceType(sequence.getSequenceType())
+                    .setSequenceUuid(sequence.getSequenceUuid()).build();
+            if (!sequenceContext.hasSequenceParameter(SequenceContextParameters.LANGUAGE, contextInfo)) {
+                sequenceContext.addSequenceParameter(
+                        sequence.getSequenceType(), sequence.getSequenceUuid(), SequenceContextParameters.LANGUAGE, language);
             }
         }
     }
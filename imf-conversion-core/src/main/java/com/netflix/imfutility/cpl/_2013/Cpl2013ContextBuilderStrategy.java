@@ -21,19 +21,20 @@ package com.netflix.imfutility.cpl._2013;
 import com.netflix.imfutility.ConversionException;
 import com.netflix.imfutility.asset.AssetMap;
 import com.netflix.imfutility.conversion.templateParameter.context.ResourceKey;
+import com.netflix.imfutility.conversion.templateParameter.context.ResourceTimeline;
 import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
 import com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters;
 import com.netflix.imfutility.cpl.AbstractCplContextBuilderStrategy;
 import com.netflix.imfutility.cpl.SequenceTypeCpl;
+import com.netflix.imfutility.cpl.essencedescriptor.EssenceDescriptorFilter;
+import com.netflix.imfutility.cpl.essencedescriptor.EssenceDescriptors;
 import com.netflix.imfutility.cpl.uuid.ResourceUUID;
 import com.netflix.imfutility.cpl.uuid.SegmentUUID;
 import com.netflix.imfutility.cpl.uuid.SequenceUUID;
 import com.netflix.imfutility.cpl.uuid.UUID;
-import com.netflix.imfutility.essencedescriptors.EssenceDescriptorsConstants;
 import com.netflix.imfutility.generated.imf._2013.BaseResourceType;
 import com.netflix.imfutility.generated.imf._2013.CompositionPlaylistType;
 import com.netflix.imfutility.generated.imf._2013.CompositionPlaylistType.LocaleList;
-import com.netflix.imfutility.generated.imf._2013.EssenceDescriptorBaseType;
 import com.netflix.imfutility.generated.imf._2013.LocaleType;
 import com.netflix.imfutility.generated.imf._2013.LocaleType.LanguageList;
 import com.netflix.imfutility.generated.imf._2013.SegmentType;
@@ -49,10 +50,6 @@ import javax.xml.bind.JAXBElement;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.math.BigInteger;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import static com.netflix.imfutility.CoreConstants.CORE_CONSTRAINTS_2013_XSD;
@@ -72,6 +69,7 @@ import static com.netflix.imfutility.CoreConstants.XMLDSIG_CORE_SCHEMA_XSD;
 public class Cpl2013ContextBuilderStrategy extends AbstractCplContextBuilderStrategy {
 
     private CompositionPlaylistType cpl2013;
+    private final EssenceDescriptors essenceDescriptors = new EssenceDescriptors();
 
     private BigFraction compositionEditRate;
     private SegmentUUID currentSegmentUuid;
@@ -89,19 +87,13 @@ public class Cpl2013ContextBuilderStrategy extends AbstractCplContextBuilderStra
                 new String[]{
                         XMLDSIG_CORE_SCHEMA_XSD, DCML_TYPES_XSD, CPL_2013_XSD, CORE_CONSTRAINTS_2013_XSD
                 },
-                CPL_2013_PACKAGE + ":" + EssenceDescriptorsConstants.ESSENCE_DESCRIPTORS_PACKAGES, CompositionPlaylistType.class);
+                CPL_2013_PACKAGE, CompositionPlaylistType.class,
+                contentHandler -> new EssenceDescriptorFilter(contentHandler, essenceDescriptors));
     }
 
     @Override
-    public Map<String, List<Object>> getEssenceDescriptors() {
-        if (cpl2013.getEssenceDescriptorList() == null) {
-            return Collections.emptyMap();
-        }
-        Map<String, List<Object>> result = new HashMap<>();
-        for (EssenceDescriptorBaseType essenceDescriptorBase : cpl2013.getEssenceDescriptorList().getEssenceDescriptor()) {
-            result.put(essenceDescriptorBase.getId(), essenceDescriptorBase.getAny());
-        }
-        return result;
+    public EssenceDescriptors getEssenceDescriptors() {
+        return essenceDescriptors;
     }
 
     @Override
@@ -189,15 +181,21 @@ public class Cpl2013ContextBuilderStrategy extends AbstractCplContextBuilderStra
 
         BigInteger repeatCount = trackFileResource.getRepeatCount() != null
                 ? trackFileResource.getRepeatCount() : BigInteger.ONE;
+        if (repeatCount.signum() <= 0) {
+            return;
+        }
 
-        for (long i = 0; i < repeatCount.longValue(); i++) {
-            processResourceRepeat(trackFileResource, i);
+        // a repeated resource is stored as a single entry: all repeats share the parameters of the first one
+        ResourceUUID resourceId = processTrackFileResource(trackFileResource);
+        if (repeatCount.longValue() > 1) {
+            ResourceKey resourceKey = ResourceKey.create(currentSegmentUuid, currentSequenceUuid, currentSequenceType);
+            contextProvider.getResourceContext().setRepeatCount(resourceKey, resourceId, repeatCount.longValue());
         }
     }
 
-    private void processResourceRepeat(TrackFileResourceType trackFileResource, long repeat) {
+    private ResourceUUID processTrackFileResource(TrackFileResourceType trackFileResource) {
         // 1. init resource context
-        ResourceUUID resourceId = ResourceUUID.create(trackFileResource.getId(), repeat);
+        ResourceUUID resourceId = ResourceUUID.create(trackFileResource.getId(), 0);
         ResourceKey resourceKey = ResourceKey.create(currentSegmentUuid, currentSequenceUuid, currentSequenceType);
         contextProvider.getResourceContext().initResource(resourceKey, resourceId);
 
@@ -217,14 +215,10 @@ public class Cpl2013ContextBuilderStrategy extends AbstractCplContextBuilderStra
         // 3. init edit rate parameter
         BigFraction editRate = ((trackFileResource.getEditRate() != null) && !trackFileResource.getEditRate().isEmpty())
                 ? ConversionHelper.parseEditRate(trackFileResource.getEditRate()) : compositionEditRate;
-        contextProvider.getResourceContext().addResourceParameter(resourceKey, resourceId,
-                ResourceContextParameters.EDIT_RATE, ConversionHelper.toEditRate(editRate));
 
         // 4. Init startTime parameter
         BigInteger startTimeEditUnit = trackFileResource.getEntryPoint() != null
                 ? trackFileResource.getEntryPoint() : BigInteger.valueOf(0);
-        contextProvider.getResourceContext().addResourceParameter(resourceKey, resourceId,
-                ResourceContextParameters.START_TIME_EDIT_UNIT, startTimeEditUnit.toString());
 
         // 5. init duration parameter
         BigInteger durationEditUnit;
@@ -233,13 +227,10 @@ public class Cpl2013ContextBuilderStrategy extends AbstractCplContextBuilderStra
         } else {
             durationEditUnit = trackFileResource.getIntrinsicDuration().subtract(startTimeEditUnit);
         }
-        contextProvider.getResourceContext().addResourceParameter(resourceKey, resourceId,
-                ResourceContextParameters.DURATION_EDIT_UNIT, durationEditUnit.toString());
 
-        // 6. init endTime parameter
-        BigInteger endTimeEditUnit = startTimeEditUnit.add(durationEditUnit);
-        contextProvider.getResourceContext().addResourceParameter(resourceKey, resourceId,
-                ResourceContextParameters.END_TIME_EDIT_UNIT, endTimeEditUnit.toString());
+        // 6. init timeline (endTime and all other time parameters are derived from edit rate, startTime and duration)
+        contextProvider.getResourceContext().setResourceTimeline(resourceKey, resourceId,
+                new ResourceTimeline(editRate, startTimeEditUnit.longValue(), durationEditUnit.longValue()));
 
         // 7. init total repeat count parameter
         BigInteger repeatCount = trackFileResource.getRepeatCount() != null
@@ -256,6 +247,8 @@ public class Cpl2013ContextBuilderStrategy extends AbstractCplContextBuilderStra
         String essenceDescId = trackFileResource.getSourceEncoding();
         contextProvider.getResourceContext().addResourceParameter(resourceKey, resourceId,
                 ResourceContextParameters.ESSENCE_DESC_ID, essenceDescId);
+
+        return resourceId;
     }
 
     @Override
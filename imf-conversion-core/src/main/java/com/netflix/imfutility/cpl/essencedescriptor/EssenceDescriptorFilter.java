@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.cpl.essencedescriptor;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.NamespaceSupport;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * A SAX content filter used when parsing CPL.
+ * <ul>
+ * <li>Passes all content to the next content handler (JAXB unmarshaller) except for sub-descriptors of essence
+ * descriptors (all children of EssenceDescriptorList/EssenceDescriptor except for Id).</li>
+ * <li>The sub-descriptors are written as raw XML fragments (with all namespace declarations in scope) to
+ * {@link EssenceDescriptors}, so that they are mapped to Java model only when requested.</li>
+ * </ul>
+ */
+public final class EssenceDescriptorFilter extends XMLFilterImpl {
+
+    private static final String ESSENCE_DESCRIPTOR_LIST = "EssenceDescriptorList";
+    private static final String ESSENCE_DESCRIPTOR = "EssenceDescriptor";
+    private static final String ID = "Id";
+    private static final String XML_PREFIX = "xml";
+
+    private static final int ROOT_DEPTH = 1;
+    private static final int ESSENCE_DESCRIPTOR_LIST_DEPTH = 2;
+    private static final int ESSENCE_DESCRIPTOR_DEPTH = 3;
+    private static final int SUB_DESCRIPTOR_DEPTH = 4;
+
+    private final EssenceDescriptors essenceDescriptors;
+    private final NamespaceSupport namespaces = new NamespaceSupport();
+    private final List<String[]> pendingPrefixes = new ArrayList<>();
+
+    private int depth;
+    private String rootUri;
+    private boolean inEssenceDescriptorList;
+    private boolean inEssenceDescriptor;
+    private boolean inId;
+    private boolean endedRecorded;
+    private StringBuilder id;
+    private List<byte[]> rawSubDescriptors;
+    private StringBuilder fragment;
+
+    public EssenceDescriptorFilter(ContentHandler contentHandler, EssenceDescriptors essenceDescriptors) {
+        this.essenceDescriptors = essenceDescriptors;
+        setContentHandler(contentHandler);
+    }
+
+    @Override
+    public void startPrefixMapping(String prefix, String uri) throws SAXException {
+        // the prefix belongs to the next element: it's not known yet whether the element is passed or recorded.
+        pendingPrefixes.add(new String[]{prefix, uri});
+    }
+
+    @Override
+    public void endPrefixMapping(String prefix) throws SAXException {
+        // called right after the end of the element the prefix belongs to
+        if (!endedRecorded) {
+            super.endPrefixMapping(prefix);
+        }
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+        depth++;
+        namespaces.pushContext();
+        for (String[] prefix : pendingPrefixes) {
+            namespaces.declarePrefix(prefix[0], prefix[1]);
+        }
+
+        if (fragment != null) {
+            writeStartElement(qName, atts, false);
+            pendingPrefixes.clear();
+            return;
+        }
+        if (isSubDescriptor(uri, localName)) {
+            fragment = new StringBuilder();
+            writeStartElement(qName, atts, true);
+            pendingPrefixes.clear();
+            return;
+        }
+
+        for (String[] prefix : pendingPrefixes) {
+            super.startPrefixMapping(prefix[0], prefix[1]);
+        }
+        pendingPrefixes.clear();
+
+        if (depth == ROOT_DEPTH) {
+            rootUri = uri;
+        } else if (depth == ESSENCE_DESCRIPTOR_LIST_DEPTH) {
+            inEssenceDescriptorList = isCplElement(uri, localName, ESSENCE_DESCRIPTOR_LIST);
+        } else if (depth == ESSENCE_DESCRIPTOR_DEPTH && inEssenceDescriptorList) {
+            inEssenceDescriptor = isCplElement(uri, localName, ESSENCE_DESCRIPTOR);
+            id = new StringBuilder();
+            rawSubDescriptors = new ArrayList<>();
+        } else if (depth == SUB_DESCRIPTOR_DEPTH && inEssenceDescriptor) {
+            inId = true;
+        }
+        super.startElement(uri, localName, qName, atts);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        endedRecorded = fragment != null;
+        if (fragment != null) {
+            fragment.append("</").append(qName).append('>');
+            if (depth == SUB_DESCRIPTOR_DEPTH) {
+                rawSubDescriptors.add(fragment.toString().getBytes(StandardCharsets.UTF_8));
+                fragment = null;
+            }
+        } else {
+            if (depth == SUB_DESCRIPTOR_DEPTH) {
+                inId = false;
+            } else if (depth == ESSENCE_DESCRIPTOR_DEPTH && inEssenceDescriptor) {
+                essenceDescriptors.addRawSubDescriptors(id.toString().trim(), rawSubDescriptors);
+                inEssenceDescriptor = false;
+            } else if (depth == ESSENCE_DESCRIPTOR_LIST_DEPTH) {
+                inEssenceDescriptorList = false;
+            }
+            super.endElement(uri, localName, qName);
+        }
+        namespaces.popContext();
+        depth--;
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        if (fragment != null) {
+            escape(ch, start, length, false);
+            return;
+        }
+        if (inId) {
+            id.append(ch, start, length);
+        }
+        super.characters(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+        if (fragment != null) {
+            fragment.append(ch, start, length);
+            return;
+        }
+        super.ignorableWhitespace(ch, start, length);
+    }
+
+    @Override
+    public void processingInstruction(String target, String data) throws SAXException {
+        if (fragment != null) {
+            fragment.append("<?").append(target).append(' ').append(data).append("?>");
+            return;
+        }
+        super.processingInstruction(target, data);
+    }
+
+    private boolean isSubDescriptor(String uri, String localName) {
+        return depth == SUB_DESCRIPTOR_DEPTH && inEssenceDescriptor && !isCplElement(uri, localName, ID);
+    }
+
+    private boolean isCplElement(String uri, String localName, String expectedName) {
+        return expectedName.equals(localName) && uri.equals(rootUri);
+    }
+
+    private void writeStartElement(String qName, Attributes atts, boolean declareAllPrefixes) {
+        fragment.append('<').append(qName);
+        if (declareAllPrefixes) {
+            // the fragment is a standalone XML: declare all prefixes in scope
+            Enumeration<?> prefixes = namespaces.getPrefixes();
+            while (prefixes.hasMoreElements()) {
+                String prefix = (String) prefixes.nextElement();
+                if (!XML_PREFIX.equals(prefix)) {
+                    writeNamespace(prefix, namespaces.getURI(prefix));
+                }
+            }
+            String defaultUri = namespaces.getURI("");
+            if (defaultUri != null && !defaultUri.isEmpty()) {
+                writeNamespace("", defaultUri);
+            }
+        } else {
+            for (String[] prefix : pendingPrefixes) {
+                writeNamespace(prefix[0], prefix[1]);
+            }
+        }
+        for (int i = 0; i < atts.getLength(); i++) {
+            fragment.append(' ').append(atts.getQName(i)).append("=\"");
+            String value = atts.getValue(i);
+            escape(value.toCharArray(), 0, value.length(), true);
+            fragment.append('"');
+        }
+        fragment.append('>');
+    }
+
+    private void writeNamespace(String prefix, String uri) {
+        fragment.append(prefix.isEmpty() ? " xmlns" : " xmlns:" + prefix).append("=\"");
+        escape(uri.toCharArray(), 0, uri.length(), true);
+        fragment.append('"');
+    }
+
+    private void escape(char[] ch, int start, int length, boolean attribute) {
+        for (int i = start; i < start + length; i++) {
+            char c = ch[i];
+            switch (c) {
+                case '&':
+                    fragment.append("&amp;");
+                    break;
+                case '<':
+                    fragment.append("&lt;");
+                    break;
+                case '>':
+                    fragment.append("&gt;");
+                    break;
+                case '"':
+                    fragment.append(attribute ? "&quot;" : "\"");
+                    break;
+                default:
+                    fragment.append(c);
+            }
+        }
+    }
+
+}
@@ -19,19 +19,12 @@
 package com.netflix.imfutility.cpl.essencedescriptor;
 
 import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
-import com.netflix.imfutility.conversion.templateParameter.ContextInfoBuilder;
-import com.netflix.imfutility.conversion.templateParameter.context.ResourceKey;
-import com.netflix.imfutility.conversion.templateParameter.context.SequenceTemplateParameterContext;
+import com.netflix.imfutility.conversion.templateParameter.context.CompositionTimeline;
 import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
 import com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters;
-import com.netflix.imfutility.cpl.uuid.ResourceUUID;
-import com.netflix.imfutility.cpl.uuid.SegmentUUID;
-import com.netflix.imfutility.cpl.uuid.SequenceUUID;
-import com.netflix.imfutility.generated.conversion.SequenceType;
 import org.smpte_ra.reg._395._2014._13._1.aaf.WAVEPCMDescriptor;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * Parses Essence Descriptors and adds corresponding values to Resource context.
@@ -42,12 +35,12 @@ import java.util.Map;
  */
 public class EssenceDescriptorProcessor {
 
-    private final Map<String, List<Object>> essenceDescriptors;
+    private final EssenceDescriptors essenceDescriptors;
     private final TemplateParameterContextProvider contextProvider;
 
     private final AudioEssenceDescriptorProcessor audioEssenceDescriptorProcessor;
 
-    public EssenceDescriptorProcessor(Map<String, List<Object>> essenceDescriptors,
+    public EssenceDescriptorProcessor(EssenceDescriptors essenceDescriptors,
                                       TemplateParameterContextProvider contextProvider) {
         this.essenceDescriptors = essenceDescriptors;
         this.contextProvider = contextProvider;
@@ -55,29 +48,21 @@ public class EssenceDescriptorProcessor {
     }
 
     public void build() {
-        SequenceTemplateParameterContext sequenceContext = contextProvider.getSequenceContext();
-        for (SequenceType seqType : sequenceContext.getSequenceTypes()) {
-            for (SequenceUUID seqUuid : sequenceContext.getUuids(seqType)) {
-                for (SegmentUUID segmUuid : contextProvider.getSegmentContext().getUuids()) {
-                    for (ResourceUUID resUuid : contextProvider.getResourceContext()
-                            .getUuids(ResourceKey.create(segmUuid, seqUuid, seqType))) {
-                        ContextInfo contextInfo = new ContextInfoBuilder()
-                                .setResourceUuid(resUuid)
-                                .setSegmentUuid(segmUuid)
-                                .setSequenceUuid(seqUuid)
-                                .setSequenceType(seqType).build();
-                        doBuild(contextInfo);
-                    }
-                }
-            }
+        for (CompositionTimeline.Resource resource : contextProvider.getCompositionTimeline().getResources()) {
+            process(resource.getContextInfo());
         }
     }
 
-    private void doBuild(ContextInfo contextInfo) {
+    /**
+     * Processes essence descriptors of a single resource.
+     *
+     * @param contextInfo a context info of the resource.
+     */
+    public void process(ContextInfo contextInfo) {
         String essenceDescId = contextProvider.getResourceContext().getParameterValue(
                 ResourceContextParameters.ESSENCE_DESC_ID, contextInfo);
 
-        List<? extends Object> subDescriptors = essenceDescriptors.get(essenceDescId);
+        List<Object> subDescriptors = essenceDescriptors.getSubDescriptors(essenceDescId);
         if (subDescriptors == null) {
             return;
         }
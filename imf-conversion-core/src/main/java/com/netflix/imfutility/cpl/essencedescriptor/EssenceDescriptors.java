@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.cpl.essencedescriptor;
+
+import com.netflix.imfutility.ConversionException;
+import com.netflix.imfutility.essencedescriptors.EssenceDescriptorsConstants;
+import com.netflix.imfutility.xml.XmlParser;
+import org.xml.sax.SAXException;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.JAXBIntrospector;
+import javax.xml.bind.UnmarshalException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Essence descriptors from CPL's EssenceDescriptorList.
+ * <ul>
+ * <li>Sub-descriptors of each essence descriptor are kept as raw XML fragments (UTF-8) while CPL is parsed
+ * (see {@link EssenceDescriptorFilter}).</li>
+ * <li>Sub-descriptors are mapped to Java model only when they are requested for an essence descriptor ID.
+ * Known sub-descriptors are mapped to the corresponding JAXB classes, unknown ones to DOM elements.</li>
+ * </ul>
+ */
+public final class EssenceDescriptors {
+
+    private final Map<String, List<byte[]>> rawSubDescriptors = new HashMap<>();
+    private final Map<String, List<Object>> subDescriptors = new HashMap<>();
+    private Unmarshaller unmarshaller;
+
+    /**
+     * Adds raw sub-descriptors of an essence descriptor.
+     *
+     * @param essenceDescriptorId an ID of the essence descriptor
+     * @param rawSubDescriptors   sub-descriptors as XML fragments with all namespace declarations.
+     */
+    synchronized void addRawSubDescriptors(String essenceDescriptorId, List<byte[]> rawSubDescriptors) {
+        this.rawSubDescriptors.put(essenceDescriptorId, rawSubDescriptors);
+        this.subDescriptors.remove(essenceDescriptorId);
+    }
+
+    /**
+     * Gets the number of essence descriptors.
+     *
+     * @return the number of essence descriptors.
+     */
+    public synchronized int size() {
+        return rawSubDescriptors.size();
+    }
+
+    /**
+     * Gets all sub-descriptors of the essence descriptor with the given ID mapped to Java model.
+     * The sub-descriptors are mapped only once.
+     *
+     * @param essenceDescriptorId an ID of the essence descriptor
+     * @return the sub-descriptors or null if there is no essence descriptor with the given ID.
+     */
+    public synchronized List<Object> getSubDescriptors(String essenceDescriptorId) {
+        List<Object> result = subDescriptors.get(essenceDescriptorId);
+        if (result != null) {
+            return result;
+        }
+        List<byte[]> raw = rawSubDescriptors.get(essenceDescriptorId);
+        if (raw == null) {
+            return null;
+        }
+
+        result = new ArrayList<>(raw.size());
+        for (byte[] subDescriptor : raw) {
+            result.add(decode(essenceDescriptorId, subDescriptor));
+        }
+        result = Collections.unmodifiableList(result);
+        subDescriptors.put(essenceDescriptorId, result);
+        return result;
+    }
+
+    private Object decode(String essenceDescriptorId, byte[] subDescriptor) {
+        try {
+            if (unmarshaller == null) {
+                unmarshaller = XmlParser.getJaxbContext(EssenceDescriptorsConstants.ESSENCE_DESCRIPTORS_PACKAGES)
+                        .createUnmarshaller();
+            }
+            return JAXBIntrospector.getValue(unmarshaller.unmarshal(new StreamSource(new ByteArrayInputStream(subDescriptor))));
+        } catch (UnmarshalException e) {
+            // not a known sub-descriptor
+            return decodeDom(essenceDescriptorId, subDescriptor);
+        } catch (JAXBException e) {
+            throw new ConversionException(String.format(
+                    "Can not map sub-descriptors of '%s' essence descriptor", essenceDescriptorId), e);
+        }
+    }
+
+    private static Object decodeDom(String essenceDescriptorId, byte[] subDescriptor) {
+        try {
+            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+            dbf.setNamespaceAware(true);
+            return dbf.newDocumentBuilder().parse(new ByteArrayInputStream(subDescriptor)).getDocumentElement();
+        } catch (ParserConfigurationException | SAXException | IOException e) {
+            throw new ConversionException(String.format(
+                    "Can not parse sub-descriptors of '%s' essence descriptor", essenceDescriptorId), e);
+        }
+    }
+
+}
@@ -78,4 +78,13 @@ public interface ImfUtilityCmdLineArgs {
     )
     LogLevel getLogLevel();
 
+    @Option(
+            description =
+                    "resume a previously failed conversion in the same working directory."
+                            + " Operations recorded as completed in the conversion journal are skipped"
+                            + " if their input and output files are not changed.",
+            longName = {"resume"}
+    )
+    boolean isResume();
+
 }
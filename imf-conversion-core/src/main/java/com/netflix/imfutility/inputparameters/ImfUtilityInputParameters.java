@@ -113,6 +113,15 @@ public abstract class ImfUtilityInputParameters {
         return new File(workingDir);
     }
 
+    /**
+     * Whether a previously failed conversion in the same working directory must be resumed.
+     *
+     * @return true if completed operations from the conversion journal must be skipped.
+     */
+    public boolean isResume() {
+        return cmdLineArgs.isResume();
+    }
+
     /**
      * A default conversion XML.
      *
@@ -142,6 +151,15 @@ public abstract class ImfUtilityInputParameters {
         return defaultTools.getImfValidationTool();
     }
 
+    /**
+     * Checks whether a custom validation tool executable is set (usually in config.xml).
+     *
+     * @return true if a custom validation tool is set
+     */
+    public boolean hasCustomImfValidationTool() {
+        return customValidationTool != null;
+    }
+
     /**
      * Sets a custom validation tool executable (usually a value from config.xml).
      *
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.mediainfo;
+
+import com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters;
+import com.netflix.imfutility.generated.conversion.SequenceType;
+import com.netflix.imfutility.util.ImfLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A persistent cache of media info stored in a directory between conversion runs.
+ * <ul>
+ * <li>An entry is identified by the virtual track type, the track file ID and the path of the essence
+ * and the resolved media info command (including the tool path) used to get the media info.</li>
+ * <li>An entry is valid only if the size and the last modification time of the essence file are the same as at the time
+ * the entry was stored. Otherwise the media info is obtained again.</li>
+ * <li>If the number of entries exceeds the maximum, the least recently used entries are deleted.</li>
+ * <li>Any IO errors are not fatal: the entry is just considered as missing.</li>
+ * </ul>
+ */
+public class MediaInfoCache {
+
+    private static final String ENTRY_EXTENSION = ".properties";
+    private static final String SIZE_PROPERTY = "essence.size";
+    private static final String LAST_MODIFIED_PROPERTY = "essence.lastModified";
+
+    private final Logger logger = new ImfLogger(LoggerFactory.getLogger(MediaInfoCache.class));
+
+    private final File cacheDir;
+    private final int maxEntries;
+
+    public MediaInfoCache(File cacheDir, int maxEntries) {
+        this.cacheDir = cacheDir;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Gets a media info stored for the given essence.
+     *
+     * @param seqType     a virtual track type (video, audio, subtitle)
+     * @param trackFileId a track file ID of the essence
+     * @param command     a resolved media info command used to get the media info
+     * @param essence     the essence file
+     * @return the stored media info or null if there is no valid entry for the given essence.
+     */
+    public synchronized VirtualTrackInfo get(SequenceType seqType, String trackFileId, String command, File essence) {
+        File entryFile = getEntryFile(seqType, trackFileId, command, essence);
+        if (!entryFile.isFile()) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(entryFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            logger.warn("Can not read media info cache entry '{}': {}", entryFile.getAbsolutePath(), e.getMessage());
+            return null;
+        }
+
+        if (!String.valueOf(essence.length()).equals(properties.getProperty(SIZE_PROPERTY))
+                || !String.valueOf(essence.lastModified()).equals(properties.getProperty(LAST_MODIFIED_PROPERTY))) {
+            logger.info("Media info cache entry for '{}' is outdated", essence.getAbsolutePath());
+            return null;
+        }
+
+        Map<ResourceContextParameters, String> parameters = new EnumMap<>(ResourceContextParameters.class);
+        for (String name : properties.stringPropertyNames()) {
+            ResourceContextParameters param = ResourceContextParameters.fromName(name);
+            if (param != null) {
+                parameters.put(param, properties.getProperty(name));
+            }
+        }
+
+        // mark as recently used
+        if (!entryFile.setLastModified(System.currentTimeMillis())) {
+            logger.warn("Can not update media info cache entry '{}'", entryFile.getAbsolutePath());
+        }
+
+        logger.info("Media info for '{}' ({}) is taken from the cache", essence.getAbsolutePath(), seqType.value());
+        return new VirtualTrackInfo(seqType, parameters);
+    }
+
+    /**
+     * Stores a media info for the given essence.
+     *
+     * @param trackFileId a track file ID of the essence
+     * @param command     a resolved media info command used to get the media info
+     * @param essence     the essence file
+     * @param info        the media info
+     */
+    public synchronized void put(String trackFileId, String command, File essence, VirtualTrackInfo info) {
+        Properties properties = new Properties();
+        properties.setProperty(SIZE_PROPERTY, String.valueOf(essence.length()));
+        properties.setProperty(LAST_MODIFIED_PROPERTY, String.valueOf(essence.lastModified()));
+        info.getParameters().forEach((param, value) -> properties.setProperty(param.getName(), value));
+
+        File entryFile = getEntryFile(info.getSeqType(), trackFileId, command, essence);
+        try {
+            if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+                throw new IOException(String.format("Can not create directory '%s'", cacheDir.getAbsolutePath()));
+            }
+
+            // write to a temporary file first, so that a concurrent run never reads a partially written entry
+            File tmpFile = File.createTempFile(entryFile.getName(), ".tmp", cacheDir);
+            try {
+                try (OutputStream out = new FileOutputStream(tmpFile)) {
+                    properties.store(out, essence.getAbsolutePath());
+                }
+                try {
+                    Files.move(tmpFile.toPath(), entryFile.toPath(),
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmpFile.toPath(), entryFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tmpFile.toPath());
+            }
+        } catch (IOException e) {
+            logger.warn("Can not store media info cache entry '{}': {}", entryFile.getAbsolutePath(), e.getMessage());
+            return;
+        }
+
+        evict();
+    }
+
+    private void evict() {
+        File[] entries = cacheDir.listFiles((dir, name) -> name.endsWith(ENTRY_EXTENSION));
+        if (entries == null || entries.length <= maxEntries) {
+            return;
+        }
+
+        Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < entries.length - maxEntries; i++) {
+            if (!entries[i].delete()) {
+                logger.warn("Can not delete media info cache entry '{}'", entries[i].getAbsolutePath());
+            }
+        }
+    }
+
+    private File getEntryFile(SequenceType seqType, String trackFileId, String command, File essence) {
+        String name = String.format("%s_%s_%s%s",
+                seqType.value(), trackFileId.replaceAll("[^A-Za-z0-9-]", "_"),
+                hash(command + "\n" + essence.getAbsolutePath()), ENTRY_EXTENSION);
+        return new File(cacheDir, name);
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder result = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                result.append(String.format("%02x", digest[i]));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+
+}
@@ -20,43 +20,55 @@ package com.netflix.imfutility.mediainfo;
 
 import com.netflix.imfutility.ConversionException;
 import com.netflix.imfutility.CoreConstants;
+import com.netflix.imfutility.conversion.executor.ConversionOperationParser;
+import com.netflix.imfutility.conversion.executor.ExternalProcess;
 import com.netflix.imfutility.conversion.executor.strategy.ExecuteStrategyFactory;
 import com.netflix.imfutility.conversion.executor.strategy.OperationInfo;
 import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
-import com.netflix.imfutility.conversion.templateParameter.ContextInfoBuilder;
+import com.netflix.imfutility.conversion.templateParameter.TemplateParameterResolver;
+import com.netflix.imfutility.conversion.templateParameter.context.CompositionTimeline;
 import com.netflix.imfutility.conversion.templateParameter.context.ResourceKey;
 import com.netflix.imfutility.conversion.templateParameter.context.SequenceTemplateParameterContext;
 import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
 import com.netflix.imfutility.conversion.templateParameter.context.parameters.DynamicContextParameters;
 import com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters;
 import com.netflix.imfutility.conversion.templateParameter.context.parameters.SequenceContextParameters;
-import com.netflix.imfutility.cpl.uuid.ResourceUUID;
-import com.netflix.imfutility.cpl.uuid.SegmentUUID;
 import com.netflix.imfutility.cpl.uuid.SequenceUUID;
+import com.netflix.imfutility.generated.config.MediaInfoCacheType;
+import com.netflix.imfutility.generated.config.MediaInfoProviderType;
 import com.netflix.imfutility.generated.conversion.FormatType;
 import com.netflix.imfutility.generated.conversion.MediaInfoCommandType;
 import com.netflix.imfutility.generated.conversion.SequenceType;
 import com.netflix.imfutility.generated.mediainfo.FfprobeType;
 import com.netflix.imfutility.generated.mediainfo.StreamType;
 import com.netflix.imfutility.util.ConversionHelper;
+import com.netflix.imfutility.util.ImfLogger;
 import com.netflix.imfutility.xml.XmlParser;
 import com.netflix.imfutility.xml.XmlParsingException;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.math3.fraction.BigFraction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.netflix.imfutility.CoreConstants.MEDIAINFO_PACKAGE;
 
 /**
  * Builds template parameters context related to Media Info.
  * <ul>
- * <li>For each resource, get resource parameters (media info) invoking an external analyzing tool from conversion.xml</li>
+ * <li>For each resource, get resource parameters (media info) invoking an external analyzing tool from conversion.xml.
+ * The tool is invoked once for each track file, several track files are analyzed at the same time.
+ * Alternatively, media info of MXF essences can be read from their header partition (see {@link MxfHeaderReader}).</li>
  * <li>We assume that some parameters of each resource within a sequence (virtual track) must be equal
  * (in particular, number of channels).</li>
  * <li>Fill Resource context with the obtained parameters.</li>
@@ -64,9 +76,17 @@ import static com.netflix.imfutility.CoreConstants.MEDIAINFO_PACKAGE;
  */
 public class MediaInfoContextBuilder {
 
+    private final Logger logger = new ImfLogger(LoggerFactory.getLogger(MediaInfoContextBuilder.class));
+
     private final TemplateParameterContextProvider contextProvider;
     private final ExecuteStrategyFactory executeStrategyFactory;
     private final FormatType format;
+    private final MediaInfoCache mediaInfoCache;
+    private final MediaInfoProviderType mediaInfoProvider;
+    private final ConversionOperationParser conversionOperationParser;
+
+    private final int parallel;
+    private final Object mediaInfoInputLock = new Object();
 
     // {type-asset-UUID} - AssetInfo map
     private final Map<ImmutablePair<SequenceType, String>, VirtualTrackInfo> processedMediaInfo = new HashMap<>();
@@ -105,15 +125,53 @@ public class MediaInfoContextBuilder {
     }
 
     public MediaInfoContextBuilder(TemplateParameterContextProvider contextProvider, ExecuteStrategyFactory executeStrategyFactory) {
+        this(contextProvider, executeStrategyFactory, CoreConstants.DEFAULT_MEDIA_INFO_PARALLEL);
+    }
+
+    /**
+     * Creates a builder getting media info of at most 'parallel' track files at the same time.
+     *
+     * @param contextProvider        a template parameter context provider
+     * @param executeStrategyFactory a factory to create strategies executing media info commands
+     * @param parallel               max number of media info commands executed at the same time
+     */
+    public MediaInfoContextBuilder(TemplateParameterContextProvider contextProvider, ExecuteStrategyFactory executeStrategyFactory,
+                                   int parallel) {
         this.contextProvider = contextProvider;
+        this.parallel = parallel;
         this.executeStrategyFactory = executeStrategyFactory;
         this.format = contextProvider.getConversionProvider().getFormat();
+        this.mediaInfoCache = createMediaInfoCache(contextProvider);
+        this.mediaInfoProvider = getMediaInfoProvider(contextProvider);
+        this.conversionOperationParser = new ConversionOperationParser(new TemplateParameterResolver(contextProvider));
+    }
+
+    private static MediaInfoProviderType getMediaInfoProvider(TemplateParameterContextProvider contextProvider) {
+        if (contextProvider.getConfigProvider() == null) {
+            return CoreConstants.DEFAULT_MEDIA_INFO_PROVIDER;
+        }
+        if (contextProvider.getConfigProvider().getConfig().getMediaInfoProvider() == null) {
+            return CoreConstants.DEFAULT_MEDIA_INFO_PROVIDER;
+        }
+        return contextProvider.getConfigProvider().getConfig().getMediaInfoProvider();
+    }
+
+    private static MediaInfoCache createMediaInfoCache(TemplateParameterContextProvider contextProvider) {
+        if (contextProvider.getConfigProvider() == null) {
+            return null;
+        }
+        MediaInfoCacheType cacheConfig = contextProvider.getConfigProvider().getConfig().getMediaInfoCache();
+        if (cacheConfig == null || cacheConfig.getValue() == null || cacheConfig.getValue().trim().isEmpty()) {
+            return null;
+        }
+        return new MediaInfoCache(new File(cacheConfig.getValue().trim()), cacheConfig.getMaxEntries());
     }
 
     /**
      * Invoke an external command from conversion.xml for each essence and each track type (video, audio, subtitle) participating in CPL
      * to create a media info XML ({@link #getOutputFile(SequenceType, String, File)}).
      * <ul>
+     * <li>Media info commands for different essences are executed concurrently (at most 'parallel' at the same time).</li>
      * <li>XSD validation is performed for the created media info xml file.</li>
      * <li>The created media info xml file is added to the dynamic context to be deleted on exit.</li>
      * <li>The media info XML file is parsed and Sequence context is filled with the values from media info XML
@@ -128,74 +186,161 @@ public class MediaInfoContextBuilder {
      *                             for different segments.
      */
     public void build() throws IOException, XmlParsingException, MediaInfoException {
+        // 1. get media info for each distinct track file (concurrently)
+        probeTrackFiles(collectTrackFiles());
+
+        // 2. fill contexts in the CPL order
         SequenceTemplateParameterContext sequenceContext = contextProvider.getSequenceContext();
-        for (SequenceType seqType : sequenceContext.getSequenceTypes()) {
-            for (SequenceUUID seqUuid : sequenceContext.getUuids(seqType)) {
-                VirtualTrackInfo prevVirtualTrack = null;
-                for (SegmentUUID segmUuid : contextProvider.getSegmentContext().getUuids()) {
-                    for (ResourceUUID resUuid : contextProvider.getResourceContext()
-                            .getUuids(ResourceKey.create(segmUuid, seqUuid, seqType))) {
-                        ContextInfo contextInfo = new ContextInfoBuilder()
-                                .setResourceUuid(resUuid)
-                                .setSegmentUuid(segmUuid)
-                                .setSequenceUuid(seqUuid)
-                                .setSequenceType(seqType).build();
-                        prevVirtualTrack = doBuild(contextInfo, prevVirtualTrack);
-                    }
+        for (CompositionTimeline.Sequence sequence : contextProvider.getCompositionTimeline().getSequences()) {
+            SequenceType seqType = sequence.getSequenceType();
+            SequenceUUID seqUuid = sequence.getSequenceUuid();
+            VirtualTrackInfo prevVirtualTrack = null;
+            for (CompositionTimeline.Resource resource : sequence.getResources()) {
+                prevVirtualTrack = doBuild(resource.getContextInfo(), prevVirtualTrack);
+            }
+            // we assume all resources within an audio sequence have the same number of channels
+            if (prevVirtualTrack.getParameters().containsKey(ResourceContextParameters.CHANNELS_NUM)) {
+                sequenceContext.addSequenceParameter(
+                        seqType, seqUuid,
+                        SequenceContextParameters.CHANNELS_NUM,
+                        prevVirtualTrack.getParameters().get(ResourceContextParameters.CHANNELS_NUM));
+            }
+
+            // we assume all resources within an video sequence have the same fps
+            if (seqType == SequenceType.VIDEO && prevVirtualTrack.getParameters().containsKey(ResourceContextParameters.FRAME_RATE)) {
+
+                BigFraction frameRate = ConversionHelper.parseEditRate(prevVirtualTrack.getParameters()
+                        .get(ResourceContextParameters.FRAME_RATE));
+                sequenceContext.addSequenceParameter(
+                        seqType, seqUuid,
+                        SequenceContextParameters.FRAME_RATE,
+                        ConversionHelper.toREditRate(frameRate));
+            }
+        }
+    }
+
+    private Map<ImmutablePair<SequenceType, String>, TrackFile> collectTrackFiles() {
+        // the first resource referencing a track file is used to get its media info
+        Map<ImmutablePair<SequenceType, String>, TrackFile> trackFiles = new LinkedHashMap<>();
+        for (CompositionTimeline.Resource resource : contextProvider.getCompositionTimeline().getResources()) {
+            ContextInfo contextInfo = resource.getContextInfo();
+            String essence = contextProvider.getResourceContext().getParameterValue(
+                    ResourceContextParameters.ESSENCE, contextInfo);
+            String trackFileId = contextProvider.getResourceContext().getParameterValue(
+                    ResourceContextParameters.TRACK_FILE_ID, contextInfo);
+            trackFiles.putIfAbsent(ImmutablePair.of(resource.getSequenceType(), trackFileId),
+                    new TrackFile(contextInfo, essence, trackFileId));
+        }
+        return trackFiles;
+    }
+
+    private void probeTrackFiles(Map<ImmutablePair<SequenceType, String>, TrackFile> trackFiles)
+            throws IOException, XmlParsingException, MediaInfoException {
+        if (parallel <= 1 || trackFiles.size() <= 1) {
+            for (Map.Entry<ImmutablePair<SequenceType, String>, TrackFile> entry : trackFiles.entrySet()) {
+                processedMediaInfo.put(entry.getKey(), probeTrackFile(entry.getValue()));
+            }
+            return;
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(parallel, trackFiles.size()));
+        try {
+            Map<ImmutablePair<SequenceType, String>, Future<VirtualTrackInfo>> futures = new LinkedHashMap<>();
+            trackFiles.forEach((key, trackFile) -> futures.put(key, executorService.submit(() -> probeTrackFile(trackFile))));
+
+            // the failure of the first track file in the CPL order is reported
+            Throwable failure = null;
+            for (Map.Entry<ImmutablePair<SequenceType, String>, Future<VirtualTrackInfo>> entry : futures.entrySet()) {
+                if (failure != null) {
+                    entry.getValue().cancel(false);
+                    continue;
                 }
-                // we assume all resources within an audio sequence have the same number of channels
-                if (prevVirtualTrack.getParameters().containsKey(ResourceContextParameters.CHANNELS_NUM)) {
-                    sequenceContext.addSequenceParameter(
-                            seqType, seqUuid,
-                            SequenceContextParameters.CHANNELS_NUM,
-                            prevVirtualTrack.getParameters().get(ResourceContextParameters.CHANNELS_NUM));
+                try {
+                    processedMediaInfo.put(entry.getKey(), entry.getValue().get());
+                } catch (java.util.concurrent.ExecutionException e) {
+                    failure = e.getCause();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ConversionException("Getting media info has been interrupted", e);
                 }
+            }
 
-                // we assume all resources within an video sequence have the same fps
-                if (seqType == SequenceType.VIDEO && prevVirtualTrack.getParameters().containsKey(ResourceContextParameters.FRAME_RATE)) {
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof XmlParsingException) {
+                throw (XmlParsingException) failure;
+            } else if (failure instanceof MediaInfoException) {
+                throw (MediaInfoException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new ConversionException(failure.getMessage(), failure);
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
 
-                    BigFraction frameRate = ConversionHelper.parseEditRate(prevVirtualTrack.getParameters()
-                            .get(ResourceContextParameters.FRAME_RATE));
-                    sequenceContext.addSequenceParameter(
-                            seqType, seqUuid,
-                            SequenceContextParameters.FRAME_RATE,
-                            ConversionHelper.toREditRate(frameRate));
-                }
+    private VirtualTrackInfo probeTrackFile(TrackFile trackFile) throws IOException, XmlParsingException, MediaInfoException {
+        SequenceType seqType = trackFile.contextInfo.getSequenceType();
+        if (mediaInfoProvider == MediaInfoProviderType.MXF_HEADER) {
+            VirtualTrackInfo trackInfo = readMxfHeader(seqType, trackFile.essence);
+            if (trackInfo != null) {
+                return trackInfo;
             }
         }
+
+        if (mediaInfoCache == null) {
+            File outputFile = getMediaInfo(seqType, trackFile.essence);
+            return getTrackInfo(outputFile, trackFile.contextInfo, trackFile.essence);
+        }
+
+        String command = resolveMediaInfoCommand(seqType, trackFile.essence);
+        VirtualTrackInfo trackInfo = mediaInfoCache.get(seqType, trackFile.trackFileId, command, new File(trackFile.essence));
+        if (trackInfo == null) {
+            File outputFile = getMediaInfo(seqType, trackFile.essence);
+            trackInfo = getTrackInfo(outputFile, trackFile.contextInfo, trackFile.essence);
+            mediaInfoCache.put(trackFile.trackFileId, command, new File(trackFile.essence), trackInfo);
+        }
+        return trackInfo;
     }
 
-    private VirtualTrackInfo doBuild(ContextInfo contextInfo, VirtualTrackInfo prevVirtualTrack)
-            throws IOException, XmlParsingException, MediaInfoException {
-        // 1. get the corresponding essence
-        String essence = contextProvider.getResourceContext().getParameterValue(
-                ResourceContextParameters.ESSENCE, contextInfo);
+    private VirtualTrackInfo readMxfHeader(SequenceType seqType, String essence) throws IOException {
+        try {
+            return new MxfHeaderReader().read(seqType, new File(essence));
+        } catch (MediaInfoException e) {
+            logger.warn("{}. Media info command will be used instead.", e.getMessage());
+            return null;
+        }
+    }
+
+    private VirtualTrackInfo doBuild(ContextInfo contextInfo, VirtualTrackInfo prevVirtualTrack) {
+        // 1. get media info loaded for this track
         String trackFileId = contextProvider.getResourceContext().getParameterValue(
                 ResourceContextParameters.TRACK_FILE_ID, contextInfo);
+        VirtualTrackInfo processedInfo = processedMediaInfo.get(ImmutablePair.of(contextInfo.getSequenceType(), trackFileId));
 
-        // 2. check if we already have media info loaded for this track. If no - load it by executing an external program.
-        ImmutablePair<SequenceType, String> key = ImmutablePair.of(contextInfo.getSequenceType(), trackFileId);
-        VirtualTrackInfo processedInfo = processedMediaInfo.get(key);
-        if (processedInfo == null) {
-            File outputFile = getMediaInfo(contextInfo.getSequenceType(), essence);
-            processedInfo = getTrackInfo(outputFile, contextInfo, essence);
-            processedMediaInfo.put(key, processedInfo);
-        }
-
-        // 3. we assume that some parameters within a sequence must be equal (for example, channels number).
+        // 2. we assume that some parameters within a sequence must be equal (for example, channels number).
         validateSequenceHomogeneous(prevVirtualTrack, processedInfo);
 
-        // 4. add to resource context
+        // 3. add to resource context
         buildResourceContext(processedInfo, contextInfo);
 
         return processedInfo;
     }
 
-    private File getMediaInfo(SequenceType seqType, String essence) throws IOException {
-        // 1. fill dynamic context's mediaInfoInput
-        contextProvider.getDynamicContext().addParameter(DynamicContextParameters.MEDIA_INFO_INPUT, essence, false);
+    private String resolveMediaInfoCommand(SequenceType seqType, String essence) {
+        // the resolved command includes the tool path, so that a cached media info is not used with another tool
+        synchronized (mediaInfoInputLock) {
+            contextProvider.getDynamicContext().addParameter(DynamicContextParameters.MEDIA_INFO_INPUT, essence, false);
+            return String.join(" ", conversionOperationParser.parseOperation(getMediaInfoCommand(seqType).getValue(), ContextInfo.EMPTY));
+        }
+    }
 
-        // 2. prepare the output file
+    private File getMediaInfo(SequenceType seqType, String essence) throws IOException {
+        // 1. prepare the output file
         File outputFile = getOutputFile(seqType, essence, contextProvider.getWorkingDir());
 
         // 2. execute media info command. the output will be the provided file.
@@ -208,26 +353,35 @@ public class MediaInfoContextBuilder {
         return outputFile;
     }
 
-    private void executeMediaInfoCommand(SequenceType seqType, String essence, File outputFile) throws IOException {
-        MediaInfoCommandType mediaInfoCommand;
+    private MediaInfoCommandType getMediaInfoCommand(SequenceType seqType) {
         switch (seqType) {
             case VIDEO:
-                mediaInfoCommand = format.getMediaInfoCommandVideo();
-                break;
+                return format.getMediaInfoCommandVideo();
             case AUDIO:
-                mediaInfoCommand = format.getMediaInfoCommandAudio();
-                break;
+                return format.getMediaInfoCommandAudio();
             case SUBTITLE:
-                mediaInfoCommand = format.getMediaInfoCommandSubtitle();
-                break;
+                return format.getMediaInfoCommandSubtitle();
             default:
                 throw new ConversionException(String.format("Can not get media info. Unknown sequence type '%s'", seqType.toString()));
         }
+    }
+
+    private void executeMediaInfoCommand(SequenceType seqType, String essence, File outputFile) throws IOException {
+        MediaInfoCommandType mediaInfoCommand = getMediaInfoCommand(seqType);
 
         String operationName = String.format("%s_%s", mediaInfoCommand.getClass().getSimpleName(), new File(essence).getName());
         OperationInfo operationInfo = new OperationInfo(
                 mediaInfoCommand.getValue(), operationName, ContextInfo.EMPTY, false, outputFile);
-        executeStrategyFactory.createExecuteOnceStrategy(contextProvider).execute(operationInfo);
+
+        // mediaInfoInput is shared by all media info commands, so it's filled and resolved by one command at a time
+        ExternalProcess process;
+        synchronized (mediaInfoInputLock) {
+            contextProvider.getDynamicContext().addParameter(DynamicContextParameters.MEDIA_INFO_INPUT, essence, false);
+            process = executeStrategyFactory.createExecuteOnceStrategy(contextProvider).start(operationInfo);
+        }
+        if (process != null) {
+            process.finishWaitFor();
+        }
     }
 
     private VirtualTrackInfo getTrackInfo(File outputFile, ContextInfo contextInfo, String essence)
@@ -279,7 +433,11 @@ public class MediaInfoContextBuilder {
                     "All audio resource tracks within an audio sequence (virtual track) must have the same number of channels!");
         }
 
-        if (!Objects.equals(
+        // the MXF header reader gets fps for video essences only (unlike ffprobe's 0/0 for audio),
+        // so with this provider fps of other virtual tracks may not be compared
+        boolean checkFrameRate = mediaInfoProvider != MediaInfoProviderType.MXF_HEADER
+                || nextVirtualTrackInfo.getSeqType() == SequenceType.VIDEO;
+        if (checkFrameRate && !Objects.equals(
                 prevVirtualTrackInfo.getParameters().get(ResourceContextParameters.FRAME_RATE),
                 nextVirtualTrackInfo.getParameters().get(ResourceContextParameters.FRAME_RATE))) {
             throw new ConversionException(
@@ -287,4 +445,21 @@ public class MediaInfoContextBuilder {
         }
     }
 
+    /**
+     * A track file to get media info for.
+     */
+    private static final class TrackFile {
+
+        private final ContextInfo contextInfo;
+        private final String essence;
+        private final String trackFileId;
+
+        private TrackFile(ContextInfo contextInfo, String essence, String trackFileId) {
+            this.contextInfo = contextInfo;
+            this.essence = essence;
+            this.trackFileId = trackFileId;
+        }
+
+    }
+
 }
@@ -0,0 +1,415 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.mediainfo;
+
+import com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters;
+import com.netflix.imfutility.generated.conversion.SequenceType;
+import com.netflix.imfutility.util.ConversionHelper;
+import org.apache.commons.math3.fraction.BigFraction;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gets media info of an MXF essence from the essence descriptor stored in its header partition (SMPTE ST 377-1).
+ * <ul>
+ * <li>Only the header partition pack and the header metadata are read.</li>
+ * <li>Only the first picture (video), sound (audio) or timed text (subtitle) descriptor is taken into account,
+ * as IMF track files contain a single essence.</li>
+ * <li>Properties are identified by their static local tags.</li>
+ * <li>The parameters are filled in the same form as from an ffprobe output.</li>
+ * <li>The pixel format is the one a decoder outputs, so it's filled only if it can be derived from the descriptor unambiguously:
+ * Y'CbCr essences (CDCI descriptor) with the usual subsamplings (4:4:4, 4:2:2, 4:2:0, 4:1:1) and
+ * JPEG 2000 RGB(A) essences (RGBA descriptor) with the same depth for all components,
+ * which are decoded to packed rgb24, rgb48le, rgba or rgba64le formats.
+ * For any other layout a {@link MediaInfoException} is thrown, so that the media info command (ffprobe) can be used instead.</li>
+ * </ul>
+ */
+public class MxfHeaderReader {
+
+    private static final int KEY_LENGTH = 16;
+    private static final int MAX_BER_LENGTH = 9;
+    private static final int MAX_HEADER_BYTE_COUNT = 64 * 1024 * 1024;
+
+    // 06.0e.2b.34.02.05.01.01.0d.01.02.01.01.02.xx.00
+    private static final byte[] HEADER_PARTITION_PACK_KEY = {
+            0x06, 0x0e, 0x2b, 0x34, 0x02, 0x05, 0x01, 0x01, 0x0d, 0x01, 0x02, 0x01, 0x01, 0x02};
+    // 06.0e.2b.34.02.05.01.01.0d.01.02.01.01.05.01.00
+    private static final byte[] PRIMER_PACK_KEY = {
+            0x06, 0x0e, 0x2b, 0x34, 0x02, 0x05, 0x01, 0x01, 0x0d, 0x01, 0x02, 0x01, 0x01, 0x05, 0x01};
+    // 06.0e.2b.34.02.53.01.01.0d.01.01.01.01.01.xx.00
+    private static final byte[] LOCAL_SET_KEY = {
+            0x06, 0x0e, 0x2b, 0x34, 0x02, 0x53, 0x01, 0x01, 0x0d, 0x01, 0x01, 0x01, 0x01, 0x01};
+
+    // 06.0e.2b.34.04.01.01.xx.04.01.02.02.03.01.xx.xx (the version byte is ignored)
+    private static final byte[] JPEG2000_CODING_PREFIX = {
+            0x06, 0x0e, 0x2b, 0x34, 0x04, 0x01, 0x01, 0x00, 0x04, 0x01, 0x02, 0x02, 0x03, 0x01};
+    private static final int UL_VERSION_BYTE = 7;
+
+    // offset of HeaderByteCount within the partition pack
+    private static final int HEADER_BYTE_COUNT_OFFSET = 32;
+
+    // RGBA layout component codes
+    private static final int COMPONENT_RED = 'R';
+    private static final int COMPONENT_GREEN = 'G';
+    private static final int COMPONENT_BLUE = 'B';
+    private static final int COMPONENT_ALPHA = 'A';
+
+    // picture component depths supported by the pixel formats
+    private static final int MIN_COMPONENT_DEPTH = 8;
+    private static final int MAX_COMPONENT_DEPTH = 16;
+
+    // descriptor set IDs (the 15th byte of the set key)
+    private static final int GENERIC_PICTURE_DESCRIPTOR = 0x27;
+    private static final int CDCI_DESCRIPTOR = 0x28;
+    private static final int RGBA_DESCRIPTOR = 0x29;
+    private static final int GENERIC_SOUND_DESCRIPTOR = 0x42;
+    private static final int AES3_DESCRIPTOR = 0x47;
+    private static final int WAVE_DESCRIPTOR = 0x48;
+    private static final int MPEG_DESCRIPTOR = 0x51;
+    private static final int TIMED_TEXT_DESCRIPTOR = 0x64;
+
+    // local tags
+    private static final int SAMPLE_RATE = 0x3001;
+    private static final int STORED_HEIGHT = 0x3202;
+    private static final int STORED_WIDTH = 0x3203;
+    private static final int COMPONENT_DEPTH = 0x3301;
+    private static final int HORIZONTAL_SUBSAMPLING = 0x3302;
+    private static final int VERTICAL_SUBSAMPLING = 0x3308;
+    private static final int PICTURE_ESSENCE_CODING = 0x3201;
+    private static final int PIXEL_LAYOUT = 0x3401;
+    private static final int QUANTIZATION_BITS = 0x3D01;
+    private static final int AUDIO_SAMPLING_RATE = 0x3D03;
+    private static final int CHANNEL_COUNT = 0x3D07;
+
+    /**
+     * Reads media info of the given type from the header partition of the given MXF essence.
+     *
+     * @param seqType a virtual track type (video, audio, subtitle)
+     * @param essence an MXF essence file
+     * @return media info
+     * @throws IOException        if the essence can not be read
+     * @throws MediaInfoException if the essence is not found, is not an MXF file or doesn't contain a descriptor for the given type
+     */
+    public VirtualTrackInfo read(SequenceType seqType, File essence) throws IOException, MediaInfoException {
+        if (!essence.isFile()) {
+            throw new MediaInfoException("Essence file not found", essence.getAbsolutePath());
+        }
+        try (RandomAccessFile file = new RandomAccessFile(essence, "r")) {
+            ByteBuffer headerMetadata = readHeaderMetadata(file, essence);
+            while (headerMetadata.remaining() > KEY_LENGTH) {
+                byte[] key = new byte[KEY_LENGTH];
+                headerMetadata.get(key);
+                long length = readBerLength(headerMetadata, essence);
+                if (length > headerMetadata.remaining()) {
+                    throw new MediaInfoException("Invalid MXF header metadata", essence.getAbsolutePath());
+                }
+                ByteBuffer value = headerMetadata.slice();
+                value.limit((int) length);
+                headerMetadata.position(headerMetadata.position() + (int) length);
+
+                if (startsWith(key, LOCAL_SET_KEY) && isDescriptorOf(seqType, key[LOCAL_SET_KEY.length] & 0xFF)) {
+                    return new VirtualTrackInfo(seqType, readDescriptor(seqType, value, essence));
+                }
+            }
+        }
+        throw new MediaInfoException(
+                String.format("MXF header doesn't contain a %s essence descriptor", seqType.value()), essence.getAbsolutePath());
+    }
+
+    private ByteBuffer readHeaderMetadata(RandomAccessFile file, File essence) throws IOException, MediaInfoException {
+        // 1. header partition pack
+        byte[] key = readKey(file);
+        if (key == null || !startsWith(key, HEADER_PARTITION_PACK_KEY)) {
+            throw new MediaInfoException("Not an MXF file", essence.getAbsolutePath());
+        }
+        long packLength = readBerLength(file, essence);
+        if (packLength < HEADER_BYTE_COUNT_OFFSET + Long.BYTES) {
+            throw new MediaInfoException("Invalid MXF partition pack", essence.getAbsolutePath());
+        }
+        byte[] pack = new byte[(int) packLength];
+        file.readFully(pack);
+        long headerByteCount = ByteBuffer.wrap(pack).getLong(HEADER_BYTE_COUNT_OFFSET);
+
+        // 2. HeaderByteCount is counted from the first byte after the partition pack,
+        // so it includes fill items between the partition pack and the primer pack (SMPTE ST 377-1, 7.1)
+        long headerStart = file.getFilePointer();
+        if (headerByteCount <= 0 || headerByteCount > MAX_HEADER_BYTE_COUNT
+                || headerStart + headerByteCount > file.length()) {
+            throw new MediaInfoException("Invalid MXF header metadata size", essence.getAbsolutePath());
+        }
+
+        // 3. the whole header metadata in one read
+        byte[] headerMetadata = new byte[(int) headerByteCount];
+        file.readFully(headerMetadata);
+        if (!containsPrimerPack(ByteBuffer.wrap(headerMetadata), essence)) {
+            throw new MediaInfoException("MXF header metadata not found", essence.getAbsolutePath());
+        }
+        return ByteBuffer.wrap(headerMetadata);
+    }
+
+    private static boolean containsPrimerPack(ByteBuffer headerMetadata, File essence) throws MediaInfoException {
+        // only fill items may precede the primer pack
+        while (headerMetadata.remaining() > KEY_LENGTH) {
+            byte[] key = new byte[KEY_LENGTH];
+            headerMetadata.get(key);
+            if (startsWith(key, PRIMER_PACK_KEY)) {
+                return true;
+            }
+            long length = readBerLength(headerMetadata, essence);
+            if (length > headerMetadata.remaining()) {
+                return false;
+            }
+            headerMetadata.position(headerMetadata.position() + (int) length);
+        }
+        return false;
+    }
+
+    private static Map<ResourceContextParameters, String> readDescriptor(SequenceType seqType, ByteBuffer value, File essence)
+            throws MediaInfoException {
+        Map<Integer, ByteBuffer> properties = new HashMap<>();
+        while (value.remaining() >= 4) {
+            int tag = value.getShort() & 0xFFFF;
+            int length = value.getShort() & 0xFFFF;
+            if (length > value.remaining()) {
+                break;
+            }
+            ByteBuffer property = value.slice();
+            property.limit(length);
+            properties.put(tag, property);
+            value.position(value.position() + length);
+        }
+
+        Map<ResourceContextParameters, String> parameters = new EnumMap<>(ResourceContextParameters.class);
+        switch (seqType) {
+            case VIDEO:
+                putUInt(parameters, ResourceContextParameters.WIDTH, properties.get(STORED_WIDTH));
+                putUInt(parameters, ResourceContextParameters.HEIGHT, properties.get(STORED_HEIGHT));
+                BigFraction sampleRate = getRational(properties.get(SAMPLE_RATE));
+                if (sampleRate != null) {
+                    parameters.put(ResourceContextParameters.FRAME_RATE, ConversionHelper.toEditRate(sampleRate));
+                }
+                putPictureFormat(parameters, properties, essence);
+                break;
+            case AUDIO:
+                putUInt(parameters, ResourceContextParameters.CHANNELS_NUM, properties.get(CHANNEL_COUNT));
+                putUInt(parameters, ResourceContextParameters.BITS_PER_SAMPLE, properties.get(QUANTIZATION_BITS));
+                BigFraction samplingRate = getRational(properties.get(AUDIO_SAMPLING_RATE));
+                if (samplingRate != null) {
+                    parameters.put(ResourceContextParameters.SAMPLE_RATE, String.valueOf(samplingRate.longValue()));
+                }
+                break;
+            default:
+                // no parameters are needed for subtitles
+        }
+        return parameters;
+    }
+
+    private static void putPictureFormat(Map<ResourceContextParameters, String> parameters, Map<Integer, ByteBuffer> properties,
+                                         File essence) throws MediaInfoException {
+        Long depth = getUInt(properties.get(COMPONENT_DEPTH));
+        Long horizontalSubsampling = getUInt(properties.get(HORIZONTAL_SUBSAMPLING));
+        Long verticalSubsampling = getUInt(properties.get(VERTICAL_SUBSAMPLING));
+
+        if (depth != null && horizontalSubsampling != null) {
+            // CDCI: yuv444p, yuv422p10le, yuv420p12le, etc.
+            String chroma = getChroma(horizontalSubsampling, verticalSubsampling != null ? verticalSubsampling : 1);
+            if (chroma == null || depth < MIN_COMPONENT_DEPTH || depth > MAX_COMPONENT_DEPTH) {
+                throw new MediaInfoException(String.format(
+                        "Unsupported MXF picture subsampling %d/%s or depth %d",
+                        horizontalSubsampling, verticalSubsampling, depth), essence.getAbsolutePath());
+            }
+            parameters.put(ResourceContextParameters.BIT_DEPTH, String.valueOf(depth));
+            parameters.put(ResourceContextParameters.PIXEL_FORMAT,
+                    depth > 8 ? String.format("yuv%sp%dle", chroma, depth) : String.format("yuv%sp", chroma));
+            return;
+        }
+
+        ByteBuffer pixelLayout = properties.get(PIXEL_LAYOUT);
+        if (pixelLayout == null || !isJpeg2000(properties.get(PICTURE_ESSENCE_CODING))) {
+            throw new MediaInfoException("MXF picture pixel layout can not be determined", essence.getAbsolutePath());
+        }
+        putRgbaFormat(parameters, pixelLayout, essence);
+    }
+
+    private static String getChroma(long horizontalSubsampling, long verticalSubsampling) {
+        if (horizontalSubsampling == 1 && verticalSubsampling == 1) {
+            return "444";
+        }
+        if (horizontalSubsampling == 2 && verticalSubsampling == 1) {
+            return "422";
+        }
+        if (horizontalSubsampling == 2 && verticalSubsampling == 2) {
+            return "420";
+        }
+        if (horizontalSubsampling == 4 && verticalSubsampling == 1) {
+            return "411";
+        }
+        return null;
+    }
+
+    private static void putRgbaFormat(Map<ResourceContextParameters, String> parameters, ByteBuffer pixelLayout, File essence)
+            throws MediaInfoException {
+        // the layout is a list of {component code, component depth} pairs terminated by a zero code
+        Map<Integer, Integer> components = new HashMap<>();
+        for (int i = 0; i + 1 < pixelLayout.remaining() && pixelLayout.get(i) != 0; i += 2) {
+            components.put(pixelLayout.get(i) & 0xFF, pixelLayout.get(i + 1) & 0xFF);
+        }
+        boolean hasAlpha = components.containsKey(COMPONENT_ALPHA);
+        Integer rgbDepth = components.get(COMPONENT_RED);
+        boolean supported = rgbDepth != null && rgbDepth >= MIN_COMPONENT_DEPTH && rgbDepth <= MAX_COMPONENT_DEPTH
+                && components.size() == (hasAlpha ? 4 : 3)
+                && rgbDepth.equals(components.get(COMPONENT_GREEN))
+                && rgbDepth.equals(components.get(COMPONENT_BLUE))
+                && (!hasAlpha || rgbDepth.equals(components.get(COMPONENT_ALPHA)));
+        if (!supported) {
+            throw new MediaInfoException(String.format("Unsupported MXF RGBA pixel layout %s", components),
+                    essence.getAbsolutePath());
+        }
+
+        String pixelFormat;
+        if (rgbDepth > MIN_COMPONENT_DEPTH) {
+            pixelFormat = hasAlpha ? "rgba64le" : "rgb48le";
+        } else {
+            pixelFormat = hasAlpha ? "rgba" : "rgb24";
+        }
+        parameters.put(ResourceContextParameters.BIT_DEPTH, String.valueOf(rgbDepth));
+        parameters.put(ResourceContextParameters.PIXEL_FORMAT, pixelFormat);
+    }
+
+    private static boolean isJpeg2000(ByteBuffer pictureEssenceCoding) {
+        if (pictureEssenceCoding == null || pictureEssenceCoding.remaining() != KEY_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < JPEG2000_CODING_PREFIX.length; i++) {
+            if (i != UL_VERSION_BYTE && pictureEssenceCoding.get(i) != JPEG2000_CODING_PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDescriptorOf(SequenceType seqType, int setId) {
+        switch (seqType) {
+            case VIDEO:
+                return setId == GENERIC_PICTURE_DESCRIPTOR || setId == CDCI_DESCRIPTOR
+                        || setId == RGBA_DESCRIPTOR || setId == MPEG_DESCRIPTOR;
+            case AUDIO:
+                return setId == GENERIC_SOUND_DESCRIPTOR || setId == AES3_DESCRIPTOR || setId == WAVE_DESCRIPTOR;
+            case SUBTITLE:
+                return setId == TIMED_TEXT_DESCRIPTOR;
+            default:
+                return false;
+        }
+    }
+
+    private static void putUInt(Map<ResourceContextParameters, String> parameters, ResourceContextParameters param,
+                                ByteBuffer property) {
+        Long value = getUInt(property);
+        if (value != null) {
+            parameters.put(param, String.valueOf(value));
+        }
+    }
+
+    private static Long getUInt(ByteBuffer property) {
+        if (property == null) {
+            return null;
+        }
+        switch (property.remaining()) {
+            case 1:
+                return (long) (property.get(0) & 0xFF);
+            case 2:
+                return (long) (property.getShort(0) & 0xFFFF);
+            case 4:
+                return property.getInt(0) & 0xFFFFFFFFL;
+            default:
+                return null;
+        }
+    }
+
+    private static BigFraction getRational(ByteBuffer property) {
+        if (property == null || property.remaining() != 8 || property.getInt(4) == 0) {
+            return null;
+        }
+        return new BigFraction(property.getInt(0), property.getInt(4));
+    }
+
+    private static byte[] readKey(RandomAccessFile file) throws IOException {
+        byte[] key = new byte[KEY_LENGTH];
+        int read = 0;
+        while (read < KEY_LENGTH) {
+            int count = file.read(key, read, KEY_LENGTH - read);
+            if (count < 0) {
+                return null;
+            }
+            read += count;
+        }
+        return key;
+    }
+
+    private static long readBerLength(RandomAccessFile file, File essence) throws IOException, MediaInfoException {
+        int first = file.readUnsignedByte();
+        if (first < 0x80) {
+            return first;
+        }
+        int count = first & 0x7F;
+        if (count == 0 || count >= MAX_BER_LENGTH) {
+            throw new MediaInfoException("Invalid MXF KLV length", essence.getAbsolutePath());
+        }
+        long length = 0;
+        for (int i = 0; i < count; i++) {
+            length = (length << 8) | file.readUnsignedByte();
+        }
+        return length;
+    }
+
+    private static long readBerLength(ByteBuffer buffer, File essence) throws MediaInfoException {
+        if (!buffer.hasRemaining()) {
+            throw new MediaInfoException("Invalid MXF KLV length", essence.getAbsolutePath());
+        }
+        int first = buffer.get() & 0xFF;
+        if (first < 0x80) {
+            return first;
+        }
+        int count = first & 0x7F;
+        if (count == 0 || count >= MAX_BER_LENGTH || count > buffer.remaining()) {
+            throw new MediaInfoException("Invalid MXF KLV length", essence.getAbsolutePath());
+        }
+        long length = 0;
+        for (int i = 0; i < count; i++) {
+            length = (length << 8) | (buffer.get() & 0xFF);
+        }
+        return length;
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (key[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
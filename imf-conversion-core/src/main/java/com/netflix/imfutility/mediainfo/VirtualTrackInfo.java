@@ -55,6 +55,11 @@ public class VirtualTrackInfo {
         }
     }
 
+    public VirtualTrackInfo(SequenceType seqType, Map<ResourceContextParameters, String> parameters) {
+        this.seqType = seqType;
+        this.parameters.putAll(parameters);
+    }
+
     private void addParameter(ResourceContextParameters paramName, Object paramValue) {
         if (paramValue != null) {
             parameters.put(paramName, paramValue.toString());
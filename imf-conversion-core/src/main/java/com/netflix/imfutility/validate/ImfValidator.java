@@ -29,6 +29,7 @@ import com.netflix.imfutility.generated.validation.ErrorType;
 import com.netflix.imfutility.generated.validation.Errors;
 import com.netflix.imfutility.util.ImfLogger;
 import com.netflix.imfutility.util.LogHelper;
+import com.netflix.imfutility.validation.IImfValidation;
 import com.netflix.imfutility.xml.XmlParser;
 import com.netflix.imfutility.xml.XmlParsingException;
 import org.slf4j.Logger;
@@ -36,11 +37,16 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceLoader;
 
 /**
  * Performs validation of the input IMF package (IMP) and CPL.
  * <ul>
- * <li>Validation is performed by a separate external tool.</li>
+ * <li>Validation is performed either within the current process or by a separate external tool.</li>
+ * <li>In-process validation is used if an {@link IImfValidation} implementation is available
+ * (by default, a wrapper on Netflix Photon library) and no custom validation tool is set in config.xml.</li>
  * <li>The validation external tool command is specified in conversion.xml</li>
  * <li>By default, validation is done by a wrapper on Netflix Photon library.</li>
  * <li>It's possible to set a custom validation tool using config.xml.</li>
@@ -58,10 +64,37 @@ public class ImfValidator {
 
     private final TemplateParameterContextProvider contextProvider;
     private final ExecuteStrategyFactory executeStrategyFactory;
+    private final IImfValidation inProcessValidation;
+    private final List<String> essenceFiles;
 
     public ImfValidator(TemplateParameterContextProvider contextProvider, ExecuteStrategyFactory executeStrategyFactory) {
+        this(contextProvider, executeStrategyFactory, null, null);
+    }
+
+    /**
+     * Creates a validator.
+     *
+     * @param contextProvider        a template parameter context provider
+     * @param executeStrategyFactory a factory to create a strategy executing an external validation tool
+     * @param inProcessValidation    in-process validation or null if the external validation tool must be executed
+     * @param essenceFiles           full paths to essences to be validated in-process
+     */
+    public ImfValidator(TemplateParameterContextProvider contextProvider, ExecuteStrategyFactory executeStrategyFactory,
+                        IImfValidation inProcessValidation, List<String> essenceFiles) {
         this.contextProvider = contextProvider;
         this.executeStrategyFactory = executeStrategyFactory;
+        this.inProcessValidation = inProcessValidation;
+        this.essenceFiles = essenceFiles;
+    }
+
+    /**
+     * Finds an in-process validation implementation available in the class path.
+     *
+     * @return in-process validation or null if there is no implementation available.
+     */
+    public static IImfValidation loadInProcessValidation() {
+        Iterator<IImfValidation> validations = ServiceLoader.load(IImfValidation.class).iterator();
+        return validations.hasNext() ? validations.next() : null;
     }
 
     /**
@@ -72,10 +105,20 @@ public class ImfValidator {
      * @throws IOException, XmlParsingException
      */
     public boolean validate() throws IOException, XmlParsingException {
+        if (inProcessValidation != null) {
+            logger.info("{}Validating in-process", LogHelper.TAB);
+            return analyzeErrors(executeInProcessValidation());
+        }
         executeValidationCommand();
         return analyzeResult();
     }
 
+    List<ErrorType> executeInProcessValidation() throws IOException {
+        String imp = contextProvider.getDynamicContext().getParameterValueAsString(DynamicContextParameters.IMP);
+        String cpl = contextProvider.getDynamicContext().getParameterValueAsString(DynamicContextParameters.CPL);
+        return inProcessValidation.validate(imp, cpl, essenceFiles);
+    }
+
     void executeValidationCommand() throws IOException {
         ImfValidationType imfValidationCommand = contextProvider.getConversionProvider().getConversion().getImfValidation();
         OperationInfo operationInfo = new OperationInfo(
@@ -96,14 +139,18 @@ public class ImfValidator {
                 new String[]{CommonConstants.ERRORS_XML_SCHEME}, CommonConstants.ERRORS_PACKAGE,
                 Errors.class);
 
-        if (errors.getError() == null || errors.getError().isEmpty()) {
+        return analyzeErrors(errors.getError());
+    }
+
+    private boolean analyzeErrors(List<ErrorType> errors) {
+        if (errors == null || errors.isEmpty()) {
             // OK! no errors
             return true;
         }
 
         boolean fatalErrors = false;
         logger.warn("{}IMF Validation result:", LogHelper.TAB);
-        for (ErrorType error : errors.getError()) {
+        for (ErrorType error : errors) {
             switch (error.getLevel()) {
                 case FATAL:
                     fatalErrors = true;
@@ -28,12 +28,17 @@ import com.netflix.imfutility.util.ConversionUtils;
 import com.netflix.imfutility.util.TemplateParameterContextCreator;
 import com.netflix.imfutility.util.conversion.executor.TestConversionEngine;
 import com.netflix.imfutility.util.conversion.executor.TestExecutorLogger;
+import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.EnumSet;
+import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
 /**
@@ -187,6 +192,38 @@ public class ExecuteConversionOperationTest {
         assertFalse("There are more executed processes than expected!", executorLogger.hasNext());
     }
 
+    @Test
+    public void testPipeSequenceFused() throws Exception {
+        conversionEngine.convert(conversionProvider.getFormatConfigurationType("execEachSequencePipeFused"), contextProvider);
+
+        for (int i = 1; i <= SEQ_COUNT; i++) {
+            int startPipe1 = next;
+            executorLogger.assertNextStart("seqVideoPipeExecOnce1, TestExecutePipeStrategy, seqVideoPipeExecOnce1Exec ERR_LOG", next++);
+
+            // a single operation for all segments
+            executorLogger.assertNextStart("seqVideoPipeCycleExecFused, TestExecutePipeStrategy, seqVideoPipeCycleExecFusedExec PIPE", next);
+            executorLogger.assertNextFinish("seqVideoPipeCycleExecFused, TestExecutePipeStrategy, seqVideoPipeCycleExecFusedExec PIPE", next++);
+
+            executorLogger.assertNextFinish("seqVideoPipeExecOnce1, TestExecutePipeStrategy, seqVideoPipeExecOnce1Exec ERR_LOG", startPipe1);
+        }
+
+        assertFalse("There are more executed processes than expected!", executorLogger.hasNext());
+
+        for (int i = 0; i < SEQ_COUNT; i++) {
+            File plan = new File(contextProvider.getDynamicContext().getParameterValueAsString("fusedPlan-" + i));
+            List<String> lines = FileUtils.readLines(plan, StandardCharsets.UTF_8);
+
+            // the header and an entry (two lines without indentation) for each resource and repeat
+            assertEquals(1 + 2 * SEGMENT_COUNT * RESOURCE_COUNT * REPEAT_COUNT, lines.size());
+            assertEquals("planHeader " + i, lines.get(0));
+            assertEquals("entry 0 0", lines.get(1));
+            assertEquals("repeat 0", lines.get(2));
+            assertEquals("entry 0 1", lines.get(3));
+            assertEquals("repeat 1", lines.get(4));
+            assertEquals("entry 2 3", lines.get(lines.size() - 2));
+        }
+    }
+
     @Test
     public void testPipeSegment() throws Exception {
         conversionEngine.convert(conversionProvider.getFormatConfigurationType("execEachSegmentPipe"), contextProvider);
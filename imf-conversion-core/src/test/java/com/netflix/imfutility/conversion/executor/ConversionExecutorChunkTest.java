@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.executor;
+
+import com.netflix.imfutility.conversion.executor.strategy.AbstractExecuteStrategy;
+import com.netflix.imfutility.conversion.templateParameter.context.ResourceKey;
+import com.netflix.imfutility.conversion.templateParameter.context.ResourceTimeline;
+import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
+import com.netflix.imfutility.generated.conversion.SequenceType;
+import com.netflix.imfutility.util.ConversionUtils;
+import com.netflix.imfutility.util.TemplateParameterContextCreator;
+import com.netflix.imfutility.util.conversion.executor.TestConversionEngine;
+import com.netflix.imfutility.util.conversion.executor.TestExecutorLogger;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.math3.fraction.BigFraction;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.List;
+
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getResourceUuid;
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getSegmentUuid;
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getSequenceUuid;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests that a pipeline is executed for each part of a sequence and the outputs are concatenated.
+ */
+public class ConversionExecutorChunkTest {
+
+    private static final int CHUNK_COUNT = 3;
+
+    private static TemplateParameterContextProvider contextProvider;
+    private static TestConversionEngine conversionEngine;
+    private static TestExecutorLogger executorLogger;
+
+    @BeforeClass
+    public static void setUpAll() throws Exception {
+        contextProvider = TemplateParameterContextCreator.createDefaultContextProvider(
+                ConversionUtils.getChunkConversionXmlPath());
+        TemplateParameterContextCreator.fillCPLContext(contextProvider, 2, 1, 1, 1, EnumSet.of(SequenceType.VIDEO));
+
+        // 75 frames at 25 fps followed by 75 frames at 29.97 fps
+        setTimeline(contextProvider, 0, new BigFraction(25), 0, 75);
+        setTimeline(contextProvider, 1, new BigFraction(30000, 1001), 0, 75);
+
+        conversionEngine = new TestConversionEngine();
+        executorLogger = conversionEngine.getExecutorLogger();
+    }
+
+    private static void setTimeline(TemplateParameterContextProvider contextProvider, int segm, BigFraction editRate,
+                                    long start, long duration) {
+        ResourceKey resourceKey = ResourceKey.create(getSegmentUuid(segm), getSequenceUuid(0, SequenceType.VIDEO), SequenceType.VIDEO);
+        contextProvider.getResourceContext().setResourceTimeline(resourceKey,
+                getResourceUuid(segm, 0, SequenceType.VIDEO, 0, 0), new ResourceTimeline(editRate, start, duration));
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        AbstractExecuteStrategy.resetCount();
+        executorLogger.reset();
+        FileUtils.forceMkdir(contextProvider.getWorkingDir());
+    }
+
+    @Test
+    public void testSplit() throws Exception {
+        List<SequenceChunk> chunks = SequenceChunk.split(contextProvider, getSequenceUuid(0, SequenceType.VIDEO),
+                SequenceType.VIDEO, CHUNK_COUNT);
+
+        assertEquals(CHUNK_COUNT, chunks.size());
+        assertChunk(chunks.get(0), 0, 0, 50, 0);
+        assertChunk(chunks.get(1), 1, 50, 50, 2000);
+        // 3 seconds of the first resource + 25 frames at 29.97 fps
+        assertChunk(chunks.get(2), 2, 100, 50, 3834);
+    }
+
+    @Test
+    public void testSplitOnRoundedResourceTimes() throws Exception {
+        TemplateParameterContextProvider roundedContextProvider = TemplateParameterContextCreator.createDefaultContextProvider(
+                ConversionUtils.getChunkConversionXmlPath());
+        TemplateParameterContextCreator.fillCPLContext(roundedContextProvider, 2, 1, 1, 1, EnumSet.of(SequenceType.VIDEO));
+        // the first resource is cut at [66, 100) ms, so it lasts 34 ms in the decoded stream instead of 33.37 ms
+        setTimeline(roundedContextProvider, 0, new BigFraction(30000, 1001), 2, 1);
+        setTimeline(roundedContextProvider, 1, new BigFraction(30000, 1001), 0, 3);
+
+        List<SequenceChunk> chunks = SequenceChunk.split(roundedContextProvider, getSequenceUuid(0, SequenceType.VIDEO),
+                SequenceType.VIDEO, 2);
+
+        assertEquals(2, chunks.size());
+        assertChunk(chunks.get(0), 0, 0, 2, 0);
+        // 34 ms of the first resource + 33.37 ms of the second one (66 ms on the exact sequence timeline)
+        assertChunk(chunks.get(1), 1, 2, 2, 67);
+    }
+
+    @Test
+    public void testChunksExecutedAndConcatenated() throws Exception {
+        createChunkOutputs();
+
+        conversionEngine.convert(contextProvider.getConversionProvider().getFormatConfigurationType("chunks"), contextProvider);
+
+        int next = 1;
+        String[] decodes = {"decode-0-0", "decode-1-2000", "decode-2-3834"};
+        String[] encodes = {"encode-0-0-50", "encode-1-50-50", "encode-2-100-50"};
+        for (int i = 0; i < CHUNK_COUNT; i++) {
+            int startEncode = next;
+            executorLogger.assertNextStart(String.format("encode, TestExecutePipeStrategy, %s ERR_LOG", encodes[i]), next++);
+            executorLogger.assertNextStart(String.format("decode, TestExecutePipeStrategy, %s PIPE", decodes[i]), next);
+            executorLogger.assertNextFinish(String.format("decode, TestExecutePipeStrategy, %s PIPE", decodes[i]), next++);
+            executorLogger.assertNextFinish(String.format("encode, TestExecutePipeStrategy, %s ERR_LOG", encodes[i]), startEncode);
+        }
+        assertFalse("There are more executed processes than expected!", executorLogger.hasNext());
+
+        assertOutputConcatenated();
+    }
+
+    @Test
+    public void testParallelChunksConcatenatedInOrder() throws Exception {
+        createChunkOutputs();
+
+        conversionEngine.convert(contextProvider.getConversionProvider().getFormatConfigurationType("parallelChunks"),
+                contextProvider);
+
+        assertEquals(2 * CHUNK_COUNT, executorLogger.getProcessCount());
+        assertOutputConcatenated();
+    }
+
+    @Test
+    public void testNoMoreChunksThanFrames() throws Exception {
+        conversionEngine.convert(contextProvider.getConversionProvider().getFormatConfigurationType("tooManyChunks"),
+                contextProvider);
+
+        assertEquals(2 * 150, executorLogger.getProcessCount());
+    }
+
+    private static void assertChunk(SequenceChunk chunk, int num, long start, long duration, long startMs) {
+        assertEquals(num, chunk.getNum());
+        assertEquals(start, chunk.getStartEditUnit());
+        assertEquals(duration, chunk.getDurationEditUnit());
+        assertEquals(startMs, chunk.getStartTimeMs());
+    }
+
+    private static void createChunkOutputs() throws Exception {
+        // fake processes don't write anything
+        for (int i = 0; i < CHUNK_COUNT; i++) {
+            FileUtils.writeStringToFile(getOutput(".chunk" + i), "chunk" + i, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void assertOutputConcatenated() throws Exception {
+        assertEquals("chunk0chunk1chunk2", FileUtils.readFileToString(getOutput(""), StandardCharsets.UTF_8));
+        for (int i = 0; i < CHUNK_COUNT; i++) {
+            assertFalse(getOutput(".chunk" + i).exists());
+        }
+        FileUtils.deleteQuietly(getOutput(""));
+    }
+
+    private static File getOutput(String suffix) {
+        return new File(contextProvider.getWorkingDir(), "chunked-output.tmp" + suffix);
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.executor;
+
+import com.netflix.imfutility.conversion.executor.strategy.AbstractExecuteStrategy;
+import com.netflix.imfutility.conversion.templateParameter.context.ResourceKey;
+import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
+import com.netflix.imfutility.generated.conversion.SequenceType;
+import com.netflix.imfutility.util.ConversionUtils;
+import com.netflix.imfutility.util.TemplateParameterContextCreator;
+import com.netflix.imfutility.util.conversion.executor.TestConversionEngine;
+import com.netflix.imfutility.util.conversion.executor.TestExecutorLogger;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getResourceUuid;
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getSegmentUuid;
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getSequenceUuid;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests that operations for each segment are executed once for a repeated resource if 'eachRepeat' is false,
+ * and the same operations in a pipe are executed once with the output replicated for each repeat.
+ */
+public class ConversionExecutorRepeatTest {
+
+    private TemplateParameterContextProvider contextProvider;
+    private TestConversionEngine conversionEngine;
+    private TestExecutorLogger executorLogger;
+
+    @Before
+    public void setUp() throws Exception {
+        AbstractExecuteStrategy.resetCount();
+        contextProvider = TemplateParameterContextCreator.createDefaultContextProvider(
+                ConversionUtils.getRepeatConversionXmlPath());
+        TemplateParameterContextCreator.fillCPLContext(contextProvider, 2, 1, 1, 1, EnumSet.of(SequenceType.AUDIO));
+
+        // the resource of the first segment is repeated 3 times
+        ResourceKey resourceKey = ResourceKey.create(getSegmentUuid(0), getSequenceUuid(0, SequenceType.AUDIO), SequenceType.AUDIO);
+        contextProvider.getResourceContext().setRepeatCount(resourceKey, getResourceUuid(0, 0, SequenceType.AUDIO, 0, 0), 3);
+
+        conversionEngine = new TestConversionEngine();
+        executorLogger = conversionEngine.getExecutorLogger();
+        FileUtils.forceMkdir(contextProvider.getWorkingDir());
+    }
+
+    @Test
+    public void testRepeatedResourceExecutedOnce() throws Exception {
+        conversionEngine.convert(contextProvider.getConversionProvider().getFormatConfigurationType("repeats"), contextProvider);
+
+        // extracted once for each entry
+        executorLogger.assertNextStart("extract, TestExecuteOnceStrategy, extract ERR_LOG", 1);
+        executorLogger.assertNextFinish("extract, TestExecuteOnceStrategy, extract ERR_LOG", 1);
+        executorLogger.assertNextStart("extract, TestExecuteOnceStrategy, extract ERR_LOG", 2);
+        executorLogger.assertNextFinish("extract, TestExecuteOnceStrategy, extract ERR_LOG", 2);
+
+        // decoded once for each entry: the output of the repeated resource is replicated
+        executorLogger.assertNextStart("encode, TestExecutePipeStrategy, encode ERR_LOG", 3);
+        executorLogger.assertNextStart("decode, TestExecutePipeStrategy, decode PIPE", 4);
+        executorLogger.assertNextFinish("decode, TestExecutePipeStrategy, decode PIPE", 4);
+        executorLogger.assertNextStart("decode, TestExecutePipeStrategy, decode PIPE", 5);
+        executorLogger.assertNextFinish("decode, TestExecutePipeStrategy, decode PIPE", 5);
+        executorLogger.assertNextFinish("encode, TestExecutePipeStrategy, encode ERR_LOG", 3);
+        assertFalse("There are more executed processes than expected!", executorLogger.hasNext());
+
+        // the extracted files are keyed by the resource UUID shared by all repeats
+        assertEquals("0-0-0.raw", contextProvider.getDynamicContext().getParameterValueAsString(
+                "extracted-0-0-" + getResourceUuid(0, 0, SequenceType.AUDIO, 0, 0).getUuid()));
+        assertEquals("0-1-0.raw", contextProvider.getDynamicContext().getParameterValueAsString(
+                "extracted-0-1-" + getResourceUuid(1, 0, SequenceType.AUDIO, 0, 0).getUuid()));
+    }
+
+    @Test
+    public void testEachRepeatExecuted() throws Exception {
+        conversionEngine.convert(contextProvider.getConversionProvider().getFormatConfigurationType("eachRepeat"), contextProvider);
+
+        // extracted for each repeat and the resource of the second segment
+        assertEquals(2 * 4, executorLogger.getProcessCount());
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.executor;
+
+import com.netflix.imfutility.util.TemplateParameterContextCreator;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that completed conversion operations are journaled and skipped on resume only if their files are not changed.
+ */
+public class ConversionJournalTest {
+
+    private File workingDir;
+    private File input;
+    private File output;
+
+    @Before
+    public void setUp() throws Exception {
+        workingDir = new File(TemplateParameterContextCreator.getWorkingDir(), "journal");
+        FileUtils.deleteQuietly(workingDir);
+        FileUtils.forceMkdir(workingDir);
+        input = new File(workingDir, "input.wav");
+        output = new File(workingDir, "output.mxf");
+        FileUtils.writeStringToFile(input, "input", StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testCompletedOnResume() throws Exception {
+        runOperation(getCommand("-o", output.getName()));
+
+        ConversionJournal journal = ConversionJournal.open(workingDir, true);
+        assertTrue(journal.isCompleted(collect(getCommand("-o", output.getName()))));
+    }
+
+    @Test
+    public void testNotCompletedWithoutResume() throws Exception {
+        runOperation(getCommand("-o", output.getName()));
+
+        ConversionJournal journal = ConversionJournal.open(workingDir, false);
+        assertFalse(journal.getJournalFile().exists());
+        assertFalse(journal.isCompleted(collect(getCommand("-o", output.getName()))));
+    }
+
+    @Test
+    public void testNotCompletedIfCommandChanged() throws Exception {
+        runOperation(getCommand("-o", output.getName()));
+
+        ConversionJournal journal = ConversionJournal.open(workingDir, true);
+        assertFalse(journal.isCompleted(collect(getCommand("-b", "1000", "-o", output.getName()))));
+    }
+
+    @Test
+    public void testNotCompletedIfOutputChanged() throws Exception {
+        runOperation(getCommand("-o", output.getName()));
+        FileUtils.writeStringToFile(output, "truncated", StandardCharsets.UTF_8);
+
+        ConversionJournal journal = ConversionJournal.open(workingDir, true);
+        assertFalse(journal.isCompleted(collect(getCommand("-o", output.getName()))));
+    }
+
+    @Test
+    public void testNotCompletedIfInputContentChanged() throws Exception {
+        runOperation(getCommand("-o", output.getName()));
+        long lastModified = input.lastModified();
+        FileUtils.writeStringToFile(input, "INPUT", StandardCharsets.UTF_8);
+        assertTrue(input.setLastModified(lastModified));
+
+        ConversionJournal journal = ConversionJournal.open(workingDir, true);
+        assertFalse(journal.isCompleted(collect(getCommand("-o", output.getName()))));
+    }
+
+    @Test
+    public void testOutputRedirect() throws Exception {
+        File redirect = new File(workingDir, "stdout.txt");
+        ConversionJournal journal = ConversionJournal.open(workingDir, true);
+        OperationFiles operation = collect(getCommand(), Collections.singletonList(redirect));
+        FileUtils.writeStringToFile(redirect, "output", StandardCharsets.UTF_8);
+        journal.complete(operation);
+
+        journal = ConversionJournal.open(workingDir, true);
+        assertTrue(journal.isCompleted(collect(getCommand(), Collections.singletonList(redirect))));
+    }
+
+    @Test
+    public void testDeclaredOutputs() throws Exception {
+        File prefixed = new File(workingDir, "0-0-0_a0.raw");
+        List<File> outputs = Collections.singletonList(prefixed);
+        ConversionJournal journal = ConversionJournal.open(workingDir, false);
+        OperationFiles operation = collect(getCommand("-p", "0-0-0"), outputs);
+        FileUtils.writeStringToFile(prefixed, "output", StandardCharsets.UTF_8);
+        assertEquals(Collections.singletonList(prefixed.getAbsoluteFile()), operation.getOutputs());
+        journal.complete(operation);
+
+        journal = ConversionJournal.open(workingDir, true);
+        assertTrue(journal.isCompleted(collect(getCommand("-p", "0-0-0"), outputs)));
+
+        FileUtils.writeStringToFile(prefixed, "truncated", StandardCharsets.UTF_8);
+        journal = ConversionJournal.open(workingDir, true);
+        assertFalse(journal.isCompleted(collect(getCommand("-p", "0-0-0"), outputs)));
+    }
+
+    @Test
+    public void testDeclaredOutputExistingBeforeNotInput() throws Exception {
+        File declared = new File(workingDir, "0-0-0_a0.raw");
+        FileUtils.writeStringToFile(declared, "stale output", StandardCharsets.UTF_8);
+        OperationFiles operation = collect(getCommand("-p", "0-0-0"), Collections.singletonList(declared));
+        FileUtils.writeStringToFile(declared, "output", StandardCharsets.UTF_8);
+
+        assertEquals(Collections.singletonList(input.getAbsoluteFile()), operation.getInputs());
+        assertEquals(Collections.singletonList(declared.getAbsoluteFile()), operation.getOutputs());
+    }
+
+    @Test
+    public void testOperationWithoutOutputNotJournaled() throws Exception {
+        ConversionJournal journal = ConversionJournal.open(workingDir, true);
+        OperationFiles operation = collect(getCommand());
+        journal.complete(operation);
+
+        assertFalse(journal.getJournalFile().exists());
+        assertFalse(journal.isCompleted(collect(getCommand())));
+    }
+
+    @Test
+    public void testIncompleteEntryIgnored() throws Exception {
+        runOperation(getCommand("-o", output.getName()));
+        FileUtils.writeStringToFile(new File(workingDir, ConversionJournal.JOURNAL_FILE), "cmd\tpath|1", StandardCharsets.UTF_8, true);
+
+        ConversionJournal journal = ConversionJournal.open(workingDir, true);
+        assertTrue(journal.isCompleted(collect(getCommand("-o", output.getName()))));
+    }
+
+    private void runOperation(List<List<String>> command) throws Exception {
+        ConversionJournal journal = ConversionJournal.open(workingDir, false);
+        OperationFiles operation = collect(command);
+        FileUtils.writeStringToFile(output, "output", StandardCharsets.UTF_8);
+        journal.complete(operation);
+    }
+
+    private OperationFiles collect(List<List<String>> command) {
+        return collect(command, Collections.emptyList());
+    }
+
+    private OperationFiles collect(List<List<String>> command, List<File> outputs) {
+        return OperationFiles.collect(command, Collections.emptyList(), outputs, workingDir);
+    }
+
+    private List<List<String>> getCommand(String... outputArgs) {
+        List<String> command = new ArrayList<>(Arrays.asList("encoder", "-i", input.getAbsolutePath()));
+        command.addAll(Arrays.asList(outputArgs));
+        return Collections.singletonList(command);
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.executor;
+
+import com.netflix.imfutility.util.TemplateParameterContextCreator;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that outputs of conversion operations are stored in the cache and restored to another working directory
+ * only for the same command line and the same content of input files.
+ */
+public class OperationCacheTest {
+
+    private File cacheDir;
+    private File input;
+    private File workingDir1;
+    private File workingDir2;
+
+    @Before
+    public void setUp() throws Exception {
+        File baseDir = new File(TemplateParameterContextCreator.getWorkingDir(), "operation-cache");
+        FileUtils.deleteQuietly(baseDir);
+        cacheDir = new File(baseDir, "cache");
+        workingDir1 = new File(baseDir, "working-dir-1");
+        workingDir2 = new File(baseDir, "working-dir-2");
+        FileUtils.forceMkdir(workingDir1);
+        FileUtils.forceMkdir(workingDir2);
+        input = new File(baseDir, "input.wav");
+        FileUtils.writeStringToFile(input, "input", StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testRestoredToAnotherWorkingDir() throws Exception {
+        runOperation(new OperationCache(cacheDir, 10), workingDir1, "output");
+
+        OperationFiles operation = collect(workingDir2);
+        assertTrue(new OperationCache(cacheDir, 10).restore(operation));
+        assertEquals("output", FileUtils.readFileToString(new File(workingDir2, "output.mxf"), StandardCharsets.UTF_8));
+        assertEquals(Collections.singletonList(new File(workingDir2, "output.mxf").getAbsoluteFile()), operation.getOutputs());
+    }
+
+    @Test
+    public void testNotRestoredIfInputChanged() throws Exception {
+        runOperation(new OperationCache(cacheDir, 10), workingDir1, "output");
+        FileUtils.writeStringToFile(input, "INPUT", StandardCharsets.UTF_8);
+
+        assertFalse(new OperationCache(cacheDir, 10).restore(collect(workingDir2)));
+        assertFalse(new File(workingDir2, "output.mxf").exists());
+    }
+
+    @Test
+    public void testNotRestoredIfCommandChanged() throws Exception {
+        runOperation(new OperationCache(cacheDir, 10), workingDir1, "output");
+
+        List<String> command = Arrays.asList("encoder", "-b", "1000", "-i", input.getAbsolutePath(), "-o", "output.mxf");
+        OperationFiles operation = collect(command, workingDir2);
+        assertFalse(new OperationCache(cacheDir, 10).restore(operation));
+    }
+
+    @Test
+    public void testNotRestoredIfCachedOutputModified() throws Exception {
+        runOperation(new OperationCache(cacheDir, 10), workingDir1, "output");
+        // the output in the working dir may be a hard link to the cached one
+        FileUtils.writeStringToFile(new File(workingDir1, "output.mxf"), "modified output", StandardCharsets.UTF_8);
+
+        OperationCache cache = new OperationCache(cacheDir, 10);
+        if (cache.restore(collect(workingDir2))) {
+            // the output has been copied to the cache
+            assertEquals("output", FileUtils.readFileToString(new File(workingDir2, "output.mxf"), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        OperationCache cache = new OperationCache(cacheDir, 1);
+        runOperation(cache, workingDir1, "output");
+        FileUtils.writeStringToFile(input, "new input", StandardCharsets.UTF_8);
+        // an existing output would be an input modified in place
+        FileUtils.deleteQuietly(new File(workingDir1, "output.mxf"));
+        runOperation(cache, workingDir1, "new output");
+
+        assertTrue(new OperationCache(cacheDir, 1).restore(collect(workingDir2)));
+        FileUtils.writeStringToFile(input, "input", StandardCharsets.UTF_8);
+        FileUtils.deleteQuietly(new File(workingDir2, "output.mxf"));
+        assertFalse(new OperationCache(cacheDir, 1).restore(collect(workingDir2)));
+    }
+
+    @Test
+    public void testOutputOutsideWorkingDirNotStored() throws Exception {
+        File output = new File(input.getParentFile(), "output.mxf");
+        List<String> command = Arrays.asList("encoder", "-i", input.getAbsolutePath(), "-o", output.getAbsolutePath());
+        OperationFiles operation = collect(command, workingDir1);
+        OperationCache cache = new OperationCache(cacheDir, 10);
+        assertFalse(cache.restore(operation));
+        FileUtils.writeStringToFile(output, "output", StandardCharsets.UTF_8);
+        cache.store(operation);
+
+        assertFalse(cacheDir.exists());
+    }
+
+    @Test
+    public void testNotRestoredIfDeclaredInputChanged() throws Exception {
+        File essence = new File(input.getParentFile(), "essence.mxf");
+        FileUtils.writeStringToFile(essence, "essence", StandardCharsets.UTF_8);
+        List<String> command = Arrays.asList("ffmpeg", "-f", "concat", "-i", "plan.txt", "output.mxf");
+        List<File> inputs = Collections.singletonList(essence);
+
+        OperationCache cache = new OperationCache(cacheDir, 10);
+        OperationFiles operation = OperationFiles.collect(Collections.singletonList(command), inputs, Collections.emptyList(), workingDir1);
+        assertFalse(cache.restore(operation));
+        FileUtils.writeStringToFile(new File(workingDir1, "output.mxf"), "output", StandardCharsets.UTF_8);
+        cache.store(operation);
+
+        // the essence is not named on the command line, but it's declared as an input
+        FileUtils.writeStringToFile(essence, "new essence", StandardCharsets.UTF_8);
+        assertFalse(new OperationCache(cacheDir, 10).restore(
+                OperationFiles.collect(Collections.singletonList(command), inputs, Collections.emptyList(), workingDir2)));
+
+        FileUtils.writeStringToFile(essence, "essence", StandardCharsets.UTF_8);
+        assertTrue(new OperationCache(cacheDir, 10).restore(
+                OperationFiles.collect(Collections.singletonList(command), inputs, Collections.emptyList(), workingDir2)));
+    }
+
+    @Test
+    public void testInputModifiedInPlaceIdentifiedByOriginalContent() throws Exception {
+        List<String> command = Arrays.asList("normalizer", "audio.wav");
+        FileUtils.writeStringToFile(new File(workingDir1, "audio.wav"), "audio", StandardCharsets.UTF_8);
+        OperationCache cache = new OperationCache(cacheDir, 10);
+        OperationFiles operation = collect(command, workingDir1);
+        assertFalse(cache.restore(operation));
+        FileUtils.writeStringToFile(new File(workingDir1, "audio.wav"), "normalized audio", StandardCharsets.UTF_8);
+        cache.store(operation);
+
+        File audio = new File(workingDir2, "audio.wav");
+        FileUtils.writeStringToFile(audio, "another audio", StandardCharsets.UTF_8);
+        assertFalse(new OperationCache(cacheDir, 10).restore(
+                collect(command, workingDir2)));
+
+        FileUtils.writeStringToFile(audio, "audio", StandardCharsets.UTF_8);
+        assertTrue(new OperationCache(cacheDir, 10).restore(
+                collect(command, workingDir2)));
+        assertEquals("normalized audio", FileUtils.readFileToString(audio, StandardCharsets.UTF_8));
+    }
+
+    private void runOperation(OperationCache cache, File workingDir, String outputContent) throws Exception {
+        OperationFiles operation = collect(workingDir);
+        assertFalse(cache.restore(operation));
+        FileUtils.writeStringToFile(new File(workingDir, "output.mxf"), outputContent, StandardCharsets.UTF_8);
+        cache.store(operation);
+    }
+
+    private OperationFiles collect(File workingDir) {
+        List<String> command = Arrays.asList("encoder", "-i", input.getAbsolutePath(), "-o", "output.mxf");
+        return collect(command, workingDir);
+    }
+
+    private static OperationFiles collect(List<String> command, File workingDir) {
+        return OperationFiles.collect(Collections.singletonList(command), Collections.emptyList(), Collections.emptyList(), workingDir);
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.executor.strategy;
+
+import com.netflix.imfutility.ImfUtilityTest;
+import com.netflix.imfutility.conversion.executor.ProcessStarter;
+import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
+import com.netflix.imfutility.conversion.templateParameter.ContextInfoBuilder;
+import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
+import com.netflix.imfutility.cpl.uuid.ResourceUUID;
+import com.netflix.imfutility.util.TemplateParameterContextCreator;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests that real processes are connected via named pipes in a pipeline.
+ */
+public class ExecutePipeStrategyNamedPipeTest extends ImfUtilityTest {
+
+    private TemplateParameterContextProvider contextProvider;
+
+    @Before
+    public void setUp() {
+        assumeTrue(new ProcessStarter().isNamedPipeSupported());
+        try {
+            contextProvider = TemplateParameterContextCreator.createDefaultContextProvider();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testCycleAndTailConnectedByNamedPipes() throws Exception {
+        File result = new File(TemplateParameterContextCreator.getWorkingDir(), "result.txt");
+
+        PipeOperationInfo pipeInfo = new PipeOperationInfo();
+        pipeInfo.addCycleOperation(operation("echo abc"));
+        pipeInfo.addCycleOperation(Arrays.asList(operation("echo def"), operation("tr a-z A-Z")));
+        pipeInfo.addTailOperation(operation("cat"));
+        pipeInfo.addTailOperation(operation("dd of=" + result.getAbsolutePath()));
+
+        new ExecutePipeStrategy(contextProvider, new ProcessStarter()).execute(pipeInfo);
+
+        assertEquals("abc\nDEF\n", FileUtils.readFileToString(result, StandardCharsets.US_ASCII));
+        assertArrayEquals("Named pipes must be deleted", new File[0],
+                TemplateParameterContextCreator.getWorkingDir().listFiles((dir, name) -> name.endsWith(".fifo")));
+    }
+
+    @Test
+    public void testNamedPipesDoNotReplaceExistingFiles() throws Exception {
+        File existing = new File(TemplateParameterContextCreator.getWorkingDir(), "pipe-1.fifo");
+        FileUtils.writeStringToFile(existing, "another conversion", StandardCharsets.US_ASCII);
+
+        try (NamedPipe pipe1 = NamedPipe.create(TemplateParameterContextCreator.getWorkingDir());
+             NamedPipe pipe2 = NamedPipe.create(TemplateParameterContextCreator.getWorkingDir())) {
+            assertNotEquals(pipe1.getFile(), pipe2.getFile());
+            assertNotEquals(existing, pipe1.getFile());
+            assertNotEquals(existing, pipe2.getFile());
+        }
+        assertEquals("another conversion", FileUtils.readFileToString(existing, StandardCharsets.US_ASCII));
+        FileUtils.forceDelete(existing);
+    }
+
+    @Test
+    public void testTailConnectedByNamedPipes() throws Exception {
+        File result = new File(TemplateParameterContextCreator.getWorkingDir(), "result-tail.txt");
+
+        PipeOperationInfo pipeInfo = new PipeOperationInfo();
+        pipeInfo.addTailOperation(operation("echo abc"));
+        pipeInfo.addTailOperation(operation("tr a-z A-Z"));
+        pipeInfo.addTailOperation(operation("dd of=" + result.getAbsolutePath()));
+
+        new ExecutePipeStrategy(contextProvider, new ProcessStarter()).execute(pipeInfo);
+
+        assertEquals("ABC\n", FileUtils.readFileToString(result, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testRepeatedResourceCycleReplicated() throws Exception {
+        File result = new File(TemplateParameterContextCreator.getWorkingDir(), "result-repeat.txt");
+
+        PipeOperationInfo pipeInfo = new PipeOperationInfo();
+        pipeInfo.addCycleOperation(operation("echo def", "main", 0));
+        for (int i = 0; i < 3; i++) {
+            pipeInfo.addCycleOperation(Arrays.asList(
+                    operation("echo abc", "slate", i), operation("tr a-z A-Z", "slate", i)));
+        }
+        pipeInfo.addTailOperation(operation("cat"));
+        pipeInfo.addTailOperation(operation("dd of=" + result.getAbsolutePath()));
+
+        new ExecutePipeStrategy(contextProvider, new ProcessStarter()).execute(pipeInfo);
+
+        assertEquals("def\nABC\nABC\nABC\n", FileUtils.readFileToString(result, StandardCharsets.US_ASCII));
+        assertArrayEquals("Temporary files must be deleted", new File[0],
+                TemplateParameterContextCreator.getWorkingDir().listFiles((dir, name) -> name.startsWith("repeat-")));
+    }
+
+    @Test
+    public void testRepeatedResourceCycleExecutedIfOutputExceedsMaxSize() throws Exception {
+        File result = new File(TemplateParameterContextCreator.getWorkingDir(), "result-repeat-large.txt");
+        contextProvider.getConfigProvider().getConfig().setMaxRepeatedCycleSize(2L);
+
+        PipeOperationInfo pipeInfo = new PipeOperationInfo();
+        pipeInfo.addCycleOperation(operation("echo def", "main", 0));
+        for (int i = 0; i < 3; i++) {
+            pipeInfo.addCycleOperation(Arrays.asList(
+                    operation("echo abc", "slate", i), operation("tr a-z A-Z", "slate", i)));
+        }
+        pipeInfo.addTailOperation(operation("cat"));
+        pipeInfo.addTailOperation(operation("dd of=" + result.getAbsolutePath()));
+
+        new ExecutePipeStrategy(contextProvider, new ProcessStarter()).execute(pipeInfo);
+
+        assertEquals("def\nABC\nABC\nABC\n", FileUtils.readFileToString(result, StandardCharsets.US_ASCII));
+        assertArrayEquals("Temporary files must be deleted", new File[0],
+                TemplateParameterContextCreator.getWorkingDir().listFiles((dir, name) -> name.startsWith("repeat-")));
+    }
+
+    private static OperationInfo operation(String operation) {
+        return new OperationInfo(operation, operation.split(" ")[0], ContextInfo.EMPTY, false);
+    }
+
+    private static OperationInfo operation(String operation, String resourceId, long repeat) {
+        ContextInfo contextInfo = new ContextInfoBuilder().setResourceUuid(ResourceUUID.create(resourceId, repeat)).build();
+        return new OperationInfo(operation, operation.split(" ")[0], contextInfo, false);
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.executor.strategy;
+
+import com.netflix.imfutility.ImfUtilityTest;
+import com.netflix.imfutility.conversion.executor.ExternalProcess;
+import com.netflix.imfutility.conversion.executor.ProcessFailedException;
+import com.netflix.imfutility.conversion.executor.ProcessStarter;
+import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
+import com.netflix.imfutility.conversion.templateParameter.ContextInfoBuilder;
+import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
+import com.netflix.imfutility.cpl.uuid.ResourceUUID;
+import com.netflix.imfutility.util.TemplateParameterContextCreator;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeFalse;
+
+/**
+ * Tests that data is copied between real processes in a pipeline if named pipes are not used.
+ */
+public class ExecutePipeStrategyPiperTest extends ImfUtilityTest {
+
+    private TemplateParameterContextProvider contextProvider;
+
+    @Before
+    public void setUp() {
+        assumeFalse(SystemUtils.IS_OS_WINDOWS);
+        try {
+            contextProvider = TemplateParameterContextCreator.createDefaultContextProvider();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testCycleAndTailCopied() throws Exception {
+        File result = new File(TemplateParameterContextCreator.getWorkingDir(), "result-piper.txt");
+
+        PipeOperationInfo pipeInfo = new PipeOperationInfo();
+        pipeInfo.addCycleOperation(operation("echo abc"));
+        pipeInfo.addCycleOperation(Arrays.asList(operation("echo def"), operation("tr a-z A-Z")));
+        pipeInfo.addTailOperation(operation("cat"));
+        pipeInfo.addTailOperation(operation("dd of=" + result.getAbsolutePath()));
+
+        ExecutePipeStrategy strategy = new ExecutePipeStrategy(contextProvider, new CopyingProcessStarter());
+        strategy.execute(pipeInfo);
+
+        assertEquals("abc\nDEF\n", FileUtils.readFileToString(result, StandardCharsets.US_ASCII));
+
+        // echo -> cat, cat -> dd (started with the first cycle), echo -> tr, tr -> cat
+        assertEquals(4, strategy.getPipeStatistics().size());
+        assertEquals(4, strategy.getPipeStatistics().get(0).getBytes());
+        assertEquals(8, strategy.getPipeStatistics().get(1).getBytes());
+        assertEquals(4, strategy.getPipeStatistics().get(2).getBytes());
+        assertEquals(4, strategy.getPipeStatistics().get(3).getBytes());
+    }
+
+    @Test
+    public void testRepeatedResourceCycleReplicated() throws Exception {
+        File result = new File(TemplateParameterContextCreator.getWorkingDir(), "result-piper-repeat.txt");
+
+        PipeOperationInfo pipeInfo = new PipeOperationInfo();
+        for (int i = 0; i < 3; i++) {
+            pipeInfo.addCycleOperation(Arrays.asList(
+                    operation("echo abc", "slate", i), operation("tr a-z A-Z", "slate", i)));
+        }
+        pipeInfo.addCycleOperation(operation("echo def", "main", 0));
+        pipeInfo.addTailOperation(operation("cat"));
+        pipeInfo.addTailOperation(operation("dd of=" + result.getAbsolutePath()));
+
+        ExecutePipeStrategy strategy = new ExecutePipeStrategy(contextProvider, new CopyingProcessStarter());
+        strategy.execute(pipeInfo);
+
+        assertEquals("ABC\nABC\nABC\ndef\n", FileUtils.readFileToString(result, StandardCharsets.US_ASCII));
+
+        // the repeated cycle is executed once: echo -> tr, cat -> dd (started before the output is replicated), echo -> cat
+        assertEquals(3, strategy.getPipeStatistics().size());
+        assertArrayEquals("Temporary files must be deleted", new File[0],
+                TemplateParameterContextCreator.getWorkingDir().listFiles((dir, name) -> name.startsWith("repeat-")));
+    }
+
+    @Test
+    public void testRepeatedResourceCycleExecutedIfOutputExceedsMaxSize() throws Exception {
+        File result = new File(TemplateParameterContextCreator.getWorkingDir(), "result-piper-repeat-large.txt");
+        contextProvider.getConfigProvider().getConfig().setMaxRepeatedCycleSize(2L);
+
+        PipeOperationInfo pipeInfo = new PipeOperationInfo();
+        for (int i = 0; i < 3; i++) {
+            pipeInfo.addCycleOperation(Arrays.asList(
+                    operation("echo abc", "slate", i), operation("tr a-z A-Z", "slate", i)));
+        }
+        pipeInfo.addCycleOperation(operation("echo def", "main", 0));
+        pipeInfo.addTailOperation(operation("cat"));
+        pipeInfo.addTailOperation(operation("dd of=" + result.getAbsolutePath()));
+
+        ExecutePipeStrategy strategy = new ExecutePipeStrategy(contextProvider, new CopyingProcessStarter());
+        strategy.execute(pipeInfo);
+
+        assertEquals("ABC\nABC\nABC\ndef\n", FileUtils.readFileToString(result, StandardCharsets.US_ASCII));
+
+        // the repeated cycle is executed for each repeat: echo -> tr, cat -> dd, 2 x (echo -> tr, tr -> cat), echo -> cat
+        assertEquals(7, strategy.getPipeStatistics().size());
+        assertArrayEquals("Temporary files must be deleted", new File[0],
+                TemplateParameterContextCreator.getWorkingDir().listFiles((dir, name) -> name.startsWith("repeat-")));
+    }
+
+    @Test
+    public void testAllTailProcessesClosedIfOneFails() throws Exception {
+        PipeOperationInfo pipeInfo = new PipeOperationInfo();
+        pipeInfo.addCycleOperation(operation("echo abc"));
+        pipeInfo.addTailOperation(operation("false"));
+        pipeInfo.addTailOperation(operation("cat"));
+        pipeInfo.addTailOperation(operation("cat"));
+
+        CopyingProcessStarter processStarter = new CopyingProcessStarter();
+        try {
+            new ExecutePipeStrategy(contextProvider, processStarter).execute(pipeInfo);
+            fail("The failed process must be reported");
+        } catch (ProcessFailedException e) {
+            // expected
+        }
+
+        assertEquals(4, processStarter.processes.size());
+        for (Process process : processStarter.processes) {
+            assertFalse("All processes must be finished", process.isAlive());
+        }
+    }
+
+    private static OperationInfo operation(String operation) {
+        return new OperationInfo(operation, operation.split(" ")[0], ContextInfo.EMPTY, false);
+    }
+
+    private static OperationInfo operation(String operation, String resourceId, long repeat) {
+        ContextInfo contextInfo = new ContextInfoBuilder().setResourceUuid(ResourceUUID.create(resourceId, repeat)).build();
+        return new OperationInfo(operation, operation.split(" ")[0], contextInfo, false);
+    }
+
+    /**
+     * Doesn't allow named pipes, so that the data is copied.
+     */
+    private static class CopyingProcessStarter extends ProcessStarter {
+
+        private final List<Process> processes = new ArrayList<>();
+
+        @Override
+        public Process startProcess(ExternalProcess.ExternalProcessInfo processInfo, List<String> execAndParams) throws IOException {
+            Process process = super.startProcess(processInfo, execAndParams);
+            processes.add(process);
+            return process;
+        }
+
+        @Override
+        public boolean isNamedPipeSupported() {
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.scheduler;
+
+import com.netflix.imfutility.conversion.executor.ExternalProcess;
+import com.netflix.imfutility.conversion.executor.OutputRedirect;
+import com.netflix.imfutility.conversion.executor.ProcessStarter;
+import com.netflix.imfutility.conversion.executor.RunningProcesses;
+import com.netflix.imfutility.conversion.executor.strategy.AbstractExecuteStrategy;
+import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
+import com.netflix.imfutility.generated.conversion.FormatConfigurationType;
+import com.netflix.imfutility.util.ConversionUtils;
+import com.netflix.imfutility.util.TemplateParameterContextCreator;
+import com.netflix.imfutility.util.conversion.executor.TestConversionEngine;
+import com.netflix.imfutility.util.conversion.executor.TestExecutorLogger;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests parallel execution of conversion operations.
+ */
+public class ParallelConversionTest {
+
+    private TemplateParameterContextProvider contextProvider;
+    private TestConversionEngine conversionEngine;
+    private TestExecutorLogger executorLogger;
+    private FormatConfigurationType formatConfiguration;
+
+    @Before
+    public void setUp() throws Exception {
+        contextProvider = TemplateParameterContextCreator.createDefaultContextProvider(
+                ConversionUtils.getParallelConversionXmlPath());
+        TemplateParameterContextCreator.fillCPLContext(contextProvider, 2, 2, 1);
+        formatConfiguration = contextProvider.getConversionProvider().getFormatConfigurationType("parallel");
+
+        conversionEngine = new TestConversionEngine();
+        executorLogger = conversionEngine.getExecutorLogger();
+        AbstractExecuteStrategy.resetCount();
+    }
+
+    @Test
+    public void testDependencyGraph() throws Exception {
+        List<OperationNode> nodes = new OperationGraphBuilder().build(
+                formatConfiguration.getExecOnceOrExecEachSegmentOrExecEachSequence());
+
+        assertEquals(7, nodes.size());
+        assertDependencies(nodes.get(0));
+        assertDependencies(nodes.get(1));
+        assertDependencies(nodes.get(2), 0);
+        assertDependencies(nodes.get(3), 0);
+        assertDependencies(nodes.get(4));
+        assertDependencies(nodes.get(5), 4);
+        assertDependencies(nodes.get(6), 5);
+    }
+
+    @Test
+    public void testParameterPatterns() throws Exception {
+        OperationParameters writeAnySegm = new OperationParameters();
+        writeAnySegm.addDynamicWritten("segm-%{seq.num}", "%{segm.num}");
+        OperationParameters readSegm = new OperationParameters();
+        readSegm.addRead("exec %{dynamic.segm-0}");
+        OperationParameters readOther = new OperationParameters();
+        readOther.addRead("exec %{dynamic.other} %{tmp.other}");
+
+        assertTrue(writeAnySegm.conflictsWith(readSegm));
+        assertTrue(readSegm.conflictsWith(writeAnySegm));
+        assertFalse(writeAnySegm.conflictsWith(readOther));
+        assertFalse(readSegm.conflictsWith(readOther));
+        assertTrue(readOther.conflictsWith(readOther));
+    }
+
+    @Test
+    public void testAllOperationsExecuted() throws Exception {
+        conversionEngine.convert(formatConfiguration, contextProvider);
+
+        List<String> processes = new ArrayList<>();
+        for (int i = 0; i < executorLogger.getProcessCount(); i++) {
+            processes.add(executorLogger.getProcess(i));
+        }
+        List<String> started = processes.stream().filter(p -> p.startsWith("START")).collect(Collectors.toList());
+        assertEquals(8, started.size());
+        assertEquals(started.size() * 2, processes.size());
+
+        assertEquals("1", contextProvider.getDynamicContext().getParameterValueAsString("second"));
+        assertEquals("01", contextProvider.getDynamicContext().getParameterValueAsString("segm-0"));
+        assertEquals("01", contextProvider.getDynamicContext().getParameterValueAsString("segm-1"));
+    }
+
+    @Test
+    public void testDependentOperationsOrdered() throws Exception {
+        conversionEngine.convert(formatConfiguration, contextProvider);
+
+        List<String> processes = new ArrayList<>();
+        for (int i = 0; i < executorLogger.getProcessCount(); i++) {
+            processes.add(executorLogger.getProcess(i));
+        }
+        int writeTmpFinished = indexOf(processes, "FINISH", "writeTmp,");
+        int readTmpStarted = indexOf(processes, "START", "readTmpSegm,");
+        int readTmpFinished = lastIndexOf(processes, "FINISH", "readTmpSegm,");
+        int readSegmStarted = indexOf(processes, "START", "readSegm,");
+        assertTrue(writeTmpFinished < readTmpStarted);
+        assertTrue(readTmpFinished < readSegmStarted);
+    }
+
+    @Test
+    public void testParallelEachSegmentAndSequence() throws Exception {
+        contextProvider = TemplateParameterContextCreator.createDefaultContextProvider(
+                ConversionUtils.getParallelConversionXmlPath());
+        TemplateParameterContextCreator.fillCPLContext(contextProvider, 4, 4, 1);
+
+        conversionEngine.convert(contextProvider.getConversionProvider().getFormatConfigurationType("parallelEach"), contextProvider);
+
+        // 4 sequences * 4 segments for each of execEachSequence and execEachSegment (2 processes in a pipe)
+        assertEquals((16 + 16 * 2) * 2, executorLogger.getProcessCount());
+
+        // dynamic parameters are set in order
+        for (int i = 0; i < 4; i++) {
+            assertEquals("0123", contextProvider.getDynamicContext().getParameterValueAsString("seqSegm-" + i));
+            assertEquals("0123", contextProvider.getDynamicContext().getParameterValueAsString("segmSeq-" + i));
+        }
+    }
+
+    @Test
+    public void testRunningOperationsCancelledOnFailure() throws Exception {
+        assumeTrue(new ProcessStarter().isNamedPipeSupported());
+        Process longProcess = new ProcessBuilder("sleep", "60").start();
+        ExternalProcess.ExternalProcessInfo processInfo = new ExternalProcess.ExternalProcessInfo(
+                1, "long", "test", "sleep", Arrays.asList("sleep", "60"),
+                TemplateParameterContextCreator.getWorkingDir(), OutputRedirect.ERR_LOG, null);
+        RunningProcesses runningProcesses = new RunningProcesses();
+        runningProcesses.add(new ExternalProcess(longProcess, processInfo));
+
+        List<OperationNode> nodes = Arrays.asList(
+                new OperationNode(0, "long", "long", new OperationParameters()),
+                new OperationNode(1, "failing", "failing", new OperationParameters()));
+        long start = System.currentTimeMillis();
+        try {
+            new ParallelConversionScheduler(2, runningProcesses).execute(nodes, operation -> () -> {
+                if ("long".equals(operation)) {
+                    new ExternalProcess(longProcess, processInfo).finishWaitFor();
+                } else {
+                    throw new IOException("failed");
+                }
+            });
+            fail("The failure must be re-thrown");
+        } catch (IOException e) {
+            assertEquals("failed", e.getMessage());
+        }
+
+        assertTrue(longProcess.waitFor(10, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start < TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private static void assertDependencies(OperationNode node, Integer... expected) {
+        List<Integer> actual = node.getDependencies().stream().map(OperationNode::getIndex).collect(Collectors.toList());
+        assertEquals(node.toString(), Arrays.asList(expected), actual);
+    }
+
+    private static int indexOf(List<String> processes, String prefix, String name) {
+        for (int i = 0; i < processes.size(); i++) {
+            if (processes.get(i).startsWith(prefix) && processes.get(i).contains(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(List<String> processes, String prefix, String name) {
+        for (int i = processes.size() - 1; i >= 0; i--) {
+            if (processes.get(i).startsWith(prefix) && processes.get(i).contains(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
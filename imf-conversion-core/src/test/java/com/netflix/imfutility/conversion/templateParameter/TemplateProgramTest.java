@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.templateParameter;
+
+import org.junit.Test;
+
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests parsing and evaluation of compiled template programs.
+ */
+public class TemplateProgramTest {
+
+    private static final Function<TemplateParameter, String> RESOLVER =
+            p -> "[" + p.getContext().getName() + ":" + p.getName() + "]";
+
+    @Test
+    public void testCompiledOnce() {
+        assertSame(TemplateProgram.compile("%{tool.ffmpeg} -i %{dynamic.input}"),
+                TemplateProgram.compile("%{tool.ffmpeg} -i %{dynamic.input}"));
+    }
+
+    @Test
+    public void testLiteralOnly() {
+        assertEquals("", TemplateProgram.compile("").evaluate(RESOLVER));
+        assertEquals("ffmpeg -i input.mxf", TemplateProgram.compile("ffmpeg -i input.mxf").evaluate(RESOLVER));
+    }
+
+    @Test
+    public void testParameters() {
+        assertEquals("[tool:ffmpeg] -i [dynamic:input] out",
+                TemplateProgram.compile("%{tool.ffmpeg} -i %{dynamic.input} out").evaluate(RESOLVER));
+    }
+
+    @Test
+    public void testSubParameters() {
+        assertEquals("a [dynamic:x[segm:num]] b",
+                TemplateProgram.compile("a %{dynamic.x%{segm.num}} b").evaluate(RESOLVER));
+    }
+
+    @Test
+    public void testNotParametersKeptAsIs() {
+        assertEquals("%{a} %{a.b.c} %{tool.} %{", TemplateProgram.compile("%{a} %{a.b.c} %{tool.} %{").evaluate(RESOLVER));
+        assertEquals("%{a.[tool:ffmpeg]", TemplateProgram.compile("%{a.%{tool.ffmpeg}").evaluate(RESOLVER));
+    }
+
+}
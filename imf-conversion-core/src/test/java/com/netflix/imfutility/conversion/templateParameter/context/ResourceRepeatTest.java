@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.templateParameter.context;
+
+import com.netflix.imfutility.ConversionException;
+import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
+import com.netflix.imfutility.conversion.templateParameter.ContextInfoBuilder;
+import com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters;
+import com.netflix.imfutility.cpl.uuid.ResourceUUID;
+import com.netflix.imfutility.generated.conversion.SequenceType;
+import org.apache.commons.math3.fraction.BigFraction;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getSegmentUuid;
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getSequenceUuid;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests that a repeated resource is stored in the resource context as a single entry.
+ */
+public class ResourceRepeatTest {
+
+    private ResourceTemplateParameterContext resourceContext;
+    private ResourceKey resourceKey;
+
+    @Before
+    public void setUp() {
+        resourceContext = new ResourceTemplateParameterContext();
+        resourceKey = ResourceKey.create(getSegmentUuid(0), getSequenceUuid(0, SequenceType.VIDEO), SequenceType.VIDEO);
+
+        // slate: 2 seconds repeated 3 times
+        ResourceUUID slate = ResourceUUID.create("slate", 0);
+        resourceContext.addResourceParameter(resourceKey, slate, ResourceContextParameters.ESSENCE, "slate.mxf");
+        resourceContext.setResourceTimeline(resourceKey, slate, new ResourceTimeline(new BigFraction(25), 0, 50));
+        resourceContext.setRepeatCount(resourceKey, slate, 3);
+        resourceContext.getResourceTimeline(resourceKey, slate).setOffsetMs(1000);
+
+        ResourceUUID main = ResourceUUID.create("main", 0);
+        resourceContext.addResourceParameter(resourceKey, main, ResourceContextParameters.ESSENCE, "main.mxf");
+    }
+
+    @Test
+    public void testUuidsAndCount() {
+        assertArrayEquals(
+                new ResourceUUID[]{
+                        ResourceUUID.create("slate", 0),
+                        ResourceUUID.create("slate", 1),
+                        ResourceUUID.create("slate", 2),
+                        ResourceUUID.create("main", 0)
+                },
+                resourceContext.getUuids(resourceKey).toArray(new ResourceUUID[]{}));
+        assertEquals(4, resourceContext.getUuids(resourceKey).size());
+        assertEquals(4, resourceContext.getResourceCount(resourceKey));
+    }
+
+    @Test
+    public void testRepeatParameters() {
+        ContextInfo repeat = contextInfo(ResourceUUID.create("slate", 2));
+        assertEquals("slate", resourceContext.getParameterValue(ResourceContextParameters.UUID, repeat));
+        assertEquals("2", resourceContext.getParameterValue(ResourceContextParameters.NUM, repeat));
+        assertEquals("2", resourceContext.getParameterValue(ResourceContextParameters.REPEAT, repeat));
+        assertEquals("slate.mxf", resourceContext.getParameterValue(ResourceContextParameters.ESSENCE, repeat));
+        assertEquals("2000", resourceContext.getParameterValue(ResourceContextParameters.DURATION_MS, repeat));
+        assertEquals("5000", resourceContext.getParameterValue(ResourceContextParameters.OFFSET_MS, repeat));
+        assertSame(resourceContext.getResourceTimeline(resourceKey, ResourceUUID.create("slate", 0)),
+                resourceContext.getResourceTimeline(resourceKey, ResourceUUID.create("slate", 2)));
+
+        ContextInfo next = contextInfo(ResourceUUID.create("main", 0));
+        assertEquals("3", resourceContext.getParameterValue(ResourceContextParameters.NUM, next));
+        assertEquals("0", resourceContext.getParameterValue(ResourceContextParameters.REPEAT, next));
+    }
+
+    @Test
+    public void testRepeatOutOfRange() {
+        assertFalse(resourceContext.hasResourceParameter(ResourceContextParameters.ESSENCE,
+                contextInfo(ResourceUUID.create("slate", 3))));
+        assertFalse(resourceContext.hasResourceParameter(ResourceContextParameters.ESSENCE,
+                contextInfo(ResourceUUID.create("main", 1))));
+    }
+
+    @Test(expected = ConversionException.class)
+    public void testRepeatCountForNotLastResource() {
+        resourceContext.setRepeatCount(resourceKey, ResourceUUID.create("slate", 0), 5);
+    }
+
+    private ContextInfo contextInfo(ResourceUUID resourceUuid) {
+        return new ContextInfoBuilder()
+                .setSegmentUuid(resourceKey.getSegmentUuid())
+                .setSequenceUuid(resourceKey.getSequenceUuid())
+                .setSequenceType(resourceKey.getSequenceType())
+                .setResourceUuid(resourceUuid)
+                .build();
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.conversion.templateParameter.context;
+
+import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
+import com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters;
+import com.netflix.imfutility.conversion.templateParameter.exception.TemplateParameterNotFoundException;
+import com.netflix.imfutility.generated.conversion.SequenceType;
+import org.apache.commons.math3.fraction.BigFraction;
+import org.junit.Test;
+
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.createResourceContextInfo;
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getResourceUuid;
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getSegmentUuid;
+import static com.netflix.imfutility.util.TemplateParameterContextCreator.getSequenceUuid;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests typed resource timeline values and their string representation in the resource context.
+ */
+public class ResourceTimelineTest {
+
+    @Test
+    public void testTimelineParameters() {
+        ResourceTimeline timeline = new ResourceTimeline(new BigFraction(25), 50, 100);
+
+        assertEquals("25 1", timeline.getParameterValue(ResourceContextParameters.EDIT_RATE));
+        assertEquals("50", timeline.getParameterValue(ResourceContextParameters.START_TIME_EDIT_UNIT));
+        assertEquals("100", timeline.getParameterValue(ResourceContextParameters.DURATION_EDIT_UNIT));
+        assertEquals("150", timeline.getParameterValue(ResourceContextParameters.END_TIME_EDIT_UNIT));
+        assertEquals("2000", timeline.getParameterValue(ResourceContextParameters.START_TIME_MS));
+        assertEquals("4000", timeline.getParameterValue(ResourceContextParameters.DURATION_MS));
+        assertEquals("6000", timeline.getParameterValue(ResourceContextParameters.END_TIME_MS));
+        assertEquals("00:00:02.000", timeline.getParameterValue(ResourceContextParameters.START_TIME_TIMECODE));
+        assertEquals("00:00:04.000", timeline.getParameterValue(ResourceContextParameters.DURATION_TIMECODE));
+        assertEquals("00:00:06.000", timeline.getParameterValue(ResourceContextParameters.END_TIME_TIMECODE));
+        assertEquals("50", timeline.getParameterValue(ResourceContextParameters.START_TIME_FRAME_EDIT_UNIT));
+        assertEquals("100", timeline.getParameterValue(ResourceContextParameters.DURATION_FRAME_EDIT_UNIT));
+        assertNull(timeline.getParameterValue(ResourceContextParameters.OFFSET_MS));
+        assertNull(timeline.getParameterValue(ResourceContextParameters.ESSENCE));
+    }
+
+    @Test
+    public void testTimelineUpdated() {
+        ResourceTimeline timeline = new ResourceTimeline(new BigFraction(48000), 48000, 96000);
+        assertEquals("96000", timeline.getParameterValue(ResourceContextParameters.DURATION_FRAME_EDIT_UNIT));
+
+        timeline.setFrameEditUnits(25, 50);
+        timeline.setOffsetMs(1000);
+
+        assertEquals("25", timeline.getParameterValue(ResourceContextParameters.START_TIME_FRAME_EDIT_UNIT));
+        assertEquals("50", timeline.getParameterValue(ResourceContextParameters.DURATION_FRAME_EDIT_UNIT));
+        assertEquals("1000", timeline.getParameterValue(ResourceContextParameters.OFFSET_MS));
+    }
+
+    @Test
+    public void testResourceContextUsesTimeline() {
+        ResourceTemplateParameterContext resourceContext = new ResourceTemplateParameterContext();
+        ResourceKey resourceKey = ResourceKey.create(getSegmentUuid(0), getSequenceUuid(0, SequenceType.VIDEO), SequenceType.VIDEO);
+        resourceContext.setResourceTimeline(resourceKey, getResourceUuid(0, 0, SequenceType.VIDEO, 0, 0),
+                new ResourceTimeline(new BigFraction(25), 0, 100));
+        ContextInfo contextInfo = createResourceContextInfo(0, 0, SequenceType.VIDEO, 0, 0);
+
+        assertEquals("4000", resourceContext.getParameterValue(ResourceContextParameters.DURATION_MS, contextInfo));
+        assertEquals("0", resourceContext.getParameterValue(ResourceContextParameters.NUM, contextInfo));
+
+        // explicitly added values have priority
+        resourceContext.addResourceParameter(resourceKey, getResourceUuid(0, 0, SequenceType.VIDEO, 0, 0),
+                ResourceContextParameters.DURATION_MS, "5000");
+        assertEquals("5000", resourceContext.getParameterValue(ResourceContextParameters.DURATION_MS, contextInfo));
+    }
+
+    @Test(expected = TemplateParameterNotFoundException.class)
+    public void testOffsetNotDefined() {
+        ResourceTemplateParameterContext resourceContext = new ResourceTemplateParameterContext();
+        ResourceKey resourceKey = ResourceKey.create(getSegmentUuid(0), getSequenceUuid(0, SequenceType.VIDEO), SequenceType.VIDEO);
+        resourceContext.setResourceTimeline(resourceKey, getResourceUuid(0, 0, SequenceType.VIDEO, 0, 0),
+                new ResourceTimeline(new BigFraction(25), 0, 100));
+
+        resourceContext.getParameterValue(ResourceContextParameters.OFFSET_MS, createResourceContextInfo(0, 0, SequenceType.VIDEO, 0, 0));
+    }
+
+}
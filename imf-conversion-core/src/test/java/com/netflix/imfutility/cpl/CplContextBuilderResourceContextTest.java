@@ -22,6 +22,7 @@ import com.netflix.imfutility.asset.AssetMap;
 import com.netflix.imfutility.asset.AssetMapParser;
 import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
 import com.netflix.imfutility.conversion.templateParameter.ContextInfoBuilder;
+import com.netflix.imfutility.conversion.templateParameter.context.CompositionTimeline;
 import com.netflix.imfutility.conversion.templateParameter.context.ResourceKey;
 import com.netflix.imfutility.conversion.templateParameter.context.ResourceTemplateParameterContext;
 import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
@@ -35,6 +36,9 @@ import com.netflix.imfutility.util.TemplateParameterContextCreator;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.assertArrayEquals;
 
@@ -45,11 +49,12 @@ import static org.junit.Assert.assertArrayEquals;
  */
 public class CplContextBuilderResourceContextTest {
 
+    private static TemplateParameterContextProvider contextProvider;
     private static ResourceTemplateParameterContext resourceContext;
 
     @BeforeClass
     public static void setUpAll() throws Exception {
-        TemplateParameterContextProvider contextProvider = TemplateParameterContextCreator.createDefaultContextProvider();
+        contextProvider = TemplateParameterContextCreator.createDefaultContextProvider();
         AssetMap assetMap = new AssetMapParser().parse(ImpUtils.getImpFolder(), ImpUtils.getCorrectAssetmap());
         new CplContextBuilder(contextProvider, assetMap, ImpUtils.getCorrectCpl()).build();
 
@@ -367,6 +372,23 @@ public class CplContextBuilderResourceContextTest {
         );
     }
 
+    @Test
+    public void testRepeatedResourceIsSingleTimelineEntry() throws Exception {
+        // UUIDs as defined in CPL.xml: the 1st audio resource of the 1st segment is repeated twice
+        ResourceKey resourceKey = ResourceKey.create(
+                SegmentUUID.create("urn:uuid:20544b5c-be3c-4274-8633-249ee8a5ad16"),
+                SequenceUUID.create("urn:uuid:63b41d86-c5df-4169-b036-3a25024bd711"),
+                SequenceType.AUDIO);
+        List<CompositionTimeline.Resource> resources = contextProvider.getCompositionTimeline().getResources().stream()
+                .filter(resource -> resource.getResourceKey().equals(resourceKey))
+                .filter(resource -> resource.getResourceUuid().getUuid().equals("urn:uuid:895820ef-e379-4021-a69e-8a898b0a9094"))
+                .collect(Collectors.toList());
+
+        assertEquals(1, resources.size());
+        assertEquals(ResourceUUID.create("urn:uuid:895820ef-e379-4021-a69e-8a898b0a9094", 0), resources.get(0).getResourceUuid());
+        assertEquals(2, resources.get(0).getRepeatCount());
+    }
+
     @Test
     //CHECKSTYLE:OFF
     public void testAudioParameters() throws Exception {
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.cpl.essencedescriptor;
+
+import com.netflix.imfutility.asset.AssetMap;
+import com.netflix.imfutility.asset.AssetMapParser;
+import com.netflix.imfutility.cpl._2013.Cpl2013ContextBuilderStrategy;
+import com.netflix.imfutility.util.ImpUtils;
+import com.netflix.imfutility.util.TemplateParameterContextCreator;
+import org.junit.Test;
+import org.smpte_ra.reg._395._2014._13._1.aaf.CDCIDescriptor;
+import org.smpte_ra.reg._395._2014._13._1.aaf.WAVEPCMDescriptor;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.SAXParserFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that essence descriptors are collected from CPL as raw fragments and mapped to Java model on request.
+ */
+public class EssenceDescriptorsTest {
+
+    @Test
+    public void testEssenceDescriptorsFromCpl() throws Exception {
+        AssetMap assetMap = new AssetMapParser().parse(ImpUtils.getImpFolderEssenceDesc(), ImpUtils.getCorrectAssetmapEssenceDesc());
+        Cpl2013ContextBuilderStrategy cpl = new Cpl2013ContextBuilderStrategy(
+                TemplateParameterContextCreator.createDefaultContextProvider(), assetMap);
+        cpl.parse(ImpUtils.getCplEssenceDesc());
+
+        EssenceDescriptors essenceDescriptors = cpl.getEssenceDescriptors();
+        assertEquals(3, essenceDescriptors.size());
+
+        List<Object> video = essenceDescriptors.getSubDescriptors("urn:uuid:3d3a369d-bce0-4347-8c45-ac527451a0f2");
+        assertEquals(1, video.size());
+        assertTrue(video.get(0) instanceof CDCIDescriptor);
+
+        List<Object> audio = essenceDescriptors.getSubDescriptors("urn:uuid:6086c285-d8b2-4c03-ba5b-b31f3b8cf059");
+        assertEquals(1, audio.size());
+        assertTrue(audio.get(0) instanceof WAVEPCMDescriptor);
+        assertSame(audio, essenceDescriptors.getSubDescriptors("urn:uuid:6086c285-d8b2-4c03-ba5b-b31f3b8cf059"));
+
+        assertNull(essenceDescriptors.getSubDescriptors("urn:uuid:unknown"));
+    }
+
+    @Test
+    public void testUnknownSubDescriptorWithInheritedNamespaces() throws Exception {
+        String xml = "<cpl:CompositionPlaylist xmlns:cpl=\"urn:cpl\" xmlns:x=\"urn:x\">"
+                + "<cpl:EssenceDescriptorList>"
+                + "<cpl:EssenceDescriptor>"
+                + "<cpl:Id> urn:uuid:1 </cpl:Id>"
+                + "<x:Unknown x:a=\"1 &amp; 2\"><x:Child>a &lt; b</x:Child></x:Unknown>"
+                + "<Other/>"
+                + "</cpl:EssenceDescriptor>"
+                + "</cpl:EssenceDescriptorList>"
+                + "</cpl:CompositionPlaylist>";
+
+        EssenceDescriptors essenceDescriptors = new EssenceDescriptors();
+        SAXParserFactory spf = SAXParserFactory.newInstance();
+        spf.setNamespaceAware(true);
+        EssenceDescriptorFilter filter = new EssenceDescriptorFilter(new DefaultHandler(), essenceDescriptors);
+        XMLReader reader = spf.newSAXParser().getXMLReader();
+        reader.setContentHandler(filter);
+        reader.parse(new InputSource(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))));
+
+        List<Object> subDescriptors = essenceDescriptors.getSubDescriptors("urn:uuid:1");
+        assertEquals(2, subDescriptors.size());
+
+        Element unknown = (Element) subDescriptors.get(0);
+        assertEquals("urn:x", unknown.getNamespaceURI());
+        assertEquals("1 & 2", unknown.getAttributeNS("urn:x", "a"));
+        assertEquals("a < b", unknown.getTextContent());
+
+        Element other = (Element) subDescriptors.get(1);
+        assertNull(other.getNamespaceURI());
+        assertEquals("Other", other.getLocalName());
+    }
+
+}
@@ -24,6 +24,8 @@ import com.lexicalscope.jewel.cli.HelpRequestedException;
 import org.junit.Test;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
 
 /**
  * Tests that command line arguments common for all formats are parsed correctly.
@@ -57,6 +59,17 @@ public class CmdLineArgumentsTest {
         assertEquals("config.xml", cmdLineArgs.getConfig());
         assertEquals("pathToWorkingDir", cmdLineArgs.getWorkingDirectory());
         assertEquals(LogLevel.debug, cmdLineArgs.getLogLevel());
+        assertFalse(cmdLineArgs.isResume());
+    }
+
+    @Test
+    public void testParseResume() {
+        String[] args = new String[]{
+                "--cpl", "cpl.xml", "--imp", "pathToImp", "-c", "config.xml", "-w", "pathToWorkingDir", "--resume"
+        };
+        ImfUtilityCmdLineArgs cmdLineArgs = CliFactory.parseArguments(ImfUtilityCmdLineArgs.class, args);
+
+        assertTrue(cmdLineArgs.isResume());
     }
 
     @Test(expected = HelpRequestedException.class)
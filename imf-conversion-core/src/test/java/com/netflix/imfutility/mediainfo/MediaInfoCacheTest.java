@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.mediainfo;
+
+import com.netflix.imfutility.ImfUtilityTest;
+import com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters;
+import com.netflix.imfutility.generated.conversion.SequenceType;
+import com.netflix.imfutility.util.TemplateParameterContextCreator;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the persistent media info cache.
+ * <ul>
+ * <li>Tests that stored media info is returned for the same essence and command.</li>
+ * <li>Tests that an entry is not used if the essence, the essence path or the resolved command (including the tool path) changed.</li>
+ * <li>Tests that the least recently used entries are deleted.</li>
+ * </ul>
+ */
+public class MediaInfoCacheTest extends ImfUtilityTest {
+
+    private static final String COMMAND = "/usr/bin/ffprobe -show_streams essence.mxf";
+
+    @Test
+    public void testStoredInfoReturned() throws Exception {
+        File cacheDir = createCacheDir("hit");
+        File essence = createEssence("essence-hit.mxf", "video");
+
+        new MediaInfoCache(cacheDir, 10).put("urn:uuid:1", COMMAND, essence, createInfo(SequenceType.VIDEO, "1920"));
+        VirtualTrackInfo info = new MediaInfoCache(cacheDir, 10).get(SequenceType.VIDEO, "urn:uuid:1", COMMAND, essence);
+
+        assertNotNull(info);
+        assertEquals(SequenceType.VIDEO, info.getSeqType());
+        assertEquals("1920", info.getParameters().get(ResourceContextParameters.WIDTH));
+        assertEquals("25", info.getParameters().get(ResourceContextParameters.FRAME_RATE));
+    }
+
+    @Test
+    public void testMissingEntry() throws Exception {
+        File cacheDir = createCacheDir("miss");
+        File essence = createEssence("essence-miss.mxf", "video");
+
+        MediaInfoCache cache = new MediaInfoCache(cacheDir, 10);
+        cache.put("urn:uuid:1", COMMAND, essence, createInfo(SequenceType.VIDEO, "1920"));
+
+        assertNull(cache.get(SequenceType.VIDEO, "urn:uuid:2", COMMAND, essence));
+        assertNull(cache.get(SequenceType.AUDIO, "urn:uuid:1", COMMAND, essence));
+        assertNull(cache.get(SequenceType.VIDEO, "urn:uuid:1", "/usr/bin/mediainfo essence.mxf", essence));
+    }
+
+    @Test
+    public void testChangedToolNotUsed() throws Exception {
+        File cacheDir = createCacheDir("tool");
+        File essence = createEssence("essence-tool.mxf", "video");
+
+        MediaInfoCache cache = new MediaInfoCache(cacheDir, 10);
+        cache.put("urn:uuid:1", COMMAND, essence, createInfo(SequenceType.VIDEO, "1920"));
+
+        assertNull(cache.get(SequenceType.VIDEO, "urn:uuid:1", "/opt/ffmpeg-4/bin/ffprobe -show_streams essence.mxf", essence));
+        assertNotNull(cache.get(SequenceType.VIDEO, "urn:uuid:1", COMMAND, essence));
+    }
+
+    @Test
+    public void testAnotherEssenceWithSameIdNotUsed() throws Exception {
+        File cacheDir = createCacheDir("path");
+        File essence = createEssence("essence-path.mxf", "video");
+        File copy = createEssence("essence-path-copy.mxf", "video");
+        assertTrue(copy.setLastModified(essence.lastModified()));
+
+        MediaInfoCache cache = new MediaInfoCache(cacheDir, 10);
+        cache.put("urn:uuid:1", COMMAND, essence, createInfo(SequenceType.VIDEO, "1920"));
+
+        assertNull(cache.get(SequenceType.VIDEO, "urn:uuid:1", COMMAND, copy));
+        assertNotNull(cache.get(SequenceType.VIDEO, "urn:uuid:1", COMMAND, essence));
+    }
+
+    @Test
+    public void testChangedEssenceNotUsed() throws Exception {
+        File cacheDir = createCacheDir("stale");
+        File essence = createEssence("essence-stale.mxf", "video");
+
+        MediaInfoCache cache = new MediaInfoCache(cacheDir, 10);
+        cache.put("urn:uuid:1", COMMAND, essence, createInfo(SequenceType.VIDEO, "1920"));
+        assertNotNull(cache.get(SequenceType.VIDEO, "urn:uuid:1", COMMAND, essence));
+
+        // size changed
+        FileUtils.writeStringToFile(essence, "another video", StandardCharsets.UTF_8);
+        assertNull(cache.get(SequenceType.VIDEO, "urn:uuid:1", COMMAND, essence));
+
+        // modification time changed
+        cache.put("urn:uuid:1", COMMAND, essence, createInfo(SequenceType.VIDEO, "1920"));
+        assertTrue(essence.setLastModified(essence.lastModified() - 10000));
+        assertNull(cache.get(SequenceType.VIDEO, "urn:uuid:1", COMMAND, essence));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        File cacheDir = createCacheDir("evict");
+        File essence = createEssence("essence-evict.mxf", "video");
+
+        MediaInfoCache cache = new MediaInfoCache(cacheDir, 2);
+        cache.put("urn:uuid:1", COMMAND, essence, createInfo(SequenceType.VIDEO, "1"));
+        cache.put("urn:uuid:2", COMMAND, essence, createInfo(SequenceType.VIDEO, "2"));
+        setEntriesLastModified(cacheDir, System.currentTimeMillis() - 20000);
+
+        // use the first entry, so that the second one is the least recently used
+        assertNotNull(cache.get(SequenceType.VIDEO, "urn:uuid:1", COMMAND, essence));
+        cache.put("urn:uuid:3", COMMAND, essence, createInfo(SequenceType.VIDEO, "3"));
+
+        assertEquals(2, cacheDir.listFiles().length);
+        assertNotNull(cache.get(SequenceType.VIDEO, "urn:uuid:1", COMMAND, essence));
+        assertNull(cache.get(SequenceType.VIDEO, "urn:uuid:2", COMMAND, essence));
+        assertNotNull(cache.get(SequenceType.VIDEO, "urn:uuid:3", COMMAND, essence));
+    }
+
+    private static void setEntriesLastModified(File cacheDir, long time) {
+        for (File entry : cacheDir.listFiles()) {
+            assertTrue(entry.setLastModified(time));
+        }
+    }
+
+    private static File createCacheDir(String name) {
+        return new File(TemplateParameterContextCreator.getWorkingDir(), "mediaInfoCache-" + name);
+    }
+
+    private static File createEssence(String name, String content) throws Exception {
+        File essence = new File(TemplateParameterContextCreator.getWorkingDir(), name);
+        FileUtils.writeStringToFile(essence, content, StandardCharsets.UTF_8);
+        return essence;
+    }
+
+    private static VirtualTrackInfo createInfo(SequenceType seqType, String width) {
+        Map<ResourceContextParameters, String> parameters = new EnumMap<>(ResourceContextParameters.class);
+        parameters.put(ResourceContextParameters.WIDTH, width);
+        parameters.put(ResourceContextParameters.FRAME_RATE, "25");
+        return new VirtualTrackInfo(seqType, parameters);
+    }
+
+}
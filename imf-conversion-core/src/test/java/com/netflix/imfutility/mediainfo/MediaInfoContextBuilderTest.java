@@ -19,6 +19,7 @@
 package com.netflix.imfutility.mediainfo;
 
 import com.netflix.imfutility.ConversionException;
+import com.netflix.imfutility.CoreConstants;
 import com.netflix.imfutility.conversion.executor.strategy.AbstractExecuteStrategy;
 import com.netflix.imfutility.conversion.templateParameter.ContextInfo;
 import com.netflix.imfutility.conversion.templateParameter.ContextInfoBuilder;
@@ -30,8 +31,10 @@ import com.netflix.imfutility.conversion.templateParameter.context.TemplateParam
 import com.netflix.imfutility.conversion.templateParameter.context.parameters.DynamicContextParameters;
 import com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters;
 import com.netflix.imfutility.conversion.templateParameter.context.parameters.SequenceContextParameters;
+import com.netflix.imfutility.generated.config.MediaInfoProviderType;
 import com.netflix.imfutility.generated.conversion.SequenceType;
 import com.netflix.imfutility.generated.mediainfo.FfprobeType;
+import com.netflix.imfutility.util.ImpUtils;
 import com.netflix.imfutility.util.MediaInfoUtils;
 import com.netflix.imfutility.util.conversion.executor.TestExecuteStrategyFactory;
 import com.netflix.imfutility.util.conversion.executor.TestExecutorLogger;
@@ -44,6 +47,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.net.URISyntaxException;
 import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
 
 import static com.netflix.imfutility.util.TemplateParameterContextCreator.addResourceContextParameter;
 import static com.netflix.imfutility.util.TemplateParameterContextCreator.createDefaultContextProviderWithCPLContext;
@@ -61,9 +66,12 @@ import static org.junit.Assert.assertTrue;
  * <li>Tests the MediaInfo.xml can be parsed and mapped to Java model successfully.</li>
  * <li>Tests the XSD validation is applied to the MediaInfo.xml and an exception is thrown is validation doesn't pass.</li>
  * <li>Tests that media info external command execution is correct (each command is executed only once for each essence-type pair).</li>
+ * <li>Tests that media info external commands for different essences can be executed concurrently.</li>
+ * <li>Tests that media info of MXF essences can be read from MXF headers.</li>
  * <li>Tests that Sequence context is filled correctly according to mediaInfo.xml</li>
  * <li>Tests that Dynamic context parameters are filled correctly (input and output to delete on exit).</li>
  * <li>Tests that an exception is thrown if there are mismatched media info parameters for the same track.</li>
+ * <li>Tests that fps of audio tracks is not compared if media info is read from MXF headers.</li>
  * <li>Tests that output mediInfo.xml file names are correct (a separate file for each essence and each type).</li>
  * </ul>
  */
@@ -168,7 +176,8 @@ public class MediaInfoContextBuilderTest {
 
         // build media info
         TestExecutorLogger testExecutorLogger = new TestExecutorLogger();
-        new TestMediaInfoContextBuilder(contextProvider, testExecutorLogger).build();
+        new TestMediaInfoContextBuilder(contextProvider, testExecutorLogger,
+                MediaInfoUtils.getCorrectMediaInfoVideo(), MediaInfoUtils.getCorrectMediaInfoAudio(), 1).build();
 
         // media info command must be run once for each trackFileId
         assertEquals(
@@ -216,6 +225,80 @@ public class MediaInfoContextBuilderTest {
         assertFalse("There are more executed processes than expected!", testExecutorLogger.hasNext());
     }
 
+    @Test
+    public void testMediaInfoCommandsExecutionParallel() throws Exception {
+        TemplateParameterContextProvider contextProvider = createDefaultContextProviderWithCPLContext(
+                3, 1, 1, EnumSet.of(SequenceType.VIDEO, SequenceType.AUDIO));
+        for (int segm = 0; segm < 3; segm++) {
+            for (SequenceType seqType : EnumSet.of(SequenceType.VIDEO, SequenceType.AUDIO)) {
+                addResourceContextParameter(contextProvider, segm, 0, seqType, 0,
+                        ResourceContextParameters.ESSENCE, "essence" + segm);
+                addResourceContextParameter(contextProvider, segm, 0, seqType, 0,
+                        ResourceContextParameters.TRACK_FILE_ID, "essence" + segm + "Id");
+            }
+        }
+
+        TestExecutorLogger testExecutorLogger = new TestExecutorLogger();
+        new TestMediaInfoContextBuilder(contextProvider, testExecutorLogger,
+                MediaInfoUtils.getCorrectMediaInfoVideo(), MediaInfoUtils.getCorrectMediaInfoAudio(), 4).build();
+
+        // media info command must be run once for each trackFileId in any order
+        Set<String> started = new HashSet<>();
+        Set<String> finished = new HashSet<>();
+        while (testExecutorLogger.hasNext()) {
+            String next = testExecutorLogger.getNext().replaceAll("External Process \\d+: ", "");
+            assertTrue(next, next.startsWith("START: ") ? started.add(next.substring(7)) : finished.add(next.substring(8)));
+        }
+        assertEquals(6, started.size());
+        assertEquals(started, finished);
+        for (int segm = 0; segm < 3; segm++) {
+            assertTrue(started.contains(
+                    "MediaInfoCommandVideoType_essence" + segm + ", TestExecuteOnceStrategy, mediaInfoCommandVideo FILE"));
+            assertTrue(started.contains(
+                    "MediaInfoCommandAudioType_essence" + segm + ", TestExecuteOnceStrategy, mediaInfoCommandAudio FILE"));
+        }
+
+        // contexts are filled for all resources
+        for (int segm = 0; segm < 3; segm++) {
+            ContextInfo contextInfo = createResourceContextInfo(segm, 0, SequenceType.AUDIO, 0, 0);
+            assertEquals("2", contextProvider.getResourceContext().getParameterValue(
+                    ResourceContextParameters.CHANNELS_NUM, contextInfo));
+        }
+    }
+
+    @Test
+    public void testMxfHeaderMediaInfoProvider() throws Exception {
+        TemplateParameterContextProvider contextProvider = createDefaultContextProviderWithCPLContext(
+                2, 1, 1, EnumSet.of(SequenceType.VIDEO, SequenceType.AUDIO));
+        contextProvider.getConfigProvider().getConfig().setMediaInfoProvider(MediaInfoProviderType.MXF_HEADER);
+
+        // all essences are MXF files except for the second audio one
+        File impFolder = ImpUtils.getImpFolderEssenceDesc();
+        addResourceContextParameter(contextProvider, 0, 0, SequenceType.VIDEO, 0,
+                ResourceContextParameters.ESSENCE, new File(impFolder, "Netflix_Plugfest_Oct2015.mxf").getAbsolutePath());
+        addResourceContextParameter(contextProvider, 1, 0, SequenceType.VIDEO, 0,
+                ResourceContextParameters.ESSENCE, new File(impFolder, "Netflix_Plugfest_Oct2015_Insert_001.mxf").getAbsolutePath());
+        addResourceContextParameter(contextProvider, 0, 0, SequenceType.AUDIO, 0,
+                ResourceContextParameters.ESSENCE, new File(impFolder, "Netflix_Plugfest_Oct2015_ENG51.mxf").getAbsolutePath());
+
+        TestExecutorLogger testExecutorLogger = new TestExecutorLogger();
+        new TestMediaInfoContextBuilder(contextProvider, testExecutorLogger,
+                MediaInfoUtils.getCorrectMediaInfoVideo(), MediaInfoUtils.getCorrectMediaInfoAudio3(), 1).build();
+
+        // media info commands are executed for non-MXF essences only
+        assertTrue(testExecutorLogger.getNext().startsWith("START: External Process 1: MediaInfoCommandAudioType_"));
+        assertTrue(testExecutorLogger.getNext().startsWith("FINISH: External Process 1: MediaInfoCommandAudioType_"));
+        assertFalse("There are more executed processes than expected!", testExecutorLogger.hasNext());
+
+        // parameters from MXF header
+        ContextInfo videoInfo = createResourceContextInfo(0, 0, SequenceType.VIDEO, 0, 0);
+        assertEquals("3840", contextProvider.getResourceContext().getParameterValue(ResourceContextParameters.WIDTH, videoInfo));
+        assertEquals("yuv422p10le", contextProvider.getResourceContext().getParameterValue(
+                ResourceContextParameters.PIXEL_FORMAT, videoInfo));
+        ContextInfo audioInfo = createResourceContextInfo(0, 0, SequenceType.AUDIO, 0, 0);
+        assertEquals("6", contextProvider.getResourceContext().getParameterValue(ResourceContextParameters.CHANNELS_NUM, audioInfo));
+    }
+
     @Test
     public void testFillSequenceContext() throws Exception {
         TemplateParameterContextProvider contextProvider = createDefaultContextProviderWithCPLContext(
@@ -458,6 +541,48 @@ public class MediaInfoContextBuilderTest {
         mediaInfoContextBuilder.build();
     }
 
+    @Test(expected = ConversionException.class)
+    public void testExceptionOnMismatchedAudioFpsWithinSequence() throws Exception {
+        TemplateParameterContextProvider contextProvider = createDefaultContextProviderWithCPLContext(
+                2, 2, 2, EnumSet.of(SequenceType.VIDEO, SequenceType.AUDIO));
+        createMismatchedAudioFpsBuilder(contextProvider).build();
+    }
+
+    @Test
+    public void testNoExceptionOnMismatchedAudioFpsForMxfHeaderProvider() throws Exception {
+        TemplateParameterContextProvider contextProvider = createDefaultContextProviderWithCPLContext(
+                2, 2, 2, EnumSet.of(SequenceType.VIDEO, SequenceType.AUDIO));
+        contextProvider.getConfigProvider().getConfig().setMediaInfoProvider(MediaInfoProviderType.MXF_HEADER);
+        createMismatchedAudioFpsBuilder(contextProvider).build();
+    }
+
+    private static MediaInfoContextBuilder createMismatchedAudioFpsBuilder(TemplateParameterContextProvider contextProvider) {
+        // audio resources of the same sequence have the same number of channels, but different fps
+        return new MediaInfoContextBuilder(contextProvider, new TestExecuteStrategyFactory()) {
+
+            @Override
+            FfprobeType parseOutputFile(File outputFile, ContextInfo contextInfo) throws XmlParsingException, FileNotFoundException {
+                try {
+                    switch (contextInfo.getSequenceType()) {
+                        case AUDIO:
+                            outputFile = contextInfo.getResourceUuid().getUuid().contains("-0-")
+                                    ? MediaInfoUtils.getCorrectMediaInfoAudio()
+                                    : MediaInfoUtils.getCorrectMediaInfoAudio4();
+                            break;
+                        case VIDEO:
+                            outputFile = MediaInfoUtils.getCorrectMediaInfoVideo();
+                            break;
+                        default:
+                            throw new RuntimeException();
+                    }
+                } catch (URISyntaxException e) {
+                    throw new RuntimeException(e);
+                }
+                return super.parseOutputFile(outputFile, contextInfo);
+            }
+        };
+    }
+
     public void testNoExceptionOnOtherMismatchedParameters() throws Exception {
         TemplateParameterContextProvider contextProvider = createDefaultContextProviderWithCPLContext(
                 2, 2, 2, EnumSet.of(SequenceType.VIDEO, SequenceType.AUDIO));
@@ -513,7 +638,12 @@ public class MediaInfoContextBuilderTest {
 
         public TestMediaInfoContextBuilder(TemplateParameterContextProvider contextProvider, TestExecutorLogger testExecutorLogger,
                                            File videoMediaInfoXml, File audioMediaInfoXml) {
-            super(contextProvider, new TestExecuteStrategyFactory(testExecutorLogger));
+            this(contextProvider, testExecutorLogger, videoMediaInfoXml, audioMediaInfoXml, CoreConstants.DEFAULT_MEDIA_INFO_PARALLEL);
+        }
+
+        public TestMediaInfoContextBuilder(TemplateParameterContextProvider contextProvider, TestExecutorLogger testExecutorLogger,
+                                           File videoMediaInfoXml, File audioMediaInfoXml, int parallel) {
+            super(contextProvider, new TestExecuteStrategyFactory(testExecutorLogger), parallel);
             this.videoMediaInfoXml = videoMediaInfoXml;
             this.audioMediaInfoXml = audioMediaInfoXml;
         }
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.mediainfo;
+
+import com.netflix.imfutility.ImfUtilityTest;
+import com.netflix.imfutility.conversion.templateParameter.context.parameters.ResourceContextParameters;
+import com.netflix.imfutility.generated.conversion.SequenceType;
+import com.netflix.imfutility.util.ImpUtils;
+import com.netflix.imfutility.util.TemplateParameterContextCreator;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that media info is read from the header partition of MXF essences.
+ */
+public class MxfHeaderReaderTest extends ImfUtilityTest {
+
+    private static final byte[] PARTITION_PACK_KEY = key(0x06, 0x0e, 0x2b, 0x34, 0x02, 0x05, 0x01, 0x01,
+            0x0d, 0x01, 0x02, 0x01, 0x01, 0x02, 0x04, 0x00);
+    private static final byte[] PRIMER_PACK_KEY = key(0x06, 0x0e, 0x2b, 0x34, 0x02, 0x05, 0x01, 0x01,
+            0x0d, 0x01, 0x02, 0x01, 0x01, 0x05, 0x01, 0x00);
+    private static final byte[] RGBA_DESCRIPTOR_KEY = key(0x06, 0x0e, 0x2b, 0x34, 0x02, 0x53, 0x01, 0x01,
+            0x0d, 0x01, 0x01, 0x01, 0x01, 0x01, 0x29, 0x00);
+    private static final byte[] FILL_KEY = key(0x06, 0x0e, 0x2b, 0x34, 0x01, 0x01, 0x01, 0x02,
+            0x03, 0x01, 0x02, 0x10, 0x01, 0x00, 0x00, 0x00);
+    private static final byte[] JPEG2000_CODING = key(0x06, 0x0e, 0x2b, 0x34, 0x04, 0x01, 0x01, 0x0d,
+            0x04, 0x01, 0x02, 0x02, 0x03, 0x01, 0x01, 0x15);
+    private static final byte[] UNCOMPRESSED_CODING = key(0x06, 0x0e, 0x2b, 0x34, 0x04, 0x01, 0x01, 0x0a,
+            0x04, 0x01, 0x02, 0x01, 0x01, 0x02, 0x01, 0x00);
+    private static final int KEY_LENGTH = 16;
+    private static final int PARTITION_PACK_LENGTH = 88;
+    private static final int HEADER_BYTE_COUNT_OFFSET = 32;
+
+    @Test
+    public void testReadVideo() throws Exception {
+        File essence = new File(ImpUtils.getImpFolderEssenceDesc(), "Netflix_Plugfest_Oct2015.mxf");
+
+        VirtualTrackInfo info = new MxfHeaderReader().read(SequenceType.VIDEO, essence);
+
+        Map<ResourceContextParameters, String> parameters = info.getParameters();
+        assertEquals(SequenceType.VIDEO, info.getSeqType());
+        assertEquals("3840", parameters.get(ResourceContextParameters.WIDTH));
+        assertEquals("2160", parameters.get(ResourceContextParameters.HEIGHT));
+        assertEquals("24000 1001", parameters.get(ResourceContextParameters.FRAME_RATE));
+        assertEquals("10", parameters.get(ResourceContextParameters.BIT_DEPTH));
+        assertEquals("yuv422p10le", parameters.get(ResourceContextParameters.PIXEL_FORMAT));
+    }
+
+    @Test
+    public void testReadAudio() throws Exception {
+        File essence = new File(ImpUtils.getImpFolderEssenceDesc(), "Netflix_Plugfest_Oct2015_ENG51.mxf");
+
+        VirtualTrackInfo info = new MxfHeaderReader().read(SequenceType.AUDIO, essence);
+
+        Map<ResourceContextParameters, String> parameters = info.getParameters();
+        assertEquals(SequenceType.AUDIO, info.getSeqType());
+        assertEquals("6", parameters.get(ResourceContextParameters.CHANNELS_NUM));
+        assertEquals("48000", parameters.get(ResourceContextParameters.SAMPLE_RATE));
+        assertEquals("24", parameters.get(ResourceContextParameters.BITS_PER_SAMPLE));
+        assertTrue(!parameters.containsKey(ResourceContextParameters.FRAME_RATE));
+    }
+
+    @Test
+    public void testHeaderByteCountIncludesFillAfterPartitionPack() throws Exception {
+        // HeaderByteCount is counted from the end of the partition pack, so it includes a fill item before the primer pack
+        byte[] mxf = Files.readAllBytes(new File(ImpUtils.getImpFolderEssenceDesc(), "Netflix_Plugfest_Oct2015.mxf").toPath());
+        // the partition pack length is a 4-byte BER length
+        int packStart = KEY_LENGTH + 4;
+        int packEnd = packStart + (ByteBuffer.wrap(mxf).getInt(KEY_LENGTH) & 0xFFFFFF);
+        byte[] fill = klv(FILL_KEY, new byte[100]);
+
+        ByteBuffer pack = ByteBuffer.wrap(mxf, packStart, packEnd - packStart).slice();
+        pack.putLong(HEADER_BYTE_COUNT_OFFSET, pack.getLong(HEADER_BYTE_COUNT_OFFSET) + fill.length);
+        ByteArrayOutputStream withFill = new ByteArrayOutputStream();
+        withFill.write(mxf, 0, packEnd);
+        withFill.write(fill);
+        withFill.write(mxf, packEnd, mxf.length - packEnd);
+        File essence = write("header-with-fill.mxf", withFill.toByteArray());
+
+        VirtualTrackInfo info = new MxfHeaderReader().read(SequenceType.VIDEO, essence);
+
+        assertEquals("3840", info.getParameters().get(ResourceContextParameters.WIDTH));
+        assertEquals("yuv422p10le", info.getParameters().get(ResourceContextParameters.PIXEL_FORMAT));
+    }
+
+    @Test
+    public void testReadJpeg2000Rgb() throws Exception {
+        File essence = write("rgb.mxf", rgbaMxf(JPEG2000_CODING, 'R', 12, 'G', 12, 'B', 12));
+
+        VirtualTrackInfo info = new MxfHeaderReader().read(SequenceType.VIDEO, essence);
+
+        Map<ResourceContextParameters, String> parameters = info.getParameters();
+        assertEquals("1920", parameters.get(ResourceContextParameters.WIDTH));
+        assertEquals("1080", parameters.get(ResourceContextParameters.HEIGHT));
+        assertEquals("25 1", parameters.get(ResourceContextParameters.FRAME_RATE));
+        assertEquals("12", parameters.get(ResourceContextParameters.BIT_DEPTH));
+        assertEquals("rgb48le", parameters.get(ResourceContextParameters.PIXEL_FORMAT));
+    }
+
+    @Test
+    public void testReadJpeg2000Rgba() throws Exception {
+        File essence = write("rgba.mxf", rgbaMxf(JPEG2000_CODING, 'R', 8, 'G', 8, 'B', 8, 'A', 8));
+
+        VirtualTrackInfo info = new MxfHeaderReader().read(SequenceType.VIDEO, essence);
+
+        assertEquals("8", info.getParameters().get(ResourceContextParameters.BIT_DEPTH));
+        assertEquals("rgba", info.getParameters().get(ResourceContextParameters.PIXEL_FORMAT));
+    }
+
+    @Test(expected = MediaInfoException.class)
+    public void testRgbaMixedDepthsNotSupported() throws Exception {
+        File essence = write("rgb-mixed.mxf", rgbaMxf(JPEG2000_CODING, 'R', 10, 'G', 12, 'B', 10));
+        new MxfHeaderReader().read(SequenceType.VIDEO, essence);
+    }
+
+    @Test(expected = MediaInfoException.class)
+    public void testRgbaNotJpeg2000NotSupported() throws Exception {
+        File essence = write("rgb-uncompressed.mxf", rgbaMxf(UNCOMPRESSED_CODING, 'B', 8, 'G', 8, 'R', 8));
+        new MxfHeaderReader().read(SequenceType.VIDEO, essence);
+    }
+
+    @Test(expected = MediaInfoException.class)
+    public void testNoDescriptorOfType() throws Exception {
+        File essence = new File(ImpUtils.getImpFolderEssenceDesc(), "Netflix_Plugfest_Oct2015_ENG51.mxf");
+        new MxfHeaderReader().read(SequenceType.VIDEO, essence);
+    }
+
+    @Test(expected = MediaInfoException.class)
+    public void testNotMxf() throws Exception {
+        new MxfHeaderReader().read(SequenceType.VIDEO, ImpUtils.getCplEssenceDesc());
+    }
+
+    @Test(expected = MediaInfoException.class)
+    public void testEmptyFile() throws Exception {
+        new MxfHeaderReader().read(SequenceType.VIDEO, new File(ImpUtils.getImpFolder(), "Chimera50_FTR_C_EN_XG-NR_20_4K_20150622_OV.mxf"));
+    }
+
+    private static byte[] rgbaMxf(byte[] coding, int... layout) throws IOException {
+        ByteArrayOutputStream descriptor = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(descriptor);
+        localTag(out, 0x3203, ByteBuffer.allocate(4).putInt(1920).array());
+        localTag(out, 0x3202, ByteBuffer.allocate(4).putInt(1080).array());
+        localTag(out, 0x3001, ByteBuffer.allocate(8).putInt(25).putInt(1).array());
+        localTag(out, 0x3201, coding);
+        byte[] pixelLayout = new byte[16];
+        for (int i = 0; i < layout.length; i++) {
+            pixelLayout[i] = (byte) layout[i];
+        }
+        localTag(out, 0x3401, pixelLayout);
+
+        ByteArrayOutputStream headerMetadata = new ByteArrayOutputStream();
+        headerMetadata.write(klv(PRIMER_PACK_KEY, ByteBuffer.allocate(8).putInt(0).putInt(18).array()));
+        headerMetadata.write(klv(RGBA_DESCRIPTOR_KEY, descriptor.toByteArray()));
+
+        ByteBuffer pack = ByteBuffer.allocate(PARTITION_PACK_LENGTH);
+        pack.putLong(HEADER_BYTE_COUNT_OFFSET, headerMetadata.size());
+        ByteArrayOutputStream mxf = new ByteArrayOutputStream();
+        mxf.write(klv(PARTITION_PACK_KEY, pack.array()));
+        headerMetadata.writeTo(mxf);
+        return mxf.toByteArray();
+    }
+
+    private static void localTag(DataOutputStream out, int tag, byte[] value) throws IOException {
+        out.writeShort(tag);
+        out.writeShort(value.length);
+        out.write(value);
+    }
+
+    private static byte[] klv(byte[] key, byte[] value) {
+        // 4-byte BER length
+        ByteBuffer klv = ByteBuffer.allocate(KEY_LENGTH + 4 + value.length);
+        klv.put(key).put((byte) 0x83).put((byte) (value.length >> 16)).put((byte) (value.length >> 8)).put((byte) value.length);
+        return klv.put(value).array();
+    }
+
+    private static byte[] key(int... bytes) {
+        byte[] key = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            key[i] = (byte) bytes[i];
+        }
+        return key;
+    }
+
+    private static File write(String name, byte[] content) throws IOException {
+        File file = new File(TemplateParameterContextCreator.getWorkingDir(), name);
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+}
@@ -74,4 +74,16 @@ public final class ConversionUtils {
         return "xml/if-operation/test-if-operation.xml";
     }
 
+    public static String getParallelConversionXmlPath() {
+        return "xml/parallel/test-parallel-conversion.xml";
+    }
+
+    public static String getChunkConversionXmlPath() {
+        return "xml/chunk-operation/test-chunk-operation.xml";
+    }
+
+    public static String getRepeatConversionXmlPath() {
+        return "xml/repeat-operation/test-repeat-operation.xml";
+    }
+
 }
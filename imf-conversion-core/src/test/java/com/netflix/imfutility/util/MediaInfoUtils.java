@@ -44,6 +44,11 @@ public final class MediaInfoUtils {
         return new File(ClassLoader.getSystemClassLoader().getResource("xml/mediaInfoAudio3.xml").toURI());
     }
 
+    public static File getCorrectMediaInfoAudio4() throws URISyntaxException {
+        //noinspection ConstantConditions
+        return new File(ClassLoader.getSystemClassLoader().getResource("xml/mediaInfoAudio4.xml").toURI());
+    }
+
     public static File getCorrectMediaInfoVideo() throws URISyntaxException {
         //noinspection ConstantConditions
         return new File(ClassLoader.getSystemClassLoader().getResource("xml/mediaInfoVideo.xml").toURI());
@@ -40,4 +40,10 @@ public class FakeProcessStarter extends ProcessStarter {
         return new FakeProcess(executorLogger, processInfo);
     }
 
+    @Override
+    public boolean isNamedPipeSupported() {
+        // fake processes are always connected by copying.
+        return false;
+    }
+
 }
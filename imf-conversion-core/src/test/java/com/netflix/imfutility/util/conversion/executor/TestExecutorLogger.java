@@ -22,6 +22,7 @@ import com.netflix.imfutility.conversion.executor.ExternalProcess;
 import com.netflix.imfutility.conversion.executor.strategy.OperationInfo;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -33,7 +34,7 @@ import static org.junit.Assert.assertTrue;
  */
 public class TestExecutorLogger {
 
-    private final List<String> processes = new ArrayList<>();
+    private final List<String> processes = Collections.synchronizedList(new ArrayList<>());
     private Iterator<String> iterator = null;
 
 
@@ -19,12 +19,21 @@
 package com.netflix.imfutility.validate;
 
 import com.netflix.imfutility.conversion.templateParameter.context.TemplateParameterContextProvider;
+import com.netflix.imfutility.conversion.templateParameter.context.parameters.DynamicContextParameters;
+import com.netflix.imfutility.generated.validation.ErrorType;
+import com.netflix.imfutility.generated.validation.LevelType;
 import com.netflix.imfutility.util.TemplateParameterContextCreator;
+import com.netflix.imfutility.validation.IImfValidation;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -65,6 +74,61 @@ public class ImfValidatorTest {
                 .validate());
     }
 
+    @Test
+    public void testInProcessFailForFatalErrors() throws Exception {
+        TestInProcessValidation validation = new TestInProcessValidation(
+                createError(LevelType.WARNING), createError(LevelType.FATAL));
+        assertFalse(new ImfValidator(createInProcessContextProvider(), null,
+                validation, Arrays.asList("essence1.mxf", "essence2.mxf"))
+                .validate());
+
+        assertEquals(Arrays.asList("essence1.mxf", "essence2.mxf"), validation.essenceFiles);
+    }
+
+    @Test
+    public void testInProcessPassForNonFatalErrorsAndWarnings() throws Exception {
+        assertTrue(new ImfValidator(createInProcessContextProvider(), null,
+                new TestInProcessValidation(createError(LevelType.NON_FATAL), createError(LevelType.WARNING)),
+                Collections.emptyList())
+                .validate());
+    }
+
+    @Test
+    public void testInProcessValid() throws Exception {
+        assertTrue(new ImfValidator(createInProcessContextProvider(), null,
+                new TestInProcessValidation(), Collections.emptyList())
+                .validate());
+    }
+
+    private static TemplateParameterContextProvider createInProcessContextProvider() throws Exception {
+        TemplateParameterContextProvider contextProvider = TemplateParameterContextCreator.createDefaultContextProvider();
+        contextProvider.getDynamicContext().addParameter(DynamicContextParameters.IMP, "imp");
+        contextProvider.getDynamicContext().addParameter(DynamicContextParameters.CPL, "cpl.xml");
+        return contextProvider;
+    }
+
+    private static ErrorType createError(LevelType level) {
+        ErrorType error = new ErrorType();
+        error.setLevel(level);
+        error.setValue(level.value() + " error");
+        return error;
+    }
+
+    private static class TestInProcessValidation implements IImfValidation {
+
+        private final List<ErrorType> errors;
+        private List<String> essenceFiles;
+
+        TestInProcessValidation(ErrorType... errors) {
+            this.errors = Arrays.asList(errors);
+        }
+
+        @Override
+        public List<ErrorType> validate(String impFolder, String cpl, List<String> essences) {
+            this.essenceFiles = new ArrayList<>(essences);
+            return errors;
+        }
+    }
 
     private static class TestImfValidator extends ImfValidator {
 
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.validation;
+
+import com.netflix.imflibrary.IMFErrorLogger;
+import com.netflix.imflibrary.IMFErrorLogger.IMFErrors.ErrorCodes;
+import com.netflix.imflibrary.IMFErrorLogger.IMFErrors.ErrorLevels;
+import com.netflix.imflibrary.RESTfulInterfaces.IMPValidator;
+import com.netflix.imflibrary.RESTfulInterfaces.PayloadRecord;
+import com.netflix.imflibrary.RESTfulInterfaces.PayloadRecord.PayloadAssetType;
+import com.netflix.imflibrary.utils.FileByteRangeProvider;
+import com.netflix.imflibrary.utils.ResourceByteRangeProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Reads header partitions of MXF essences.
+ * <ul>
+ * <li>Each header partition is read from disk only once for the lifetime of the cache (usually one validation run).</li>
+ * <li>Thread-safe: if several threads request the same essence concurrently, only one of them reads it,
+ * and the others wait for the result.</li>
+ * <li>Reading errors (either logged or thrown) are cached as well and reported to every caller.</li>
+ * </ul>
+ */
+class HeaderPartitionCache {
+
+    private final ConcurrentMap<File, FutureTask<HeaderPartitionEntry>> headerPartitions = new ConcurrentHashMap<>();
+
+    /**
+     * Gets a header partition of the given MXF essence (reads it if it hasn't been read before).
+     *
+     * @param mxf            an MXF essence or a header partition file (.hdr)
+     * @param imfErrorLogger a logger to add reading errors to
+     * @return the header partition payload or null if it can not be obtained (an error is added to the logger)
+     * @throws IOException if the essence can not be read
+     */
+    PayloadRecord getHeaderPartition(File mxf, IMFErrorLogger imfErrorLogger) throws IOException {
+        FutureTask<HeaderPartitionEntry> newTask = new FutureTask<>(() -> readHeaderPartition(mxf));
+        FutureTask<HeaderPartitionEntry> task = headerPartitions.putIfAbsent(mxf.getAbsoluteFile(), newTask);
+        if (task == null) {
+            task = newTask;
+            task.run();
+        }
+
+        HeaderPartitionEntry entry;
+        try {
+            entry = task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(String.format("Reading of header partition for '%s' was interrupted", mxf.getAbsolutePath()), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+
+        if (entry.error != null) {
+            imfErrorLogger.addError(ErrorCodes.IMF_ESSENCE_COMPONENT_ERROR, ErrorLevels.FATAL, entry.error);
+        }
+        return entry.payloadRecord;
+    }
+
+    private HeaderPartitionEntry readHeaderPartition(File mxf) throws IOException {
+        if (mxf.getName().endsWith(".hdr")) {
+            return new HeaderPartitionEntry(fromHeaderPartition(mxf), null);
+        }
+        ResourceByteRangeProvider resourceByteRangeProvider = new FileByteRangeProvider(mxf);
+        long archiveFileSize = resourceByteRangeProvider.getResourceSize();
+        long rangeEnd = archiveFileSize - 1;
+        long rangeStart = archiveFileSize - 4;
+        byte[] bytes = resourceByteRangeProvider.getByteRangeAsBytes(rangeStart, rangeEnd);
+        PayloadRecord payloadRecord = new PayloadRecord(bytes, PayloadAssetType.EssenceFooter4Bytes, rangeStart, rangeEnd);
+        Long randomIndexPackSize = IMPValidator.getRandomIndexPackSize(payloadRecord);
+
+        rangeStart = archiveFileSize - randomIndexPackSize;
+        rangeEnd = archiveFileSize - 1;
+
+        byte[] randomIndexPackBytes = resourceByteRangeProvider.getByteRangeAsBytes(rangeStart, rangeEnd);
+        PayloadRecord randomIndexPackPayload = new PayloadRecord(
+                randomIndexPackBytes, PayloadAssetType.EssencePartition, rangeStart, rangeEnd);
+        List<Long> partitionByteOffsets = IMPValidator.getEssencePartitionOffsets(randomIndexPackPayload, randomIndexPackSize);
+
+        if (partitionByteOffsets.size() < 2) {
+            return new HeaderPartitionEntry(null,
+                    String.format("Can not get essence component header for '%s'", mxf.getAbsolutePath()));
+        }
+        long headerRangeStart = partitionByteOffsets.get(0);
+        long headerRangeEnd = partitionByteOffsets.get(1) - 1;
+        byte[] headerPartitionBytes = resourceByteRangeProvider.getByteRangeAsBytes(headerRangeStart, headerRangeEnd);
+        return new HeaderPartitionEntry(
+                new PayloadRecord(headerPartitionBytes, PayloadAssetType.EssencePartition, headerRangeStart, headerRangeEnd),
+                null);
+    }
+
+    private PayloadRecord fromHeaderPartition(File mxfHdr) throws IOException {
+        ResourceByteRangeProvider resourceByteRangeProvider = new FileByteRangeProvider(mxfHdr);
+        byte[] headerPartitionBytes = resourceByteRangeProvider.getByteRangeAsBytes(0, resourceByteRangeProvider.getResourceSize() - 1);
+        return new PayloadRecord(headerPartitionBytes, PayloadAssetType.EssencePartition, 0L, 0L);
+    }
+
+    private static final class HeaderPartitionEntry {
+
+        private final PayloadRecord payloadRecord;
+        private final String error;
+
+        private HeaderPartitionEntry(PayloadRecord payloadRecord, String error) {
+            this.payloadRecord = payloadRecord;
+            this.error = error;
+        }
+    }
+
+}
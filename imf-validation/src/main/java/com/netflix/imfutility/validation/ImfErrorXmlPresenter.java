@@ -18,11 +18,8 @@
  */
 package com.netflix.imfutility.validation;
 
-import com.netflix.imflibrary.IMFErrorLogger.IMFErrors.ErrorLevels;
 import com.netflix.imflibrary.utils.ErrorLogger;
-import com.netflix.imfutility.generated.validation.ErrorType;
 import com.netflix.imfutility.generated.validation.Errors;
-import com.netflix.imfutility.generated.validation.LevelType;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -46,12 +43,7 @@ public class ImfErrorXmlPresenter implements IImfErrorPresenter {
             jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
 
             Errors errors = new Errors();
-            for (ErrorLogger.ErrorObject errorObj : errorObjs) {
-                ErrorType error = new ErrorType();
-                error.setValue(getErrorMsg(errorObj));
-                error.setLevel(getErrorLevel(errorObj));
-                errors.getError().add(error);
-            }
+            errors.getError().addAll(ImfErrorConverter.toErrors(errorObjs));
 
             jaxbMarshaller.marshal(errors, file);
 
@@ -59,30 +51,4 @@ public class ImfErrorXmlPresenter implements IImfErrorPresenter {
             throw new RuntimeException(e);
         }
     }
-
-    private String getErrorMsg(ErrorLogger.ErrorObject errorObj) {
-        String errorLevel = errorObj.getErrorLevel().toString();
-        String errorCode = errorObj.getErrorCode().toString();
-        String errorDescr = errorObj.getErrorDescription();
-        if (errorDescr == null) {
-            errorDescr = "<no description>";
-        }
-        return String.format("%s: %s: %s", errorLevel, errorCode, errorDescr);
-    }
-
-    private LevelType getErrorLevel(ErrorLogger.ErrorObject errorObj) {
-        if (!(errorObj.getErrorLevel() instanceof ErrorLevels)) {
-            throw new RuntimeException("ErrorLevels enum is expected as error level");
-        }
-        switch ((ErrorLevels) errorObj.getErrorLevel()) {
-            case FATAL:
-                return LevelType.FATAL;
-            case NON_FATAL:
-                return LevelType.NON_FATAL;
-            case WARNING:
-                return LevelType.WARNING;
-            default:
-                throw new RuntimeException("Unknown error level " + errorObj.getErrorLevel().toString());
-        }
-    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.validation;
+
+import com.netflix.imfutility.generated.validation.ErrorType;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Validates IMP and CPL within the IMF utility process using Photon lib (see {@link ImfValidator}).
+ * <ul>
+ * <li>Found by the IMF utility via {@link java.util.ServiceLoader}.</li>
+ * <li>Errors are passed as objects, so no errors XML is created.</li>
+ * </ul>
+ */
+public class ImfInProcessValidation implements IImfValidation {
+
+    @Override
+    public List<ErrorType> validate(String impFolder, String cpl, List<String> essenceFiles) throws IOException {
+        return ImfErrorConverter.toErrors(new ImfValidator().validate(impFolder, cpl, essenceFiles));
+    }
+
+}
@@ -38,8 +38,6 @@ import com.netflix.imflibrary.st2067_2.Composition;
 import com.netflix.imflibrary.utils.ByteArrayByteRangeProvider;
 import com.netflix.imflibrary.utils.ByteArrayDataProvider;
 import com.netflix.imflibrary.utils.ErrorLogger.ErrorObject;
-import com.netflix.imflibrary.utils.FileByteRangeProvider;
-import com.netflix.imflibrary.utils.ResourceByteRangeProvider;
 import org.xml.sax.SAXException;
 
 import javax.xml.bind.JAXBException;
@@ -49,6 +47,10 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Validates the provided IMP and CPL using Photon lib.
@@ -95,12 +97,13 @@ public class ImfValidator {
         // 2.1 CPL
         File cpl = new File(cplFullPath);
 
-        // 2.2 PKLs and Assetmap
+        // 2.2 PKLs and Assetmap (XML payloads are read only once and shared by all validation steps)
+        PayloadCache payloadCache = new PayloadCache();
         File assetmap = null;
         List<File> pkls = new ArrayList<>();
         for (File file : files) {
             if (file.getName().endsWith(".xml")) {
-                switch (IMPValidator.getPayloadType(createPayloadRecord(file))) {
+                switch (payloadCache.getPayloadType(file)) {
                     case AssetMap:
                         assetmap = file;
                         break;
@@ -131,30 +134,29 @@ public class ImfValidator {
         List<ErrorObject> result = new ArrayList<>();
 
         // 3.1 validate CPL
-        result.addAll(validateCpl(cpl));
+        result.addAll(validateCpl(cpl, payloadCache));
 
         // 3.2 validate ASSETMAP
         if (assetmap != null) {
-            result.addAll(validateAssetMap(assetmap));
+            result.addAll(validateAssetMap(assetmap, payloadCache));
         }
 
         // 3.3 validate PKLs
         for (File pkl : pkls) {
-            result.addAll(validatePkl(pkl));
+            result.addAll(validatePkl(pkl, payloadCache));
         }
 
         // 3.4 validate ASSETMAP and PKLs
         if (assetmap != null) {
-            result.addAll(validatePklAndAssetMap(assetmap, pkls));
+            result.addAll(validatePklAndAssetMap(assetmap, pkls, payloadCache));
         }
 
-        // 3.5 validate MXF essences
-        for (File mxf : mxfs) {
-            result.addAll(validateMxf(mxf));
-        }
+        // 3.5 validate MXF essences (header partitions are read only once and reused for CPL conformance)
+        HeaderPartitionCache headerPartitionCache = new HeaderPartitionCache();
+        result.addAll(validateMxfs(mxfs, headerPartitionCache));
 
-        // 3.7 validate CPL conformance
-        result.addAll(validateCplConformance(cpl, mxfs));
+        // 3.6 validate CPL conformance
+        result.addAll(validateCplConformance(cpl, mxfs, headerPartitionCache, payloadCache));
 
         return result;
     }
@@ -185,50 +187,84 @@ public class ImfValidator {
         }
     }
 
-    private List<ErrorObject> validateCpl(File cpl) {
+    private List<ErrorObject> validateCpl(File cpl, PayloadCache payloadCache) {
         return doValidate(ErrorCodes.IMF_CPL_ERROR,
                 imfErrorLogger -> {
-                    PayloadRecord payloadRecord = createPayloadRecord(cpl, PayloadAssetType.CompositionPlaylist);
+                    PayloadRecord payloadRecord = payloadCache.getPayloadRecord(cpl, PayloadAssetType.CompositionPlaylist);
                     new Composition(new ByteArrayByteRangeProvider(payloadRecord.getPayload()), imfErrorLogger);
                     return imfErrorLogger.getErrors();
                 });
     }
 
-    private List<ErrorObject> validatePkl(File pkl) {
+    private List<ErrorObject> validatePkl(File pkl, PayloadCache payloadCache) {
         return doValidate(ErrorCodes.IMF_PKL_ERROR,
                 imfErrorLogger -> {
-                    PayloadRecord payloadRecord = createPayloadRecord(pkl, PayloadAssetType.PackingList);
+                    PayloadRecord payloadRecord = payloadCache.getPayloadRecord(pkl, PayloadAssetType.PackingList);
                     new PackingList(new ByteArrayByteRangeProvider(payloadRecord.getPayload()), imfErrorLogger);
                     return imfErrorLogger.getErrors();
                 });
     }
 
-    private List<ErrorObject> validateAssetMap(File assetMap) {
+    private List<ErrorObject> validateAssetMap(File assetMap, PayloadCache payloadCache) {
         return doValidate(ErrorCodes.IMF_AM_ERROR,
                 imfErrorLogger -> {
-                    PayloadRecord payloadRecord = createPayloadRecord(assetMap, PayloadAssetType.AssetMap);
+                    PayloadRecord payloadRecord = payloadCache.getPayloadRecord(assetMap, PayloadAssetType.AssetMap);
                     new AssetMap(new ByteArrayByteRangeProvider(payloadRecord.getPayload()), imfErrorLogger);
                     return imfErrorLogger.getErrors();
                 });
     }
 
-    private List<ErrorObject> validatePklAndAssetMap(File assetMap, List<File> pkls) {
+    private List<ErrorObject> validatePklAndAssetMap(File assetMap, List<File> pkls, PayloadCache payloadCache) {
         return doValidate(ErrorCodes.IMF_MASTER_PACKAGE_ERROR,
                 imfErrorLogger -> {
-                    PayloadRecord assetMapPayload = createPayloadRecord(assetMap, PayloadAssetType.AssetMap);
+                    PayloadRecord assetMapPayload = payloadCache.getPayloadRecord(assetMap, PayloadAssetType.AssetMap);
                     List<PayloadRecord> pklPayloads = new ArrayList<>();
                     for (File pkl : pkls) {
-                        pklPayloads.add(createPayloadRecord(pkl, PayloadAssetType.PackingList));
+                        pklPayloads.add(payloadCache.getPayloadRecord(pkl, PayloadAssetType.PackingList));
                     }
                     return IMPValidator.validatePKLAndAssetMap(assetMapPayload, pklPayloads);
                 });
     }
 
+    private List<ErrorObject> validateMxfs(List<File> mxfs, HeaderPartitionCache headerPartitionCache) throws IOException {
+        if (mxfs.size() <= 1) {
+            List<ErrorObject> result = new ArrayList<>();
+            for (File mxf : mxfs) {
+                result.addAll(validateMxf(mxf, headerPartitionCache));
+            }
+            return result;
+        }
+
+        // the checks are independent for each essence, so run them concurrently
+        // and collect the errors in the essence order.
+        int threads = Math.min(mxfs.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<ErrorObject>>> futures = new ArrayList<>();
+            for (File mxf : mxfs) {
+                futures.add(executor.submit(() -> validateMxf(mxf, headerPartitionCache)));
+            }
+
+            List<ErrorObject> result = new ArrayList<>();
+            for (Future<List<ErrorObject>> future : futures) {
+                result.addAll(future.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("MXF essences validation was interrupted", e);
+        } catch (ExecutionException e) {
+            // doValidate catches all exceptions, so this is unexpected
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-    private List<ErrorObject> validateMxf(File mxf) {
+    private List<ErrorObject> validateMxf(File mxf, HeaderPartitionCache headerPartitionCache) {
         return doValidate(ErrorCodes.IMF_ESSENCE_COMPONENT_ERROR,
                 imfErrorLogger -> {
-                    PayloadRecord headerPartitionPayloadRecord = getHeaderPartition(mxf, imfErrorLogger);
+                    PayloadRecord headerPartitionPayloadRecord = headerPartitionCache.getHeaderPartition(mxf, imfErrorLogger);
                     if (!imfErrorLogger.getErrors().isEmpty() || (headerPartitionPayloadRecord == null)) {
                         return imfErrorLogger.getErrors();
                     }
@@ -245,12 +281,13 @@ public class ImfValidator {
                 });
     }
 
-    private List<ErrorObject> validateCplConformance(File cpl, List<File> mxfs) {
+    private List<ErrorObject> validateCplConformance(File cpl, List<File> mxfs, HeaderPartitionCache headerPartitionCache,
+                                                     PayloadCache payloadCache) {
         return doValidate(ErrorCodes.IMF_CPL_ERROR,
                 imfErrorLogger -> {
                     List<PayloadRecord> headerPayloadRecords = new ArrayList<>();
                     for (File mxf : mxfs) {
-                        PayloadRecord headerPartitionPayloadRecord = getHeaderPartition(mxf, imfErrorLogger);
+                        PayloadRecord headerPartitionPayloadRecord = headerPartitionCache.getHeaderPartition(mxf, imfErrorLogger);
                         if (headerPartitionPayloadRecord != null) {
                             headerPayloadRecords.add(headerPartitionPayloadRecord);
                         }
@@ -259,62 +296,12 @@ public class ImfValidator {
                         return imfErrorLogger.getErrors();
                     }
 
-                    PayloadRecord cplPayloadRecord = createPayloadRecord(cpl, PayloadAssetType.CompositionPlaylist);
+                    PayloadRecord cplPayloadRecord = payloadCache.getPayloadRecord(cpl, PayloadAssetType.CompositionPlaylist);
 
                     return IMPValidator.areAllVirtualTracksInCPLConformed(cplPayloadRecord, headerPayloadRecords);
                 });
     }
 
-    private PayloadRecord createPayloadRecord(File inputFile, PayloadAssetType assetType) throws IOException {
-        ResourceByteRangeProvider resourceByteRangeProvider = new FileByteRangeProvider(inputFile);
-        byte[] bytes = resourceByteRangeProvider.getByteRangeAsBytes(0, resourceByteRangeProvider.getResourceSize() - 1);
-        return new PayloadRecord(bytes, assetType, 0L, resourceByteRangeProvider.getResourceSize());
-    }
-
-    private PayloadRecord createPayloadRecord(File inputFile) throws IOException {
-        ResourceByteRangeProvider resourceByteRangeProvider = new FileByteRangeProvider(inputFile);
-        byte[] bytes = resourceByteRangeProvider.getByteRangeAsBytes(0, resourceByteRangeProvider.getResourceSize() - 1);
-        return new PayloadRecord(bytes, PayloadAssetType.Unknown, 0L, resourceByteRangeProvider.getResourceSize());
-    }
-
-    private PayloadRecord getHeaderPartition(File mxf, IMFErrorLogger imfErrorLogger) throws IOException {
-        if (mxf.getName().endsWith(".hdr")) {
-            return fromHeaderPartition(mxf, imfErrorLogger);
-        }
-        ResourceByteRangeProvider resourceByteRangeProvider = new FileByteRangeProvider(mxf);
-        long archiveFileSize = resourceByteRangeProvider.getResourceSize();
-        long rangeEnd = archiveFileSize - 1;
-        long rangeStart = archiveFileSize - 4;
-        byte[] bytes = resourceByteRangeProvider.getByteRangeAsBytes(rangeStart, rangeEnd);
-        PayloadRecord payloadRecord = new PayloadRecord(bytes, PayloadRecord.PayloadAssetType.EssenceFooter4Bytes, rangeStart, rangeEnd);
-        Long randomIndexPackSize = IMPValidator.getRandomIndexPackSize(payloadRecord);
-
-        rangeStart = archiveFileSize - randomIndexPackSize;
-        rangeEnd = archiveFileSize - 1;
-
-        byte[] randomIndexPackBytes = resourceByteRangeProvider.getByteRangeAsBytes(rangeStart, rangeEnd);
-        PayloadRecord randomIndexPackPayload = new PayloadRecord(
-                randomIndexPackBytes, PayloadRecord.PayloadAssetType.EssencePartition, rangeStart, rangeEnd);
-        List<Long> partitionByteOffsets = IMPValidator.getEssencePartitionOffsets(randomIndexPackPayload, randomIndexPackSize);
-
-        if (partitionByteOffsets.size() < 2) {
-            imfErrorLogger.addError(
-                    IMFErrorLogger.IMFErrors.ErrorCodes.IMF_ESSENCE_COMPONENT_ERROR, IMFErrorLogger.IMFErrors.ErrorLevels.FATAL,
-                    String.format("Can not get essence component header for '%s'", mxf.getAbsolutePath()));
-            return null;
-        }
-        long headerRangeStart = partitionByteOffsets.get(0);
-        long headerRangeEnd = partitionByteOffsets.get(1) - 1;
-        byte[] headerPartitionBytes = resourceByteRangeProvider.getByteRangeAsBytes(headerRangeStart, headerRangeEnd);
-        return new PayloadRecord(headerPartitionBytes, PayloadRecord.PayloadAssetType.EssencePartition, headerRangeStart, headerRangeEnd);
-    }
-
-    private PayloadRecord fromHeaderPartition(File mxfHdr, IMFErrorLogger imfErrorLogger) throws IOException {
-        ResourceByteRangeProvider resourceByteRangeProvider = new FileByteRangeProvider(mxfHdr);
-        byte[] headerPartitionBytes = resourceByteRangeProvider.getByteRangeAsBytes(0, resourceByteRangeProvider.getResourceSize() - 1);
-        return new PayloadRecord(headerPartitionBytes, PayloadRecord.PayloadAssetType.EssencePartition, 0L, 0L);
-    }
-
     private interface IValidator {
 
         List<ErrorObject> validate(IMFErrorLogger imfErrorLogger) throws IOException, SAXException, JAXBException, URISyntaxException;
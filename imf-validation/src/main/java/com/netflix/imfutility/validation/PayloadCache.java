@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.validation;
+
+import com.netflix.imflibrary.RESTfulInterfaces.IMPValidator;
+import com.netflix.imflibrary.RESTfulInterfaces.PayloadRecord;
+import com.netflix.imflibrary.RESTfulInterfaces.PayloadRecord.PayloadAssetType;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads XML payloads (CPL, PKL, ASSETMAP) of the IMP.
+ * <ul>
+ * <li>Payload types are determined by the root element found within the first few KB of the file,
+ * so that unrelated (possibly large) XML files are not read fully.</li>
+ * <li>Payloads are read into memory only once for the lifetime of the cache (usually one validation run)
+ * and the same byte arrays are shared by all validation steps (Photon's payload records are byte array based).</li>
+ * </ul>
+ */
+class PayloadCache {
+
+    private static final int SNIFF_SIZE = 8 * 1024;
+    private static final long MAX_PAYLOAD_SIZE = Integer.MAX_VALUE - 8;
+    private static final String SMPTE_SCHEMAS_NAMESPACE = "http://www.smpte-ra.org/schemas/";
+    private static final String ASSETMAP_ROOT = "AssetMap";
+    private static final String PKL_ROOT = "PackingList";
+    private static final String CPL_ROOT = "CompositionPlaylist";
+
+    private final Map<File, byte[]> payloads = new HashMap<>();
+
+    /**
+     * Gets a payload record for the given file (reads the file if it hasn't been read before).
+     *
+     * @param file      an XML file
+     * @param assetType the payload type
+     * @return the payload record
+     * @throws IOException if the file can not be read
+     */
+    synchronized PayloadRecord getPayloadRecord(File file, PayloadAssetType assetType) throws IOException {
+        File key = file.getAbsoluteFile();
+        byte[] bytes = payloads.get(key);
+        if (bytes == null) {
+            bytes = read(key);
+            payloads.put(key, bytes);
+        }
+        return new PayloadRecord(bytes, assetType, 0L, (long) bytes.length);
+    }
+
+    /**
+     * Determines the payload type of the given XML file reading only its first few KB.
+     * If the root element can not be found within these bytes, the whole file is read and checked by Photon.
+     *
+     * @param file an XML file
+     * @return the payload type
+     * @throws IOException if the file can not be read
+     */
+    PayloadAssetType getPayloadType(File file) throws IOException {
+        byte[] prefix = readPrefix(file, SNIFF_SIZE);
+        try {
+            return getPayloadType(getRootElement(prefix));
+        } catch (XMLStreamException e) {
+            if (prefix.length < SNIFF_SIZE) {
+                // the whole file is read, and it's not a valid XML
+                return PayloadAssetType.Unknown;
+            }
+            return IMPValidator.getPayloadType(getPayloadRecord(file, PayloadAssetType.Unknown));
+        }
+    }
+
+    private static PayloadAssetType getPayloadType(XmlRootElement root) {
+        if (root == null || root.namespace == null || !root.namespace.startsWith(SMPTE_SCHEMAS_NAMESPACE)) {
+            return PayloadAssetType.Unknown;
+        }
+        switch (root.localName) {
+            case ASSETMAP_ROOT:
+                return PayloadAssetType.AssetMap;
+            case PKL_ROOT:
+                return PayloadAssetType.PackingList;
+            case CPL_ROOT:
+                return PayloadAssetType.CompositionPlaylist;
+            default:
+                return PayloadAssetType.Unknown;
+        }
+    }
+
+    private static XmlRootElement getRootElement(byte[] prefix) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLStreamReader reader = factory.createXMLStreamReader(new ByteArrayInputStream(prefix));
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    return new XmlRootElement(reader.getNamespaceURI(), reader.getLocalName());
+                }
+            }
+            return null;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static byte[] readPrefix(File file, int size) throws IOException {
+        byte[] buffer = new byte[size];
+        int length = 0;
+        try (InputStream is = Files.newInputStream(file.toPath())) {
+            while (length < size) {
+                int read = is.read(buffer, length, size - length);
+                if (read == -1) {
+                    break;
+                }
+                length += read;
+            }
+        }
+        if (length == size) {
+            return buffer;
+        }
+        byte[] result = new byte[length];
+        System.arraycopy(buffer, 0, result, 0, length);
+        return result;
+    }
+
+    private static byte[] read(File file) throws IOException {
+        // a payload is held in a byte array, so it can't exceed the maximum array size
+        if (Files.size(file.toPath()) > MAX_PAYLOAD_SIZE) {
+            throw new IOException(String.format("'%s' is too large to be validated", file.getAbsolutePath()));
+        }
+        return Files.readAllBytes(file.toPath());
+    }
+
+    private static final class XmlRootElement {
+
+        private final String namespace;
+        private final String localName;
+
+        private XmlRootElement(String namespace, String localName) {
+            this.namespace = namespace;
+            this.localName = localName;
+        }
+    }
+
+}
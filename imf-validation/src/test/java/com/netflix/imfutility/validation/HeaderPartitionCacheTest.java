@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.validation;
+
+import com.netflix.imflibrary.IMFErrorLoggerImpl;
+import com.netflix.imflibrary.RESTfulInterfaces.PayloadRecord;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that header partitions are read only once.
+ */
+public class HeaderPartitionCacheTest {
+
+    @Test
+    public void testHeaderPartitionReadOnce() throws Exception {
+        File mxf = new File(ClassLoader.getSystemClassLoader().getResource(
+                "imp-validate-correct/NYCbCrLT_3840x2160x2398_full_full.mxf.hdr").toURI());
+        HeaderPartitionCache cache = new HeaderPartitionCache();
+        IMFErrorLoggerImpl imfErrorLogger = new IMFErrorLoggerImpl();
+
+        PayloadRecord first = cache.getHeaderPartition(mxf, imfErrorLogger);
+        PayloadRecord second = cache.getHeaderPartition(new File(mxf.getAbsolutePath()), imfErrorLogger);
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertTrue(imfErrorLogger.getErrors().isEmpty());
+    }
+
+}
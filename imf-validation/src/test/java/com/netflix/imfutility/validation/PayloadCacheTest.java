@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.validation;
+
+import com.netflix.imflibrary.RESTfulInterfaces.PayloadRecord;
+import com.netflix.imflibrary.RESTfulInterfaces.PayloadRecord.PayloadAssetType;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests reading and sniffing of IMP XML payloads.
+ */
+public class PayloadCacheTest {
+
+    @Test
+    public void testPayloadType() throws Exception {
+        PayloadCache payloadCache = new PayloadCache();
+        assertEquals(PayloadAssetType.AssetMap,
+                payloadCache.getPayloadType(getResource("imp-validate-correct/ASSETMAP.xml")));
+        assertEquals(PayloadAssetType.PackingList,
+                payloadCache.getPayloadType(getResource("imp-validate-correct/PKL_0429fedd-b55d-442a-aa26-2a81ec71ed05.xml")));
+        assertEquals(PayloadAssetType.CompositionPlaylist,
+                payloadCache.getPayloadType(getResource("imp-validate-correct/CPL_a453b63a-cf4d-454a-8c34-141f560c0100.xml")));
+        assertEquals(PayloadAssetType.Unknown,
+                payloadCache.getPayloadType(getResource("imp-validate-correct/VOLINDEX.xml")));
+    }
+
+    @Test
+    public void testPayloadReadOnce() throws Exception {
+        File cpl = getResource("imp-validate-correct/CPL_a453b63a-cf4d-454a-8c34-141f560c0100.xml");
+        PayloadCache payloadCache = new PayloadCache();
+
+        PayloadRecord first = payloadCache.getPayloadRecord(cpl, PayloadAssetType.CompositionPlaylist);
+        PayloadRecord second = payloadCache.getPayloadRecord(cpl, PayloadAssetType.CompositionPlaylist);
+
+        assertArrayEquals(Files.readAllBytes(cpl.toPath()), first.getPayload());
+        assertSame(first.getPayload(), second.getPayload());
+    }
+
+    private File getResource(String path) throws URISyntaxException {
+        //noinspection ConstantConditions
+        return new File(ClassLoader.getSystemClassLoader().getResource(path).toURI());
+    }
+
+}
@@ -25,23 +25,32 @@ import com.netflix.imfutility.ttmltostl.inputparameters.TtmlInDescriptor;
 import com.netflix.imfutility.ttmltostl.stl.BbcGsiStrategy;
 import com.netflix.imfutility.ttmltostl.stl.BbcTtiStrategy;
 import com.netflix.imfutility.ttmltostl.stl.StlBuilder;
+import com.netflix.imfutility.ttmltostl.stl.StlWriter;
+import com.netflix.imfutility.ttmltostl.ttml.CaptionsOrderException;
 import com.netflix.imfutility.ttmltostl.ttml.FatalParsingException;
 import com.netflix.imfutility.ttmltostl.ttml.FormatTTML;
 import com.netflix.imfutility.ttmltostl.ttml.TimedTextFileFormat;
 import com.netflix.imfutility.ttmltostl.ttml.TimedTextObject;
 import com.netflix.imfutility.ttmltostl.util.FileWriteHelper;
+import com.netflix.imfutility.util.ImfLogger;
 import com.netflix.imfutility.xml.XmlParsingException;
 import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 /**
  * The main class to parametrize and perform the conversion.
  */
 public class Convert {
 
+    private static final Logger LOGGER = new ImfLogger(LoggerFactory.getLogger(Convert.class));
 
     /**
      * Convert TTML format to STL.
@@ -61,7 +70,16 @@ public class Convert {
                 return true;
             }
 
-            // 2. Parse input TTML files
+            // 2. Convert to STL directly if TTML output is not needed (the captions are not held in memory then)
+            if (cmdLineParams.doOutputSTL() && !cmdLineParams.doOuputTTML()) {
+                try {
+                    return writeStl(cmdLineParams);
+                } catch (CaptionsOrderException e) {
+                    LOGGER.warn("{}. Parsing all captions before conversion.", e.getMessage());
+                }
+            }
+
+            // 3. Parse input TTML files
             TimedTextFileFormat ttff = new FormatTTML();
             TimedTextObject tto = null;
             for (TtmlInDescriptor ttmlInDescriptor : cmdLineParams.getTtmlInDescriptors()) {
@@ -71,7 +89,7 @@ public class Convert {
                         ttmlInDescriptor.getEndMS(), ttmlInDescriptor.getOffsetMS());
             }
 
-            // 3. Convert
+            // 4. Convert
             if (tto != null) {
                 if (cmdLineParams.doOuputTTML()) {
                     String outputTTMLFile = cmdLineParams.getOutputTTMLFile();
@@ -98,6 +116,53 @@ public class Convert {
         return false;
     }
 
+    /**
+     * Converts input TTML files to STL writing captions to the output file as soon as they are parsed.
+     * A partially written output file is deleted if the conversion fails.
+     *
+     * @param cmdLineParams command line parameters
+     * @return conversion result
+     * @throws CaptionsOrderException if captions are not in time order, so they must be parsed before conversion
+     * @throws FatalParsingException  if TTML files can not be parsed
+     */
+    private boolean writeStl(CmdLineParameters cmdLineParams)
+            throws IOException, XmlParsingException, FatalParsingException {
+        String outputSTLFile = cmdLineParams.getOutputSTLFile();
+        System.out.println("Generating output STL: " + outputSTLFile);
+
+        FormatTTML ttff = new FormatTTML();
+        TimedTextObject tto = null;
+        boolean completed = false;
+        try (StlWriter stlWriter = new StlWriter(Paths.get(outputSTLFile),
+                new BbcGsiStrategy(cmdLineParams.getMetadataXml()), new BbcTtiStrategy())) {
+            for (TtmlInDescriptor ttmlInDescriptor : cmdLineParams.getTtmlInDescriptors()) {
+                System.out.println("Processing input TTML: " + ttmlInDescriptor.getFile());
+                File file = new File(ttmlInDescriptor.getFile());
+                tto = ttff.parseFile(file, ttmlInDescriptor.getStartMS(),
+                        ttmlInDescriptor.getEndMS(), ttmlInDescriptor.getOffsetMS(), (caption) -> {
+                            try {
+                                stlWriter.add(caption);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+            }
+
+            if (tto == null) {
+                return false;
+            }
+            stlWriter.finish(tto);
+            completed = true;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(Paths.get(outputSTLFile));
+            }
+        }
+        return true;
+    }
+
     /**
      * Entry point.
      *
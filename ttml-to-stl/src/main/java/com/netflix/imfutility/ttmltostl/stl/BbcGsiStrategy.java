@@ -30,7 +30,9 @@ import com.netflix.imfutility.xml.XmlParsingException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.GregorianCalendar;
+import java.util.List;
 
 import static com.netflix.imfutility.dpp.DppConversionXsdConstants.ISO_639_2_CODES_XML_SCHEME;
 import static com.netflix.imfutility.dpp.DppConversionXsdConstants.TYPES_XML_SCHEME;
@@ -55,20 +57,24 @@ public final class BbcGsiStrategy extends DefaultGsiStrategy {
     public static final int ZERO_SUBTITLE_DURATION_MS = 1000;
 
     private final DppType metadata;
+    private final Caption subtitleZero;
 
     public BbcGsiStrategy(String metadataXml) throws XmlParsingException, FileNotFoundException {
         this.metadata = XmlParser.parse(new File(metadataXml),
                 new String[]{TYPES_XML_SCHEME, ISO_639_2_CODES_XML_SCHEME, METADATA_XML_SCHEME},
                 METADATA_PACKAGE, DppType.class);
+        this.subtitleZero = createSubtitleZero(getProgramName());
     }
 
     @Override
-    public void fillAttributes(TimedTextObject tto) {
-        String programName = metadata.getEditorial().getProgrammeTitle() != null
-                ? metadata.getEditorial().getProgrammeTitle() : "";
-
+    public List<Caption> getLeadingCaptions() {
         // subtitle zero
-        addSubtitleZero(tto, programName);
+        return Collections.singletonList(subtitleZero);
+    }
+
+    @Override
+    public void fillAttributes(TimedTextObject tto) {
+        String programName = getProgramName();
 
         super.fillAttributes(tto);
 
@@ -89,9 +95,6 @@ public final class BbcGsiStrategy extends DefaultGsiStrategy {
         // TCP
         fillTcp();
 
-        // TCF
-        fillTcf(tto);
-
         // PUB
         if (metadata.getEditorial().getOriginator() != null) {
             PUB.setValue(metadata.getEditorial().getOriginator());
@@ -128,14 +131,25 @@ public final class BbcGsiStrategy extends DefaultGsiStrategy {
         }
     }
 
-    private void addSubtitleZero(TimedTextObject tto, String programName) {
-        // add subtitle zero
-        int key = tto.getCaptions().isEmpty() ? 0 : tto.getCaptions().firstKey() - 1;
+    @Override
+    public void fillTtiAttributes(int subtitleCount, int ttiBlockCount, Caption firstCaption) {
+        super.fillTtiAttributes(subtitleCount, ttiBlockCount, firstCaption);
+
+        // TCF
+        fillTcf(firstCaption);
+    }
+
+    private String getProgramName() {
+        return metadata.getEditorial().getProgrammeTitle() != null
+                ? metadata.getEditorial().getProgrammeTitle() : "";
+    }
+
+    private Caption createSubtitleZero(String programName) {
         Caption caption = new Caption();
         caption.setStart(new Time(0));
         caption.setEnd(new Time(ZERO_SUBTITLE_DURATION_MS));
         caption.setContent(programName);
-        tto.getCaptions().put(key, caption);
+        return caption;
     }
 
     private void fillTcp() {
@@ -172,18 +186,10 @@ public final class BbcGsiStrategy extends DefaultGsiStrategy {
         TCP.setValue(sb.toString());
     }
 
-    private void fillTcf(TimedTextObject tto) {
-        String firstCaptionTime;
-        if (tto.getCaptions().size() > 1) {
-            // ignore subtitle zero
-            firstCaptionTime = tto.getCaptions().values().toArray(new Caption[]{})[1]
-                    .getStart().getTime("hhmmssff/" + getFrameRate());
-        } else if (tto.getCaptions().size() == 1) {
-            firstCaptionTime = tto.getCaptions().values().toArray(new Caption[]{})[0]
-                    .getStart().getTime("hhmmssff/" + getFrameRate());
-        } else {
-            firstCaptionTime = "000000";
-        }
+    private void fillTcf(Caption firstCaption) {
+        // ignore subtitle zero
+        Caption caption = firstCaption != null ? firstCaption : subtitleZero;
+        String firstCaptionTime = caption.getStart().getTime("hhmmssff/" + getFrameRate());
         TCF.setValue(firstCaptionTime);
     }
 
@@ -18,11 +18,14 @@
  */
 package com.netflix.imfutility.ttmltostl.stl;
 
+import com.netflix.imfutility.ttmltostl.ttml.Caption;
 import com.netflix.imfutility.ttmltostl.ttml.TimedTextObject;
 
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import static com.netflix.imfutility.ttmltostl.stl.GsiAttribute.CD;
 import static com.netflix.imfutility.ttmltostl.stl.GsiAttribute.CPN;
@@ -53,22 +56,26 @@ public class DefaultGsiStrategy extends AbstractStlStrategy implements IGsiStrat
         throw new RuntimeException("Can not get GSI block charset. Unknown CPN value: " + CPN.getStringValue());
     }
 
+    @Override
+    public List<Caption> getLeadingCaptions() {
+        return Collections.emptyList();
+    }
+
     @Override
     public void fillAttributes(TimedTextObject tto) {
         // CD and RD
         String currentDate = getCurrentDate();
         CD.setValue(currentDate);
         RD.setValue(currentDate);
-
-        // TNS
-        TNS.setValue(tto.getCaptions().size());
     }
 
     @Override
-    public void fillTtiAttributes(byte[] ttiBlocks) {
+    public void fillTtiAttributes(int subtitleCount, int ttiBlockCount, Caption firstCaption) {
+        // TNS
+        TNS.setValue(subtitleCount);
+
         // TNB
-        int ttiBlocksCount = ttiBlocks.length / ITtiStrategy.TTI_BLOCK_SIZE;
-        TNB.setValue(ttiBlocksCount);
+        TNB.setValue(ttiBlockCount);
     }
 
     private String getCurrentDate() {
@@ -21,10 +21,11 @@ package com.netflix.imfutility.ttmltostl.stl;
 import com.netflix.imfutility.ttmltostl.ttml.Caption;
 import com.netflix.imfutility.ttmltostl.ttml.Style;
 import com.netflix.imfutility.ttmltostl.ttml.Time;
-import com.netflix.imfutility.ttmltostl.ttml.TimedTextObject;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,13 +34,25 @@ import static com.netflix.imfutility.ttmltostl.stl.GsiAttribute.CPN;
 import static com.netflix.imfutility.ttmltostl.stl.GsiAttribute.DSC;
 
 /**
- * Default implementation of EBU STL TTI block building.
+ * Default implementation of EBU STL TTI block building. TTI blocks of a subtitle are written as soon as its cumulative
+ * set is defined, so only the subtitles of the current cumulative set are held in memory.
  */
 public class DefaultTtiStrategy extends AbstractStlStrategy implements ITtiStrategy {
 
     private static final String ISO6937 = "ISO-6937";
 
-    private List<StlSubtitle> stlSubtitles;
+    // the number of TTI blocks buffered before writing them to the channel
+    private static final int BUFFERED_BLOCKS = 512;
+
+    private WritableByteChannel channel;
+    private ByteBuffer buffer;
+
+    // subtitles which are not written yet (the cumulative set of the first one is not defined yet)
+    private final List<StlSubtitle> stlSubtitles = new ArrayList<>();
+    private StlSubtitle previousStlSubtitle;
+    private Time previousEndCSTime;
+    private int subtitleCount;
+    private int blockCount;
 
     @Override
     public String getCharset() {
@@ -66,125 +79,183 @@ public class DefaultTtiStrategy extends AbstractStlStrategy implements ITtiStrat
     }
 
     @Override
-    public byte[] build(TimedTextObject tto) throws IOException {
-        ByteArrayOutputStream result = new ByteArrayOutputStream();
+    public void start(WritableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFERED_BLOCKS * TTI_BLOCK_SIZE);
+        this.stlSubtitles.clear();
+        this.previousStlSubtitle = null;
+        this.previousEndCSTime = null;
+        this.subtitleCount = 0;
+        this.blockCount = 0;
+    }
 
-        List<Caption> captions = new ArrayList<>(tto.getCaptions().values());
-        this.stlSubtitles = new ArrayList<>();
+    @Override
+    public void add(Caption caption) throws IOException {
+        // 1. prepare caption object
 
-        int sn = 0;
-        // 1. prepare caption objects
-        for (int captionNum = 0; captionNum < captions.size(); captionNum++) {
-            Caption caption = captions.get(captionNum);
+        // 1.1 split to lines
+        String[] lines = splitAndCleanText(caption);
 
-            // 1.1 split to lines
-            String[] lines = splitAndCleanText(caption);
+        // 1.2 apply styles
+        byte[] styles = applyStyles(caption);
 
-            // 1.2 apply styles
-            byte[] styles = applyStyles(caption);
+        // 1.3 encode strings using required charset.
+        byte[] text = encode(styles, lines);
 
-            // 1.3 encode strings using required charset.
-            byte[] text = encode(styles, lines);
+        // 1.4 split to extension blocks
+        byte[][] extensionBlocks = splitToExtensionBlocks(text);
 
-            // 1.4 split to extension blocks
-            byte[][] extensionBlocks = splitToExtensionBlocks(text);
+        // 1.5 create a subtitle object
+        StlSubtitle stlSubtitle = new StlSubtitle(caption, lines.length, extensionBlocks);
+        this.stlSubtitles.add(stlSubtitle);
 
-            // 1.5 create a subtitle object
-            StlSubtitle stlSubtitle = new StlSubtitle(caption, lines.length, extensionBlocks);
-            this.stlSubtitles.add(stlSubtitle);
-        }
+        // 2. write all subtitles which cumulative sets are already defined
+        writeStlSubtitles(false);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writeStlSubtitles(true);
+        flushBuffer();
+    }
+
+    @Override
+    public int getSubtitleCount() {
+        return subtitleCount;
+    }
+
+    @Override
+    public int getBlockCount() {
+        return blockCount;
+    }
 
-        // 2. call it when this.stlSubtitles initially populated.
-        defineTimesLinesAndCumulativeSubtitlesLines();
+    private void writeStlSubtitles(boolean last) throws IOException {
+        while (!this.stlSubtitles.isEmpty()) {
+            int csCount = defineTimesLinesAndCumulativeSubtitlesLines(last);
+            if (csCount == 0) {
+                return;
+            }
 
-        // 3. build result STL
-        for (StlSubtitle stlSubtitle : this.stlSubtitles) {
-            // create a TTI block for each EB
-            for (int ebn = 0; ebn < stlSubtitle.getExtensionBlocks().length; ebn++) {
-                byte[] ttiBlock = doBuildTtiBlock(stlSubtitle, sn, ebn);
-                result.write(ttiBlock);
+            // build result STL: create a TTI block for each EB
+            List<StlSubtitle> csSubtitles = this.stlSubtitles.subList(0, csCount);
+            for (StlSubtitle stlSubtitle : csSubtitles) {
+                for (int ebn = 0; ebn < stlSubtitle.getExtensionBlocks().length; ebn++) {
+                    writeTtiBlock(doBuildTtiBlock(stlSubtitle, subtitleCount, ebn));
+                }
+                subtitleCount++;
             }
-            sn++;
+            previousStlSubtitle = csSubtitles.get(csCount - 1);
+            csSubtitles.clear();
         }
+    }
 
-        return result.toByteArray();
+    private void writeTtiBlock(byte[] ttiBlock) throws IOException {
+        if (buffer.remaining() < ttiBlock.length) {
+            flushBuffer();
+        }
+        buffer.put(ttiBlock);
+        blockCount++;
     }
 
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
 
-    private void defineTimesLinesAndCumulativeSubtitlesLines() {
+    /**
+     * Defines the cumulative set starting with the first subtitle not written yet (the subtitle number is
+     * subtitleCount), as well as start/end times and line numbers of all subtitles in the set.
+     *
+     * @param last whether all subtitles are added
+     * @return the number of subtitles in the cumulative set, or 0 if it can be defined only when more subtitles are added
+     */
+    private int defineTimesLinesAndCumulativeSubtitlesLines(boolean last) {
         // Define start/end cumulative subtitles taking into account the there should not be more line than MNR
         int mnr = GsiAttribute.MNR.getIntValue();
-        Time previousEndCSTime = null;
-        for (int i = 0; i <= this.stlSubtitles.size() - 1; i++) {
-            StlSubtitle stlSubtitle = this.stlSubtitles.get(i);
-
-            Time endCSTime = stlSubtitle.getEnd(); // end time of whole cumulative set.
-            int totalCsLines = stlSubtitle.getLinesCount(); // total lines of cumulative set.
-            int lastCSindex = i; // the last index of cumulative set.
-            for (int j = i + 1; j < this.stlSubtitles.size(); j++) {
-                StlSubtitle stlCummulativeSubtitle = this.stlSubtitles.get(j);
-                // Check whether it is a cumulative subtitle or not.
-                if (endCSTime.getMseconds() > stlCummulativeSubtitle.getStart().getMseconds()) {
-                    // check that we fit acceptable number of lines.
-                    if (totalCsLines + stlCummulativeSubtitle.getLinesCount() > mnr) {
-                        //set previous CS as the last, if one before previous was cumulative
-                        this.stlSubtitles.get(j - 1).setCumulativeEndFlag(
-                                (j - 2) > 0 && this.stlSubtitles.get(j - 2).getCumulative());
-                        //next iteration must start from Start always.
-                        //i must point to the last element in the CS
-                        lastCSindex = j - 1;
-                        break;
-                    }
-                    stlCummulativeSubtitle.setCumulative(true);
-                    totalCsLines += stlCummulativeSubtitle.getLinesCount();
-                    //check what end time is bigger.
-                    endCSTime = stlCummulativeSubtitle.getEnd().getMseconds() > endCSTime.getMseconds()
-                            ? stlCummulativeSubtitle.getEnd() : endCSTime;
-
-                    if (j == this.stlSubtitles.size() - 1) {
-                        //i must point to the last element in the CS
-                        lastCSindex = j;
-                        break;
-                    }
+        if (this.stlSubtitles.size() == 1 && !last) {
+            return 0;
+        }
 
-                } else {
+        StlSubtitle stlSubtitle = this.stlSubtitles.get(0);
+
+        Time endCSTime = stlSubtitle.getEnd(); // end time of whole cumulative set.
+        int totalCsLines = stlSubtitle.getLinesCount(); // total lines of cumulative set.
+        int lastCSindex = 0; // the last index of cumulative set.
+        for (int j = 1; j < this.stlSubtitles.size(); j++) {
+            StlSubtitle stlCummulativeSubtitle = this.stlSubtitles.get(j);
+            // Check whether it is a cumulative subtitle or not.
+            if (endCSTime.getMseconds() > stlCummulativeSubtitle.getStart().getMseconds()) {
+                // check that we fit acceptable number of lines.
+                if (totalCsLines + stlCummulativeSubtitle.getLinesCount() > mnr) {
+                    //set previous CS as the last, if one before previous was cumulative
+                    this.stlSubtitles.get(j - 1).setCumulativeEndFlag(
+                            (subtitleCount + j - 2) > 0 && getStlSubtitle(j - 2).getCumulative());
+                    //next iteration must start from Start always.
                     //i must point to the last element in the CS
                     lastCSindex = j - 1;
                     break;
                 }
-            }
+                stlCummulativeSubtitle.setCumulative(true);
+                totalCsLines += stlCummulativeSubtitle.getLinesCount();
+                //check what end time is bigger.
+                endCSTime = stlCummulativeSubtitle.getEnd().getMseconds() > endCSTime.getMseconds()
+                        ? stlCummulativeSubtitle.getEnd() : endCSTime;
+
+                if (j == this.stlSubtitles.size() - 1) {
+                    if (!last) {
+                        // the next subtitles may be in the cumulative set too
+                        return 0;
+                    }
+                    //i must point to the last element in the CS
+                    lastCSindex = j;
+                    break;
+                }
 
-            if (lastCSindex != i) {
-                //Set start flag
-                stlSubtitle.setCumulativeStartFlag(true);
-                stlSubtitle.setCumulative(true);
-                //Set the end flag
-                this.stlSubtitles.get(lastCSindex).setCumulativeEndFlag(true);
-                this.stlSubtitles.get(lastCSindex).setCumulative(true);
+            } else {
+                //i must point to the last element in the CS
+                lastCSindex = j - 1;
+                break;
             }
+        }
 
-            //set start and endTime for all CSs
-            //set linenumber for each subtitle.
-            int startTTLine = getBottomLine() + getLineStep()
-                    - (totalCsLines * getLineStep());
-            startTTLine = startTTLine <= 0
-                    ? getTopLine() * getLineStep()
-                    : startTTLine;
-            for (int e = i; e <= lastCSindex; e++) {
-                StlSubtitle csSubtitle = this.stlSubtitles.get(e);
-                csSubtitle.setEnd(endCSTime);
-                //set Start not less than previous CSs end time
-                if (previousEndCSTime != null
-                        && previousEndCSTime.getMseconds() > csSubtitle.getStart().getMseconds()) {
-                    csSubtitle.setStart(previousEndCSTime);
-                }
-                csSubtitle.setLineNum(startTTLine);
-                startTTLine += csSubtitle.getLinesCount() * getLineStep();
-            }
+        if (lastCSindex != 0) {
+            //Set start flag
+            stlSubtitle.setCumulativeStartFlag(true);
+            stlSubtitle.setCumulative(true);
+            //Set the end flag
+            this.stlSubtitles.get(lastCSindex).setCumulativeEndFlag(true);
+            this.stlSubtitles.get(lastCSindex).setCumulative(true);
+        }
 
-            i = lastCSindex;
-            previousEndCSTime = endCSTime;
+        //set start and endTime for all CSs
+        //set linenumber for each subtitle.
+        int startTTLine = getBottomLine() + getLineStep()
+                - (totalCsLines * getLineStep());
+        startTTLine = startTTLine <= 0
+                ? getTopLine() * getLineStep()
+                : startTTLine;
+        for (int e = 0; e <= lastCSindex; e++) {
+            StlSubtitle csSubtitle = this.stlSubtitles.get(e);
+            csSubtitle.setEnd(endCSTime);
+            //set Start not less than previous CSs end time
+            if (previousEndCSTime != null
+                    && previousEndCSTime.getMseconds() > csSubtitle.getStart().getMseconds()) {
+                csSubtitle.setStart(previousEndCSTime);
+            }
+            csSubtitle.setLineNum(startTTLine);
+            startTTLine += csSubtitle.getLinesCount() * getLineStep();
         }
+
+        previousEndCSTime = endCSTime;
+        return lastCSindex + 1;
+    }
+
+    private StlSubtitle getStlSubtitle(int index) {
+        // -1 is the last written subtitle
+        return index < 0 ? previousStlSubtitle : this.stlSubtitles.get(index);
     }
 
     protected int getLineStep() {
@@ -18,9 +18,11 @@
  */
 package com.netflix.imfutility.ttmltostl.stl;
 
+import com.netflix.imfutility.ttmltostl.ttml.Caption;
 import com.netflix.imfutility.ttmltostl.ttml.TimedTextObject;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * A strategy defining how GSI block is built.
@@ -29,9 +31,23 @@ public interface IGsiStrategy {
 
     int GSI_BLOCK_SIZE = 1024;
 
+    /**
+     * Gets captions preceding all captions of the document (for example, a subtitle zero).
+     *
+     * @return captions preceding all captions of the document.
+     */
+    List<Caption> getLeadingCaptions();
+
     void fillAttributes(TimedTextObject tto);
 
-    void fillTtiAttributes(byte[] ttiBlocks);
+    /**
+     * Fills attributes depending on the built TTI blocks.
+     *
+     * @param subtitleCount the number of subtitles (including the leading ones)
+     * @param ttiBlockCount the number of TTI blocks
+     * @param firstCaption  the first caption of the document (null if the document doesn't have captions)
+     */
+    void fillTtiAttributes(int subtitleCount, int ttiBlockCount, Caption firstCaption);
 
     byte[] build(TimedTextObject tto) throws IOException;
 
@@ -18,9 +18,10 @@
  */
 package com.netflix.imfutility.ttmltostl.stl;
 
-import com.netflix.imfutility.ttmltostl.ttml.TimedTextObject;
+import com.netflix.imfutility.ttmltostl.ttml.Caption;
 
 import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * A strategy defining how TTI block is built.
@@ -30,7 +31,31 @@ public interface ITtiStrategy {
     int TTI_BLOCK_SIZE = 128;
     int TTI_TEXT_SIZE = 112;
 
-    byte[] build(TimedTextObject tto) throws IOException;
+    /**
+     * Starts building TTI blocks. The blocks are written to the channel as soon as they are built.
+     *
+     * @param channel a channel to write TTI blocks to
+     */
+    void start(WritableByteChannel channel);
+
+    /**
+     * Adds the next caption. TTI blocks of the previous captions may be written.
+     *
+     * @param caption the next caption
+     * @throws IOException if the blocks can not be written
+     */
+    void add(Caption caption) throws IOException;
+
+    /**
+     * Writes TTI blocks of all the captions added.
+     *
+     * @throws IOException if the blocks can not be written
+     */
+    void finish() throws IOException;
+
+    int getSubtitleCount();
+
+    int getBlockCount();
 
     String getCharset();
 
@@ -18,12 +18,16 @@
  */
 package com.netflix.imfutility.ttmltostl.stl;
 
+import com.netflix.imfutility.ttmltostl.ttml.Caption;
 import com.netflix.imfutility.ttmltostl.ttml.TimedTextObject;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
 
 /**
  * Builds STL caption. Returns GSI and TTI blocks as an array of bytes.
+ * Use {@link StlWriter} to write STL to a file without holding it in memory.
  */
 public class StlBuilder {
 
@@ -33,22 +37,18 @@ public class StlBuilder {
             return null;
         }
 
-        // 2. fill custom GSI attributes
-        gsiStrategy.fillAttributes(tto);
-
-        // 3. build TTI
-        byte[] tti = ttiStrategy.build(tto);
-
-        // 4. fill TTI-based GSI attributes
-        gsiStrategy.fillTtiAttributes(tti);
-
-        // 5. build GSI
-        byte[] gsi = gsiStrategy.build(tto);
+        // 2. build TTI and GSI
+        ByteArrayOutputStream tti = new ByteArrayOutputStream();
+        StlWriter stlWriter = new StlWriter(Channels.newChannel(tti), gsiStrategy, ttiStrategy);
+        for (Caption caption : tto.getCaptions().values()) {
+            stlWriter.add(caption);
+        }
+        byte[] gsi = stlWriter.finish(tto);
 
-        // 6. prepaer result
+        // 3. prepaer result
         byte[][] result = new byte[2][];
         result[0] = gsi;
-        result[1] = tti;
+        result[1] = tti.toByteArray();
         return result;
     }
 
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.ttmltostl.stl;
+
+import com.netflix.imfutility.ttmltostl.ttml.Caption;
+import com.netflix.imfutility.ttmltostl.ttml.TimedTextObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Builds STL caption as captions are added (in time order), so that the whole STL is not held in memory.
+ * <ul>
+ * <li>TTI blocks are written to the channel (file) as soon as they are built.</li>
+ * <li>GSI block depends on the number of subtitles and TTI blocks, so it's built when all captions are added.
+ * If STL is written to a file, a GSI block is reserved at the beginning of the file and written in place.</li>
+ * </ul>
+ */
+public class StlWriter implements Closeable {
+
+    private final IGsiStrategy gsiStrategy;
+    private final ITtiStrategy ttiStrategy;
+    private final FileChannel stlFile;
+    private Caption firstCaption;
+
+    /**
+     * Creates a writer writing STL to the file.
+     *
+     * @param stlFile     a file to write STL to
+     * @param gsiStrategy a GSI block strategy
+     * @param ttiStrategy a TTI block strategy
+     * @throws IOException if the file can not be created
+     */
+    public StlWriter(Path stlFile, IGsiStrategy gsiStrategy, ITtiStrategy ttiStrategy) throws IOException {
+        this.gsiStrategy = gsiStrategy;
+        this.ttiStrategy = ttiStrategy;
+        this.stlFile = FileChannel.open(stlFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            // reserve GSI block
+            this.stlFile.position(IGsiStrategy.GSI_BLOCK_SIZE);
+            start(this.stlFile);
+        } catch (IOException | RuntimeException e) {
+            this.stlFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a writer writing TTI blocks only to the channel. GSI block is returned by {@link #finish(TimedTextObject)}.
+     *
+     * @param ttiChannel  a channel to write TTI blocks to
+     * @param gsiStrategy a GSI block strategy
+     * @param ttiStrategy a TTI block strategy
+     * @throws IOException if TTI blocks can not be written
+     */
+    public StlWriter(WritableByteChannel ttiChannel, IGsiStrategy gsiStrategy, ITtiStrategy ttiStrategy) throws IOException {
+        this.gsiStrategy = gsiStrategy;
+        this.ttiStrategy = ttiStrategy;
+        this.stlFile = null;
+        start(ttiChannel);
+    }
+
+    private void start(WritableByteChannel ttiChannel) throws IOException {
+        ttiStrategy.start(ttiChannel);
+        for (Caption caption : gsiStrategy.getLeadingCaptions()) {
+            ttiStrategy.add(caption);
+        }
+    }
+
+    /**
+     * Adds the next caption. Captions must be added in time order.
+     *
+     * @param caption the next caption
+     * @throws IOException if TTI blocks can not be written
+     */
+    public void add(Caption caption) throws IOException {
+        if (firstCaption == null) {
+            firstCaption = caption;
+        }
+        ttiStrategy.add(caption);
+    }
+
+    /**
+     * Writes TTI blocks of all the captions added and builds GSI block. If STL is written to a file, GSI block is
+     * written at the beginning of the file.
+     *
+     * @param tto a timed text object the captions are parsed to
+     * @return GSI block
+     * @throws IOException if the blocks can not be written
+     */
+    public byte[] finish(TimedTextObject tto) throws IOException {
+        // 1. build TTI
+        ttiStrategy.finish();
+
+        // 2. fill custom GSI attributes
+        gsiStrategy.fillAttributes(tto);
+
+        // 3. fill TTI-based GSI attributes
+        gsiStrategy.fillTtiAttributes(ttiStrategy.getSubtitleCount(), ttiStrategy.getBlockCount(), firstCaption);
+
+        // 4. build GSI
+        byte[] gsi = gsiStrategy.build(tto);
+        if (stlFile != null) {
+            ByteBuffer buffer = ByteBuffer.wrap(gsi);
+            while (buffer.hasRemaining()) {
+                stlFile.write(buffer, buffer.position());
+            }
+        }
+        return gsi;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (stlFile != null) {
+            stlFile.close();
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.imfutility.ttmltostl.ttml;
+
+/**
+ * Thrown if captions are streamed to a consumer, but TTML paragraphs are not in time order,
+ * so that all captions must be parsed before they can be converted.
+ */
+public class CaptionsOrderException extends FatalParsingException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CaptionsOrderException(String parsingError) {
+        super(parsingError);
+    }
+
+}
@@ -18,20 +18,26 @@
  */
 package com.netflix.imfutility.ttmltostl.ttml;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 
 /**
@@ -60,235 +66,384 @@ import java.util.ArrayList;
  */
 public class FormatTTML implements TimedTextFileFormat {
 
+    private static final String PARAGRAPH = "p";
+    private static final String BREAK = "br";
+    private static final String STYLE = "style";
+    private static final List<String> METADATA = Arrays.asList("ttm:title", "ttm:copyright", "ttm:desc");
+
     private final TimedTextObject tto = new TimedTextObject();
     private Integer parsedFileCount = 0;
     private int startMS = 0;
     private int endMS = 0;
     private int offsetMS = 0;
-    private Document doc = null;
+
+    // parameters of the current document
+    private int frameRate;
+    private Integer tickRate;
+
+    // attributes of the current element and all its ancestors (the current element is the first)
+    private final Deque<Map<String, String>> ancestors = new ArrayDeque<>();
+    private final Set<String> parsedMetadata = new HashSet<>();
+    private String metadata;
+    private int metadataDepth;
+    private StringBuilder metadataText;
+    private Caption paragraph;
+    private int paragraphDepth;
+    private StringBuilder paragraphText;
+
+    // captions passed to the consumer in time order (null if captions are collected to the timed text object)
+    private Consumer<Caption> consumer;
+    private final TreeMap<Integer, Caption> pendingCaptions = new TreeMap<>();
+    private int lastConsumedKey = Integer.MIN_VALUE;
 
     public TimedTextObject parseFile(File file, int startMS, int endMS, int offsetMS)
             throws IOException, FatalParsingException {
+        return parseFile(file, startMS, endMS, offsetMS, null);
+    }
+
+    /**
+     * Parses the file reading it as a stream. Metadata and styles are added to the returned timed text object,
+     * while captions are passed to the consumer in time order instead of being collected.
+     * <p>
+     * A caption is held only until a caption with a later begin time is read (or the file is parsed), so paragraphs
+     * must be in time order both within the file and across all the files parsed by this instance.
+     * </p>
+     *
+     * @param file     a TTML file
+     * @param startMS  start time of the captions to be parsed (0 - from the beginning)
+     * @param endMS    end time of the captions to be parsed (0 - till the end)
+     * @param offsetMS an offset to be added to all captions
+     * @param consumer a consumer of the captions (if null the captions are collected to the timed text object)
+     * @return a timed text object with metadata and styles
+     * @throws IOException           when having trouble reading the file
+     * @throws FatalParsingException if the file is not a valid XML
+     *                               ({@link CaptionsOrderException} if paragraphs are not in time order)
+     */
+    public TimedTextObject parseFile(File file, int startMS, int endMS, int offsetMS, Consumer<Caption> consumer)
+            throws IOException, FatalParsingException {
         tto.setFileName(file.getName());
         this.startMS = startMS;
         this.endMS = endMS;
         this.offsetMS = offsetMS;
-        this.doc = null;
+        this.consumer = consumer;
 
-        try (InputStream is = new FileInputStream(file)) {
+        try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
             doParse(is);
         }
+        flushCaptions(Integer.MAX_VALUE);
 
         parsedFileCount++;
         tto.setBuilt(true);
         return tto;
     }
 
-    private void doParse(InputStream is) throws FatalParsingException, IOException {
-        DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder dBuilder;
+    private void doParse(InputStream is) throws FatalParsingException {
+        frameRate = 25;
+        tickRate = null;
+        ancestors.clear();
+        parsedMetadata.clear();
+        metadata = null;
+        paragraph = null;
+        paragraphDepth = 0;
+
+        tto.setWarnings(tto.getWarnings()
+                + "Styling attributes are only recognized inside a style definition, to be referenced later in the captions.\n\n");
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        // names are matched with prefixes (ttm:title, tts:color), and prefixes may be unbound in real documents
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
         try {
-            dBuilder = dbFactory.newDocumentBuilder();
-            doc = dBuilder.parse(is);
-            doc.getDocumentElement().normalize();
+            XMLStreamReader reader = factory.createXMLStreamReader(is);
+            try {
+                while (reader.hasNext()) {
+                    switch (reader.next()) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            startElement(reader);
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            endElement();
+                            break;
+                        case XMLStreamConstants.CHARACTERS:
+                        case XMLStreamConstants.CDATA:
+                        case XMLStreamConstants.SPACE:
+                            characters(reader.getText());
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new FatalParsingException("Error during parsing: " + e.getMessage());
+        }
+    }
 
-            //parse metadata
-            parseMetadata();
+    private void startElement(XMLStreamReader reader) {
+        String name = getName(reader.getPrefix(), reader.getLocalName());
+        Map<String, String> attr = new HashMap<>();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            attr.put(getName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeValue(i));
+        }
+        ancestors.push(attr);
 
-            //we parse the styles
-            parseStyles();
+        if (ancestors.size() == 1) {
+            //we parse the parameters of the root element
+            parseParameters(attr);
+        }
+
+        if (metadata == null && METADATA.contains(name) && parsedMetadata.add(name)) {
+            //we recover the metadata
+            metadata = name;
+            metadataDepth = ancestors.size();
+            metadataText = new StringBuilder();
+        }
 
-            //we parse the captions
-            parseCaptions();
+        if (paragraphDepth > 0) {
+            if (paragraph != null && name.equals(BREAK)) {
+                paragraphText.append("\n");
+            }
+        } else if (name.equals(PARAGRAPH)) {
+            //we recover the timed text element
+            paragraph = fillCaptionAttributes(attr);
+            paragraphDepth = ancestors.size();
+            paragraphText = new StringBuilder();
+        } else if (name.equals(STYLE)) {
+            //we recover the style
+            parseStyle(attr);
+        }
 
-            //regions of the layout could also be recovered this way
+        //regions of the layout could also be recovered this way
+    }
 
-        } catch (SAXException | ParserConfigurationException e) {
-            throw new FatalParsingException("Error during parsing: " + e.getMessage());
+    private void characters(String text) {
+        if (metadata != null) {
+            metadataText.append(text);
+        }
+        if (paragraph != null) {
+            //don't trim anything here. trim and remove multiple spaces at final string build.
+            //replace new lines to spaces.
+            paragraphText.append(text.replace("\r\n", " ").replace('\r', ' ').replace('\n', ' '));
         }
     }
 
-    private void parseMetadata() {
-        //we recover the metadata
-        Node node = doc.getElementsByTagName("ttm:title").item(0);
-        if (node != null) {
-            tto.setTitle(node.getTextContent());
+    private void endElement() throws FatalParsingException {
+        if (metadata != null && metadataDepth == ancestors.size()) {
+            parseMetadata(metadata, metadataText.toString());
+            metadata = null;
         }
-        node = doc.getElementsByTagName("ttm:copyright").item(0);
-        if (node != null) {
-            tto.setCopyrigth(node.getTextContent());
+        if (paragraphDepth == ancestors.size()) {
+            if (paragraph != null) {
+                paragraph.setContent(paragraphText.toString().trim().replaceAll("[ \\t]+", " "));
+                addCaption(paragraph);
+            }
+            paragraph = null;
+            paragraphDepth = 0;
         }
-        node = doc.getElementsByTagName("ttm:desc").item(0);
-        if (node != null) {
-            tto.setDescription(node.getTextContent());
+        ancestors.pop();
+    }
+
+    private void parseParameters(Map<String, String> attr) {
+        String value = attr.get("ttp:frameRate");
+        if (value != null) {
+            try {
+                frameRate = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                //should not happen, but if it does, use default value...
+            }
+        }
+        value = attr.get("ttp:tickRate");
+        if (value != null) {
+            try {
+                tickRate = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                //ignore the tick rate
+            }
+        }
+    }
+
+    private void parseMetadata(String name, String value) {
+        switch (name) {
+            case "ttm:title":
+                tto.setTitle(value);
+                break;
+            case "ttm:copyright":
+                tto.setCopyrigth(value);
+                break;
+            case "ttm:desc":
+                tto.setDescription(value);
+                break;
+            default:
+                break;
         }
     }
 
-    private void parseStyles() {
-        //we recover the styles
-        NodeList styleN = doc.getElementsByTagName("style");
+    private void parseStyle(Map<String, String> attr) {
+        Style style = new Style(Style.defaultID());
+        //we get the id
+        String currentAtr = attr.get("id");
+        if (currentAtr != null) {
+            style.setiD(currentAtr);
+        }
+        currentAtr = attr.get("xml:id");
+        if (currentAtr != null) {
+            style.setiD(currentAtr);
+        }
 
-        tto.setWarnings(tto.getWarnings()
-                + "Styling attributes are only recognized inside a style definition, to be referenced later in the captions.\n\n");
+        //Change style.iD to avoid a case when styles from several TTML have the same name.
+        style.setiD(getMutlyInputStyleId(style.getiD()));
 
-        for (int i = 0; i < styleN.getLength(); i++) {
-            Style style = new Style(Style.defaultID());
-            Node node = styleN.item(i);
-            NamedNodeMap attr = node.getAttributes();
-            //we get the id
-            Node currentAtr = attr.getNamedItem("id");
-            if (currentAtr != null) {
-                style.setiD(currentAtr.getNodeValue());
-            }
-            currentAtr = attr.getNamedItem("xml:id");
-            if (currentAtr != null) {
-                style.setiD(currentAtr.getNodeValue());
+        //we get the style it may be based upon
+        currentAtr = attr.get("style");
+        if (currentAtr != null) {
+            //FIXME: there can be several style ID in row and we must process all sequencially
+            Style parent = tto.getStyling().get(getMutlyInputStyleId(currentAtr));
+            if (parent != null) {
+                style = new Style(style.getiD(), parent);
             }
+        }
 
-            //Change style.iD to avoid a case when styles from several TTML have the same name.
-            style.setiD(getMutlyInputStyleId(style.getiD()));
+        //we check for background color
+        currentAtr = attr.get("tts:backgroundColor");
+        if (currentAtr != null) {
+            style.setBackgroundColor(parseColor(currentAtr));
+        }
 
-            //we get the style it may be based upon
-            currentAtr = attr.getNamedItem("style");
-            if (currentAtr != null) {
-                //FIXME: there can be several style ID in row and we must process all sequencially
-                if (tto.getStyling().containsKey(getMutlyInputStyleId(currentAtr.getNodeValue()))) {
-                    style = new Style(style.getiD(), tto.getStyling().get(currentAtr.getNodeValue()));
-                }
-            }
+        //we check for color
+        currentAtr = attr.get("tts:color");
+        if (currentAtr != null) {
+            style.setColor(parseColor(currentAtr));
+        }
 
-            //we check for background color
-            currentAtr = attr.getNamedItem("tts:backgroundColor");
-            if (currentAtr != null) {
-                style.setBackgroundColor(parseColor(currentAtr.getNodeValue()));
-            }
+        //we check for font family
+        currentAtr = attr.get("tts:fontFamily");
+        if (currentAtr != null) {
+            style.setFont(currentAtr);
+        }
 
-            //we check for color
-            currentAtr = attr.getNamedItem("tts:color");
-            if (currentAtr != null) {
-                style.setColor(parseColor(currentAtr.getNodeValue()));
-            }
+        //we check for font size
+        currentAtr = attr.get("tts:fontSize");
+        if (currentAtr != null) {
+            style.setFontSize(currentAtr);
+        }
 
-            //we check for font family
-            currentAtr = attr.getNamedItem("tts:fontFamily");
-            if (currentAtr != null) {
-                style.setFont(currentAtr.getNodeValue());
+        //we check for italics
+        currentAtr = attr.get("tts:fontStyle");
+        if (currentAtr != null) {
+            if (currentAtr.equalsIgnoreCase("italic") || currentAtr.equalsIgnoreCase("oblique")) {
+                style.setItalic(true);
+            } else if (currentAtr.equalsIgnoreCase("normal")) {
+                style.setItalic(false);
             }
-
-            //we check for font size
-            currentAtr = attr.getNamedItem("tts:fontSize");
-            if (currentAtr != null) {
-                style.setFontSize(currentAtr.getNodeValue());
+        }
+        //we check for bold
+        currentAtr = attr.get("tts:fontWeight");
+        if (currentAtr != null) {
+            if (currentAtr.equalsIgnoreCase("bold")) {
+                style.setBold(true);
+            } else if (currentAtr.equalsIgnoreCase("normal")) {
+                style.setBold(false);
             }
-
-            //we check for italics
-            currentAtr = attr.getNamedItem("tts:fontStyle");
-            if (currentAtr != null) {
-                if (currentAtr.getNodeValue().equalsIgnoreCase("italic") || currentAtr.getNodeValue().equalsIgnoreCase("oblique")) {
-                    style.setItalic(true);
-                } else if (currentAtr.getNodeValue().equalsIgnoreCase("normal")) {
-                    style.setItalic(false);
+        }
+        //we check opacity (to set the alpha)
+        currentAtr = attr.get("tts:opacity");
+        if (currentAtr != null) {
+            try {
+                //a number between 1.0 and 0
+                float alpha = Float.parseFloat(currentAtr);
+                if (alpha > 1) {
+                    alpha = 1;
+                } else if (alpha < 0) {
+                    alpha = 0;
                 }
-            }
-            //we check for bold
-            currentAtr = attr.getNamedItem("tts:fontWeight");
-            if (currentAtr != null) {
-                if (currentAtr.getNodeValue().equalsIgnoreCase("bold")) {
-                    style.setBold(true);
-                } else if (currentAtr.getNodeValue().equalsIgnoreCase("normal")) {
-                    style.setBold(false);
+
+                String aa = Integer.toHexString((int) (alpha * 255));
+                if (aa.length() < 2) {
+                    aa = "0" + aa;
                 }
-            }
-            //we check opacity (to set the alpha)
-            currentAtr = attr.getNamedItem("tts:opacity");
-            if (currentAtr != null) {
-                try {
-                    //a number between 1.0 and 0
-                    float alpha = Float.parseFloat(currentAtr.getNodeValue());
-                    if (alpha > 1) {
-                        alpha = 1;
-                    } else if (alpha < 0) {
-                        alpha = 0;
-                    }
 
-                    String aa = Integer.toHexString((int) (alpha * 255));
-                    if (aa.length() < 2) {
-                        aa = "0" + aa;
-                    }
+                style.setColor(style.getColor().substring(0, 6) + aa);
+                style.setBackgroundColor(style.getBackgroundColor().substring(0, 6) + aa);
+            } catch (NumberFormatException e) {
+                //ignore the alpha
+            }
+        }
 
-                    style.setColor(style.getColor().substring(0, 6) + aa);
-                    style.setBackgroundColor(style.getBackgroundColor().substring(0, 6) + aa);
-                } catch (NumberFormatException e) {
-                    //ignore the alpha
-                }
+        //we check for text align
+        currentAtr = attr.get("tts:textAlign");
+        if (currentAtr != null) {
+            if (currentAtr.equalsIgnoreCase("left") || currentAtr.equalsIgnoreCase("start")) {
+                style.setTextAlign("bottom-left");
+            } else if (currentAtr.equalsIgnoreCase("right") || currentAtr.equalsIgnoreCase("end")) {
+                style.setTextAlign("bottom-right");
             }
+        }
 
-            //we check for text align
-            currentAtr = attr.getNamedItem("tts:textAlign");
-            if (currentAtr != null) {
-                if (currentAtr.getNodeValue().equalsIgnoreCase("left") || currentAtr.getNodeValue().equalsIgnoreCase("start")) {
-                    style.setTextAlign("bottom-left");
-                } else if (currentAtr.getNodeValue().equalsIgnoreCase("right") || currentAtr.getNodeValue().equalsIgnoreCase("end")) {
-                    style.setTextAlign("bottom-right");
-                }
+        //we check for underline
+        currentAtr = attr.get("tts:textDecoration");
+        if (currentAtr != null) {
+            if (currentAtr.equalsIgnoreCase("underline")) {
+                style.setUnderline(true);
+            } else if (currentAtr.equalsIgnoreCase("noUnderline")) {
+                style.setUnderline(false);
             }
+        }
 
-            //we check for underline
-            currentAtr = attr.getNamedItem("tts:textDecoration");
-            if (currentAtr != null) {
-                if (currentAtr.getNodeValue().equalsIgnoreCase("underline")) {
-                    style.setUnderline(true);
-                } else if (currentAtr.getNodeValue().equalsIgnoreCase("noUnderline")) {
-                    style.setUnderline(false);
-                }
+        //we add the style
+        tto.getStyling().put(style.getiD(), style);
+    }
+
+    private void addCaption(Caption caption) throws FatalParsingException {
+        int key = caption.getStart().getMseconds();
+        if (consumer == null) {
+            //in case the key is already there, we increase it by a millisecond, since no duplicates are allowed
+            // FIXME: for regions it must be changed (region can intersect in start time)
+            while (tto.getCaptions().containsKey(key)) {
+                key++;
             }
+            tto.getCaptions().put(key, caption);
+            return;
+        }
 
-            //we add the style
-            tto.getStyling().put(style.getiD(), style);
+        if (key <= lastConsumedKey) {
+            throw new CaptionsOrderException(String.format(
+                    "Paragraphs are not in time order: a paragraph begins at %s ms after the one beginning at %s ms",
+                    key, lastConsumedKey));
         }
+        //all captions beginning before can be consumed: paragraphs are in time order
+        flushCaptions(key);
+        while (pendingCaptions.containsKey(key)) {
+            key++;
+        }
+        pendingCaptions.put(key, caption);
     }
 
-    private void parseCaptions() {
-        //we recover the timed text elements
-        NodeList captionsN = doc.getElementsByTagName("p");
-
-        for (int i = 0; i < captionsN.getLength(); i++) {
-            Caption caption = fillCaptionAttributes(captionsN.item(i));
-            //and save the caption
-            if (caption != null) {
-                caption.setContent(caption.getContent().trim().replaceAll("[ \\t]+", " "));
-                int key = caption.getStart().getMseconds();
-                //in case the key is already there, we increase it by a millisecond, since no duplicates are allowed
-                // FIXME: for regions it must be changed (region can intersect in start time)
-                while (tto.getCaptions().containsKey(key)) {
-                    key++;
-                }
-                tto.getCaptions().put(key, caption);
-            }
+    private void flushCaptions(int beforeKey) {
+        while (!pendingCaptions.isEmpty() && pendingCaptions.firstKey() < beforeKey) {
+            Map.Entry<Integer, Caption> entry = pendingCaptions.pollFirstEntry();
+            lastConsumedKey = entry.getKey();
+            consumer.accept(entry.getValue());
         }
     }
 
-    private String traverseAttributeUp(Node node, String attrName) {
-        NamedNodeMap attr = node.getAttributes();
-        if (attr != null) {
-            Node currentAtr = attr.getNamedItem(attrName);
-            if (currentAtr != null) {
-                String attrValue = currentAtr.getNodeValue().trim();
+    private String traverseAttributeUp(String attrName) {
+        for (Map<String, String> attr : ancestors) {
+            String attrValue = attr.get(attrName);
+            if (attrValue != null) {
+                attrValue = attrValue.trim();
                 if (attrValue.length() > 0) {
                     return attrValue;
                 }
             }
         }
-
-        if (node.getParentNode() != null) {
-            return traverseAttributeUp(node.getParentNode(), attrName);
-        }
-
         return null;
     }
 
-    private Time traverseTimecode(Node node, String timecodeName) {
-        String timecodeValue = traverseAttributeUp(node, timecodeName);
+    private Time traverseTimecode(String timecodeName) {
+        String timecodeValue = traverseAttributeUp(timecodeName);
 
         if (timecodeValue != null) {
             Time nodeTime = new Time("", "");
@@ -300,7 +455,7 @@ public class FormatTTML implements TimedTextFileFormat {
     }
 
 
-    private Caption fillCaptionAttributes(Node node) {
+    private Caption fillCaptionAttributes(Map<String, String> attr) {
 
         //+define parentStartTime
         //+define parentEndTime
@@ -312,17 +467,17 @@ public class FormatTTML implements TimedTextFileFormat {
         caption.setContent("");
 
         //get region
-        caption.setRegion(traverseAttributeUp(node, "region"));
+        caption.setRegion(traverseAttributeUp("region"));
 
-        caption.setStart(traverseTimecode(node, "begin"));
+        caption.setStart(traverseTimecode("begin"));
         if (caption.getStart() == null) {
             caption.setStart(new Time("", ""));
         }
 
-        caption.setEnd(traverseTimecode(node, "end"));
+        caption.setEnd(traverseTimecode("end"));
         if (caption.getEnd() == null) {
             caption.setEnd(new Time("", ""));
-            Time durTime = traverseTimecode(node, "dur");
+            Time durTime = traverseTimecode("dur");
             if (durTime != null) {
                 caption.getEnd().setMseconds(caption.getStart().getMseconds() + durTime.getMseconds());
             } else {
@@ -336,64 +491,28 @@ public class FormatTTML implements TimedTextFileFormat {
             return null;
         }
 
-        NamedNodeMap attr = node.getAttributes();
-        if (attr != null) {
-            //we get the style
-            Node currentAtr = attr.getNamedItem("style");
-            if (currentAtr != null) {
-                String[] stylesStr = currentAtr.getNodeValue().split("\\s+");
-                caption.setStyles(new Style[stylesStr.length]);
-
-                for (int i = 0; i < stylesStr.length; i++) {
-                    Style style = tto.getStyling().get(getMutlyInputStyleId(stylesStr[i]));
-                    if (style != null) {
-                        // FIXME: AL: We should override style items for style later
-                        caption.setStyle(style); //set last style for container, later it should not be used. use styles.
-                        caption.getStyles()[i] = style;
-                    } else {
-                        //unrecognized style
-                        tto.setWarnings(tto.getWarnings() + "unrecoginzed style referenced: " + currentAtr.getNodeValue() + "\n\n");
-                    }
+        //we get the style
+        String currentAtr = attr.get("style");
+        if (currentAtr != null) {
+            String[] stylesStr = currentAtr.split("\\s+");
+            caption.setStyles(new Style[stylesStr.length]);
+
+            for (int i = 0; i < stylesStr.length; i++) {
+                Style style = tto.getStyling().get(getMutlyInputStyleId(stylesStr[i]));
+                if (style != null) {
+                    // FIXME: AL: We should override style items for style later
+                    caption.setStyle(style); //set last style for container, later it should not be used. use styles.
+                    caption.getStyles()[i] = style;
+                } else {
+                    //unrecognized style
+                    tto.setWarnings(tto.getWarnings() + "unrecoginzed style referenced: " + currentAtr + "\n\n");
                 }
             }
         }
 
-        //we save the text
-        NodeList textN = node.getChildNodes();
-        caption.setNodes(new Caption[textN.getLength()]);
-        if (textN.getLength() == 0) {
-            if (node.getNodeName().equals("#text")) {
-                //don't trim anything here. trim and remove multiple spaces at final string build.
-                caption.setContent(node.getTextContent());
-                //replace new lines to spaces.
-                caption.setContent(caption.getContent().replaceAll("\r\n", " ").replaceAll("\r", " ").replaceAll("\n", " "));
-            } else if (node.getNodeName().equals("br")) {
-                caption.setContent("\n");
-            }
-        } else {
-            for (int j = 0; j < textN.getLength(); j++) {
-                Node childNode = textN.item(j);
-                caption.getNodes()[j] = fillCaptionAttributes(childNode);
-            }
-        }
-
-        //Build final string for whole container.
-        buildCaptionString(caption);
         return caption;
     }
 
-
-    private void buildCaptionString(Caption caption) {
-        if (caption.getNodes().length > 0) {
-            caption.setContent("");
-            for (Caption subCaption : caption.getNodes()) {
-                buildCaptionString(subCaption);
-
-                caption.setContent(caption.getContent() + subCaption.getContent());
-            }
-        }
-    }
-
     private Boolean fitAndCheckCaptionTimecodeRange(Caption caption) {
         int startTCMilliseconds = startMS > 0 ? startMS : 0;
         int endTCMilliseconds = endMS > 0 ? endMS : Integer.MAX_VALUE;
@@ -414,6 +533,10 @@ public class FormatTTML implements TimedTextFileFormat {
         return true;
     }
 
+    private static String getName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
     private String getMutlyInputStyleId(String iD) {
         return parsedFileCount > 0 ? iD + "-#mlt-ttml-sc-" + parsedFileCount.toString() : iD;
     }
@@ -649,21 +772,6 @@ public class FormatTTML implements TimedTextFileFormat {
                 //we have h:m:s:f.fraction
                 int h, m, s;
                 float f;
-                int frameRate = 25;
-                //we recover the frame rate
-                Node n = doc.getDocumentElement().getAttributes().getNamedItem("ttp:frameRate");
-                if (n == null) {
-                    n = doc.getElementsByTagName("ttp:frameRate").item(0);
-                }
-                if (n != null) {
-                    //used as auxiliary string
-                    String aux = n.getNodeValue();
-                    try {
-                        frameRate = Integer.parseInt(aux);
-                    } catch (NumberFormatException e) {
-                        //should not happen, but if it does, use default value...
-                    }
-                }
                 h = Integer.parseInt(parts[0]);
                 m = Integer.parseInt(parts[1]);
                 s = Integer.parseInt(parts[2]);
@@ -689,28 +797,12 @@ public class FormatTTML implements TimedTextFileFormat {
                 } else if (metric.equalsIgnoreCase("ms")) {
                     mSeconds = (int) time;
                 } else if (metric.equalsIgnoreCase("f")) {
-                    int frameRate;
-                    //we recover the frame rate
-                    Node n = doc.getElementsByTagName("ttp:frameRate").item(0);
-                    if (n != null) {
-                        //used as auxiliary string
-                        String s = n.getNodeValue();
-                        frameRate = Integer.parseInt(s);
-                        mSeconds = (int) (time * 1000 / frameRate);
-                    }
-
+                    mSeconds = (int) (time * 1000 / frameRate);
                 } else if (metric.equalsIgnoreCase("t")) {
-                    int tickRate;
-                    //we recover the tick rate
-                    Node n = doc.getElementsByTagName("ttp:tickRate").item(0);
-                    if (n != null) {
-                        //used as auxiliary string
-                        String s = n.getNodeValue();
-                        tickRate = Integer.parseInt(s);
+                    //we use the tick rate of the document
+                    if (tickRate != null && tickRate > 0) {
                         mSeconds = (int) (time * 1000 / tickRate);
                     }
-
-
                 } else {
                     //invalid metric
 
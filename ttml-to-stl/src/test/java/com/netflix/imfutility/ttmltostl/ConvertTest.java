@@ -24,8 +24,11 @@ import com.netflix.imfutility.ttmltostl.util.TtmlTestUtil;
 import org.junit.Test;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.UUID;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -163,6 +166,67 @@ public class ConvertTest {
         assertTrue("Generated STL is zero size.", tempSTL.length() > 0);
     }
 
+    /**
+     * Test that captions not in time order are parsed before conversion.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void convertTTMLNotInTimeOrder() throws Exception {
+        File tempSTL = File.createTempFile(UUID.randomUUID().toString(), ".stl");
+        tempSTL.deleteOnExit();
+        File tempMetadataXml = File.createTempFile(UUID.randomUUID().toString(), ".xml");
+        tempMetadataXml.deleteOnExit();
+        MetadataXmlCreator.generateEmptyXml(tempMetadataXml.getAbsolutePath());
+        File ttml = createTtml("<p begin=\"00:00:10.000\" end=\"00:00:11.000\">1</p>"
+                + "<p begin=\"00:00:20.000\" end=\"00:00:21.000\">2</p>"
+                + "<p begin=\"00:00:05.000\" end=\"00:00:06.000\">3</p>");
+
+        String[] args = {
+                "--ttml",
+                ttml.getAbsolutePath(),
+                "--metadata",
+                tempMetadataXml.getPath(),
+                "--outputSTL",
+                tempSTL.getPath()
+        };
+
+        Boolean result = new Convert().convertTTML(args);
+
+        assertTrue("Convert.convertTTML returned failure.", result);
+        assertTrue("Generated STL has no TTI blocks.", tempSTL.length() > 1024);
+    }
+
+    /**
+     * Test that a partially written STL is deleted if TTML is malformed.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void convertMalformedTTML() throws Exception {
+        File tempSTL = File.createTempFile(UUID.randomUUID().toString(), ".stl");
+        tempSTL.deleteOnExit();
+        File tempMetadataXml = File.createTempFile(UUID.randomUUID().toString(), ".xml");
+        tempMetadataXml.deleteOnExit();
+        MetadataXmlCreator.generateEmptyXml(tempMetadataXml.getAbsolutePath());
+        File ttml = createTtml("<p begin=\"00:00:10.000\" end=\"00:00:11.000\">1</p>"
+                + "<p begin=\"00:00:20.000\" end=\"00:00:21.000\">2</div>");
+
+        String[] args = {
+                "--ttml",
+                ttml.getAbsolutePath(),
+                "--metadata",
+                tempMetadataXml.getPath(),
+                "--outputSTL",
+                tempSTL.getPath()
+        };
+
+        Boolean result = new Convert().convertTTML(args);
+
+        assertFalse("Convert.convertTTML didn't fail.", result);
+        assertFalse("Partial STL is not deleted.", tempSTL.exists());
+    }
+
     /**
      * Test invalid argument case.
      *
@@ -178,4 +242,12 @@ public class ConvertTest {
         assertTrue("Convert.convertTTML didn't fail.", !result);
     }
 
+    private static File createTtml(String paragraphs) throws Exception {
+        File ttml = File.createTempFile(UUID.randomUUID().toString(), ".xml");
+        ttml.deleteOnExit();
+        Files.write(ttml.toPath(), ("<tt xmlns=\"http://www.w3.org/ns/ttml\"><body><div>" + paragraphs + "</div></body></tt>")
+                .getBytes(StandardCharsets.UTF_8));
+        return ttml;
+    }
+
 }
\ No newline at end of file
@@ -18,12 +18,15 @@
  */
 package com.netflix.imfutility.ttmltostl.stl;
 
+import com.netflix.imfutility.ttmltostl.ttml.Caption;
 import com.netflix.imfutility.ttmltostl.ttml.Style;
 import com.netflix.imfutility.ttmltostl.ttml.TimedTextObject;
 import com.netflix.imfutility.ttmltostl.util.StlTestUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.Arrays;
 
 import static junit.framework.TestCase.assertEquals;
@@ -919,6 +922,32 @@ public class StlTtiTest {
                 Arrays.copyOfRange(tti, offset + 16, offset + 128));
     }
 
+    @Test
+    public void testWriteToFile() throws Exception {
+        TimedTextObject tto = StlTestUtil.buildTto(
+                "10:00:00:00", "10:00:05:00", "text1",
+                "10:00:02:00", "10:00:07:00", "text2",
+                "10:00:03:00", "10:00:04:00", "text3",
+                "10:04:59:00", "23:59:59:24", "text4"
+        );
+        byte[][] stl = StlTestUtil.build(tto, StlTestUtil.getMetadataXml());
+
+        File stlFile = File.createTempFile("write-to-file", ".stl");
+        stlFile.deleteOnExit();
+        try (StlWriter writer = new StlWriter(stlFile.toPath(),
+                new BbcGsiStrategy(StlTestUtil.getMetadataXml()), new BbcTtiStrategy())) {
+            for (Caption caption : tto.getCaptions().values()) {
+                writer.add(caption);
+            }
+            writer.finish(tto);
+        }
+        byte[] written = Files.readAllBytes(stlFile.toPath());
+
+        assertEquals(stl[0].length + stl[1].length, written.length);
+        assertArrayEquals(stl[0], Arrays.copyOfRange(written, 0, stl[0].length));
+        assertArrayEquals(stl[1], Arrays.copyOfRange(written, stl[0].length, written.length));
+    }
+
     private byte[] fillExpectedText(byte[] text) {
         byte[] textWithPadding = new byte[112];
         Arrays.fill(textWithPadding, (byte) 0x8f);
@@ -21,10 +21,14 @@ package com.netflix.imfutility.ttmltostl.ttml;
 import com.netflix.imfutility.ttmltostl.util.TtmlTestUtil;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
 
 /**
  * Tests for TTML parsing.
@@ -331,5 +335,53 @@ public class ParseTtmlTest {
         assertEquals("ffffffff", captions.get(8).getStyle().getColor());
     }
 
+    @Test
+    public void testStreamedCaptionsInTimeOrder() throws Exception {
+        // debate.xml: the last but one caption begins after the last one,
+        // debate4.xml: the last two captions begin at the same time
+        for (String ttml : new String[]{"xml/debate.xml", "xml/debate4.xml"}) {
+            TimedTextObject expected = new FormatTTML().parseFile(TtmlTestUtil.getTtml(ttml), 0, 0, 0);
+            List<Caption> captions = new ArrayList<>();
+            TimedTextObject tto = new FormatTTML().parseFile(TtmlTestUtil.getTtml(ttml), 0, 0, 0, captions::add);
+
+            assertTrue(tto.getCaptions().isEmpty());
+            assertEquals(expected.getDescription(), tto.getDescription());
+            assertEquals(expected.getStyling().keySet(), tto.getStyling().keySet());
+
+            assertEquals(expected.getCaptions().size(), captions.size());
+            List<Caption> expectedCaptions = new ArrayList<>(expected.getCaptions().values());
+            for (int i = 0; i < captions.size(); i++) {
+                assertEquals(expectedCaptions.get(i).toString(), captions.get(i).toString());
+            }
+        }
+    }
+
+    @Test
+    public void testStreamedCaptionsFromSeveralFiles() throws Exception {
+        FormatTTML format = new FormatTTML();
+        List<Caption> captions = new ArrayList<>();
+        format.parseFile(TtmlTestUtil.getTtml("xml/debate1.xml"), 0, 95000, 0, captions::add);
+        format.parseFile(TtmlTestUtil.getTtml("xml/debate1.xml"), 0, 95000, 95000, captions::add);
+
+        assertEquals(6, captions.size());
+        assertEquals(7000, captions.get(0).getStart().getMseconds());
+        assertEquals(94166, captions.get(2).getStart().getMseconds());
+        assertEquals(102000, captions.get(3).getStart().getMseconds());
+        assertEquals(189166, captions.get(5).getStart().getMseconds());
+    }
+
+    @Test(expected = CaptionsOrderException.class)
+    public void testStreamedCaptionsNotInTimeOrder() throws Exception {
+        File ttml = File.createTempFile("not-in-time-order", ".xml");
+        ttml.deleteOnExit();
+        Files.write(ttml.toPath(), ("<tt xmlns=\"http://www.w3.org/ns/ttml\"><body><div>"
+                + "<p begin=\"00:00:10.000\" end=\"00:00:11.000\">1</p>"
+                + "<p begin=\"00:00:20.000\" end=\"00:00:21.000\">2</p>"
+                + "<p begin=\"00:00:05.000\" end=\"00:00:06.000\">3</p>"
+                + "</div></body></tt>").getBytes(StandardCharsets.UTF_8));
+
+        new FormatTTML().parseFile(ttml, 0, 0, 0, caption -> {
+        });
+    }
 
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2016 Netflix, Inc.
+ *
+ *     This file is part of IMF Conversion Utility.
+ *
+ *     IMF Conversion Utility is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     IMF Conversion Utility is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with IMF Conversion Utility.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.netflix.subtitles;
+
+import com.netflix.subtitles.util.SplitUtils;
+import com.netflix.subtitles.util.SplitUtils.Slice;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the per-cue cost of splitting overlapped cues (see {@link SplitUtils}) for 10k and 100k cues.
+ * Every third cue overlaps the previous one, and there are a few long cues overlapping hundreds of others.
+ * <p>
+ * It's not a unit test: it's run by the benchmark task only ('gradle :ttml2itt:benchmark') and just logs the timings.
+ * </p>
+ */
+public class SplitUtilsBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SplitUtilsBenchmark.class);
+
+    private static final int WARM_UP_RUNS = 3;
+    private static final int RUNS = 5;
+
+    @Test
+    public void testSplit10kCues() {
+        benchmark(10_000);
+    }
+
+    @Test
+    public void testSplit100kCues() {
+        benchmark(100_000);
+    }
+
+    private static void benchmark(int cueCount) {
+        List<Slice<Integer>> input = createCues(cueCount);
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            SplitUtils.split(input);
+        }
+
+        long total = 0;
+        List<Slice<Integer>> slices = null;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            slices = SplitUtils.split(input);
+            total += System.nanoTime() - start;
+        }
+        long nanosPerCue = total / RUNS / cueCount;
+        LOGGER.info("Split of {} cues into {} slices: {} ns per cue", cueCount, slices.size(), nanosPerCue);
+
+        // slices are subsequent and each cue is in at least one slice
+        long contents = 0;
+        for (int i = 0; i < slices.size(); i++) {
+            Slice<Integer> slice = slices.get(i);
+            assertTrue(slice.getBegin() < slice.getEnd());
+            assertTrue(i == 0 || slices.get(i - 1).getEnd() <= slice.getBegin());
+            contents += slice.getContents().size();
+        }
+        assertTrue(contents >= cueCount);
+        assertEquals(input.get(0).getBegin(), slices.get(0).getBegin());
+    }
+
+    private static List<Slice<Integer>> createCues(int cueCount) {
+        Random random = new Random(cueCount);
+        List<Slice<Integer>> input = new ArrayList<>(cueCount);
+        long begin = 0;
+        for (int i = 0; i < cueCount; i++) {
+            long duration = i % 1000 == 0 ? 200_000 : 1000 + random.nextInt(3000);
+            input.add(new Slice<>(begin, begin + duration, i));
+            begin += i % 3 == 0 ? duration / 2 : duration + random.nextInt(500);
+        }
+        return input;
+    }
+
+}
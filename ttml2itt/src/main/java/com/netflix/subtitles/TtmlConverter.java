@@ -167,7 +167,8 @@ public final class TtmlConverter {
                     "Output file %s cannot be written. Please check access rights.", params.getOutputFile()));
         }
 
-        ttmlTts = params.getTtmlOptions().stream().map((o) -> {
+        // inputs are independent: parse and reduce them in parallel (the order is kept for merging)
+        ttmlTts = params.getTtmlOptions().parallelStream().map((o) -> {
             TtEltype tt;
             try {
                 tt = XmlParser.parse(new File(o.getFileName()), new String[]{TTML_SCHEMA}, TTML_PACKAGES, TtEltype.class);
@@ -182,15 +183,16 @@ public final class TtmlConverter {
     }
 
     /**
-     * Converts all TTML input documents to corresponding iTT.
+     * Converts all TTML input documents to corresponding iTT. Documents are converted in parallel, the order of the
+     * converted documents is the same as the order of the inputs.
      *
      * @throws TransformerConfigurationException
      */
     public void convertInputsToItt() throws TransformerConfigurationException {
-        Transformer transformer = TtmlUtils.createTtmlTransformer(TTML_TO_ITT_TRANSFORMATION);
-
-        convertedItts = ttmlTts.stream()
-                .map((tt) -> TtmlUtils.transformTtmlDocument(tt, transformer))
+        // transformers are not thread-safe, but created from the cached compiled transformation
+        convertedItts = ttmlTts.parallelStream()
+                .map((tt) -> TtmlUtils.transformTtmlDocument(tt,
+                        TtmlUtils.createTtmlTransformer(TTML_TO_ITT_TRANSFORMATION)))
                 .collect(Collectors.toCollection(ArrayList::new));
 
         mergedItt = convertedItts.get(0);
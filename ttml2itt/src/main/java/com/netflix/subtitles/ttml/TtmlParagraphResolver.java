@@ -29,27 +29,23 @@ import org.w3.ns.ttml.DivEltype;
 import org.w3.ns.ttml.PEltype;
 import org.w3.ns.ttml.TtEltype;
 
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBElement;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
-import javax.xml.bind.util.JAXBSource;
-import javax.xml.namespace.QName;
 import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static com.netflix.subtitles.TtmlConverterConstants.TTML_PACKAGES;
-
 /**
  * Class to resolve TTML paragraphs &lt;p&gt; in accordance with iTT format.
  */
 public class TtmlParagraphResolver {
 
+    private static final List<Field> P_FIELDS = getInstanceFields(PEltype.class);
+
     private final TtEltype tt;
     private final BigFraction frameRate;
 
@@ -67,21 +63,20 @@ public class TtmlParagraphResolver {
                 .findFirst()
                 .orElseThrow(() -> new ConvertException("At least one <div> must be defined."));
 
-        List<PEltype> sliced = split(pStream(div.getBlockClass()))
-                .map(this::merge)
-                .collect(Collectors.toList());
+        List<PEltype> sliced = new ArrayList<>();
+        split(pStream(div.getBlockClass()), slice -> sliced.add(merge(slice)));
         div.getBlockClass().clear();
         div.getBlockClass().addAll(sliced);
     }
 
-    private Stream<Slice<PEltype>> split(Stream<PEltype> pStream) {
+    private void split(Stream<PEltype> pStream, Consumer<Slice<PEltype>> consumer) {
         SliceBuilder<PEltype> builder = new SliceBuilder<PEltype>()
                 .setBeginGetter(p -> ConversionHelper.smpteTimecodeToMilliSeconds(p.getBegin(), frameRate))
                 .setEndGetter(p -> ConversionHelper.smpteTimecodeToMilliSeconds(p.getEnd(), frameRate));
 
-        return SplitUtils.split(pStream
+        SplitUtils.split(pStream
                 .map(builder::build)
-                .collect(Collectors.toList())).stream();
+                .collect(Collectors.toList()), consumer);
     }
 
     private PEltype merge(Slice<PEltype> slice) {
@@ -107,40 +102,32 @@ public class TtmlParagraphResolver {
                 .map(PEltype.class::cast);
     }
 
-    private PEltype copy(PEltype p) {
-        List<Object> styles = new ArrayList<>(p.getStyle());
-        Object region = p.getRegion();
-
-        p.getStyle().clear();
-        p.setRegion(null);
-
-        PEltype targetP = deepCopy(p, PEltype.class, TTML_PACKAGES);
-
-        p.getStyle().addAll(styles);
-        p.setRegion(region);
-
-        targetP.getStyle().addAll(styles);
-        targetP.setRegion(region);
-
+    /**
+     * Creates a structural copy of the paragraph without a JAXB round trip.
+     * Attribute values are shared as they are either immutable or IDREF links to styles and regions
+     * which must stay the same objects, while lists are copied, so that the copy can be modified independently.
+     */
+    private static PEltype copy(PEltype p) {
+        PEltype targetP = new PEltype();
+        try {
+            for (Field field : P_FIELDS) {
+                Object value = field.get(p);
+                field.set(targetP, value instanceof List ? new ArrayList<>((List<?>) value) : value);
+            }
+        } catch (IllegalAccessException e) {
+            throw new ParseException("Time overlaps in <p> cannot be resolved.", e);
+        }
         return targetP;
     }
 
-    private static <T> T deepCopy(T object, Class<T> clazz, String packages) {
-        try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(packages);
-
-            //  create marshaller which disable validation step
-            Marshaller marshaller = jaxbContext.createMarshaller();
-            marshaller.setEventHandler(event -> true);
-
-            //  create unmarshaller which disable validation step
-            Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-            unmarshaller.setEventHandler(event -> true);
-
-            JAXBElement<T> contentObject = new JAXBElement<>(new QName(clazz.getName()), clazz, object);
-            return unmarshaller.unmarshal(new JAXBSource(marshaller, contentObject), clazz).getValue();
-        } catch (JAXBException e) {
-            throw new ParseException("Time overlaps in <p> cannot be resolved.", e);
+    private static List<Field> getInstanceFields(Class<?> clazz) {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : clazz.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                field.setAccessible(true);
+                fields.add(field);
+            }
         }
+        return fields;
     }
 }
@@ -20,6 +20,7 @@ package com.netflix.subtitles.ttml;
 
 import com.netflix.imfutility.resources.ResourceHelper;
 import com.netflix.imfutility.util.ConversionHelper;
+import com.netflix.imfutility.xml.XmlParser;
 import com.netflix.subtitles.exception.ConvertException;
 import org.apache.commons.math3.fraction.BigFraction;
 import org.w3.ns.ttml.BodyEltype;
@@ -33,6 +34,7 @@ import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.util.JAXBResult;
 import javax.xml.bind.util.JAXBSource;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -44,6 +46,8 @@ import java.math.BigInteger;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.netflix.subtitles.TtmlConverterConstants.STYLE_FIELD;
 import static com.netflix.subtitles.TtmlConverterConstants.TTML_PACKAGES;
@@ -54,6 +58,8 @@ import static com.netflix.subtitles.TtmlConverterConstants.XSLT2_TRANSFORMER_IMP
  */
 public final class TtmlUtils {
 
+    private static final ConcurrentMap<String, Templates> TEMPLATES = new ConcurrentHashMap<>();
+
     /**
      * Reduce timed objects according to start and end and normalize timeExpressions according to virtual track times.
      * <p></p>
@@ -171,22 +177,50 @@ public final class TtmlUtils {
     }
 
     /**
-     * Creates specific for TTML document JAXB context object.
+     * Gets specific for TTML document JAXB context object. The context is created only once and cached.
      *
      * @return specific for TTML document JAXB context object
      * @throws JAXBException
      */
     public static JAXBContext createTtmlJaxbContext() throws JAXBException {
-        return JAXBContext.newInstance(TTML_PACKAGES);
+        return XmlParser.getJaxbContext(TTML_PACKAGES);
     }
 
     /**
-     * Creates specific for TTML document transformer.
+     * Creates specific for TTML document transformer. The transformation is compiled only once and cached,
+     * so a new transformer is cheap. Transformers are not thread-safe: a transformer must be created for each thread.
      *
      * @param xslt xsl transformation file/resource
      * @return specific for TTML document transformer
      */
     public static Transformer createTtmlTransformer(String xslt) {
+        try {
+            return getTtmlTemplates(xslt).newTransformer();
+        } catch (TransformerConfigurationException e) {
+            throw new ConvertException(e);
+        }
+    }
+
+    /**
+     * Gets compiled transformation (thread-safe). The transformation is compiled only once and cached.
+     *
+     * @param xslt xsl transformation file/resource
+     * @return compiled transformation
+     */
+    public static Templates getTtmlTemplates(String xslt) {
+        Templates templates = TEMPLATES.get(xslt);
+        if (templates == null) {
+            // may be compiled twice by concurrent threads, but only one instance is cached
+            Templates newTemplates = compileTtmlTemplates(xslt);
+            templates = TEMPLATES.putIfAbsent(xslt, newTemplates);
+            if (templates == null) {
+                templates = newTemplates;
+            }
+        }
+        return templates;
+    }
+
+    private static Templates compileTtmlTemplates(String xslt) {
         TransformerFactory tf = TransformerFactory.newInstance(XSLT2_TRANSFORMER_IMPLEMENTATION, null);
         InputStream transformationStream = ResourceHelper.getResourceInputStream(xslt);
         if (transformationStream == null) {
@@ -194,7 +228,7 @@ public final class TtmlUtils {
         }
 
         try {
-            return tf.newTransformer(new StreamSource(transformationStream));
+            return tf.newTemplates(new StreamSource(transformationStream));
         } catch (TransformerConfigurationException e) {
             throw new ConvertException(e);
         }
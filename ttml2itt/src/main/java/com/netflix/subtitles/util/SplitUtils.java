@@ -19,13 +19,15 @@
 package com.netflix.subtitles.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 
 /**
  * Utility class for split.
@@ -45,47 +47,66 @@ public final class SplitUtils {
      */
     public static <T> List<Slice<T>> split(List<Slice<T>> input) {
         List<Slice<T>> slices = new ArrayList<>();
+        split(input, slices::add);
+        return slices;
+    }
 
-        Queue<Slice<T>> tails = new PriorityQueue<>(input.size(), Comparator.comparingLong(Slice::getBegin));
-        input.forEach(tails::offer);
-
-        Queue<Slice<T>> heads = new PriorityQueue<>(input.size(), Comparator.comparingLong(Slice::getEnd));
-        heads.offer(tails.poll());
-
-        long slicepoint = heads.peek().begin;
-
-        while (!heads.isEmpty() || !tails.isEmpty()) {
-            Slice head = heads.peek();
-            Slice tail = tails.peek();
-
-            boolean headEnd = tail == null || tail.begin > head.end;
-
-            long begin = Math.max(slicepoint, head.begin);
-            long end = headEnd ? head.end : tail.begin;
-
-            if (begin != end) {
-                Slice<T> slice = new Slice<>(begin, end);
-
-                heads.stream().sorted(Comparator.comparingInt(input::indexOf))
-                        .flatMap(Slice::contentStream)
-                        .forEach(slice.contents::add);
-
-                slices.add(slice);
-
-                slicepoint = slice.end;
+    /**
+     * Split input list in slices and pass each slice to the consumer as soon as it's built.
+     * Slices are emitted in time order, the contents of a slice are in the order of input items.
+     * <p>
+     * It's a sweep over the sorted begin and end points of input items, the items covering the current point
+     * are kept by their index in input, so it takes O(n log n) plus the total size of emitted contents.
+     * </p>
+     * <p>
+     * Invalid items (ending before they begin) are skipped.
+     * </p>
+     *
+     * @param input    list of input sliced with specified content.
+     * @param consumer a consumer of not overlapped slices.
+     * @param <T>      content type.
+     */
+    public static <T> void split(List<Slice<T>> input, Consumer<Slice<T>> consumer) {
+        Integer[] byBegin = IntStream.range(0, input.size())
+                .filter(i -> input.get(i).end >= input.get(i).begin)
+                .boxed()
+                .toArray(Integer[]::new);
+        Integer[] byEnd = byBegin.clone();
+        int size = byBegin.length;
+        Arrays.sort(byBegin, Comparator.comparingLong(i -> input.get(i).begin));
+        Arrays.sort(byEnd, Comparator.comparingLong(i -> input.get(i).end));
+
+        NavigableSet<Integer> active = new TreeSet<>();
+        int nextBegin = 0;
+        int nextEnd = 0;
+        while (nextEnd < size) {
+            long point = nextPoint(input, byBegin, nextBegin, byEnd, nextEnd);
+
+            // items ending at the point are closed before the ones beginning at the point are opened
+            for (; nextEnd < size && input.get(byEnd[nextEnd]).end == point; nextEnd++) {
+                active.remove(byEnd[nextEnd]);
             }
-
-            if (headEnd) {
-                heads.poll();
+            for (; nextBegin < size && input.get(byBegin[nextBegin]).begin == point; nextBegin++) {
+                // empty items don't cover any interval
+                if (input.get(byBegin[nextBegin]).end > point) {
+                    active.add(byBegin[nextBegin]);
+                }
             }
 
-            if (!headEnd || heads.isEmpty()) {
-                if (tail != null) {
-                    heads.offer(tails.poll());
+            // an active item is not closed yet, so there is a next end point
+            if (!active.isEmpty()) {
+                Slice<T> slice = new Slice<>(point, nextPoint(input, byBegin, nextBegin, byEnd, nextEnd));
+                for (Integer i : active) {
+                    slice.contents.addAll(input.get(i).contents);
                 }
+                consumer.accept(slice);
             }
         }
-        return slices;
+    }
+
+    private static <T> long nextPoint(List<Slice<T>> input, Integer[] byBegin, int nextBegin, Integer[] byEnd, int nextEnd) {
+        long end = input.get(byEnd[nextEnd]).end;
+        return nextBegin < byBegin.length ? Math.min(input.get(byBegin[nextBegin]).begin, end) : end;
     }
 
     /**
@@ -146,10 +167,6 @@ public final class SplitUtils {
             return contents;
         }
 
-        Stream<T> contentStream() {
-            return contents.stream();
-        }
-
         @Override
         public String toString() {
             return String.format("[%d,%d] {%s}", begin, end,
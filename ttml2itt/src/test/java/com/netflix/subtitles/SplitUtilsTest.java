@@ -22,9 +22,13 @@ import com.netflix.subtitles.util.SplitUtils;
 import com.netflix.subtitles.util.SplitUtils.Slice;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
 
 import static junit.framework.TestCase.assertEquals;
 
@@ -142,5 +146,96 @@ public class SplitUtilsTest {
         assertEquals("[12,13] {IX,X}", iterator.next().toString());
         assertEquals("[13,14] {IX}", iterator.next().toString());
     }
-}
 
+    @Test
+    public void testEmptyInput() {
+        assertEquals(0, SplitUtils.split(Collections.<Slice<String>>emptyList()).size());
+    }
+
+    @Test
+    public void testEmptySlices() {
+        List<Slice<String>> input = Arrays.asList(
+                new Slice<>(1, 6, "I"),
+                new Slice<>(3, 3, "II"),
+                new Slice<>(8, 8, "III"));
+
+        List<Slice<String>> slices = SplitUtils.split(input);
+
+        Iterator<Slice<String>> iterator = slices.iterator();
+        assertEquals(2, slices.size());
+        assertEquals("[1,3] {I}", iterator.next().toString());
+        assertEquals("[3,6] {I}", iterator.next().toString());
+    }
+
+    @Test
+    public void testInvalidSlicesSkipped() {
+        List<Slice<String>> input = Arrays.asList(
+                new Slice<>(1, 6, "I"),
+                new Slice<>(5, 2, "II"),
+                new Slice<>(9, 7, "III"),
+                new Slice<>(8, 10, "IV"));
+
+        List<Slice<String>> slices = SplitUtils.split(input);
+
+        Iterator<Slice<String>> iterator = slices.iterator();
+        assertEquals(2, slices.size());
+        assertEquals("[1,6] {I}", iterator.next().toString());
+        assertEquals("[8,10] {IV}", iterator.next().toString());
+    }
+
+    @Test
+    public void testSlicesEmittedInOrder() {
+        List<Slice<String>> input = Arrays.asList(
+                new Slice<>(7, 9, "I"),
+                new Slice<>(1, 4, "II"),
+                new Slice<>(3, 8, "III"));
+
+        List<String> emitted = new ArrayList<>();
+        SplitUtils.split(input, slice -> emitted.add(slice.toString()));
+
+        assertEquals(Arrays.asList("[1,3] {II}", "[3,4] {II,III}", "[4,7] {III}", "[7,8] {I,III}", "[8,9] {I}"), emitted);
+    }
+
+    @Test
+    public void testRandomSlices() {
+        Random random = new Random(12345);
+        for (int run = 0; run < 100; run++) {
+            List<Slice<Integer>> input = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                long begin = random.nextInt(100);
+                input.add(new Slice<>(begin, begin + random.nextInt(20), i));
+            }
+
+            assertEquals(splitByPoints(input).toString(), SplitUtils.split(input).toString());
+        }
+    }
+
+    /**
+     * A straightforward reference: a slice between each pair of subsequent points contains all items covering it.
+     */
+    private static List<Slice<Integer>> splitByPoints(List<Slice<Integer>> input) {
+        TreeSet<Long> points = new TreeSet<>();
+        input.forEach(item -> {
+            points.add(item.getBegin());
+            points.add(item.getEnd());
+        });
+
+        List<Slice<Integer>> result = new ArrayList<>();
+        Long begin = null;
+        for (Long end : points) {
+            if (begin != null) {
+                Slice<Integer> slice = new Slice<>(begin, end);
+                for (Slice<Integer> item : input) {
+                    if (item.getBegin() <= begin && item.getEnd() >= end) {
+                        slice.getContents().addAll(item.getContents());
+                    }
+                }
+                if (!slice.getContents().isEmpty()) {
+                    result.add(slice);
+                }
+            }
+            begin = end;
+        }
+        return result;
+    }
+}
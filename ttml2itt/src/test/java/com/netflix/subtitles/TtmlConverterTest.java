@@ -155,6 +155,38 @@ public class TtmlConverterTest {
     }
 
 
+    @Test
+    public void convertingManyInputsKeepsOrder() throws Exception {
+        /* PREPARATION */
+        File tmpOut = File.createTempFile("ttl2itt", ".itt");
+        tmpOut.deleteOnExit();
+
+        TtmlConverterCmdLineParams params = new TtmlConverterCmdLineParams();
+        params.setOutputFile(tmpOut.getAbsolutePath());
+        for (int i = 0; i < 16; i++) {
+            params.getTtmlOptions()
+                    .add(new TtmlOptionBuilder()
+                            .withFileName(getTtmlFile(i % 2 == 0 ? "xml/valid-ttml-2997-ndf.xml" : "xml/valid-itt-2397-ndf.itt"))
+                            .withOffsetMS(i * 5000)
+                            .withStartMS(i % 2 == 0 ? 15000 : 256000)
+                            .withEndMS(i % 2 == 0 ? 19000 : Long.MAX_VALUE)
+                            .build());
+        }
+
+        TtmlConverter converter = new TtmlConverter(params);
+
+        /* EXECUTION */
+        converter.convertInputsToItt();
+
+        /* VALIDATION */
+        assertEquals(16, converter.getConvertedItts().size());
+        for (int i = 0; i < 16; i++) {
+            TtEltype tt = converter.getConvertedItts().get(i);
+            assertEquals(i % 2 == 0 ? 30 : 24, tt.getFrameRate().intValue());
+            assertEquals(i % 2 == 0 ? 4 : 1, tt.getBody().getDiv().get(0).getBlockClass().size());
+        }
+    }
+
     private String getTtmlFile(String resourcePath) {
         return ClassLoader.getSystemClassLoader().getResource(resourcePath).getFile();
     }
@@ -22,6 +22,7 @@ import com.netflix.subtitles.util.TtmlTestUtils;
 import org.junit.Test;
 import org.w3.ns.ttml.PEltype;
 import org.w3.ns.ttml.TtEltype;
+import org.w3.ns.ttml_datatype.TextAlign;
 
 import java.io.Serializable;
 import java.util.Iterator;
@@ -29,7 +30,9 @@ import java.util.Iterator;
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
@@ -221,4 +224,29 @@ public class TtmlParagraphResolverTest {
         assertArrayEquals(new Object[]{}, TtmlTestUtils.getPStyle(iterator.next()));
     }
 
+    @Test
+    public void testAttributesCopied() {
+        PEltype p1 = TtmlTestUtils.createPWithRegionAndStyle("00:00:01:00", "00:00:08:00", "p1", "region1", "style1");
+        p1.setTextAlign(TextAlign.CENTER);
+        p1.setLang("en");
+        PEltype p2 = TtmlTestUtils.createP("00:00:03:00", "00:00:10:00", "p2");
+        TtEltype tt = TtmlTestUtils.wrapPs(p1, p2);
+
+        new TtmlParagraphResolver(tt).resolveTimeOverlaps();
+
+        Iterator<Object> iterator = tt.getBody().getDiv().get(0).getBlockClass().iterator();
+        PEltype slice1 = (PEltype) iterator.next();
+        PEltype slice2 = (PEltype) iterator.next();
+        assertEquals(TextAlign.CENTER, slice1.getTextAlign());
+        assertEquals(TextAlign.CENTER, slice2.getTextAlign());
+        assertEquals("en", slice2.getLang());
+        assertSame(p1.getRegion(), slice2.getRegion());
+        assertNotSame(p1.getStyle(), slice2.getStyle());
+        assertNotSame(slice1.getContent(), slice2.getContent());
+
+        // the original paragraph is not changed
+        assertEquals("00:00:08:00", p1.getEnd());
+        assertArrayEquals(new Serializable[]{"p1"}, p1.getContent().toArray());
+    }
+
 }
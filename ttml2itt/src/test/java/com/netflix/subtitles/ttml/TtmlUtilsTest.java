@@ -27,16 +27,20 @@ import org.w3.ns.ttml.HeadEltype;
 import org.w3.ns.ttml.StylingEltype;
 import org.w3.ns.ttml.TtEltype;
 
+import javax.xml.transform.Templates;
 import java.lang.reflect.Field;
 import java.math.BigInteger;
 import java.util.stream.Collectors;
 
 import static com.netflix.subtitles.TtmlConverterConstants.STYLE_FIELD;
+import static com.netflix.subtitles.TtmlConverterConstants.TTML_TO_ITT_TRANSFORMATION;
 import static com.netflix.subtitles.util.TtmlTestUtils.createStyle;
 import static com.netflix.subtitles.util.TtmlTestUtils.getPBegin;
 import static com.netflix.subtitles.util.TtmlTestUtils.getPEnd;
 import static com.netflix.subtitles.util.TtmlTestUtils.p;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 /**
  * Tests TTML utilities methods: reduce document by time, style mover and etc.
@@ -144,4 +148,13 @@ public class TtmlUtilsTest {
         assertEquals("style0 style1 style2 style4", p(div.getBlockClass().get(1))
                 .getStyle().stream().map(Object::toString).collect(Collectors.joining(" ")));
     }
+
+    @Test
+    public void compiledTransformationIsCached() {
+        Templates templates = TtmlUtils.getTtmlTemplates(TTML_TO_ITT_TRANSFORMATION);
+
+        assertSame(templates, TtmlUtils.getTtmlTemplates(TTML_TO_ITT_TRANSFORMATION));
+        assertNotSame(TtmlUtils.createTtmlTransformer(TTML_TO_ITT_TRANSFORMATION),
+                TtmlUtils.createTtmlTransformer(TTML_TO_ITT_TRANSFORMATION));
+    }
 }